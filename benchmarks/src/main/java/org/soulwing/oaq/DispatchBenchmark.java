@@ -0,0 +1,197 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.ServerSession;
+import javax.jms.Connection;
+import javax.resource.spi.endpoint.MessageEndpointFactory;
+import javax.resource.spi.work.WorkManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.soulwing.oaq.container.BenchmarkEndpointFactory;
+import org.soulwing.oaq.container.ExecutorWorkManager;
+import org.soulwing.oaq.memory.MemoryBroker;
+import org.soulwing.oaq.memory.MemoryConnectionFactory;
+import org.soulwing.oaq.memory.MemoryTextMessage;
+import org.soulwing.oaq.memory.MemoryXASession;
+
+/**
+ * Measures the inbound dispatch path of an endpoint: from
+ * {@link javax.jms.ServerSessionPool#getServerSession()}, through
+ * {@link ServerSessionWork#run()} and
+ * {@link MessageEndpointProxy#onMessage(Message)}, to the release of the
+ * session back to the pool.
+ * <p>
+ * The benchmark thread plays the role of the provider's connection
+ * consumer: each operation borrows a session, assigns it
+ * {@code maxMessages} messages, and starts it.  With synchronous dispatch
+ * an operation includes delivery of all of the messages.  With
+ * asynchronous dispatch an operation completes once the session has been
+ * scheduled, so in the steady state the rate of operations is limited by
+ * how quickly the pooled sessions are returned.
+ * <p>
+ * The {@code throughput} benchmark reports operations (batches of
+ * {@code maxMessages} messages) per second.  The {@code latency} benchmark
+ * samples the time for each operation and reports percentiles, including
+ * p50, p99 and p99.9.
+ *
+ * @author Carl Harris
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+  @Param({ "1", "8", "32" })
+  public int sessions;
+
+  @Param({ "1", "10", "50" })
+  public int maxMessages;
+
+  @Param({ "false", "true" })
+  public boolean asynchronousDispatch;
+
+  @Param({ "100" })
+  public long listenerTokens;
+
+  private ExecutorWorkManager workManager;
+  private StripedServerSessionPool sessionPool;
+  private Connection connection;
+  private Message[] messages;
+
+  @Setup
+  public void setUp() throws JMSException {
+    MessageActivationSpec activationSpec = new MessageActivationSpec();
+    activationSpec.setMaxMessages(maxMessages);
+    activationSpec.setMaxSessions(sessions);
+    activationSpec.setAsynchronousDispatch(asynchronousDispatch);
+
+    workManager = new ExecutorWorkManager(sessions);
+    Details details = new Details(workManager,
+        new BenchmarkEndpointFactory(true, listenerTokens), activationSpec);
+
+    ServerSessionFactory sessionFactory = new ServerSessionFactory(details);
+    sessionPool = new StripedServerSessionPool(sessionFactory, sessions);
+    sessionFactory.setSessionPool(sessionPool);
+    connection = details.createConnection();
+    sessionFactory.addConnection(connection);
+
+    messages = new Message[maxMessages];
+    for (int i = 0; i < maxMessages; i++) {
+      messages[i] = new MemoryTextMessage("message " + i);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    workManager.shutdown();
+    sessionPool.close();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public void throughput() throws JMSException {
+    dispatch();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void latency() throws JMSException {
+    dispatch();
+  }
+
+  private void dispatch() throws JMSException {
+    ServerSession serverSession = sessionPool.getServerSession(connection);
+    MemoryXASession session = (MemoryXASession) serverSession.getSession();
+    for (int i = 0; i < messages.length; i++) {
+      session.assign(messages[i]);
+    }
+    serverSession.start();
+  }
+
+  /**
+   * Endpoint details for the benchmark.
+   */
+  private static class Details implements MessageEndpointDetails {
+
+    private final WorkManager workManager;
+    private final MessageEndpointFactory endpointFactory;
+    private final MessageActivationSpec activationSpec;
+
+    /**
+     * Constructs a new instance.
+     * @param workManager work manager
+     * @param endpointFactory endpoint factory
+     * @param activationSpec activation spec
+     */
+    public Details(WorkManager workManager,
+        MessageEndpointFactory endpointFactory,
+        MessageActivationSpec activationSpec) {
+      this.workManager = workManager;
+      this.endpointFactory = endpointFactory;
+      this.activationSpec = activationSpec;
+    }
+
+    @Override
+    public WorkManager getWorkManager() {
+      return workManager;
+    }
+
+    @Override
+    public MessageEndpointFactory getEndpointFactory() {
+      return endpointFactory;
+    }
+
+    @Override
+    public MessageActivationSpec getActivationSpec() {
+      return activationSpec;
+    }
+
+    @Override
+    public boolean isDeliveryTransacted() {
+      return true;
+    }
+
+    @Override
+    public Connection createConnection() throws JMSException {
+      return new MemoryConnectionFactory(new MemoryBroker())
+          .createXAConnection();
+    }
+
+  }
+
+}
@@ -0,0 +1,227 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.naming.Context;
+import javax.resource.ResourceException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.soulwing.oaq.container.BenchmarkBootstrapContext;
+import org.soulwing.oaq.container.BenchmarkEndpointFactory;
+import org.soulwing.oaq.container.ExecutorWorkManager;
+import org.soulwing.oaq.memory.MemoryBroker;
+import org.soulwing.oaq.memory.MemoryConnectionFactory;
+import org.soulwing.oaq.memory.MemoryInitialContextFactory;
+
+/**
+ * Measures end-to-end throughput of an endpoint activated on a
+ * {@link MemoryResourceAdapter}.
+ * <p>
+ * Each operation sends a batch of messages to the endpoint's queue in a
+ * single transaction and waits until the endpoint has received all of
+ * them, so the score is the rate at which messages flow through the
+ * whole inbound path: the broker's connection consumer, the session pool,
+ * server session work, the endpoint proxy, and the XA transaction
+ * started and committed by the stand-in container.  Use the
+ * {@code dequeueLatency} and {@code commitLatency} parameters (in
+ * microseconds) to approximate the round trips to a database, and the
+ * {@code batchSize} parameter to deliver several messages in each
+ * transaction.  Set the {@code deliveryTransacted} parameter to 
+ * {@code false} to measure the non-XA path, in which each message is
+ * automatically acknowledged, or acknowledged lazily in batches when the 
+ * {@code acknowledgeMode} parameter is {@code Dups-ok-acknowledge}.
+ * The {@code connectionCount} parameter sets the number of connections
+ * (and connection consumers) that dequeue messages for the endpoint, and
+ * a non-zero {@code prefetchSize} replaces the provider's connection 
+ * consumer with the adapter's prefetching poller sessions (for endpoints
+ * that are not delivery-transacted and use Dups-ok-acknowledge mode).  Set the {@code adaptiveConcurrency}
+ * parameter to {@code true} to let the endpoint adjust its session limit 
+ * between one and {@code sessions}.
+ *
+ * @author Carl Harris
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EndpointBenchmark {
+
+  static final String QUEUE_NAME = "BENCHMARK_QUEUE";
+  static final String QUEUE_LOOKUP_NAME = "queue/benchmark";
+
+  private static final int BATCH_SIZE = 1000;
+  private static final int PREFETCH_POLLERS = 2;
+
+  @Param({ "8", "32" })
+  public int sessions;
+
+  @Param({ "1", "10" })
+  public int maxMessages;
+
+  @Param({ "true" })
+  public boolean asynchronousDispatch;
+
+  @Param({ "1" })
+  public int batchSize;
+
+  @Param({ "true" })
+  public boolean deliveryTransacted;
+
+  @Param({ "Auto-acknowledge" })
+  public String acknowledgeMode;
+
+  @Param({ "1" })
+  public int connectionCount;
+
+  @Param({ "0" })
+  public int prefetchSize;
+
+  @Param({ "false" })
+  public boolean adaptiveConcurrency;
+
+  @Param({ "0", "200" })
+  public long dequeueLatency;
+
+  @Param({ "0", "1000" })
+  public long commitLatency;
+
+  @Param({ "100" })
+  public long listenerTokens;
+
+  private MemoryBroker broker;
+  private ExecutorWorkManager workManager;
+  private MemoryResourceAdapter resourceAdapter;
+  private MessageActivationSpec activationSpec;
+  private BenchmarkEndpointFactory endpointFactory;
+  private Connection connection;
+  private Session session;
+  private MessageProducer producer;
+  private Message message;
+
+  @Setup
+  public void setUp() throws ResourceException, JMSException {
+    broker = new MemoryBroker();
+    broker.setDequeueLatency(dequeueLatency);
+    broker.setCommitLatency(commitLatency);
+
+    // prefetch pollers and dispatchers occupy threads of their own
+    workManager = new ExecutorWorkManager(sessions + (prefetchSize > 0 ?
+        connectionCount * (PREFETCH_POLLERS + 1) : 0));
+    resourceAdapter = new MemoryResourceAdapter(broker);
+    resourceAdapter.start(new BenchmarkBootstrapContext(workManager));
+
+    activationSpec = newActivationSpec(broker, resourceAdapter);
+    activationSpec.setMaxSessions(sessions);
+    activationSpec.setMaxMessages(maxMessages);
+    activationSpec.setAsynchronousDispatch(asynchronousDispatch);
+    activationSpec.setBatchSize(batchSize);
+    activationSpec.setAcknowledgeMode(acknowledgeMode);
+    activationSpec.setConnectionCount(connectionCount);
+    activationSpec.setPrefetchSize(prefetchSize);
+    activationSpec.setAdaptiveConcurrency(adaptiveConcurrency);
+    activationSpec.setPollerCount(PREFETCH_POLLERS);
+
+    endpointFactory = new BenchmarkEndpointFactory(deliveryTransacted, 
+        listenerTokens);
+    resourceAdapter.endpointActivation(endpointFactory, activationSpec);
+
+    connection = new MemoryConnectionFactory(broker).createConnection();
+    session = connection.createSession(true, Session.SESSION_TRANSACTED);
+    producer = session.createProducer(broker.getQueue(QUEUE_NAME));
+    message = session.createTextMessage("benchmark");
+  }
+
+  @TearDown
+  public void tearDown() throws JMSException, InterruptedException {
+    connection.close();
+    resourceAdapter.endpointDeactivation(endpointFactory, activationSpec);
+    resourceAdapter.stop();
+    workManager.shutdown();
+    MemoryInitialContextFactory.clear();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @OperationsPerInvocation(BATCH_SIZE)
+  public void throughput() throws JMSException {
+    long target = endpointFactory.getDeliveryCount() + BATCH_SIZE;
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      producer.send(message);
+    }
+    session.commit();
+    awaitDeliveries(endpointFactory, target);
+  }
+
+  /**
+   * Creates an activation spec for the benchmark queue.
+   * <p>
+   * The queue is bound in the in-memory JNDI namespace, which is
+   * installed as the initial context factory.
+   * @param broker broker that holds the queue
+   * @param resourceAdapter resource adapter for the spec
+   * @return activation spec
+   * @throws ResourceException
+   */
+  static MessageActivationSpec newActivationSpec(MemoryBroker broker,
+      MemoryResourceAdapter resourceAdapter) throws ResourceException {
+    System.setProperty(Context.INITIAL_CONTEXT_FACTORY,
+        MemoryInitialContextFactory.class.getName());
+    MemoryInitialContextFactory.bind(QUEUE_LOOKUP_NAME,
+        broker.getQueue(QUEUE_NAME));
+    MessageActivationSpec activationSpec = new MessageActivationSpec();
+    activationSpec.setResourceAdapter(resourceAdapter);
+    activationSpec.setDestination(QUEUE_LOOKUP_NAME);
+    activationSpec.setDestinationType(javax.jms.Queue.class.getName());
+    return activationSpec;
+  }
+
+  /**
+   * Waits until an endpoint factory's delivery count reaches a target.
+   * @param endpointFactory the subject endpoint factory
+   * @param target target delivery count
+   */
+  static void awaitDeliveries(BenchmarkEndpointFactory endpointFactory,
+      long target) {
+    while (endpointFactory.getDeliveryCount() < target) {
+      LockSupport.parkNanos(10000);
+    }
+  }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Session;
+import javax.resource.ResourceException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.soulwing.oaq.container.BenchmarkBootstrapContext;
+import org.soulwing.oaq.container.BenchmarkEndpointFactory;
+import org.soulwing.oaq.container.ExecutorWorkManager;
+import org.soulwing.oaq.memory.MemoryBroker;
+import org.soulwing.oaq.memory.MemoryConnectionFactory;
+import org.soulwing.oaq.memory.MemoryInitialContextFactory;
+
+/**
+ * Measures how long an endpoint activated on a
+ * {@link MemoryResourceAdapter} takes to resume delivery after its
+ * connection to the broker is lost.
+ * <p>
+ * Each operation fails all of the broker's connections, optionally keeps
+ * the broker unavailable for an {@code outage} (in milliseconds), sends
+ * a single message, and waits until the endpoint receives it.  The score
+ * is the time from the failure to the first delivery on the new
+ * connection.
+ *
+ * @author Carl Harris
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FailoverBenchmark {
+
+  @Param({ "0", "500" })
+  public long outage;
+
+  @Param({ "8" })
+  public int sessions;
+
+  private final Timer timer = new Timer(true);
+
+  private MemoryBroker broker;
+  private ExecutorWorkManager workManager;
+  private MemoryResourceAdapter resourceAdapter;
+  private MessageActivationSpec activationSpec;
+  private BenchmarkEndpointFactory endpointFactory;
+
+  @Setup
+  public void setUp() throws ResourceException {
+    broker = new MemoryBroker();
+    workManager = new ExecutorWorkManager(sessions);
+    resourceAdapter = new MemoryResourceAdapter(broker);
+    resourceAdapter.start(new BenchmarkBootstrapContext(workManager));
+
+    activationSpec = EndpointBenchmark.newActivationSpec(broker,
+        resourceAdapter);
+    activationSpec.setMaxSessions(sessions);
+    activationSpec.setAsynchronousDispatch(true);
+
+    endpointFactory = new BenchmarkEndpointFactory(true, 0);
+    resourceAdapter.endpointActivation(endpointFactory, activationSpec);
+  }
+
+  @Setup(Level.Iteration)
+  public void awaitConnection() throws JMSException {
+    long target = endpointFactory.getDeliveryCount() + 1;
+    send();
+    EndpointBenchmark.awaitDeliveries(endpointFactory, target);
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    timer.cancel();
+    resourceAdapter.endpointDeactivation(endpointFactory, activationSpec);
+    resourceAdapter.stop();
+    workManager.shutdown();
+    MemoryInitialContextFactory.clear();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void recover() throws JMSException {
+    long target = endpointFactory.getDeliveryCount() + 1;
+    if (outage > 0) {
+      broker.setAvailable(false);
+      broker.failConnections();
+      timer.schedule(new TimerTask() {
+        @Override
+        public void run() {
+          broker.setAvailable(true);
+          try {
+            send();
+          }
+          catch (JMSException ex) {
+            throw new RuntimeException(ex);
+          }
+        }
+      }, outage);
+    }
+    else {
+      broker.failConnections();
+      send();
+    }
+    EndpointBenchmark.awaitDeliveries(endpointFactory, target);
+  }
+
+  private void send() throws JMSException {
+    Connection connection =
+        new MemoryConnectionFactory(broker).createConnection();
+    try {
+      Session session = connection.createSession();
+      session.createProducer(broker.getQueue(EndpointBenchmark.QUEUE_NAME))
+          .send(session.createTextMessage("failover"));
+    }
+    finally {
+      connection.close();
+    }
+  }
+
+}
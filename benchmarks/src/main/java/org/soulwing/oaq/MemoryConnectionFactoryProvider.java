@@ -0,0 +1,64 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import javax.jms.ConnectionFactory;
+import javax.jms.XAConnectionFactory;
+
+import org.soulwing.oaq.memory.MemoryBroker;
+import org.soulwing.oaq.memory.MemoryConnectionFactory;
+
+/**
+ * A {@link MessageConnectionFactoryProvider} that provides connection
+ * factories for an in-memory broker in place of Oracle AQ.
+ *
+ * @author Carl Harris
+ */
+class MemoryConnectionFactoryProvider
+    implements MessageConnectionFactoryProvider {
+
+  private final MemoryBroker broker;
+
+  /**
+   * Constructs a new instance.
+   * @param broker the broker to which connections are made
+   */
+  public MemoryConnectionFactoryProvider(MemoryBroker broker) {
+    this.broker = broker;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public XAConnectionFactory createConnectionFactory(
+      OAQConnectionRequestInfo info) {
+    return new MemoryConnectionFactory(broker);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ConnectionFactory createNonXAConnectionFactory(
+      OAQConnectionRequestInfo info) {
+    return new MemoryConnectionFactory(broker);
+  }
+
+}
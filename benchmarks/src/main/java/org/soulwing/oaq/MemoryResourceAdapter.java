@@ -0,0 +1,44 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import org.soulwing.oaq.memory.MemoryBroker;
+
+/**
+ * An {@link OAQResourceAdapter} whose connections are made to an
+ * in-memory broker rather than an Oracle database.
+ * <p>
+ * Apart from the connection factory, the adapter is exactly the adapter
+ * that is deployed in the container, so it can be used to load test the
+ * inbound path (connector, session pool, dispatch, and endpoint proxy)
+ * without a database.
+ *
+ * @author Carl Harris
+ */
+public class MemoryResourceAdapter extends OAQResourceAdapter {
+
+  /**
+   * Constructs a new instance.
+   * @param broker the broker to which connections are made
+   */
+  public MemoryResourceAdapter(MemoryBroker broker) {
+    super(new MemoryConnectionFactoryProvider(broker));
+  }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.JMSException;
+import javax.jms.ServerSession;
+import javax.jms.Session;
+
+import org.apache.commons.pool.BasePoolableObjectFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the borrow/release cost of the {@link MutableServerSessionPool}
+ * implementations.
+ * <p>
+ * Each concrete subclass runs the same benchmark with as many threads as
+ * the pool has sessions, so that every thread is always able to obtain a
+ * session and the measurement reflects contention on the pool itself
+ * rather than waiting for a session to be returned.
+ *
+ * @author Carl Harris
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class ServerSessionPoolBenchmark {
+
+  @Param({ "commons", "striped" })
+  public String pool;
+
+  private MutableServerSessionPool sessionPool;
+
+  /**
+   * Gets the number of sessions in the pool (and the number of threads
+   * that borrow from it).
+   * @return number of sessions
+   */
+  protected abstract int sessions();
+
+  @Setup
+  public void setUp() {
+    SessionFactory factory = new SessionFactory();
+    if ("commons".equals(pool)) {
+      CommonsServerSessionPool commonsPool =
+          new CommonsServerSessionPool(null, factory);
+      commonsPool.setMaxActive(sessions());
+      commonsPool.setMaxIdle(sessions());
+      sessionPool = commonsPool;
+    }
+    else if ("striped".equals(pool)) {
+      sessionPool = new StripedServerSessionPool(factory, sessions());
+    }
+    else {
+      throw new IllegalArgumentException("unrecognized pool: " + pool);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    sessionPool.close();
+  }
+
+  @Benchmark
+  public ServerSession borrowAndRelease() throws JMSException {
+    ServerSession session = sessionPool.getServerSession();
+    sessionPool.releaseSession(session);
+    return session;
+  }
+
+  @Threads(8)
+  public static class Sessions8 extends ServerSessionPoolBenchmark {
+    @Override
+    protected int sessions() {
+      return 8;
+    }
+  }
+
+  @Threads(32)
+  public static class Sessions32 extends ServerSessionPoolBenchmark {
+    @Override
+    protected int sessions() {
+      return 32;
+    }
+  }
+
+  @Threads(128)
+  public static class Sessions128 extends ServerSessionPoolBenchmark {
+    @Override
+    protected int sessions() {
+      return 128;
+    }
+  }
+
+  /**
+   * A factory that produces inert server sessions.
+   */
+  private static class SessionFactory
+      extends BasePoolableObjectFactory<ServerSession> {
+
+    @Override
+    public ServerSession makeObject() {
+      return new InertServerSession();
+    }
+
+  }
+
+  /**
+   * A server session that does nothing.
+   */
+  private static class InertServerSession implements ServerSession {
+
+    @Override
+    public Session getSession() {
+      return null;
+    }
+
+    @Override
+    public void start() {
+    }
+
+  }
+
+}
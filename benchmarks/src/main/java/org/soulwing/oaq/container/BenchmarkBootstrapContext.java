@@ -0,0 +1,74 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.container;
+
+import java.util.Timer;
+
+import javax.resource.spi.BootstrapContext;
+import javax.resource.spi.XATerminator;
+import javax.resource.spi.work.WorkContext;
+import javax.resource.spi.work.WorkManager;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * A {@link BootstrapContext} that stands in for the container's bootstrap
+ * context.
+ *
+ * @author Carl Harris
+ */
+public class BenchmarkBootstrapContext implements BootstrapContext {
+
+  private final WorkManager workManager;
+
+  /**
+   * Constructs a new instance.
+   * @param workManager the work manager provided to the adapter
+   */
+  public BenchmarkBootstrapContext(WorkManager workManager) {
+    this.workManager = workManager;
+  }
+
+  @Override
+  public WorkManager getWorkManager() {
+    return workManager;
+  }
+
+  @Override
+  public XATerminator getXATerminator() {
+    return null;
+  }
+
+  @Override
+  public Timer createTimer() {
+    return new Timer(true);
+  }
+
+  @Override
+  public boolean isContextSupported(
+      Class<? extends WorkContext> workContextClass) {
+    return false;
+  }
+
+  @Override
+  public TransactionSynchronizationRegistry
+      getTransactionSynchronizationRegistry() {
+    return null;
+  }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.container;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.resource.ResourceException;
+import javax.resource.spi.UnavailableException;
+import javax.resource.spi.endpoint.MessageEndpoint;
+import javax.resource.spi.endpoint.MessageEndpointFactory;
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.XAResource;
+import javax.transaction.xa.Xid;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * A {@link MessageEndpointFactory} that stands in for the container's
+ * endpoint factory for a message-driven bean.
+ * <p>
+ * When delivery is transacted, each endpoint starts a transaction branch
+ * on its {@link XAResource} in {@code beforeDelivery} and commits it (in
+ * one phase) in {@code afterDelivery}, as the container's transaction
+ * manager would for a bean with a single enlisted resource.  The
+ * listener method itself consumes a configurable number of CPU tokens.
+ *
+ * @author Carl Harris
+ */
+public class BenchmarkEndpointFactory implements MessageEndpointFactory {
+
+  private static final AtomicLong transactionIds = new AtomicLong();
+
+  private final AtomicLong deliveryCount = new AtomicLong();
+
+  private final boolean deliveryTransacted;
+  private final long listenerTokens;
+
+  /**
+   * Constructs a new instance.
+   * @param deliveryTransacted flag indicating whether deliveries are
+   *    transacted
+   * @param listenerTokens number of CPU tokens consumed by each call
+   *    to the listener method
+   */
+  public BenchmarkEndpointFactory(boolean deliveryTransacted,
+      long listenerTokens) {
+    this.deliveryTransacted = deliveryTransacted;
+    this.listenerTokens = listenerTokens;
+  }
+
+  /**
+   * Gets the number of messages delivered to the factory's endpoints.
+   * @return delivery count
+   */
+  public long getDeliveryCount() {
+    return deliveryCount.get();
+  }
+
+  @Override
+  public MessageEndpoint createEndpoint(XAResource resource)
+      throws UnavailableException {
+    return new BenchmarkEndpoint(deliveryTransacted ? resource : null);
+  }
+
+  @Override
+  public MessageEndpoint createEndpoint(XAResource resource, long timeout)
+      throws UnavailableException {
+    return createEndpoint(resource);
+  }
+
+  @Override
+  public boolean isDeliveryTransacted(Method method) {
+    return deliveryTransacted;
+  }
+
+  @Override
+  public String getActivationName() {
+    return getClass().getSimpleName();
+  }
+
+  @Override
+  public Class<?> getEndpointClass() {
+    return BenchmarkEndpoint.class;
+  }
+
+  /**
+   * A message endpoint for the benchmark.
+   */
+  private class BenchmarkEndpoint implements MessageEndpoint,
+      MessageListener {
+
+    private final XAResource resource;
+    private Xid xid;
+
+    /**
+     * Constructs a new instance.
+     * @param resource resource to enlist in each delivery transaction
+     *    or {@code null} if deliveries are not transacted
+     */
+    public BenchmarkEndpoint(XAResource resource) {
+      this.resource = resource;
+    }
+
+    @Override
+    public void beforeDelivery(Method method) throws ResourceException {
+      if (resource == null) return;
+      xid = new BenchmarkXid(transactionIds.incrementAndGet());
+      try {
+        resource.start(xid, XAResource.TMNOFLAGS);
+      }
+      catch (XAException ex) {
+        throw new ResourceException(ex);
+      }
+    }
+
+    @Override
+    public void onMessage(Message message) {
+      Blackhole.consumeCPU(listenerTokens);
+      deliveryCount.incrementAndGet();
+    }
+
+    @Override
+    public void afterDelivery() throws ResourceException {
+      if (resource == null) return;
+      try {
+        resource.end(xid, XAResource.TMSUCCESS);
+        resource.commit(xid, true);
+      }
+      catch (XAException ex) {
+        throw new ResourceException(ex);
+      }
+      finally {
+        xid = null;
+      }
+    }
+
+    @Override
+    public void release() {
+    }
+
+  }
+
+  /**
+   * A transaction branch identifier.
+   */
+  private static class BenchmarkXid implements Xid {
+
+    private static final int FORMAT_ID = 0x4f4151;
+
+    private final byte[] globalTransactionId;
+
+    /**
+     * Constructs a new instance.
+     * @param id transaction sequence number
+     */
+    public BenchmarkXid(long id) {
+      this.globalTransactionId = ByteBuffer.allocate(8).putLong(id).array();
+    }
+
+    @Override
+    public int getFormatId() {
+      return FORMAT_ID;
+    }
+
+    @Override
+    public byte[] getGlobalTransactionId() {
+      return globalTransactionId;
+    }
+
+    @Override
+    public byte[] getBranchQualifier() {
+      return new byte[0];
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(globalTransactionId);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) return true;
+      if (!(obj instanceof Xid)) return false;
+      Xid that = (Xid) obj;
+      return this.getFormatId() == that.getFormatId()
+          && Arrays.equals(this.getGlobalTransactionId(),
+              that.getGlobalTransactionId())
+          && Arrays.equals(this.getBranchQualifier(),
+              that.getBranchQualifier());
+    }
+
+  }
+
+}
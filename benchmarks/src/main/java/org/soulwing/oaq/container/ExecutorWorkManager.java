@@ -0,0 +1,154 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.container;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.resource.spi.work.ExecutionContext;
+import javax.resource.spi.work.Work;
+import javax.resource.spi.work.WorkAdapter;
+import javax.resource.spi.work.WorkCompletedException;
+import javax.resource.spi.work.WorkEvent;
+import javax.resource.spi.work.WorkException;
+import javax.resource.spi.work.WorkListener;
+import javax.resource.spi.work.WorkManager;
+import javax.resource.spi.work.WorkRejectedException;
+
+/**
+ * A {@link WorkManager} that stands in for the container's work manager.
+ * <p>
+ * Work submitted using {@code doWork} runs on the calling thread.  Work
+ * submitted using {@code startWork} or {@code scheduleWork} runs on a
+ * fixed-size thread pool.
+ *
+ * @author Carl Harris
+ */
+public class ExecutorWorkManager implements WorkManager {
+
+  private static final WorkListener NULL_LISTENER = new WorkAdapter();
+
+  private final ExecutorService executor;
+
+  /**
+   * Constructs a new instance.
+   * @param threads number of threads available to run work
+   */
+  public ExecutorWorkManager(int threads) {
+    this.executor = Executors.newFixedThreadPool(threads);
+  }
+
+  /**
+   * Stops accepting work and waits for work in progress to complete.
+   * @throws InterruptedException
+   */
+  public void shutdown() throws InterruptedException {
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.MINUTES);
+  }
+
+  @Override
+  public void doWork(Work work) throws WorkException {
+    doWork(work, INDEFINITE, null, null);
+  }
+
+  @Override
+  public void doWork(Work work, long startTimeout,
+      ExecutionContext executionContext, WorkListener listener)
+      throws WorkException {
+    listener = listener != null ? listener : NULL_LISTENER;
+    listener.workAccepted(new WorkEvent(this, WorkEvent.WORK_ACCEPTED,
+        work, null));
+    new ListenedWork(work, listener).run();
+  }
+
+  @Override
+  public long startWork(Work work) throws WorkException {
+    return startWork(work, INDEFINITE, null, null);
+  }
+
+  @Override
+  public long startWork(Work work, long startTimeout,
+      ExecutionContext executionContext, WorkListener listener)
+      throws WorkException {
+    scheduleWork(work, startTimeout, executionContext, listener);
+    return 0;
+  }
+
+  @Override
+  public void scheduleWork(Work work) throws WorkException {
+    scheduleWork(work, INDEFINITE, null, null);
+  }
+
+  @Override
+  public void scheduleWork(Work work, long startTimeout,
+      ExecutionContext executionContext, WorkListener listener)
+      throws WorkException {
+    listener = listener != null ? listener : NULL_LISTENER;
+    try {
+      listener.workAccepted(new WorkEvent(this, WorkEvent.WORK_ACCEPTED,
+          work, null));
+      executor.execute(new ListenedWork(work, listener));
+    }
+    catch (RejectedExecutionException ex) {
+      WorkRejectedException wex = new WorkRejectedException(ex);
+      listener.workRejected(new WorkEvent(this, WorkEvent.WORK_REJECTED,
+          work, wex));
+      throw wex;
+    }
+  }
+
+  /**
+   * A runnable that runs a unit of work and notifies a listener.
+   */
+  private class ListenedWork implements Runnable {
+
+    private final Work work;
+    private final WorkListener listener;
+
+    /**
+     * Constructs a new instance.
+     * @param work the work to run
+     * @param listener the listener to notify
+     */
+    public ListenedWork(Work work, WorkListener listener) {
+      this.work = work;
+      this.listener = listener;
+    }
+
+    @Override
+    public void run() {
+      listener.workStarted(new WorkEvent(ExecutorWorkManager.this,
+          WorkEvent.WORK_STARTED, work, null));
+      WorkException exception = null;
+      try {
+        work.run();
+      }
+      catch (RuntimeException ex) {
+        exception = new WorkCompletedException(ex);
+      }
+      listener.workCompleted(new WorkEvent(ExecutorWorkManager.this,
+          WorkEvent.WORK_COMPLETED, work, exception));
+    }
+
+  }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.memory;
+
+/**
+ * A message that has been dequeued from a {@link MessageStore} and
+ * delivered to a session, but not yet consumed.
+ *
+ * @author Carl Harris
+ */
+class Delivery {
+
+  private final MessageStore store;
+  private final MemoryMessage message;
+
+  /**
+   * Constructs a new instance.
+   * @param store store from which the message was dequeued; may be
+   *    {@code null} for a message that was not dequeued from a store
+   * @param message the delivered message
+   */
+  Delivery(MessageStore store, MemoryMessage message) {
+    this.store = store;
+    this.message = message;
+  }
+
+  /**
+   * Gets the delivered message.
+   * @return message
+   */
+  MemoryMessage getMessage() {
+    return message;
+  }
+
+  /**
+   * Returns the delivered message to its store for redelivery.
+   */
+  void requeue() {
+    if (store == null) return;
+    store.requeue(message);
+  }
+
+  /**
+   * Returns a message that was never presented to a consumer to its
+   * store.
+   */
+  void putBack() {
+    if (store == null) return;
+    store.putBack(message);
+  }
+
+}
@@ -0,0 +1,314 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.memory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.jms.Destination;
+import javax.jms.InvalidDestinationException;
+import javax.jms.JMSException;
+import javax.jms.Topic;
+import javax.transaction.xa.Xid;
+
+/**
+ * An in-memory message broker that stands in for Oracle AQ.
+ * <p>
+ * The broker holds the queues and topics used by the connections of a
+ * {@link MemoryConnectionFactory}, along with the transaction branches
+ * of its XA resources.  Messages are kept only in memory and are lost when
+ * the broker is discarded.
+ * <p>
+ * To approximate the cost of a round trip to the database, the broker can
+ * be configured to delay each dequeue and each commit.  To support
+ * failover benchmarks, the broker can be made unavailable, so that
+ * attempts to connect fail, and it can fail all open connections, as if
+ * the database had gone away.
+ *
+ * @author Carl Harris
+ */
+public class MemoryBroker {
+
+  private final ConcurrentMap<String, MemoryQueue> queues =
+      new ConcurrentHashMap<String, MemoryQueue>();
+
+  private final ConcurrentMap<String, MemoryTopic> topics =
+      new ConcurrentHashMap<String, MemoryTopic>();
+
+  private final ConcurrentMap<Xid, MemoryTransaction> transactions =
+      new ConcurrentHashMap<Xid, MemoryTransaction>();
+
+  private final Set<MemoryXAConnection> connections =
+      Collections.newSetFromMap(
+          new ConcurrentHashMap<MemoryXAConnection, Boolean>());
+
+  private final AtomicLong messageIds = new AtomicLong();
+
+  private volatile long dequeueLatency;
+  private volatile long commitLatency;
+  private volatile boolean available = true;
+
+  /**
+   * Gets the queue with the given name, creating it if necessary.
+   * @param name queue name
+   * @return queue
+   */
+  public MemoryQueue getQueue(String name) {
+    MemoryQueue queue = queues.get(name);
+    if (queue == null) {
+      queue = new MemoryQueue(name, new MessageStore(this));
+      MemoryQueue existing = queues.putIfAbsent(name, queue);
+      if (existing != null) {
+        queue = existing;
+      }
+    }
+    return queue;
+  }
+
+  /**
+   * Gets the topic with the given name, creating it if necessary.
+   * @param name topic name
+   * @return topic
+   */
+  public MemoryTopic getTopic(String name) {
+    MemoryTopic topic = topics.get(name);
+    if (topic == null) {
+      topic = new MemoryTopic(name, this);
+      MemoryTopic existing = topics.putIfAbsent(name, topic);
+      if (existing != null) {
+        topic = existing;
+      }
+    }
+    return topic;
+  }
+
+  /**
+   * Gets the number of messages waiting on the given queue.
+   * @param name queue name
+   * @return number of messages that have been sent to the queue and not
+   *    yet dequeued
+   */
+  public int getDepth(String name) {
+    return getQueue(name).getStore().size();
+  }
+
+  /**
+   * Gets the latency applied to each dequeue.
+   * @return latency in microseconds
+   */
+  public long getDequeueLatency() {
+    return TimeUnit.NANOSECONDS.toMicros(dequeueLatency);
+  }
+
+  /**
+   * Sets the latency applied to each dequeue.
+   * @param latency latency in microseconds
+   */
+  public void setDequeueLatency(long latency) {
+    this.dequeueLatency = TimeUnit.MICROSECONDS.toNanos(latency);
+  }
+
+  /**
+   * Gets the latency applied to each commit.
+   * @return latency in microseconds
+   */
+  public long getCommitLatency() {
+    return TimeUnit.NANOSECONDS.toMicros(commitLatency);
+  }
+
+  /**
+   * Sets the latency applied to each commit.
+   * <p>
+   * The latency applies to the commit of a local or XA transaction and
+   * to each message that is automatically acknowledged.
+   * @param latency latency in microseconds
+   */
+  public void setCommitLatency(long latency) {
+    this.commitLatency = TimeUnit.MICROSECONDS.toNanos(latency);
+  }
+
+  /**
+   * Gets a flag indicating whether the broker accepts new connections.
+   * @return {@code true} if new connections are accepted
+   */
+  public boolean isAvailable() {
+    return available;
+  }
+
+  /**
+   * Sets a flag indicating whether the broker accepts new connections.
+   * @param available {@code true} if new connections are to be accepted
+   */
+  public void setAvailable(boolean available) {
+    this.available = available;
+  }
+
+  /**
+   * Fails all open connections.
+   * <p>
+   * Each open connection is marked as broken, its connection consumers
+   * stop delivering messages, and its exception listener is notified
+   * on a separate thread, much as the AQ provider notifies the listener
+   * when the database connection is lost.
+   */
+  public void failConnections() {
+    List<MemoryXAConnection> failed =
+        new ArrayList<MemoryXAConnection>(connections);
+    for (MemoryXAConnection connection : failed) {
+      connection.fail(new JMSException("connection to broker lost"));
+    }
+  }
+
+  /**
+   * Gets the number of open connections.
+   * @return number of connections
+   */
+  public int getConnectionCount() {
+    return connections.size();
+  }
+
+  /**
+   * Creates a new connection to this broker.
+   * @return connection
+   * @throws JMSException if the broker is not available
+   */
+  MemoryXAConnection connect() throws JMSException {
+    if (!available) {
+      throw new JMSException("broker is not available");
+    }
+    MemoryXAConnection connection = new MemoryXAConnection(this);
+    connections.add(connection);
+    return connection;
+  }
+
+  /**
+   * Notifies the broker that a connection has been closed.
+   * @param connection the subject connection
+   */
+  void disconnected(MemoryXAConnection connection) {
+    connections.remove(connection);
+  }
+
+  /**
+   * Publishes a message to a destination.
+   * <p>
+   * A message published to a topic is copied to each of its
+   * subscriptions.
+   * @param destination target destination
+   * @param message the message to publish
+   * @throws JMSException
+   */
+  void publish(Destination destination, MemoryMessage message)
+      throws JMSException {
+    if (destination instanceof javax.jms.Queue) {
+      resolve((javax.jms.Queue) destination).getStore().add(message);
+    }
+    else if (destination instanceof Topic) {
+      resolve((Topic) destination).publish(message);
+    }
+    else {
+      throw new InvalidDestinationException(
+          "unsupported destination: " + destination);
+    }
+  }
+
+  /**
+   * Resolves a queue to the broker's corresponding queue.
+   * @param queue the queue to resolve
+   * @return queue
+   * @throws JMSException
+   */
+  MemoryQueue resolve(javax.jms.Queue queue) throws JMSException {
+    if (queue instanceof MemoryQueue) return (MemoryQueue) queue;
+    return getQueue(queue.getQueueName());
+  }
+
+  /**
+   * Resolves a topic to the broker's corresponding topic.
+   * @param topic the topic to resolve
+   * @return topic
+   * @throws JMSException
+   */
+  MemoryTopic resolve(Topic topic) throws JMSException {
+    if (topic instanceof MemoryTopic) return (MemoryTopic) topic;
+    return getTopic(topic.getTopicName());
+  }
+
+  /**
+   * Removes a durable subscription from every topic.
+   * @param clientId client identifier of the subscriber
+   * @param subscriptionName subscription name
+   * @return {@code true} if a subscription was removed
+   */
+  boolean unsubscribe(String clientId, String subscriptionName) {
+    boolean removed = false;
+    for (MemoryTopic topic : topics.values()) {
+      removed |= topic.removeSubscription(clientId, subscriptionName);
+    }
+    return removed;
+  }
+
+  /**
+   * Creates a new message identifier.
+   * @return message ID
+   */
+  String nextMessageId() {
+    return "ID:" + Long.toHexString(messageIds.incrementAndGet());
+  }
+
+  /**
+   * Gets the transaction branch map.
+   * @return map of transaction branches keyed by branch identifier
+   */
+  ConcurrentMap<Xid, MemoryTransaction> getTransactions() {
+    return transactions;
+  }
+
+  /**
+   * Delays the calling thread for the configured dequeue latency.
+   */
+  void dequeueDelay() {
+    delay(dequeueLatency);
+  }
+
+  /**
+   * Delays the calling thread for the configured commit latency.
+   */
+  void commitDelay() {
+    delay(commitLatency);
+  }
+
+  private static void delay(long nanos) {
+    if (nanos <= 0) return;
+    final long deadline = System.nanoTime() + nanos;
+    long remaining = nanos;
+    while (remaining > 0) {
+      LockSupport.parkNanos(remaining);
+      remaining = deadline - System.nanoTime();
+    }
+  }
+
+}
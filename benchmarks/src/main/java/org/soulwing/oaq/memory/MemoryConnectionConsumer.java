@@ -0,0 +1,160 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.memory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.jms.ConnectionConsumer;
+import javax.jms.JMSException;
+import javax.jms.ServerSession;
+import javax.jms.ServerSessionPool;
+
+/**
+ * A {@link ConnectionConsumer} that dispatches the messages of a
+ * {@link MessageStore} through a {@link ServerSessionPool}.
+ * <p>
+ * The consumer runs on a thread of its own, playing the part of the
+ * provider thread that AQ uses to dequeue messages for a connection
+ * consumer.  For each message dequeued it obtains a server session from
+ * the pool, assigns up to {@code maxMessages} messages to the session,
+ * and starts it.
+ *
+ * @author Carl Harris
+ */
+class MemoryConnectionConsumer implements ConnectionConsumer, Runnable {
+
+  private static final long POLL_INTERVAL = 100;
+
+  private static final Logger logger =
+      Logger.getLogger(MemoryConnectionConsumer.class.getName());
+
+  private final MemoryXAConnection connection;
+  private final MessageStore store;
+  private final MemoryTopic subscribedTopic;
+  private final ServerSessionPool sessionPool;
+  private final int maxMessages;
+  private final Thread thread;
+
+  private volatile boolean closed;
+
+  /**
+   * Constructs a new instance.
+   * @param connection connection that owns the consumer
+   * @param store store from which messages are dequeued
+   * @param subscribedTopic topic on which {@code store} is a non-durable
+   *    subscription that should be removed when the consumer is closed,
+   *    or {@code null} if there is no such subscription
+   * @param sessionPool pool of sessions to which messages are dispatched
+   * @param maxMessages maximum number of messages to assign to a session
+   *    each time it is started
+   */
+  MemoryConnectionConsumer(MemoryXAConnection connection,
+      MessageStore store, MemoryTopic subscribedTopic,
+      ServerSessionPool sessionPool, int maxMessages) {
+    this.connection = connection;
+    this.store = store;
+    this.subscribedTopic = subscribedTopic;
+    this.sessionPool = sessionPool;
+    this.maxMessages = Math.max(1, maxMessages);
+    this.thread = new Thread(this, "memory-connection-consumer");
+    this.thread.setDaemon(true);
+  }
+
+  /**
+   * Starts the consumer's dispatch thread.
+   */
+  void start() {
+    thread.start();
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (!closed) {
+        if (!connection.isStarted()) {
+          TimeUnit.MILLISECONDS.sleep(10);
+          continue;
+        }
+        MemoryMessage message = store.poll(POLL_INTERVAL);
+        if (message == null) continue;
+        if (closed) {
+          store.putBack(message);
+          break;
+        }
+        dispatch(message);
+      }
+    }
+    catch (InterruptedException ex) {
+      assert true;  // closed while waiting
+    }
+  }
+
+  private void dispatch(MemoryMessage message) throws InterruptedException {
+    ServerSession serverSession;
+    try {
+      serverSession = sessionPool.getServerSession();
+    }
+    catch (JMSException ex) {
+      store.putBack(message);
+      if (closed) return;
+      logger.warning("cannot obtain server session: " + ex);
+      TimeUnit.MILLISECONDS.sleep(POLL_INTERVAL);
+      return;
+    }
+    try {
+      MemoryXASession session = (MemoryXASession) serverSession.getSession();
+      session.assign(new Delivery(store, message));
+      for (int i = 1; i < maxMessages; i++) {
+        message = store.poll(0);
+        if (message == null) break;
+        session.assign(new Delivery(store, message));
+      }
+      serverSession.start();
+    }
+    catch (JMSException ex) {
+      logger.warning("cannot start server session: " + ex);
+    }
+  }
+
+  @Override
+  public ServerSessionPool getServerSessionPool() {
+    return sessionPool;
+  }
+
+  @Override
+  public void close() {
+    if (closed) return;
+    closed = true;
+    if (Thread.currentThread() != thread) {
+      thread.interrupt();
+      try {
+        thread.join();
+      }
+      catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if (subscribedTopic != null) {
+      subscribedTopic.unsubscribe(store);
+    }
+    connection.consumerClosed(this);
+  }
+
+}
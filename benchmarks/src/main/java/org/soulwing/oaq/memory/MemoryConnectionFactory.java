@@ -0,0 +1,103 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.memory;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSContext;
+import javax.jms.JMSException;
+import javax.jms.XAConnection;
+import javax.jms.XAConnectionFactory;
+import javax.jms.XAJMSContext;
+
+/**
+ * A connection factory for a {@link MemoryBroker}.
+ * <p>
+ * Credentials are accepted but ignored.  The simplified API
+ * ({@link JMSContext}) is not supported.
+ *
+ * @author Carl Harris
+ */
+public class MemoryConnectionFactory implements XAConnectionFactory,
+    ConnectionFactory {
+
+  private final MemoryBroker broker;
+
+  /**
+   * Constructs a new instance.
+   * @param broker the broker to which connections are made
+   */
+  public MemoryConnectionFactory(MemoryBroker broker) {
+    this.broker = broker;
+  }
+
+  @Override
+  public XAConnection createXAConnection() throws JMSException {
+    return broker.connect();
+  }
+
+  @Override
+  public XAConnection createXAConnection(String userName, String password)
+      throws JMSException {
+    return broker.connect();
+  }
+
+  @Override
+  public Connection createConnection() throws JMSException {
+    return broker.connect();
+  }
+
+  @Override
+  public Connection createConnection(String userName, String password)
+      throws JMSException {
+    return broker.connect();
+  }
+
+  @Override
+  public XAJMSContext createXAContext() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public XAJMSContext createXAContext(String userName, String password) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public JMSContext createContext() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public JMSContext createContext(String userName, String password) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public JMSContext createContext(String userName, String password,
+      int sessionMode) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public JMSContext createContext(int sessionMode) {
+    throw new UnsupportedOperationException();
+  }
+
+}
@@ -0,0 +1,224 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.memory;
+
+import java.util.Hashtable;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.naming.CompositeName;
+import javax.naming.Context;
+import javax.naming.Name;
+import javax.naming.NameAlreadyBoundException;
+import javax.naming.NameClassPair;
+import javax.naming.NameNotFoundException;
+import javax.naming.NameParser;
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.OperationNotSupportedException;
+
+/**
+ * A {@link Context} for the flat namespace of a
+ * {@link MemoryInitialContextFactory}.
+ * <p>
+ * Only simple binding and lookup operations are supported.
+ *
+ * @author Carl Harris
+ */
+class MemoryContext implements Context {
+
+  private final ConcurrentMap<String, Object> bindings;
+  private final Hashtable<Object, Object> environment;
+
+  /**
+   * Constructs a new instance.
+   * @param bindings the bindings of the namespace
+   * @param environment context environment
+   */
+  MemoryContext(ConcurrentMap<String, Object> bindings,
+      Hashtable<?, ?> environment) {
+    this.bindings = bindings;
+    this.environment = environment != null ?
+        new Hashtable<Object, Object>(environment)
+        : new Hashtable<Object, Object>();
+  }
+
+  @Override
+  public Object lookup(Name name) throws NamingException {
+    return lookup(name.toString());
+  }
+
+  @Override
+  public Object lookup(String name) throws NamingException {
+    Object obj = bindings.get(name);
+    if (obj == null) {
+      throw new NameNotFoundException(name);
+    }
+    return obj;
+  }
+
+  @Override
+  public void bind(Name name, Object obj) throws NamingException {
+    bind(name.toString(), obj);
+  }
+
+  @Override
+  public void bind(String name, Object obj) throws NamingException {
+    if (bindings.putIfAbsent(name, obj) != null) {
+      throw new NameAlreadyBoundException(name);
+    }
+  }
+
+  @Override
+  public void rebind(Name name, Object obj) throws NamingException {
+    rebind(name.toString(), obj);
+  }
+
+  @Override
+  public void rebind(String name, Object obj) throws NamingException {
+    bindings.put(name, obj);
+  }
+
+  @Override
+  public void unbind(Name name) throws NamingException {
+    unbind(name.toString());
+  }
+
+  @Override
+  public void unbind(String name) throws NamingException {
+    bindings.remove(name);
+  }
+
+  @Override
+  public void rename(Name oldName, Name newName) throws NamingException {
+    rename(oldName.toString(), newName.toString());
+  }
+
+  @Override
+  public void rename(String oldName, String newName)
+      throws NamingException {
+    bind(newName, lookup(oldName));
+    unbind(oldName);
+  }
+
+  @Override
+  public NamingEnumeration<NameClassPair> list(Name name)
+      throws NamingException {
+    throw new OperationNotSupportedException();
+  }
+
+  @Override
+  public NamingEnumeration<NameClassPair> list(String name)
+      throws NamingException {
+    throw new OperationNotSupportedException();
+  }
+
+  @Override
+  public NamingEnumeration<javax.naming.Binding> listBindings(Name name)
+      throws NamingException {
+    throw new OperationNotSupportedException();
+  }
+
+  @Override
+  public NamingEnumeration<javax.naming.Binding> listBindings(String name)
+      throws NamingException {
+    throw new OperationNotSupportedException();
+  }
+
+  @Override
+  public void destroySubcontext(Name name) throws NamingException {
+    throw new OperationNotSupportedException();
+  }
+
+  @Override
+  public void destroySubcontext(String name) throws NamingException {
+    throw new OperationNotSupportedException();
+  }
+
+  @Override
+  public Context createSubcontext(Name name) throws NamingException {
+    throw new OperationNotSupportedException();
+  }
+
+  @Override
+  public Context createSubcontext(String name) throws NamingException {
+    throw new OperationNotSupportedException();
+  }
+
+  @Override
+  public Object lookupLink(Name name) throws NamingException {
+    return lookup(name);
+  }
+
+  @Override
+  public Object lookupLink(String name) throws NamingException {
+    return lookup(name);
+  }
+
+  @Override
+  public NameParser getNameParser(Name name) throws NamingException {
+    return getNameParser(name.toString());
+  }
+
+  @Override
+  public NameParser getNameParser(String name) throws NamingException {
+    return new NameParser() {
+      @Override
+      public Name parse(String name) throws NamingException {
+        return new CompositeName(name);
+      }
+    };
+  }
+
+  @Override
+  public Name composeName(Name name, Name prefix) throws NamingException {
+    return ((Name) prefix.clone()).addAll(name);
+  }
+
+  @Override
+  public String composeName(String name, String prefix)
+      throws NamingException {
+    return composeName(new CompositeName(name),
+        new CompositeName(prefix)).toString();
+  }
+
+  @Override
+  public Object addToEnvironment(String propName, Object propVal) {
+    return environment.put(propName, propVal);
+  }
+
+  @Override
+  public Object removeFromEnvironment(String propName) {
+    return environment.remove(propName);
+  }
+
+  @Override
+  public Hashtable<?, ?> getEnvironment() {
+    return new Hashtable<Object, Object>(environment);
+  }
+
+  @Override
+  public void close() {
+  }
+
+  @Override
+  public String getNameInNamespace() {
+    return "";
+  }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.memory;
+
+import java.util.Hashtable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.naming.Context;
+import javax.naming.spi.InitialContextFactory;
+
+/**
+ * An {@link InitialContextFactory} for a flat, in-memory JNDI namespace.
+ * <p>
+ * The activation spec locates its destination using JNDI; set the
+ * {@link Context#INITIAL_CONTEXT_FACTORY} system property to the name of
+ * this class and {@linkplain #bind(String, Object) bind} the broker's
+ * destinations to run an endpoint without an application server.
+ *
+ * @author Carl Harris
+ */
+public class MemoryInitialContextFactory implements InitialContextFactory {
+
+  private static final ConcurrentMap<String, Object> bindings =
+      new ConcurrentHashMap<String, Object>();
+
+  /**
+   * Binds an object to a name.
+   * @param name the name to bind
+   * @param obj the object to bind
+   */
+  public static void bind(String name, Object obj) {
+    bindings.put(name, obj);
+  }
+
+  /**
+   * Removes all bindings.
+   */
+  public static void clear() {
+    bindings.clear();
+  }
+
+  @Override
+  public Context getInitialContext(Hashtable<?, ?> environment) {
+    return new MemoryContext(bindings, environment);
+  }
+
+}
@@ -0,0 +1,360 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.memory;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.jms.DeliveryMode;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageFormatException;
+import javax.jms.Session;
+
+/**
+ * An in-memory {@link Message}.
+ *
+ * @author Carl Harris
+ */
+public class MemoryMessage implements Message, Cloneable {
+
+  static final String DELIVERY_COUNT = "JMSXDeliveryCount";
+
+  private Map<String, Object> properties = new HashMap<String, Object>();
+
+  private String messageId;
+  private long timestamp;
+  private String correlationId;
+  private Destination replyTo;
+  private Destination destination;
+  private int deliveryMode = DeliveryMode.PERSISTENT;
+  private boolean redelivered;
+  private String type;
+  private long expiration;
+  private long deliveryTime;
+  private int priority = Message.DEFAULT_PRIORITY;
+  private MemoryXASession acknowledger;
+
+  /**
+   * Creates a copy of this message, as it would be delivered to another
+   * subscriber.
+   * @return message copy
+   */
+  MemoryMessage copy() {
+    try {
+      MemoryMessage copy = (MemoryMessage) super.clone();
+      copy.properties = new HashMap<String, Object>(properties);
+      copy.acknowledger = null;
+      return copy;
+    }
+    catch (CloneNotSupportedException ex) {
+      throw new AssertionError(ex);
+    }
+  }
+
+  /**
+   * Marks this message as redelivered and increments its delivery count.
+   */
+  void redeliver() {
+    Object count = properties.get(DELIVERY_COUNT);
+    properties.put(DELIVERY_COUNT,
+        count instanceof Integer ? (Integer) count + 1 : 2);
+    redelivered = true;
+    acknowledger = null;
+  }
+
+  /**
+   * Sets the session that acknowledges this message in
+   * {@link Session#CLIENT_ACKNOWLEDGE} mode.
+   * @param acknowledger the acknowledging session
+   */
+  void setAcknowledger(MemoryXASession acknowledger) {
+    this.acknowledger = acknowledger;
+  }
+
+  @Override
+  public String getJMSMessageID() {
+    return messageId;
+  }
+
+  @Override
+  public void setJMSMessageID(String id) {
+    this.messageId = id;
+  }
+
+  @Override
+  public long getJMSTimestamp() {
+    return timestamp;
+  }
+
+  @Override
+  public void setJMSTimestamp(long timestamp) {
+    this.timestamp = timestamp;
+  }
+
+  @Override
+  public byte[] getJMSCorrelationIDAsBytes() {
+    return correlationId != null ? correlationId.getBytes() : null;
+  }
+
+  @Override
+  public void setJMSCorrelationIDAsBytes(byte[] correlationId) {
+    this.correlationId = correlationId != null ?
+        new String(correlationId) : null;
+  }
+
+  @Override
+  public void setJMSCorrelationID(String correlationId) {
+    this.correlationId = correlationId;
+  }
+
+  @Override
+  public String getJMSCorrelationID() {
+    return correlationId;
+  }
+
+  @Override
+  public Destination getJMSReplyTo() {
+    return replyTo;
+  }
+
+  @Override
+  public void setJMSReplyTo(Destination replyTo) {
+    this.replyTo = replyTo;
+  }
+
+  @Override
+  public Destination getJMSDestination() {
+    return destination;
+  }
+
+  @Override
+  public void setJMSDestination(Destination destination) {
+    this.destination = destination;
+  }
+
+  @Override
+  public int getJMSDeliveryMode() {
+    return deliveryMode;
+  }
+
+  @Override
+  public void setJMSDeliveryMode(int deliveryMode) {
+    this.deliveryMode = deliveryMode;
+  }
+
+  @Override
+  public boolean getJMSRedelivered() {
+    return redelivered;
+  }
+
+  @Override
+  public void setJMSRedelivered(boolean redelivered) {
+    this.redelivered = redelivered;
+  }
+
+  @Override
+  public String getJMSType() {
+    return type;
+  }
+
+  @Override
+  public void setJMSType(String type) {
+    this.type = type;
+  }
+
+  @Override
+  public long getJMSExpiration() {
+    return expiration;
+  }
+
+  @Override
+  public void setJMSExpiration(long expiration) {
+    this.expiration = expiration;
+  }
+
+  @Override
+  public long getJMSDeliveryTime() {
+    return deliveryTime;
+  }
+
+  @Override
+  public void setJMSDeliveryTime(long deliveryTime) {
+    this.deliveryTime = deliveryTime;
+  }
+
+  @Override
+  public int getJMSPriority() {
+    return priority;
+  }
+
+  @Override
+  public void setJMSPriority(int priority) {
+    this.priority = priority;
+  }
+
+  @Override
+  public void clearProperties() {
+    properties.clear();
+  }
+
+  @Override
+  public boolean propertyExists(String name) {
+    return properties.containsKey(name);
+  }
+
+  @Override
+  public boolean getBooleanProperty(String name) {
+    Object value = properties.get(name);
+    if (value instanceof Boolean) return (Boolean) value;
+    return Boolean.valueOf(String.valueOf(value));
+  }
+
+  @Override
+  public byte getByteProperty(String name) throws JMSException {
+    return (byte) getLongProperty(name);
+  }
+
+  @Override
+  public short getShortProperty(String name) throws JMSException {
+    return (short) getLongProperty(name);
+  }
+
+  @Override
+  public int getIntProperty(String name) throws JMSException {
+    return (int) getLongProperty(name);
+  }
+
+  @Override
+  public long getLongProperty(String name) throws JMSException {
+    Object value = properties.get(name);
+    if (value instanceof Number) return ((Number) value).longValue();
+    try {
+      return Long.parseLong(String.valueOf(value));
+    }
+    catch (NumberFormatException ex) {
+      throw new MessageFormatException("not a number: " + name);
+    }
+  }
+
+  @Override
+  public float getFloatProperty(String name) throws JMSException {
+    return (float) getDoubleProperty(name);
+  }
+
+  @Override
+  public double getDoubleProperty(String name) throws JMSException {
+    Object value = properties.get(name);
+    if (value instanceof Number) return ((Number) value).doubleValue();
+    try {
+      return Double.parseDouble(String.valueOf(value));
+    }
+    catch (NumberFormatException ex) {
+      throw new MessageFormatException("not a number: " + name);
+    }
+  }
+
+  @Override
+  public String getStringProperty(String name) {
+    Object value = properties.get(name);
+    return value != null ? value.toString() : null;
+  }
+
+  @Override
+  public Object getObjectProperty(String name) {
+    return properties.get(name);
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public Enumeration getPropertyNames() {
+    return Collections.enumeration(properties.keySet());
+  }
+
+  @Override
+  public void setBooleanProperty(String name, boolean value) {
+    properties.put(name, value);
+  }
+
+  @Override
+  public void setByteProperty(String name, byte value) {
+    properties.put(name, value);
+  }
+
+  @Override
+  public void setShortProperty(String name, short value) {
+    properties.put(name, value);
+  }
+
+  @Override
+  public void setIntProperty(String name, int value) {
+    properties.put(name, value);
+  }
+
+  @Override
+  public void setLongProperty(String name, long value) {
+    properties.put(name, value);
+  }
+
+  @Override
+  public void setFloatProperty(String name, float value) {
+    properties.put(name, value);
+  }
+
+  @Override
+  public void setDoubleProperty(String name, double value) {
+    properties.put(name, value);
+  }
+
+  @Override
+  public void setStringProperty(String name, String value) {
+    properties.put(name, value);
+  }
+
+  @Override
+  public void setObjectProperty(String name, Object value) {
+    properties.put(name, value);
+  }
+
+  @Override
+  public void acknowledge() throws JMSException {
+    if (acknowledger != null) {
+      acknowledger.acknowledge();
+    }
+  }
+
+  @Override
+  public void clearBody() {
+  }
+
+  @Override
+  public <T> T getBody(Class<T> type) throws JMSException {
+    return null;
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public boolean isBodyAssignableTo(Class type) {
+    return true;
+  }
+
+}
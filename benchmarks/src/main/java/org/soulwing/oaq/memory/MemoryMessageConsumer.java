@@ -0,0 +1,161 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.memory;
+
+import javax.jms.Destination;
+import javax.jms.IllegalStateException;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.Topic;
+import javax.jms.TopicSubscriber;
+
+/**
+ * A {@link javax.jms.MessageConsumer} that receives messages
+ * synchronously from a queue or topic subscription.
+ * <p>
+ * Asynchronous delivery to a message listener is not supported; use a
+ * connection consumer instead.
+ *
+ * @author Carl Harris
+ */
+class MemoryMessageConsumer implements TopicSubscriber {
+
+  private static final long POLL_INTERVAL = 100;
+
+  private final MemoryXASession session;
+  private final Destination destination;
+  private final MessageStore store;
+  private final MemoryTopic subscribedTopic;
+
+  private volatile boolean closed;
+
+  /**
+   * Constructs a new instance.
+   * @param session session that owns the consumer
+   * @param destination the consumer's destination
+   * @param store store from which messages are received
+   * @param subscribedTopic topic on which {@code store} is a non-durable
+   *    subscription that should be removed when the consumer is closed,
+   *    or {@code null} if there is no such subscription
+   */
+  MemoryMessageConsumer(MemoryXASession session, Destination destination,
+      MessageStore store, MemoryTopic subscribedTopic) {
+    this.session = session;
+    this.destination = destination;
+    this.store = store;
+    this.subscribedTopic = subscribedTopic;
+  }
+
+  @Override
+  public Topic getTopic() throws JMSException {
+    if (destination instanceof Topic) return (Topic) destination;
+    throw new IllegalStateException("consumer destination is not a topic");
+  }
+
+  @Override
+  public boolean getNoLocal() {
+    return false;
+  }
+
+  @Override
+  public String getMessageSelector() {
+    return null;
+  }
+
+  @Override
+  public MessageListener getMessageListener() {
+    return null;
+  }
+
+  @Override
+  public void setMessageListener(MessageListener listener)
+      throws JMSException {
+    throw new IllegalStateException(
+        "asynchronous delivery is not supported; use a connection consumer");
+  }
+
+  @Override
+  public Message receive() throws JMSException {
+    return receive(0);
+  }
+
+  @Override
+  public Message receive(long timeout) throws JMSException {
+    final long deadline = System.currentTimeMillis() + timeout;
+    try {
+      while (true) {
+        checkOpen();
+        long wait = POLL_INTERVAL;
+        if (timeout > 0) {
+          wait = Math.min(wait, deadline - System.currentTimeMillis());
+          if (wait <= 0) return null;
+        }
+        MemoryMessage message = store.poll(wait);
+        if (message != null) {
+          return consume(message);
+        }
+      }
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  @Override
+  public Message receiveNoWait() throws JMSException {
+    checkOpen();
+    try {
+      MemoryMessage message = store.poll(0);
+      return message != null ? consume(message) : null;
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  private Message consume(MemoryMessage message) {
+    if (closed) {
+      store.putBack(message);
+      return null;
+    }
+    session.consumed(new Delivery(store, message));
+    return message;
+  }
+
+  private void checkOpen() throws JMSException {
+    if (closed) {
+      throw new IllegalStateException("consumer is closed");
+    }
+    session.checkOpen();
+  }
+
+  @Override
+  public void close() {
+    if (closed) return;
+    closed = true;
+    if (subscribedTopic != null) {
+      subscribedTopic.unsubscribe(store);
+    }
+    session.consumerClosed(this);
+  }
+
+}
@@ -0,0 +1,213 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.memory;
+
+import javax.jms.CompletionListener;
+import javax.jms.DeliveryMode;
+import javax.jms.Destination;
+import javax.jms.IllegalStateException;
+import javax.jms.InvalidDestinationException;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageFormatException;
+import javax.jms.MessageProducer;
+
+/**
+ * A {@link MessageProducer} that sends messages to the destinations of a
+ * {@link MemoryBroker}.
+ * <p>
+ * Messages sent in a transaction are published when the transaction
+ * commits.  A completion listener is notified before the send method
+ * returns.
+ *
+ * @author Carl Harris
+ */
+class MemoryMessageProducer implements MessageProducer {
+
+  private final MemoryXASession session;
+  private final Destination destination;
+
+  private boolean disableMessageId;
+  private boolean disableMessageTimestamp;
+  private int deliveryMode = DeliveryMode.PERSISTENT;
+  private int priority = Message.DEFAULT_PRIORITY;
+  private long timeToLive = Message.DEFAULT_TIME_TO_LIVE;
+  private long deliveryDelay = Message.DEFAULT_DELIVERY_DELAY;
+  private boolean closed;
+
+  /**
+   * Constructs a new instance.
+   * @param session session that owns the producer
+   * @param destination default destination or {@code null} if the
+   *    destination must be specified for each message sent
+   */
+  MemoryMessageProducer(MemoryXASession session, Destination destination) {
+    this.session = session;
+    this.destination = destination;
+  }
+
+  @Override
+  public void setDisableMessageID(boolean value) {
+    this.disableMessageId = value;
+  }
+
+  @Override
+  public boolean getDisableMessageID() {
+    return disableMessageId;
+  }
+
+  @Override
+  public void setDisableMessageTimestamp(boolean value) {
+    this.disableMessageTimestamp = value;
+  }
+
+  @Override
+  public boolean getDisableMessageTimestamp() {
+    return disableMessageTimestamp;
+  }
+
+  @Override
+  public void setDeliveryMode(int deliveryMode) {
+    this.deliveryMode = deliveryMode;
+  }
+
+  @Override
+  public int getDeliveryMode() {
+    return deliveryMode;
+  }
+
+  @Override
+  public void setPriority(int priority) {
+    this.priority = priority;
+  }
+
+  @Override
+  public int getPriority() {
+    return priority;
+  }
+
+  @Override
+  public void setTimeToLive(long timeToLive) {
+    this.timeToLive = timeToLive;
+  }
+
+  @Override
+  public long getTimeToLive() {
+    return timeToLive;
+  }
+
+  @Override
+  public void setDeliveryDelay(long deliveryDelay) {
+    this.deliveryDelay = deliveryDelay;
+  }
+
+  @Override
+  public long getDeliveryDelay() {
+    return deliveryDelay;
+  }
+
+  @Override
+  public Destination getDestination() {
+    return destination;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+  }
+
+  @Override
+  public void send(Message message) throws JMSException {
+    send(destination, message, deliveryMode, priority, timeToLive);
+  }
+
+  @Override
+  public void send(Message message, int deliveryMode, int priority,
+      long timeToLive) throws JMSException {
+    send(destination, message, deliveryMode, priority, timeToLive);
+  }
+
+  @Override
+  public void send(Destination destination, Message message)
+      throws JMSException {
+    send(destination, message, deliveryMode, priority, timeToLive);
+  }
+
+  @Override
+  public void send(Destination destination, Message message,
+      int deliveryMode, int priority, long timeToLive) throws JMSException {
+    if (closed) {
+      throw new IllegalStateException("producer is closed");
+    }
+    session.checkOpen();
+    if (destination == null) {
+      throw new InvalidDestinationException("destination is required");
+    }
+    if (!(message instanceof MemoryMessage)) {
+      throw new MessageFormatException("unsupported message type: "
+          + message.getClass().getName());
+    }
+    long now = System.currentTimeMillis();
+    message.setJMSDestination(destination);
+    message.setJMSDeliveryMode(deliveryMode);
+    message.setJMSPriority(priority);
+    message.setJMSExpiration(timeToLive > 0 ? now + timeToLive : 0);
+    message.setJMSDeliveryTime(now + deliveryDelay);
+    message.setJMSTimestamp(disableMessageTimestamp ? 0 : now);
+    message.setJMSMessageID(disableMessageId ?
+        null : session.getBroker().nextMessageId());
+    MemoryMessage copy = ((MemoryMessage) message).copy();
+    copy.setIntProperty(MemoryMessage.DELIVERY_COUNT, 1);
+    copy.setJMSRedelivered(false);
+    session.produced(destination, copy);
+  }
+
+  @Override
+  public void send(Message message, CompletionListener listener)
+      throws JMSException {
+    send(destination, message, deliveryMode, priority, timeToLive, listener);
+  }
+
+  @Override
+  public void send(Message message, int deliveryMode, int priority,
+      long timeToLive, CompletionListener listener) throws JMSException {
+    send(destination, message, deliveryMode, priority, timeToLive, listener);
+  }
+
+  @Override
+  public void send(Destination destination, Message message,
+      CompletionListener listener) throws JMSException {
+    send(destination, message, deliveryMode, priority, timeToLive, listener);
+  }
+
+  @Override
+  public void send(Destination destination, Message message,
+      int deliveryMode, int priority, long timeToLive,
+      CompletionListener listener) throws JMSException {
+    try {
+      send(destination, message, deliveryMode, priority, timeToLive);
+    }
+    catch (JMSException ex) {
+      listener.onException(message, ex);
+      return;
+    }
+    listener.onCompletion(message);
+  }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.memory;
+
+/**
+ * A queue held by a {@link MemoryBroker}.
+ *
+ * @author Carl Harris
+ */
+public class MemoryQueue implements javax.jms.Queue {
+
+  private final String name;
+  private final MessageStore store;
+
+  /**
+   * Constructs a new instance.
+   * @param name queue name
+   * @param store store that holds the queue's messages
+   */
+  MemoryQueue(String name, MessageStore store) {
+    this.name = name;
+    this.store = store;
+  }
+
+  @Override
+  public String getQueueName() {
+    return name;
+  }
+
+  /**
+   * Gets the store that holds this queue's messages.
+   * @return message store
+   */
+  MessageStore getStore() {
+    return store;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.memory;
+
+import javax.jms.MessageFormatException;
+import javax.jms.TextMessage;
+
+/**
+ * An in-memory {@link TextMessage}.
+ *
+ * @author Carl Harris
+ */
+public class MemoryTextMessage extends MemoryMessage implements TextMessage {
+
+  private String text;
+
+  /**
+   * Constructs a new instance.
+   */
+  public MemoryTextMessage() {
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param text message text
+   */
+  public MemoryTextMessage(String text) {
+    this.text = text;
+  }
+
+  @Override
+  public String getText() {
+    return text;
+  }
+
+  @Override
+  public void setText(String text) {
+    this.text = text;
+  }
+
+  @Override
+  public void clearBody() {
+    text = null;
+  }
+
+  @Override
+  public <T> T getBody(Class<T> type) throws MessageFormatException {
+    if (text == null) return null;
+    if (!type.isAssignableFrom(String.class)) {
+      throw new MessageFormatException("body is a String");
+    }
+    return type.cast(text);
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public boolean isBodyAssignableTo(Class type) {
+    return text == null || type.isAssignableFrom(String.class);
+  }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.memory;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.jms.Topic;
+
+/**
+ * A topic held by a {@link MemoryBroker}.
+ * <p>
+ * Each subscription to the topic has its own {@link MessageStore}; a
+ * message published to the topic is copied to each store.  Durable and
+ * shared subscriptions are retained by the topic until they are
+ * explicitly removed, while a non-durable subscription exists only as long
+ * as the consumer that created it.
+ *
+ * @author Carl Harris
+ */
+public class MemoryTopic implements Topic {
+
+  private final ConcurrentMap<String, MessageStore> retained =
+      new ConcurrentHashMap<String, MessageStore>();
+
+  private final Set<MessageStore> transients =
+      Collections.newSetFromMap(new ConcurrentHashMap<MessageStore, Boolean>());
+
+  private final String name;
+  private final MemoryBroker broker;
+
+  /**
+   * Constructs a new instance.
+   * @param name topic name
+   * @param broker broker that holds the topic
+   */
+  MemoryTopic(String name, MemoryBroker broker) {
+    this.name = name;
+    this.broker = broker;
+  }
+
+  @Override
+  public String getTopicName() {
+    return name;
+  }
+
+  /**
+   * Copies a message to each subscription of this topic.
+   * @param message the message to publish
+   */
+  void publish(MemoryMessage message) {
+    for (MessageStore store : retained.values()) {
+      store.add(message.copy());
+    }
+    for (MessageStore store : transients) {
+      store.add(message.copy());
+    }
+  }
+
+  /**
+   * Creates a non-durable subscription.
+   * @return store for the subscription's messages
+   */
+  MessageStore subscribe() {
+    MessageStore store = new MessageStore(broker);
+    transients.add(store);
+    return store;
+  }
+
+  /**
+   * Removes a non-durable subscription.
+   * @param store store for the subscription's messages
+   */
+  void unsubscribe(MessageStore store) {
+    transients.remove(store);
+  }
+
+  /**
+   * Gets a durable or shared subscription, creating it if necessary.
+   * @param clientId client identifier of the subscriber; may be
+   *    {@code null} for a shared subscription
+   * @param subscriptionName subscription name
+   * @return store for the subscription's messages
+   */
+  MessageStore subscription(String clientId, String subscriptionName) {
+    String key = subscriptionKey(clientId, subscriptionName);
+    MessageStore store = retained.get(key);
+    if (store == null) {
+      store = new MessageStore(broker);
+      MessageStore existing = retained.putIfAbsent(key, store);
+      if (existing != null) {
+        store = existing;
+      }
+    }
+    return store;
+  }
+
+  /**
+   * Removes a durable or shared subscription.
+   * @param clientId client identifier of the subscriber; may be
+   *    {@code null} for a shared subscription
+   * @param subscriptionName subscription name
+   * @return {@code true} if the subscription existed
+   */
+  boolean removeSubscription(String clientId, String subscriptionName) {
+    return retained.remove(
+        subscriptionKey(clientId, subscriptionName)) != null;
+  }
+
+  private static String subscriptionKey(String clientId,
+      String subscriptionName) {
+    return (clientId != null ? clientId : "") + ":" + subscriptionName;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+
+}
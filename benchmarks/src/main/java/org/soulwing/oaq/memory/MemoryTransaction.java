@@ -0,0 +1,146 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jms.Destination;
+import javax.jms.JMSException;
+
+/**
+ * A local transaction or XA transaction branch on a {@link MemoryBroker}.
+ * <p>
+ * Messages sent in the transaction are held until it commits.  Messages
+ * consumed in the transaction are removed from their stores when they are
+ * dequeued, and are returned to their stores if the transaction rolls
+ * back.
+ *
+ * @author Carl Harris
+ */
+class MemoryTransaction {
+
+  private final List<Delivery> dequeued = new ArrayList<Delivery>();
+  private final List<Destination> destinations = new ArrayList<Destination>();
+  private final List<MemoryMessage> enqueued = new ArrayList<MemoryMessage>();
+
+  private final MemoryBroker broker;
+
+  private boolean rollbackOnly;
+  private boolean prepared;
+
+  /**
+   * Constructs a new instance.
+   * @param broker broker on which the transaction runs
+   */
+  MemoryTransaction(MemoryBroker broker) {
+    this.broker = broker;
+  }
+
+  /**
+   * Records a message consumed in this transaction.
+   * @param delivery delivery of the consumed message
+   */
+  synchronized void dequeued(Delivery delivery) {
+    dequeued.add(delivery);
+  }
+
+  /**
+   * Records a message sent in this transaction.
+   * @param destination target destination
+   * @param message the message sent
+   */
+  synchronized void enqueued(Destination destination, MemoryMessage message) {
+    destinations.add(destination);
+    enqueued.add(message);
+  }
+
+  /**
+   * Gets a flag indicating whether any work was done in this transaction.
+   * @return {@code true} if no messages were sent or consumed
+   */
+  synchronized boolean isEmpty() {
+    return dequeued.isEmpty() && enqueued.isEmpty();
+  }
+
+  /**
+   * Gets a flag indicating whether this transaction can only roll back.
+   * @return {@code true} if the transaction can only roll back
+   */
+  synchronized boolean isRollbackOnly() {
+    return rollbackOnly;
+  }
+
+  /**
+   * Marks this transaction so that it can only roll back.
+   */
+  synchronized void setRollbackOnly() {
+    this.rollbackOnly = true;
+  }
+
+  /**
+   * Gets a flag indicating whether this transaction has been prepared.
+   * @return {@code true} if prepared
+   */
+  synchronized boolean isPrepared() {
+    return prepared;
+  }
+
+  /**
+   * Prepares this transaction to commit.
+   */
+  synchronized void prepare() {
+    this.prepared = true;
+  }
+
+  /**
+   * Commits this transaction, publishing the messages that were sent.
+   * <p>
+   * The broker's commit latency is applied before the messages are
+   * published.
+   * @throws JMSException
+   */
+  synchronized void commit() throws JMSException {
+    broker.commitDelay();
+    for (int i = 0; i < enqueued.size(); i++) {
+      broker.publish(destinations.get(i), enqueued.get(i));
+    }
+    clear();
+  }
+
+  /**
+   * Rolls back this transaction, returning the messages that were
+   * consumed to their stores.
+   */
+  synchronized void rollback() {
+    for (int i = dequeued.size() - 1; i >= 0; i--) {
+      dequeued.get(i).requeue();
+    }
+    clear();
+  }
+
+  private void clear() {
+    dequeued.clear();
+    destinations.clear();
+    enqueued.clear();
+    rollbackOnly = false;
+    prepared = false;
+  }
+
+}
@@ -0,0 +1,290 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.memory;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+import javax.jms.ConnectionConsumer;
+import javax.jms.ConnectionMetaData;
+import javax.jms.Destination;
+import javax.jms.ExceptionListener;
+import javax.jms.IllegalStateException;
+import javax.jms.InvalidDestinationException;
+import javax.jms.JMSException;
+import javax.jms.ServerSessionPool;
+import javax.jms.Session;
+import javax.jms.Topic;
+import javax.jms.XAConnection;
+import javax.jms.XASession;
+
+/**
+ * An in-memory {@link XAConnection} to a {@link MemoryBroker}.
+ * <p>
+ * A connection consumer created by the connection dequeues messages on a
+ * thread of its own and dispatches them through a
+ * {@link ServerSessionPool} whose sessions were created by this
+ * connection.  Message selectors are not supported.
+ *
+ * @author Carl Harris
+ */
+public class MemoryXAConnection implements XAConnection {
+
+  private static final Logger logger =
+      Logger.getLogger(MemoryXAConnection.class.getName());
+
+  private final CopyOnWriteArrayList<MemoryXASession> sessions =
+      new CopyOnWriteArrayList<MemoryXASession>();
+
+  private final CopyOnWriteArrayList<MemoryConnectionConsumer> consumers =
+      new CopyOnWriteArrayList<MemoryConnectionConsumer>();
+
+  private final MemoryBroker broker;
+
+  private volatile String clientId;
+  private volatile ExceptionListener exceptionListener;
+  private volatile boolean started;
+  private volatile boolean closed;
+  private volatile JMSException failure;
+
+  /**
+   * Constructs a new instance.
+   * @param broker the broker to which the connection is connected
+   */
+  MemoryXAConnection(MemoryBroker broker) {
+    this.broker = broker;
+  }
+
+  /**
+   * Gets the broker to which this connection is connected.
+   * @return broker
+   */
+  MemoryBroker getBroker() {
+    return broker;
+  }
+
+  /**
+   * Gets a flag indicating whether delivery of messages has been started.
+   * @return {@code true} if started
+   */
+  boolean isStarted() {
+    return started;
+  }
+
+  /**
+   * Throws an exception if this connection is closed or has failed.
+   * @throws JMSException
+   */
+  void checkOpen() throws JMSException {
+    if (closed) {
+      throw new IllegalStateException("connection is closed");
+    }
+    JMSException failure = this.failure;
+    if (failure != null) {
+      throw (JMSException) new JMSException("connection has failed: "
+          + failure.getMessage()).initCause(failure);
+    }
+  }
+
+  /**
+   * Fails this connection.
+   * <p>
+   * The connection's consumers stop delivering messages, and the
+   * connection's exception listener (if any) is notified on a new thread.
+   * @param ex the exception that describes the failure
+   */
+  void fail(final JMSException ex) {
+    if (closed || failure != null) return;
+    failure = ex;
+    for (MemoryConnectionConsumer consumer : consumers) {
+      consumer.close();
+    }
+    final ExceptionListener listener = exceptionListener;
+    if (listener == null) return;
+    Thread notifier = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        listener.onException(ex);
+      }
+    }, "memory-connection-failure");
+    notifier.setDaemon(true);
+    notifier.start();
+  }
+
+  /**
+   * Notifies this connection that one of its sessions has been closed.
+   * @param session the closed session
+   */
+  void sessionClosed(MemoryXASession session) {
+    sessions.remove(session);
+  }
+
+  /**
+   * Notifies this connection that one of its connection consumers has
+   * been closed.
+   * @param consumer the closed consumer
+   */
+  void consumerClosed(MemoryConnectionConsumer consumer) {
+    consumers.remove(consumer);
+  }
+
+  @Override
+  public XASession createXASession() throws JMSException {
+    checkOpen();
+    return addSession(new MemoryXASession(this));
+  }
+
+  @Override
+  public Session createSession(boolean transacted, int acknowledgeMode)
+      throws JMSException {
+    checkOpen();
+    return addSession(new MemoryXASession(this, transacted, acknowledgeMode));
+  }
+
+  @Override
+  public Session createSession(int sessionMode) throws JMSException {
+    return createSession(sessionMode == Session.SESSION_TRANSACTED,
+        sessionMode);
+  }
+
+  @Override
+  public Session createSession() throws JMSException {
+    return createSession(false, Session.AUTO_ACKNOWLEDGE);
+  }
+
+  private MemoryXASession addSession(MemoryXASession session) {
+    sessions.add(session);
+    return session;
+  }
+
+  @Override
+  public String getClientID() {
+    return clientId;
+  }
+
+  @Override
+  public void setClientID(String clientId) {
+    this.clientId = clientId;
+  }
+
+  @Override
+  public ConnectionMetaData getMetaData() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public ExceptionListener getExceptionListener() {
+    return exceptionListener;
+  }
+
+  @Override
+  public void setExceptionListener(ExceptionListener listener) {
+    this.exceptionListener = listener;
+  }
+
+  @Override
+  public void start() throws JMSException {
+    checkOpen();
+    started = true;
+  }
+
+  @Override
+  public void stop() throws JMSException {
+    checkOpen();
+    started = false;
+  }
+
+  @Override
+  public void close() {
+    if (closed) return;
+    closed = true;
+    started = false;
+    for (MemoryConnectionConsumer consumer : consumers) {
+      consumer.close();
+    }
+    for (MemoryXASession session : sessions) {
+      session.close();
+    }
+    broker.disconnected(this);
+    logger.finest("connection closed");
+  }
+
+  @Override
+  public ConnectionConsumer createConnectionConsumer(
+      Destination destination, String messageSelector,
+      ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+    checkOpen();
+    MemoryXASession.checkSelector(messageSelector);
+    if (destination instanceof javax.jms.Queue) {
+      MemoryQueue queue = broker.resolve((javax.jms.Queue) destination);
+      return addConsumer(new MemoryConnectionConsumer(this,
+          queue.getStore(), null, sessionPool, maxMessages));
+    }
+    if (destination instanceof Topic) {
+      MemoryTopic topic = broker.resolve((Topic) destination);
+      return addConsumer(new MemoryConnectionConsumer(this,
+          topic.subscribe(), topic, sessionPool, maxMessages));
+    }
+    throw new InvalidDestinationException(
+        "unsupported destination: " + destination);
+  }
+
+  @Override
+  public ConnectionConsumer createSharedConnectionConsumer(Topic topic,
+      String subscriptionName, String messageSelector,
+      ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+    return createSubscriptionConsumer(topic, null, subscriptionName,
+        messageSelector, sessionPool, maxMessages);
+  }
+
+  @Override
+  public ConnectionConsumer createDurableConnectionConsumer(Topic topic,
+      String subscriptionName, String messageSelector,
+      ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+    return createSubscriptionConsumer(topic, clientId, subscriptionName,
+        messageSelector, sessionPool, maxMessages);
+  }
+
+  @Override
+  public ConnectionConsumer createSharedDurableConnectionConsumer(
+      Topic topic, String subscriptionName, String messageSelector,
+      ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+    return createSubscriptionConsumer(topic, null, subscriptionName,
+        messageSelector, sessionPool, maxMessages);
+  }
+
+  private ConnectionConsumer createSubscriptionConsumer(Topic topic,
+      String clientId, String subscriptionName, String messageSelector,
+      ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+    checkOpen();
+    MemoryXASession.checkSelector(messageSelector);
+    MessageStore store = broker.resolve(topic).subscription(clientId,
+        subscriptionName);
+    return addConsumer(new MemoryConnectionConsumer(this, store, null,
+        sessionPool, maxMessages));
+  }
+
+  private MemoryConnectionConsumer addConsumer(
+      MemoryConnectionConsumer consumer) {
+    consumers.add(consumer);
+    consumer.start();
+    return consumer;
+  }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.XAResource;
+import javax.transaction.xa.Xid;
+
+/**
+ * The {@link XAResource} of a {@link MemoryXASession}.
+ * <p>
+ * Transaction branches are held by the broker, so that a branch started
+ * through one resource can be prepared, committed, rolled back or
+ * recovered through any resource of the same broker.
+ *
+ * @author Carl Harris
+ */
+public class MemoryXAResource implements XAResource {
+
+  private final MemoryBroker broker;
+  private final MemoryXASession session;
+
+  private volatile int transactionTimeout;
+
+  /**
+   * Constructs a new instance.
+   * @param broker broker that holds transaction branches
+   * @param session session whose work is associated with a branch
+   */
+  MemoryXAResource(MemoryBroker broker, MemoryXASession session) {
+    this.broker = broker;
+    this.session = session;
+  }
+
+  @Override
+  public void start(Xid xid, int flags) throws XAException {
+    ConcurrentMap<Xid, MemoryTransaction> transactions =
+        broker.getTransactions();
+    MemoryTransaction transaction;
+    if ((flags & (TMJOIN | TMRESUME)) != 0) {
+      transaction = lookup(xid);
+    }
+    else {
+      transaction = new MemoryTransaction(broker);
+      if (transactions.putIfAbsent(xid, transaction) != null) {
+        throw new XAException(XAException.XAER_DUPID);
+      }
+    }
+    session.associate(transaction);
+  }
+
+  @Override
+  public void end(Xid xid, int flags) throws XAException {
+    MemoryTransaction transaction = lookup(xid);
+    session.dissociate(transaction);
+    if ((flags & TMFAIL) != 0) {
+      transaction.setRollbackOnly();
+    }
+  }
+
+  @Override
+  public int prepare(Xid xid) throws XAException {
+    MemoryTransaction transaction = lookup(xid);
+    if (transaction.isRollbackOnly()) {
+      broker.getTransactions().remove(xid);
+      transaction.rollback();
+      throw new XAException(XAException.XA_RBROLLBACK);
+    }
+    if (transaction.isEmpty()) {
+      broker.getTransactions().remove(xid);
+      return XA_RDONLY;
+    }
+    transaction.prepare();
+    return XA_OK;
+  }
+
+  @Override
+  public void commit(Xid xid, boolean onePhase) throws XAException {
+    MemoryTransaction transaction = lookup(xid);
+    if (onePhase && transaction.isRollbackOnly()) {
+      broker.getTransactions().remove(xid);
+      transaction.rollback();
+      throw new XAException(XAException.XA_RBROLLBACK);
+    }
+    if (!onePhase && !transaction.isPrepared()) {
+      throw new XAException(XAException.XAER_PROTO);
+    }
+    broker.getTransactions().remove(xid);
+    try {
+      transaction.commit();
+    }
+    catch (Exception ex) {
+      XAException xex = new XAException(XAException.XAER_RMERR);
+      xex.initCause(ex);
+      throw xex;
+    }
+  }
+
+  @Override
+  public void rollback(Xid xid) throws XAException {
+    MemoryTransaction transaction = broker.getTransactions().remove(xid);
+    if (transaction == null) {
+      throw new XAException(XAException.XAER_NOTA);
+    }
+    transaction.rollback();
+  }
+
+  @Override
+  public void forget(Xid xid) throws XAException {
+    broker.getTransactions().remove(xid);
+  }
+
+  @Override
+  public Xid[] recover(int flag) throws XAException {
+    List<Xid> xids = new ArrayList<Xid>();
+    for (Map.Entry<Xid, MemoryTransaction> entry :
+        broker.getTransactions().entrySet()) {
+      if (entry.getValue().isPrepared()) {
+        xids.add(entry.getKey());
+      }
+    }
+    return xids.toArray(new Xid[xids.size()]);
+  }
+
+  @Override
+  public boolean isSameRM(XAResource resource) throws XAException {
+    return resource instanceof MemoryXAResource
+        && ((MemoryXAResource) resource).broker == broker;
+  }
+
+  @Override
+  public int getTransactionTimeout() throws XAException {
+    return transactionTimeout;
+  }
+
+  @Override
+  public boolean setTransactionTimeout(int seconds) throws XAException {
+    this.transactionTimeout = seconds;
+    return true;
+  }
+
+  private MemoryTransaction lookup(Xid xid) throws XAException {
+    MemoryTransaction transaction = broker.getTransactions().get(xid);
+    if (transaction == null) {
+      throw new XAException(XAException.XAER_NOTA);
+    }
+    return transaction;
+  }
+
+}
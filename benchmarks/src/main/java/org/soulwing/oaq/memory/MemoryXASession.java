@@ -0,0 +1,587 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.memory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.jms.BytesMessage;
+import javax.jms.Destination;
+import javax.jms.IllegalStateException;
+import javax.jms.InvalidDestinationException;
+import javax.jms.InvalidSelectorException;
+import javax.jms.JMSException;
+import javax.jms.MapMessage;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.MessageProducer;
+import javax.jms.ObjectMessage;
+import javax.jms.QueueBrowser;
+import javax.jms.Session;
+import javax.jms.StreamMessage;
+import javax.jms.TemporaryQueue;
+import javax.jms.TemporaryTopic;
+import javax.jms.TextMessage;
+import javax.jms.Topic;
+import javax.jms.TopicSubscriber;
+import javax.jms.TransactionInProgressException;
+import javax.jms.XASession;
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.XAResource;
+
+/**
+ * An in-memory {@link XASession}.
+ * <p>
+ * Messages are assigned to the session by a connection consumer (or
+ * using {@link #assign(Message)}) and are delivered to the session's
+ * message listener the next time {@link #run()} is invoked.  Messages
+ * may also be received synchronously using a {@link MessageConsumer}
+ * created by the session.
+ * <p>
+ * The work of an XA session is done in the transaction branch that is
+ * associated with the session through its {@link XAResource}.  A message
+ * delivered to the listener before a branch is started, as when the
+ * container starts the transaction in
+ * {@link javax.resource.spi.endpoint.MessageEndpoint#beforeDelivery}, is
+ * consumed in the branch started during delivery.  Work done when no
+ * branch is associated is acknowledged (and committed) automatically.
+ * <p>
+ * In {@link Session#CLIENT_ACKNOWLEDGE} mode, a message is consumed as 
+ * soon as it is delivered to the listener, so that the listener can 
+ * acknowledge it (along with any earlier messages) during delivery.  A
+ * message that is not acknowledged is redelivered after the session is
+ * recovered.
+ *
+ * @author Carl Harris
+ */
+public class MemoryXASession implements XASession {
+
+  private final Queue<Delivery> assigned =
+      new ConcurrentLinkedQueue<Delivery>();
+
+  private final List<Delivery> unacknowledged = new ArrayList<Delivery>();
+
+  private final List<MemoryMessageConsumer> consumers =
+      new CopyOnWriteArrayList<MemoryMessageConsumer>();
+
+  private final MemoryXAConnection connection;
+  private final MemoryBroker broker;
+  private final MemoryXAResource resource;
+  private final boolean transacted;
+  private final int acknowledgeMode;
+
+  private MessageListener listener;
+  private MemoryTransaction localTransaction;
+  private MemoryTransaction branch;
+  private Delivery pending;
+  private volatile boolean closed;
+
+  /**
+   * Constructs a new XA session.
+   * @param connection connection that owns the session
+   */
+  MemoryXASession(MemoryXAConnection connection) {
+    this.connection = connection;
+    this.broker = connection.getBroker();
+    this.resource = new MemoryXAResource(broker, this);
+    this.transacted = true;
+    this.acknowledgeMode = Session.SESSION_TRANSACTED;
+  }
+
+  /**
+   * Constructs a new (non-XA) session.
+   * @param connection connection that owns the session
+   * @param transacted flag indicating whether the session is transacted
+   * @param acknowledgeMode acknowledge mode for a session that is not
+   *    transacted
+   */
+  MemoryXASession(MemoryXAConnection connection, boolean transacted,
+      int acknowledgeMode) {
+    this.connection = connection;
+    this.broker = connection.getBroker();
+    this.resource = null;
+    this.transacted = transacted;
+    this.acknowledgeMode = transacted ?
+        Session.SESSION_TRANSACTED : acknowledgeMode;
+    if (transacted) {
+      this.localTransaction = new MemoryTransaction(broker);
+    }
+  }
+
+  /**
+   * Assigns a message to be delivered to the session's listener the next
+   * time the session is run.
+   * <p>
+   * A message assigned using this method was not dequeued from any of the
+   * broker's destinations, so it is simply discarded if it is not
+   * consumed.
+   * @param message the message to assign
+   */
+  public void assign(Message message) {
+    assigned.add(new Delivery(null, (MemoryMessage) message));
+  }
+
+  /**
+   * Assigns a dequeued message to be delivered to the session's listener
+   * the next time the session is run.
+   * @param delivery delivery of the message to assign
+   */
+  void assign(Delivery delivery) {
+    assigned.add(delivery);
+  }
+
+  @Override
+  public void run() {
+    Delivery delivery = assigned.poll();
+    while (delivery != null) {
+      if (branch != null) {
+        branch.dequeued(delivery);
+      }
+      else if (acknowledgeMode == Session.CLIENT_ACKNOWLEDGE) {
+        consumed(delivery);
+      }
+      else {
+        pending = delivery;
+      }
+      boolean delivered = false;
+      try {
+        listener.onMessage(delivery.getMessage());
+        delivered = true;
+      }
+      finally {
+        Delivery undecided = pending;
+        pending = null;
+        if (undecided != null) {
+          if (delivered) {
+            consumed(undecided);
+          }
+          else {
+            undecided.requeue();
+          }
+        }
+      }
+      delivery = assigned.poll();
+    }
+  }
+
+  /**
+   * Associates a transaction branch with this session.
+   * <p>
+   * A message that is being delivered to the listener when the branch is
+   * associated is consumed in the branch.
+   * @param transaction the transaction branch
+   * @throws XAException if a branch is already associated
+   */
+  void associate(MemoryTransaction transaction) throws XAException {
+    if (branch != null) {
+      throw new XAException(XAException.XAER_PROTO);
+    }
+    branch = transaction;
+    if (pending != null) {
+      branch.dequeued(pending);
+      pending = null;
+    }
+  }
+
+  /**
+   * Dissociates a transaction branch from this session.
+   * @param transaction the transaction branch
+   * @throws XAException if the branch is not associated with this session
+   */
+  void dissociate(MemoryTransaction transaction) throws XAException {
+    if (branch != transaction) {
+      throw new XAException(XAException.XAER_PROTO);
+    }
+    branch = null;
+  }
+
+  /**
+   * Records the consumption of a message by this session.
+   * @param delivery delivery of the consumed message
+   */
+  void consumed(Delivery delivery) {
+    if (branch != null) {
+      branch.dequeued(delivery);
+    }
+    else if (localTransaction != null) {
+      localTransaction.dequeued(delivery);
+    }
+    else if (acknowledgeMode == Session.CLIENT_ACKNOWLEDGE) {
+      delivery.getMessage().setAcknowledger(this);
+      synchronized (unacknowledged) {
+        unacknowledged.add(delivery);
+      }
+    }
+    else {
+      broker.commitDelay();
+    }
+  }
+
+  /**
+   * Records a message sent by this session.
+   * @param destination target destination
+   * @param message the message sent
+   * @throws JMSException
+   */
+  void produced(Destination destination, MemoryMessage message)
+      throws JMSException {
+    if (branch != null) {
+      branch.enqueued(destination, message);
+    }
+    else if (localTransaction != null) {
+      localTransaction.enqueued(destination, message);
+    }
+    else {
+      broker.publish(destination, message);
+      broker.commitDelay();
+    }
+  }
+
+  /**
+   * Acknowledges all messages consumed by this session that have not
+   * yet been acknowledged.
+   * @throws JMSException
+   */
+  void acknowledge() throws JMSException {
+    checkOpen();
+    synchronized (unacknowledged) {
+      if (unacknowledged.isEmpty()) return;
+      unacknowledged.clear();
+    }
+    broker.commitDelay();
+  }
+
+  /**
+   * Gets the broker used by this session.
+   * @return broker
+   */
+  MemoryBroker getBroker() {
+    return broker;
+  }
+
+  /**
+   * Notifies this session that one of its consumers has been closed.
+   * @param consumer the closed consumer
+   */
+  void consumerClosed(MemoryMessageConsumer consumer) {
+    consumers.remove(consumer);
+  }
+
+  /**
+   * Throws an exception if this session or its connection is closed or
+   * broken.
+   * @throws JMSException
+   */
+  void checkOpen() throws JMSException {
+    if (closed) {
+      throw new IllegalStateException("session is closed");
+    }
+    connection.checkOpen();
+  }
+
+  @Override
+  public MessageListener getMessageListener() {
+    return listener;
+  }
+
+  @Override
+  public void setMessageListener(MessageListener listener) {
+    this.listener = listener;
+  }
+
+  @Override
+  public Session getSession() {
+    return this;
+  }
+
+  @Override
+  public XAResource getXAResource() {
+    return resource;
+  }
+
+  @Override
+  public boolean getTransacted() {
+    return transacted;
+  }
+
+  @Override
+  public int getAcknowledgeMode() {
+    return acknowledgeMode;
+  }
+
+  @Override
+  public void commit() throws JMSException {
+    checkOpen();
+    if (resource != null) {
+      throw new TransactionInProgressException(
+          "XA session cannot commit a local transaction");
+    }
+    if (localTransaction == null) {
+      throw new IllegalStateException("session is not transacted");
+    }
+    localTransaction.commit();
+  }
+
+  @Override
+  public void rollback() throws JMSException {
+    checkOpen();
+    if (resource != null) {
+      throw new TransactionInProgressException(
+          "XA session cannot roll back a local transaction");
+    }
+    if (localTransaction == null) {
+      throw new IllegalStateException("session is not transacted");
+    }
+    localTransaction.rollback();
+  }
+
+  @Override
+  public void recover() throws JMSException {
+    checkOpen();
+    if (localTransaction != null) {
+      throw new IllegalStateException("session is transacted");
+    }
+    requeueUnacknowledged();
+  }
+
+  private void requeueUnacknowledged() {
+    synchronized (unacknowledged) {
+      for (int i = unacknowledged.size() - 1; i >= 0; i--) {
+        unacknowledged.get(i).requeue();
+      }
+      unacknowledged.clear();
+    }
+  }
+
+  @Override
+  public void close() {
+    if (closed) return;
+    closed = true;
+    for (MemoryMessageConsumer consumer : consumers) {
+      consumer.close();
+    }
+    Delivery delivery = assigned.poll();
+    while (delivery != null) {
+      delivery.putBack();
+      delivery = assigned.poll();
+    }
+    if (localTransaction != null) {
+      localTransaction.rollback();
+    }
+    requeueUnacknowledged();
+    connection.sessionClosed(this);
+  }
+
+  @Override
+  public Message createMessage() {
+    return new MemoryMessage();
+  }
+
+  @Override
+  public TextMessage createTextMessage() {
+    return new MemoryTextMessage();
+  }
+
+  @Override
+  public TextMessage createTextMessage(String text) {
+    return new MemoryTextMessage(text);
+  }
+
+  @Override
+  public BytesMessage createBytesMessage() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public MapMessage createMapMessage() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public ObjectMessage createObjectMessage() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public ObjectMessage createObjectMessage(Serializable object) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public StreamMessage createStreamMessage() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public MessageProducer createProducer(Destination destination)
+      throws JMSException {
+    checkOpen();
+    return new MemoryMessageProducer(this, destination);
+  }
+
+  @Override
+  public MessageConsumer createConsumer(Destination destination)
+      throws JMSException {
+    return createConsumer(destination, null, false);
+  }
+
+  @Override
+  public MessageConsumer createConsumer(Destination destination,
+      String messageSelector) throws JMSException {
+    return createConsumer(destination, messageSelector, false);
+  }
+
+  @Override
+  public MessageConsumer createConsumer(Destination destination,
+      String messageSelector, boolean noLocal) throws JMSException {
+    checkOpen();
+    checkSelector(messageSelector);
+    if (destination instanceof javax.jms.Queue) {
+      MemoryQueue queue = broker.resolve((javax.jms.Queue) destination);
+      return addConsumer(new MemoryMessageConsumer(this, queue,
+          queue.getStore(), null));
+    }
+    if (destination instanceof Topic) {
+      MemoryTopic topic = broker.resolve((Topic) destination);
+      return addConsumer(new MemoryMessageConsumer(this, topic,
+          topic.subscribe(), topic));
+    }
+    throw new InvalidDestinationException(
+        "unsupported destination: " + destination);
+  }
+
+  @Override
+  public MessageConsumer createSharedConsumer(Topic topic,
+      String sharedSubscriptionName) throws JMSException {
+    return createSharedConsumer(topic, sharedSubscriptionName, null);
+  }
+
+  @Override
+  public MessageConsumer createSharedConsumer(Topic topic,
+      String sharedSubscriptionName, String messageSelector)
+      throws JMSException {
+    return createSubscriber(topic, null, sharedSubscriptionName,
+        messageSelector);
+  }
+
+  @Override
+  public javax.jms.Queue createQueue(String queueName) throws JMSException {
+    checkOpen();
+    return broker.getQueue(queueName);
+  }
+
+  @Override
+  public Topic createTopic(String topicName) throws JMSException {
+    checkOpen();
+    return broker.getTopic(topicName);
+  }
+
+  @Override
+  public TopicSubscriber createDurableSubscriber(Topic topic, String name)
+      throws JMSException {
+    return createDurableSubscriber(topic, name, null, false);
+  }
+
+  @Override
+  public TopicSubscriber createDurableSubscriber(Topic topic, String name,
+      String messageSelector, boolean noLocal) throws JMSException {
+    return createSubscriber(topic, connection.getClientID(), name,
+        messageSelector);
+  }
+
+  @Override
+  public MessageConsumer createDurableConsumer(Topic topic, String name)
+      throws JMSException {
+    return createDurableSubscriber(topic, name, null, false);
+  }
+
+  @Override
+  public MessageConsumer createDurableConsumer(Topic topic, String name,
+      String messageSelector, boolean noLocal) throws JMSException {
+    return createDurableSubscriber(topic, name, messageSelector, noLocal);
+  }
+
+  @Override
+  public MessageConsumer createSharedDurableConsumer(Topic topic,
+      String name) throws JMSException {
+    return createSharedDurableConsumer(topic, name, null);
+  }
+
+  @Override
+  public MessageConsumer createSharedDurableConsumer(Topic topic,
+      String name, String messageSelector) throws JMSException {
+    return createSubscriber(topic, null, name, messageSelector);
+  }
+
+  private MemoryMessageConsumer createSubscriber(Topic topic,
+      String clientId, String name, String messageSelector)
+      throws JMSException {
+    checkOpen();
+    checkSelector(messageSelector);
+    MemoryTopic memoryTopic = broker.resolve(topic);
+    return addConsumer(new MemoryMessageConsumer(this, memoryTopic,
+        memoryTopic.subscription(clientId, name), null));
+  }
+
+  private MemoryMessageConsumer addConsumer(MemoryMessageConsumer consumer) {
+    consumers.add(consumer);
+    return consumer;
+  }
+
+  @Override
+  public QueueBrowser createBrowser(javax.jms.Queue queue) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public QueueBrowser createBrowser(javax.jms.Queue queue,
+      String messageSelector) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public TemporaryQueue createTemporaryQueue() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public TemporaryTopic createTemporaryTopic() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void unsubscribe(String name) throws JMSException {
+    checkOpen();
+    if (!broker.unsubscribe(connection.getClientID(), name)) {
+      throw new InvalidDestinationException("no such subscription: " + name);
+    }
+  }
+
+  static void checkSelector(String messageSelector)
+      throws InvalidSelectorException {
+    if (messageSelector == null || messageSelector.trim().isEmpty()) return;
+    throw new InvalidSelectorException("message selectors not supported");
+  }
+
+}
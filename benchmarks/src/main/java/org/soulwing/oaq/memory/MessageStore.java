@@ -0,0 +1,105 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq.memory;
+
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An ordered store of the messages on a queue or topic subscription.
+ * <p>
+ * A message that is dequeued is removed from the store; if the
+ * transaction (or acknowledgement) that consumed it is rolled back, the
+ * message is returned to the head of the store and marked as
+ * redelivered.
+ *
+ * @author Carl Harris
+ */
+class MessageStore {
+
+  private final LinkedBlockingDeque<MemoryMessage> messages =
+      new LinkedBlockingDeque<MemoryMessage>();
+
+  private final MemoryBroker broker;
+
+  /**
+   * Constructs a new instance.
+   * @param broker broker that holds the store
+   */
+  MessageStore(MemoryBroker broker) {
+    this.broker = broker;
+  }
+
+  /**
+   * Adds a message to the tail of the store.
+   * @param message the message to add
+   */
+  void add(MemoryMessage message) {
+    messages.addLast(message);
+  }
+
+  /**
+   * Dequeues the message at the head of the store, waiting if necessary
+   * for a message to become available.
+   * <p>
+   * The broker's dequeue latency is applied to each message dequeued.
+   * @param timeout maximum time to wait for a message in milliseconds;
+   *    zero means don't wait at all
+   * @return the message or {@code null} if no message became available
+   *    before the timeout expired
+   * @throws InterruptedException
+   */
+  MemoryMessage poll(long timeout) throws InterruptedException {
+    MemoryMessage message = timeout > 0 ?
+        messages.pollFirst(timeout, TimeUnit.MILLISECONDS)
+        : messages.pollFirst();
+    if (message != null) {
+      broker.dequeueDelay();
+    }
+    return message;
+  }
+
+  /**
+   * Returns a message that was dequeued but never delivered to the head
+   * of the store.
+   * @param message the message to return
+   */
+  void putBack(MemoryMessage message) {
+    messages.addFirst(message);
+  }
+
+  /**
+   * Returns a message that was delivered but not consumed to the head of
+   * the store, marking it as redelivered.
+   * @param message the message to return
+   */
+  void requeue(MemoryMessage message) {
+    message.redeliver();
+    messages.addFirst(message);
+  }
+
+  /**
+   * Gets the number of messages in the store.
+   * @return number of messages
+   */
+  int size() {
+    return messages.size();
+  }
+
+}
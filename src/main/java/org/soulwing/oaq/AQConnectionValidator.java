@@ -0,0 +1,56 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.sql.SQLException;
+
+import javax.jms.JMSException;
+import javax.jms.Session;
+
+import oracle.jms.AQjmsSession;
+
+/**
+ * A {@link ConnectionValidator} that asks the JDBC driver to validate the
+ * database connection of an {@link AQjmsSession}.
+ * <p>
+ * Validation of a session of any other type succeeds without contacting
+ * the database.
+ *
+ * @author Carl Harris
+ */
+class AQConnectionValidator implements ConnectionValidator {
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void validate(Session session, long timeout) throws JMSException {
+    if (!(session instanceof AQjmsSession)) return;
+    int seconds = (int) Math.max(1, (timeout + 999) / 1000);
+    try {
+      if (((AQjmsSession) session).getDBConnection().isValid(seconds)) return;
+      throw new JMSException("database connection is not valid");
+    }
+    catch (SQLException ex) {
+      throw (JMSException) new JMSException(
+          "cannot validate database connection").initCause(ex);
+    }
+  }
+
+}
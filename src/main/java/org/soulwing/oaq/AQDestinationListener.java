@@ -0,0 +1,173 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.sql.CallableStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jms.Destination;
+import javax.jms.InvalidDestinationException;
+import javax.jms.JMSException;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.jms.Topic;
+
+import oracle.jms.AQjmsDestination;
+import oracle.jms.AQjmsSession;
+
+/**
+ * A {@link DestinationListener} that uses {@code DBMS_AQ.LISTEN} on the
+ * database connection of an {@link AQjmsSession}.
+ * <p>
+ * Each target becomes an agent in the list passed to {@code LISTEN}; 
+ * the agent's address is the (schema-qualified, when known) name of the
+ * target's queue, and for a topic the agent's name is the name of the
+ * target's durable subscription.  Because {@code LISTEN} waits in whole
+ * seconds, the timeout is rounded up to the next second.
+ *
+ * @author Carl Harris
+ */
+class AQDestinationListener implements DestinationListener {
+
+  /** Error code for a {@code LISTEN} that timed out */
+  static final int LISTEN_TIMEOUT = 25254;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Target listen(Session session, List<? extends Target> targets,
+      long timeout) throws JMSException {
+    if (!(session instanceof AQjmsSession)) {
+      throw new JMSException("session is not an AQ session");
+    }
+    if (targets.isEmpty()) return null;
+    List<String> addresses = new ArrayList<String>(targets.size());
+    for (Target target : targets) {
+      addresses.add(address(target.getDestination()));
+    }
+    int seconds = (int) Math.max(1, (timeout + 999) / 1000);
+    try {
+      CallableStatement statement = ((AQjmsSession) session)
+          .getDBConnection().prepareCall(listenBlock(targets.size()));
+      try {
+        int index = 1;
+        for (int i = 0; i < targets.size(); i++) {
+          statement.setString(index++, targets.get(i).getSubscriptionName());
+          statement.setString(index++, addresses.get(i));
+        }
+        statement.setInt(index++, seconds);
+        statement.registerOutParameter(index, Types.VARCHAR);
+        statement.registerOutParameter(index + 1, Types.VARCHAR);
+        statement.execute();
+        String name = statement.getString(index);
+        String address = statement.getString(index + 1);
+        for (int i = 0; i < targets.size(); i++) {
+          if (matches(targets.get(i).getSubscriptionName(), addresses.get(i),
+              name, address)) {
+            return targets.get(i);
+          }
+        }
+        throw new JMSException("unexpected listen result for agent " 
+            + name + " at " + address);
+      }
+      finally {
+        statement.close();
+      }
+    }
+    catch (SQLException ex) {
+      if (ex.getErrorCode() == LISTEN_TIMEOUT) return null;
+      throw (JMSException) new JMSException(
+          "cannot listen for messages").initCause(ex);
+    }
+  }
+
+  /**
+   * Gets the AQ address of a destination.
+   * @param destination the subject destination
+   * @return queue name, qualified by its schema when the schema is known
+   * @throws JMSException
+   */
+  static String address(Destination destination) throws JMSException {
+    if (destination instanceof AQjmsDestination) {
+      return ((AQjmsDestination) destination).getCompleteName();
+    }
+    if (destination instanceof AdministeredQueue) {
+      AdministeredQueue queue = (AdministeredQueue) destination;
+      if (queue.getOwner() == null) return queue.getPhysicalName();
+      return queue.getOwner() + "." + queue.getPhysicalName();
+    }
+    if (destination instanceof Queue) {
+      return ((Queue) destination).getQueueName();
+    }
+    if (destination instanceof Topic) {
+      return ((Topic) destination).getTopicName();
+    }
+    throw new InvalidDestinationException(
+        "unsupported destination: " + destination);
+  }
+
+  /**
+   * Creates the anonymous PL/SQL block that listens on a list of agents.
+   * <p>
+   * The block takes the name and address of each agent, followed by the
+   * wait time, and returns the name and address of the agent on which a
+   * message is ready.
+   * @param count number of agents
+   * @return PL/SQL block
+   */
+  static String listenBlock(int count) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("DECLARE agents DBMS_AQ.AQ$_AGENT_LIST_T; ");
+    sb.append("agent SYS.AQ$_AGENT; BEGIN ");
+    for (int i = 1; i <= count; i++) {
+      sb.append("agents(").append(i).append(") := SYS.AQ$_AGENT(?, ?, NULL); ");
+    }
+    sb.append("DBMS_AQ.LISTEN(agent_list => agents, wait => ?, ");
+    sb.append("agent => agent); ? := agent.name; ? := agent.address; END;");
+    return sb.toString();
+  }
+
+  /**
+   * Tests whether the agent returned by {@code LISTEN} matches a target.
+   * <p>
+   * The database reports names in its own (upper) case, and qualifies an
+   * address that was given without a schema.
+   * @param targetName name given for the target's agent
+   * @param targetAddress address given for the target's agent
+   * @param name name of the agent returned by {@code LISTEN}
+   * @param address address of the agent returned by {@code LISTEN}
+   * @return {@code true} if the returned agent is the target's agent
+   */
+  static boolean matches(String targetName, String targetAddress, 
+      String name, String address) {
+    if (address == null) return false;
+    if (targetName != null && !targetName.equalsIgnoreCase(name)) {
+      return false;
+    }
+    String unquoted = address.replace("\"", "");
+    return unquoted.equalsIgnoreCase(targetAddress)
+        || unquoted.toUpperCase().endsWith(
+            "." + targetAddress.toUpperCase());
+  }
+
+}
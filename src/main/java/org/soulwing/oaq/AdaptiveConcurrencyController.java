@@ -0,0 +1,140 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * A controller that adjusts the number of sessions that an endpoint may
+ * use concurrently, based on the observed latency of session runs and 
+ * the backlog of work waiting for a session.
+ * <p>
+ * The controller uses an additive-increase/multiplicative-decrease (AIMD)
+ * policy.  Each time the controller runs, it compares the mean latency of 
+ * the session runs completed since it last ran to a baseline latency.  If 
+ * the mean latency exceeds the baseline by more than the tolerance, the
+ * limit on active sessions is reduced by a constant factor; otherwise, if 
+ * the pool was exhausted (so that the connection consumer had to wait for 
+ * a session), the limit is increased by one.  The limit always remains 
+ * between the configured minimum and maximum.
+ * <p>
+ * The baseline tracks the lowest mean latency observed, but drifts slowly 
+ * towards the current mean, so that a lasting change in the cost of 
+ * delivery eventually becomes the new baseline.
+ *
+ * @author Carl Harris
+ */
+class AdaptiveConcurrencyController 
+    implements Runnable, SessionRunObserver {
+
+  static final long DEFAULT_INTERVAL = 1000;
+
+  static final double LATENCY_TOLERANCE = 2.0;
+
+  static final double DECREASE_FACTOR = 0.75;
+
+  private static final int BASELINE_DRIFT = 20;
+
+  private final Logger logger = Logger.getLogger(getClass().getName());
+
+  private final AtomicLong runCount = new AtomicLong();
+  private final AtomicLong runTime = new AtomicLong();
+
+  private final ResizableServerSessionPool sessionPool;
+  private final int minActive;
+  private final int maxActive;
+
+  private long lastRunCount;
+  private long lastRunTime;
+  private long lastWaitCount;
+  private double baseline;
+
+  /**
+   * Constructs a new instance.
+   * @param sessionPool the pool whose limit is to be adjusted
+   * @param minActive lower bound on the limit
+   * @param maxActive upper bound on the limit
+   */
+  public AdaptiveConcurrencyController(
+      ResizableServerSessionPool sessionPool, int minActive, int maxActive) {
+    this.sessionPool = sessionPool;
+    this.minActive = Math.max(1, Math.min(minActive, maxActive));
+    this.maxActive = maxActive;
+    this.lastWaitCount = sessionPool.getWaitCount();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void sessionRunCompleted(long elapsed, boolean successful) {
+    runTime.addAndGet(elapsed);
+    runCount.incrementAndGet();
+  }
+
+  /**
+   * Adjusts the limit on active sessions.
+   */
+  @Override
+  public void run() {
+    long count = runCount.get();
+    long time = runTime.get();
+    long waitCount = sessionPool.getWaitCount();
+    long runs = count - lastRunCount;
+    long elapsed = time - lastRunTime;
+    boolean exhausted = waitCount != lastWaitCount;
+    lastRunCount = count;
+    lastRunTime = time;
+    lastWaitCount = waitCount;
+
+    int limit = sessionPool.getMaxActive();
+    int newLimit = limit;
+    if (runs > 0) {
+      double latency = (double) elapsed / runs;
+      updateBaseline(latency);
+      if (latency > baseline * LATENCY_TOLERANCE) {
+        newLimit = Math.min(limit - 1, (int) (limit * DECREASE_FACTOR));
+      }
+      else if (exhausted) {
+        newLimit = limit + 1;
+      }
+    }
+    else if (exhausted) {
+      newLimit = limit + 1;
+    }
+
+    newLimit = Math.max(minActive, Math.min(maxActive, newLimit));
+    if (newLimit != limit) {
+      logger.fine("adjusting session limit from " + limit 
+          + " to " + newLimit);
+      sessionPool.setMaxActive(newLimit);
+    }
+  }
+
+  private void updateBaseline(double latency) {
+    if (baseline == 0 || latency < baseline) {
+      baseline = latency;
+    }
+    else {
+      baseline += (latency - baseline) / BASELINE_DRIFT;
+    }
+  }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import javax.resource.spi.ActivationSpec;
+
+/**
+ * An {@link ActivationSpec} for a {@link BatchMessageListener}.
+ * <p>
+ * A batch is itself delivered in a single transaction, so the inherited
+ * {@code batchSize} and {@code batchTimeout} properties do not apply; 
+ * use {@code maxBatchSize} and {@code maxBatchWait} instead.
+ *
+ * @author Carl Harris
+ */
+public class BatchMessageActivationSpec extends MessageActivationSpec {
+
+  private static final Integer DEFAULT_MAX_BATCH_SIZE = 10;
+  private static final Long DEFAULT_MAX_BATCH_WAIT = 0L;
+
+  private Integer maxBatchSize;
+  private Long maxBatchWait;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  void validate(Errors errors) {
+    super.validate(errors);
+    validateInheritedBatchSize(errors);
+    validateInheritedBatchTimeout(errors);
+    validateMaxBatchSize(errors);
+    validateMaxBatchWait(errors);
+  }
+
+  private void validateInheritedBatchSize(Errors errors) {
+    if (getBatchSize() == 1) return;
+    errors.addError("batchSize", 
+        "not supported for a batch listener; use maxBatchSize");
+  }
+
+  private void validateInheritedBatchTimeout(Errors errors) {
+    if (getBatchTimeout() == 0) return;
+    errors.addError("batchTimeout", 
+        "not supported for a batch listener; use maxBatchWait");
+  }
+
+  private void validateMaxBatchSize(Errors errors) {
+    if (getMaxBatchSize() > 0) return;
+    errors.addError("maxBatchSize", "a positive integer value is required");
+  }
+
+  private void validateMaxBatchWait(Errors errors) {
+    if (getMaxBatchWait() >= 0) return;
+    errors.addError("maxBatchWait", "a non-negative value is required");
+  }
+
+  /**
+   * Gets the {@code maxMessages} property.
+   * <p>
+   * A batch never spans more than one run of a server session, so the 
+   * value of this property is never less than {@link #getMaxBatchSize()}.
+   * @return
+   */
+  @Override
+  public Integer getMaxMessages() {
+    return Math.max(super.getMaxMessages(), getMaxBatchSize());
+  }
+
+  /**
+   * Gets the {@code maxBatchSize} property.
+   * <p>
+   * This property specifies the maximum number of messages that are 
+   * passed to the listener in a single call.
+   * @return
+   */
+  public Integer getMaxBatchSize() {
+    if (maxBatchSize == null) return DEFAULT_MAX_BATCH_SIZE;
+    return maxBatchSize;
+  }
+
+  /**
+   * Sets the {@code maxBatchSize} property.
+   * @param maxBatchSize
+   */
+  public void setMaxBatchSize(Integer maxBatchSize) {
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * Gets the {@code maxBatchWait} property.
+   * <p>
+   * This property specifies the age (in milliseconds) of a batch's first 
+   * message after which the batch is passed to the listener as soon as 
+   * the next message is added to it.  It is a cut-off, not a linger: the
+   * adapter never waits for more messages to arrive, and a partial batch 
+   * is always passed to the listener when the server session has no 
+   * more messages to deliver.  Zero (the default) means that a batch is 
+   * passed to the listener only when it is full or when the server 
+   * session has no more messages to deliver.
+   * @return
+   */
+  public Long getMaxBatchWait() {
+    if (maxBatchWait == null) return DEFAULT_MAX_BATCH_WAIT;
+    return maxBatchWait;
+  }
+
+  /**
+   * Sets the {@code maxBatchWait} property.
+   * @param maxBatchWait
+   */
+  public void setMaxBatchWait(Long maxBatchWait) {
+    this.maxBatchWait = maxBatchWait;
+  }
+
+}
@@ -0,0 +1,341 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+import javax.resource.ResourceException;
+import javax.resource.spi.endpoint.MessageEndpoint;
+
+/**
+ * An endpoint that collects messages into batches on behalf of a 
+ * message-driven bean that implements {@link BatchMessageListener}.
+ * <p>
+ * The transaction for a batch is started (using 
+ * {@link MessageEndpoint#beforeDelivery(Method)}) when the first message
+ * of the batch arrives, so that every message in the batch is consumed in
+ * the same transaction.  The batch is passed to the bean when it reaches
+ * the maximum batch size, when its first message has waited for the 
+ * maximum batch wait, or when the session finishes its run, whichever 
+ * comes first.  The transaction is completed after the bean returns.
+ * <p>
+ * A message that is redelivered (e.g. because it was part of a batch that
+ * rolled back) is always passed to the bean in a batch of its own, so that
+ * a message that cannot be consumed causes only its own transaction to
+ * roll back.
+ * <p>
+ * An exception thrown by the bean's listener method is wrapped in a 
+ * {@link ListenerFailedException}, so that the session that delivered the
+ * batch can tell it apart from a failure of the endpoint itself.
+ * <p>
+ * When a {@link MessageQuarantine} is configured, a message that has 
+ * failed too many times is moved to the exception queue in a transaction
+ * of its own, without invoking the bean.
+ * <p>
+ * When the endpoint is not delivery-transacted, there is no transaction 
+ * to complete a batch.  The session then uses 
+ * {@link Session#CLIENT_ACKNOWLEDGE} mode, and the proxy acknowledges the
+ * batch after the bean returns, or recovers the session (so that the 
+ * batch is redelivered) if the bean throws.
+ *
+ * @author Carl Harris
+ */
+class BatchMessageEndpointProxy implements SessionRunListener {
+
+  static final Method onMessagesMethod;
+  
+  private final Logger logger = Logger.getLogger(getClass().getName());
+
+  private final List<Message> batch = new ArrayList<Message>();
+  
+  private final MessageEndpoint endpoint;
+  private final int maxBatchSize;
+  private final long maxBatchWait;
+  private final MessageQuarantine quarantine;
+  
+  private MessageEndpointStatistics statistics;
+  private EndpointEventLog eventLog;
+  private Session acknowledgeSession;
+  private long batchDeadline;
+  private long beforeDeliveryTime;
+  
+  static {
+    try {
+      onMessagesMethod = BatchMessageListener.class.getMethod("onMessages", 
+          List.class);
+    }
+    catch (NoSuchMethodException ex) {
+      throw new ExceptionInInitializerError(ex);
+    }
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param endpoint
+   * @param maxBatchSize maximum number of messages in a batch
+   * @param maxBatchWait age (in milliseconds) of a batch's first message
+   *    after which the next message added completes the batch; zero 
+   *    means that only the batch size and the end of the session's run 
+   *    complete a batch
+   */
+  public BatchMessageEndpointProxy(MessageEndpoint endpoint, 
+      int maxBatchSize, long maxBatchWait) {
+    this(endpoint, maxBatchSize, maxBatchWait, null);
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param endpoint
+   * @param maxBatchSize maximum number of messages in a batch
+   * @param maxBatchWait age (in milliseconds) of a batch's first message
+   *    after which the next message added completes the batch; zero 
+   *    means that only the batch size and the end of the session's run 
+   *    complete a batch
+   * @param quarantine quarantine for messages that repeatedly fail or
+   *    {@code null} if failures are not to be tracked
+   */
+  public BatchMessageEndpointProxy(MessageEndpoint endpoint, 
+      int maxBatchSize, long maxBatchWait, MessageQuarantine quarantine) {
+    this.endpoint = endpoint;
+    this.maxBatchSize = Math.max(1, maxBatchSize);
+    this.maxBatchWait = Math.max(0, maxBatchWait);
+    this.quarantine = quarantine;
+  }
+
+  /**
+   * Sets the statistics in which deliveries are to be recorded.
+   * @param statistics the statistics to set, or {@code null} if 
+   *    deliveries are not to be recorded
+   */
+  public void setStatistics(MessageEndpointStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  /**
+   * Sets the log to which diagnostic events for deliveries are written.
+   * @param eventLog the event log to set, or {@code null} if events are
+   *    not to be logged
+   */
+  public void setEventLog(EndpointEventLog eventLog) {
+    this.eventLog = eventLog;
+  }
+
+  /**
+   * Sets the session on which the proxy acknowledges each batch.
+   * @param acknowledgeSession a session in {@link Session#CLIENT_ACKNOWLEDGE}
+   *    mode, or {@code null} if batches are completed by a transaction
+   */
+  public void setAcknowledgeSession(Session acknowledgeSession) {
+    this.acknowledgeSession = acknowledgeSession;
+  }
+
+  @Override
+  public void onMessage(Message message) {
+    try {
+      if (quarantine != null && quarantine.isPoisoned(message)) {
+        quarantine(message);
+        return;
+      }
+      boolean redelivered = isRedelivered(message);
+      if (!batch.isEmpty() && redelivered) {
+        deliverBatch();
+      }
+      if (batch.isEmpty()) {
+        beginBatch();
+      }
+      batch.add(message);
+      if (batch.size() >= maxBatchSize || redelivered || isBatchExpired()) {
+        deliverBatch();
+      }
+    }
+    catch (NoSuchMethodException ex) {
+      throw new RuntimeException(ex);
+    }
+    catch (ResourceException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void sessionRunCompleted() {
+    if (batch.isEmpty()) return;
+    try {
+      deliverBatch();
+    }
+    catch (ResourceException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  private void quarantine(Message message) 
+      throws NoSuchMethodException, ResourceException {
+    if (!batch.isEmpty()) {
+      deliverBatch();
+    }
+    endpoint.beforeDelivery(onMessagesMethod);
+    try {
+      quarantine.quarantine(message);
+    }
+    catch (JMSException ex) {
+      completeFailedDelivery();
+      recover();
+      throw new RuntimeException(ex);
+    }
+    endpoint.afterDelivery();
+    acknowledge(message);
+    if (statistics != null) {
+      statistics.messageQuarantined();
+    }
+  }
+
+  private void beginBatch() throws NoSuchMethodException, ResourceException {
+    if (eventLog != null && eventLog.isEnabled()) {
+      final long start = System.nanoTime();
+      endpoint.beforeDelivery(onMessagesMethod);
+      beforeDeliveryTime = System.nanoTime() - start;
+    }
+    else {
+      endpoint.beforeDelivery(onMessagesMethod);
+    }
+    if (maxBatchWait > 0) {
+      batchDeadline = System.currentTimeMillis() + maxBatchWait;
+    }
+  }
+
+  private void deliverBatch() throws ResourceException {
+    List<Message> messages = 
+        Collections.unmodifiableList(new ArrayList<Message>(batch));
+    batch.clear();
+    final long start = System.nanoTime();
+    try {
+      ((BatchMessageListener) endpoint).onMessages(messages);
+    }
+    catch (RuntimeException ex) {
+      final long end = System.nanoTime();
+      if (statistics != null) {
+        statistics.listenerCompleted(end - start);
+        statistics.messagesFailed(messages.size());
+      }
+      completeFailedDelivery();
+      recover();
+      if (statistics != null) {
+        statistics.messagesRolledBack(messages.size());
+      }
+      logDelivery(start, end, false);
+      if (quarantine != null) {
+        recordFailure(messages);
+      }
+      throw new ListenerFailedException(ex);
+    }
+    final long end = System.nanoTime();
+    if (statistics != null) {
+      statistics.listenerCompleted(end - start);
+    }
+    if (quarantine != null) {
+      for (Message message : messages) {
+        quarantine.deliverySucceeded(message);
+      }
+    }
+    endpoint.afterDelivery();
+    acknowledge(messages.get(messages.size() - 1));
+    if (statistics != null) {
+      statistics.messagesDelivered(messages.size());
+    }
+    logDelivery(start, end, true);
+  }
+
+  private void acknowledge(Message message) {
+    if (acknowledgeSession == null) return;
+    try {
+      // acknowledges every message consumed by the session so far
+      message.acknowledge();
+    }
+    catch (JMSException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  private void recover() {
+    if (acknowledgeSession == null) return;
+    try {
+      acknowledgeSession.recover();
+    }
+    catch (JMSException ex) {
+      logger.warning("error recovering session: " + ex);
+    }
+  }
+
+  /**
+   * Records a failed delivery with the quarantine.
+   * <p>
+   * The messages of a failed batch are redelivered, and each redelivered
+   * message is delivered on its own.  A failure is therefore charged only 
+   * to a message that was delivered singly, so that a message is not 
+   * quarantined merely for having shared a batch with a poisoned one.
+   * @param messages the messages whose delivery failed
+   */
+  private void recordFailure(List<Message> messages) {
+    for (Message message : messages) {
+      if (messages.size() == 1 || isRedelivered(message)) {
+        quarantine.deliveryFailed(message);
+      }
+    }
+  }
+
+  private void logDelivery(long start, long end, boolean successful) {
+    if (eventLog == null || !eventLog.isEnabled()) return;
+    eventLog.delivery(beforeDeliveryTime, end - start, 
+        System.nanoTime() - end, successful);
+    beforeDeliveryTime = 0;
+  }
+
+  private void completeFailedDelivery() {
+    try {
+      endpoint.afterDelivery();
+    }
+    catch (ResourceException ex) {
+      logger.warning("error completing failed delivery: " + ex);
+    }
+  }
+
+  private boolean isBatchExpired() {
+    return maxBatchWait > 0 
+        && System.currentTimeMillis() >= batchDeadline;
+  }
+
+  private boolean isRedelivered(Message message) {
+    try {
+      return message.getJMSRedelivered();
+    }
+    catch (JMSException ex) {
+      return false;
+    }
+  }
+
+}
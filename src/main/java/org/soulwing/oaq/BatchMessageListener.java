@@ -0,0 +1,45 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.List;
+
+import javax.jms.Message;
+
+/**
+ * A listener that receives messages in batches.
+ * <p>
+ * A message-driven bean that implements this interface (with the 
+ * corresponding {@link BatchMessageActivationSpec}) receives the messages
+ * dequeued by a session as a list, so that it can amortize the cost of
+ * downstream work (e.g. a JDBC batch insert) over many messages.  All of
+ * the messages in a batch are delivered in a single transaction.
+ *
+ * @author Carl Harris
+ */
+public interface BatchMessageListener {
+
+  /**
+   * Passes a batch of messages to the listener.
+   * @param messages the messages in the batch; the list is not modifiable
+   *    and is never empty
+   */
+  void onMessages(List<Message> messages);
+
+}
@@ -106,8 +106,15 @@ public class CommonsServerSessionPool implements MutableServerSessionPool {
    */
   @Override
   public void close() {
-    // TODO
-    throw new UnsupportedOperationException();
+    try {
+      pool.close();
+    }
+    catch (RuntimeException ex) {
+      throw ex;
+    }
+    catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
   }
 
   /**
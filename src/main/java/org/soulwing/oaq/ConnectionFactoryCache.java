@@ -0,0 +1,204 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import static org.soulwing.oaq.OAQLogger.LOGGER;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.XAConnectionFactory;
+
+/**
+ * A cache of connection factories, keyed by connection request info.
+ * <p>
+ * Each distinct combination of database URL and credentials gets one
+ * data source and at most one XA and one non-XA connection factory, 
+ * which are created when first needed and shared by every endpoint that
+ * connects using the same connection request info.  Each activated 
+ * endpoint retains the entry for its connection request info, and the 
+ * entry is evicted (closing its data source) when the last endpoint that
+ * retained it releases it.  Recovery connections and shared listeners 
+ * retain the entry in the same way while they hold a connection.  
+ * Closing the cache evicts all of the cached factories and closes their 
+ * data sources.
+ * <p>
+ * Lookups, retains and releases are all made under the cache's lock, so
+ * that a lookup never returns a factory whose entry is being evicted.
+ * Creating a factory makes no connection to the database, so the lock is
+ * held only briefly.
+ *
+ * @author Carl Harris
+ */
+class ConnectionFactoryCache {
+
+  private final ConcurrentMap<OAQConnectionRequestInfo, Entry> entries =
+      new ConcurrentHashMap<OAQConnectionRequestInfo, Entry>();
+
+  private final MessageConnectionFactoryProvider provider;
+
+  /**
+   * Constructs a new instance.
+   * @param provider provider that will create the cached factories
+   */
+  public ConnectionFactoryCache(MessageConnectionFactoryProvider provider) {
+    this.provider = provider;
+  }
+
+  /**
+   * Gets the XA connection factory for the given connection request info,
+   * creating it if necessary.
+   * @param info connection request info
+   * @return connection factory
+   * @throws JMSException if the factory cannot be created
+   */
+  public synchronized XAConnectionFactory getConnectionFactory(
+      OAQConnectionRequestInfo info) throws JMSException {
+    return getEntry(info).getConnectionFactory();
+  }
+
+  /**
+   * Gets the non-XA connection factory for the given connection request 
+   * info, creating it if necessary.
+   * @param info connection request info
+   * @return connection factory
+   * @throws JMSException if the factory cannot be created
+   */
+  public synchronized ConnectionFactory getNonXAConnectionFactory(
+      OAQConnectionRequestInfo info) throws JMSException {
+    return getEntry(info).getNonXAConnectionFactory();
+  }
+
+  /**
+   * Gets the number of cached entries.
+   * @return number of distinct connection request info objects for which
+   *    factories are cached
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Retains the factories for the given connection request info on behalf
+   * of an endpoint, so that they are not evicted until the endpoint 
+   * releases them.
+   * @param info connection request info
+   */
+  public synchronized void retain(OAQConnectionRequestInfo info) {
+    getEntry(info).references++;
+  }
+
+  /**
+   * Releases the factories for the given connection request info on 
+   * behalf of an endpoint, evicting them if no other endpoint retains 
+   * them.
+   * @param info connection request info
+   */
+  public synchronized void release(OAQConnectionRequestInfo info) {
+    Entry entry = entries.get(info);
+    if (entry == null || --entry.references > 0) return;
+    LOGGER.fine("evicting connection factories for " + info);
+    evict(info);
+  }
+
+  /**
+   * Evicts the factories for the given connection request info and closes 
+   * their data source.
+   * @param info connection request info
+   */
+  public synchronized void evict(OAQConnectionRequestInfo info) {
+    Entry entry = entries.remove(info);
+    if (entry != null) {
+      entry.close();
+    }
+  }
+
+  /**
+   * Evicts all cached factories and closes their data sources.
+   */
+  public synchronized void close() {
+    List<Entry> evicted = new ArrayList<Entry>(entries.values());
+    entries.clear();
+    for (Entry entry : evicted) {
+      entry.close();
+    }
+  }
+
+  private Entry getEntry(OAQConnectionRequestInfo info) {
+    assert Thread.holdsLock(this);
+    Entry entry = entries.get(info);
+    if (entry == null) {
+      // use a copy as the key, since the caller's info is mutable
+      OAQConnectionRequestInfo key = info.clone();
+      entry = new Entry(key);
+      entries.put(key, entry);
+      LOGGER.fine("caching connection factories for " + key);
+    }
+    return entry;
+  }
+
+  /**
+   * The cached factories for a connection request info.
+   */
+  private class Entry {
+
+    private final OAQConnectionRequestInfo info;
+
+    // all fields are guarded by the cache's lock
+    int references;
+    private XAConnectionFactory connectionFactory;
+    private ConnectionFactory nonXAConnectionFactory;
+
+    /**
+     * Constructs a new instance.
+     * @param info connection request info
+     */
+    public Entry(OAQConnectionRequestInfo info) {
+      this.info = info;
+    }
+
+    public XAConnectionFactory getConnectionFactory() 
+        throws JMSException {
+      if (connectionFactory == null) {
+        connectionFactory = provider.createConnectionFactory(info);
+      }
+      return connectionFactory;
+    }
+
+    public ConnectionFactory getNonXAConnectionFactory() 
+        throws JMSException {
+      if (nonXAConnectionFactory == null) {
+        nonXAConnectionFactory = provider.createNonXAConnectionFactory(info);
+      }
+      return nonXAConnectionFactory;
+    }
+
+    public void close() {
+      connectionFactory = null;
+      nonXAConnectionFactory = null;
+      info.closeDataSource();
+    }
+
+  }
+
+}
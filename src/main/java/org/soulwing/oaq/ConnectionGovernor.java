@@ -0,0 +1,275 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+
+import org.apache.commons.lang.ClassUtils;
+
+/**
+ * A governor that limits the number of physical AQ connections that a 
+ * resource adapter holds open at once, across all of its endpoints.
+ * <p>
+ * Each connection requires a permit, which is returned when the 
+ * connection is closed.  An endpoint requests a permit using 
+ * {@link #tryAcquire(Object, int)}, which never waits: when no permit is
+ * available, the request fails at once with a {@link JMSException}, and 
+ * the endpoint's connector treats that as a failed attempt to connect and
+ * tries again after its reconnect delay.  Since such requests are not 
+ * queued, each endpoint is also limited to the number of permits that it
+ * needs, so that an endpoint that retries eagerly cannot starve the 
+ * others.  Other requests (e.g. for recovery) use {@link #acquire()}, 
+ * which waits for up to a configured time; waiting requests are granted
+ * permits in the order they were made.  An endpoint's request fails 
+ * while any request is waiting, rather than taking a permit ahead of it,
+ * but a permit released between the two checks may still go to the 
+ * endpoint, so the order is not strictly fair.
+ *
+ * @author Carl Harris
+ */
+class ConnectionGovernor {
+
+  private final Map<Object, Integer> ownerPermits = 
+      new IdentityHashMap<Object, Integer>();
+
+  private final Semaphore permits;
+  private final int maxConnections;
+  private final long maxWait;
+
+  /**
+   * Constructs a new instance.
+   * @param maxConnections maximum number of open connections
+   * @param maxWait maximum time to wait for a permit (in milliseconds)
+   */
+  public ConnectionGovernor(int maxConnections, long maxWait) {
+    this.permits = new Semaphore(maxConnections, true);
+    this.maxConnections = maxConnections;
+    this.maxWait = maxWait;
+  }
+
+  /**
+   * Gets the maximum number of open connections.
+   * @return connection limit
+   */
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+
+  /**
+   * Gets the number of connections that may yet be opened.
+   * @return number of available permits
+   */
+  public int getAvailablePermits() {
+    return permits.availablePermits();
+  }
+
+  /**
+   * Gets an estimate of the number of threads waiting for a permit.
+   * @return number of waiting threads
+   */
+  public int getQueueLength() {
+    return permits.getQueueLength();
+  }
+
+  /**
+   * Acquires a permit to open a connection.
+   * @throws JMSException if no permit becomes available within the 
+   *    maximum wait time, or the calling thread is interrupted
+   */
+  public void acquire() throws JMSException {
+    try {
+      if (permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS)) return;
+      throw new JMSException("limit of " + maxConnections 
+          + " connections reached");
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw (JMSException) new JMSException(
+          "interrupted while waiting for a connection").initCause(ex);
+    }
+  }
+
+  /**
+   * Acquires a permit to open a connection on behalf of an owner (e.g. an
+   * endpoint), without waiting.
+   * @param owner the owner that will hold the permit
+   * @param limit maximum number of permits that the owner may hold
+   * @throws JMSException if the owner already holds {@code limit} permits
+   *    or no permit is available
+   */
+  public void tryAcquire(Object owner, int limit) throws JMSException {
+    synchronized (ownerPermits) {
+      int held = permitsHeld(owner);
+      if (held >= limit) {
+        throw new JMSException("endpoint limit of " + limit 
+            + " connections reached");
+      }
+      // a non-waiting tryAcquire ignores fairness, so don't take a 
+      // permit ahead of a request that is waiting for one
+      if (permits.hasQueuedThreads() || !permits.tryAcquire()) {
+        throw new JMSException("limit of " + maxConnections 
+            + " connections reached");
+      }
+      ownerPermits.put(owner, held + 1);
+    }
+  }
+
+  /**
+   * Releases a permit that was acquired but not used to open a connection.
+   */
+  public void release() {
+    permits.release();
+  }
+
+  /**
+   * Releases a permit that was acquired on behalf of an owner (see 
+   * {@link #tryAcquire(Object, int)}) but not used to open a connection.
+   * @param owner the owner that holds the permit or {@code null} if the
+   *    permit was acquired using {@link #acquire()}
+   */
+  public void release(Object owner) {
+    if (owner == null) {
+      release();
+      return;
+    }
+    synchronized (ownerPermits) {
+      int held = permitsHeld(owner);
+      if (held <= 1) {
+        ownerPermits.remove(owner);
+      }
+      else {
+        ownerPermits.put(owner, held - 1);
+      }
+    }
+    permits.release();
+  }
+
+  private int permitsHeld(Object owner) {
+    Integer held = ownerPermits.get(owner);
+    return held != null ? held : 0;
+  }
+
+  /**
+   * Wraps a connection opened using an acquired permit, so that the 
+   * permit is released when the connection is closed.
+   * @param connection the subject connection
+   * @param type the connection type to present
+   * @return a proxy for {@code connection} that implements {@code type}
+   *    and every other interface implemented by {@code connection}
+   */
+  public <T extends Connection> T track(T connection, Class<T> type) {
+    return track(connection, type, null);
+  }
+
+  /**
+   * Wraps a connection opened using a permit acquired on behalf of an 
+   * owner, so that the permit is released when the connection is closed.
+   * @param connection the subject connection
+   * @param type the connection type to present
+   * @param owner the owner that holds the permit (see
+   *    {@link #tryAcquire(Object, int)}) or {@code null} if the permit was
+   *    acquired using {@link #acquire()}
+   * @return a proxy for {@code connection} that implements {@code type}
+   *    and every other interface implemented by {@code connection}
+   */
+  public <T extends Connection> T track(T connection, Class<T> type,
+      Object owner) {
+    List<Class<?>> interfaces = new ArrayList<Class<?>>();
+    interfaces.add(type);
+    for (Object iface : ClassUtils.getAllInterfaces(connection.getClass())) {
+      Class<?> c = (Class<?>) iface;
+      if (Modifier.isPublic(c.getModifiers()) && !interfaces.contains(c)) {
+        interfaces.add(c);
+      }
+    }
+    Object proxy = Proxy.newProxyInstance(
+        connection.getClass().getClassLoader(), 
+        interfaces.toArray(new Class<?>[interfaces.size()]),
+        new GovernedConnection(connection, owner));
+    return type.cast(proxy);
+  }
+
+  /**
+   * An invocation handler that releases its connection's permit when the 
+   * connection is closed.
+   */
+  private class GovernedConnection implements InvocationHandler {
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private final Connection connection;
+    private final Object owner;
+
+    /**
+     * Constructs a new instance.
+     * @param connection the subject connection
+     * @param owner the owner of the connection's permit or {@code null}
+     */
+    public GovernedConnection(Connection connection, Object owner) {
+      this.connection = connection;
+      this.owner = owner;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args)
+        throws Throwable {
+      String name = method.getName();
+      if (name.equals("equals") && args != null && args.length == 1) {
+        return proxy == args[0];
+      }
+      if (name.equals("hashCode") && args == null) {
+        return System.identityHashCode(proxy);
+      }
+      if (name.equals("toString") && args == null) {
+        return "governed " + connection;
+      }
+      try {
+        return method.invoke(connection, args);
+      }
+      catch (InvocationTargetException ex) {
+        throw ex.getCause();
+      }
+      finally {
+        if (name.equals("close") && args == null 
+            && closed.compareAndSet(false, true)) {
+          release(owner);
+        }
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,244 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+import javax.jms.Connection;
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.Session;
+import javax.resource.spi.work.Work;
+import javax.resource.spi.work.WorkException;
+import javax.resource.spi.work.WorkManager;
+
+/**
+ * A {@link Work} object that periodically validates a connection, so that
+ * a connection that has silently stopped working (e.g. a half-open TCP 
+ * connection to a failed database instance) is detected without waiting 
+ * for the provider to notice.
+ * <p>
+ * Each heartbeat validates the connection on a work manager thread, 
+ * using a session dedicated to the heartbeat.  If validation fails, or if
+ * it does not complete within the timeout (measured from when the work 
+ * starts to run, so that time spent waiting for a work manager thread is
+ * not held against the connection), the heartbeat stops and 
+ * notifies its {@link ExceptionListener} on a work manager thread, just as
+ * the provider would notify the connection's own exception listener.  The
+ * next heartbeat is scheduled after the previous one completes, so that
+ * heartbeats never overlap.
+ *
+ * @author Carl Harris
+ */
+class ConnectionHeartbeat implements Work {
+
+  private final Logger logger = Logger.getLogger(getClass().getName());
+
+  private final AtomicBoolean running = new AtomicBoolean();
+
+  private final Connection connection;
+  private final ExceptionListener listener;
+  private final ConnectionValidator validator;
+  private final ReconnectScheduler scheduler;
+  private final WorkManager workManager;
+  private final long interval;
+  private final long timeout;
+
+  private volatile Session session;
+  private volatile TimerTask pendingTask;
+  private volatile long started;
+  private volatile long completed;
+
+  /**
+   * Constructs a new instance.
+   * @param connection the connection to validate
+   * @param listener listener to notify when validation fails
+   * @param validator connection validator
+   * @param scheduler scheduler for heartbeats and their deadlines
+   * @param workManager work manager that will run each validation
+   * @param interval interval between heartbeats (in milliseconds)
+   * @param timeout time allowed for each validation (in milliseconds)
+   */
+  public ConnectionHeartbeat(Connection connection, 
+      ExceptionListener listener, ConnectionValidator validator, 
+      ReconnectScheduler scheduler, WorkManager workManager, 
+      long interval, long timeout) {
+    this.connection = connection;
+    this.listener = listener;
+    this.validator = validator;
+    this.scheduler = scheduler;
+    this.workManager = workManager;
+    this.interval = interval;
+    this.timeout = timeout;
+  }
+
+  /**
+   * Starts the heartbeat.
+   */
+  public void start() {
+    if (!running.compareAndSet(false, true)) return;
+    pendingTask = scheduler.schedule(new BeatTask(), interval);
+  }
+
+  /**
+   * Stops the heartbeat and closes its session.
+   */
+  public void stop() {
+    if (!running.compareAndSet(true, false)) return;
+    cancelPendingTask();
+    Session session = this.session;
+    this.session = null;
+    if (session == null) return;
+    try {
+      session.close();
+    }
+    catch (JMSException ex) {
+      assert true;  // safe to ignore here
+    }
+  }
+
+  /**
+   * Tests whether the heartbeat is running.
+   * @return {@code true} if the heartbeat has been started and has not 
+   *    been stopped or failed
+   */
+  public boolean isRunning() {
+    return running.get();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void run() {
+    if (!running.get()) return;
+    long beat = started;
+    pendingTask = scheduler.schedule(new DeadlineTask(beat), timeout);
+    try {
+      Session session = this.session;
+      if (session == null) {
+        session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        this.session = session;
+      }
+      validator.validate(session, timeout);
+    }
+    catch (JMSException ex) {
+      fail(ex);
+      return;
+    }
+    completed = beat;
+    if (!running.get()) return;
+    pendingTask = scheduler.schedule(new BeatTask(), interval);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void release() {
+  }
+
+  private void cancelPendingTask() {
+    TimerTask task = pendingTask;
+    if (task != null) {
+      task.cancel();
+      pendingTask = null;
+    }
+  }
+
+  private void fail(final JMSException ex) {
+    if (!running.compareAndSet(true, false)) return;
+    cancelPendingTask();
+    logger.warning("connection failed heartbeat: " + ex.getMessage());
+    Work notification = new Work() {
+      @Override
+      public void run() {
+        listener.onException(ex);
+      }
+
+      @Override
+      public void release() {
+      }
+    };
+    try {
+      workManager.scheduleWork(notification);
+    }
+    catch (WorkException wex) {
+      logger.warning("work manager won't accept work: " + wex);
+      notification.run();
+    }
+  }
+
+  /**
+   * A task that starts a heartbeat.
+   */
+  private class BeatTask implements Runnable {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+      if (!running.get()) return;
+      long beat = started + 1;
+      started = beat;
+      try {
+        workManager.scheduleWork(ConnectionHeartbeat.this);
+      }
+      catch (WorkException ex) {
+        // skip this heartbeat rather than blame the connection
+        logger.warning("work manager won't accept work: " + ex);
+        completed = beat;
+        pendingTask = scheduler.schedule(new BeatTask(), interval);
+      }
+    }
+
+  }
+
+  /**
+   * A task that fails the heartbeat if the validation that it started has
+   * not completed.
+   */
+  private class DeadlineTask implements Runnable {
+
+    private final long beat;
+
+    /**
+     * Constructs a new instance.
+     * @param beat sequence number of the heartbeat
+     */
+    public DeadlineTask(long beat) {
+      this.beat = beat;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+      if (completed >= beat) return;
+      fail(new JMSException("heartbeat not completed within " 
+          + timeout + " ms"));
+    }
+
+  }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import javax.jms.JMSException;
+import javax.jms.Session;
+
+/**
+ * A strategy for validating that the database connection underlying an
+ * AQ session is still usable.
+ *
+ * @author Carl Harris
+ */
+interface ConnectionValidator {
+
+  /**
+   * Validates the connection that underlies the given session.
+   * @param session a session created on the connection to validate
+   * @param timeout maximum time to wait for the database to respond
+   *    (in milliseconds)
+   * @throws JMSException if the connection is not usable
+   */
+  void validate(Session session, long timeout) throws JMSException;
+
+}
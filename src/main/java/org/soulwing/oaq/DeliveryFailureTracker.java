@@ -0,0 +1,101 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A tracker for the number of times an endpoint has failed to consume 
+ * each message.
+ * <p>
+ * Failure counts are keyed by message ID and held in a map of bounded 
+ * size; when the map is full, the count for the least recently used 
+ * message is discarded.  A single tracker is shared by all of the 
+ * sessions of an endpoint, since a redelivered message may be delivered 
+ * by any of them.
+ *
+ * @author Carl Harris
+ */
+class DeliveryFailureTracker {
+
+  public static final int DEFAULT_CAPACITY = 1000;
+
+  private final Map<String, Integer> failures;
+
+  /**
+   * Constructs a new instance with the default capacity.
+   */
+  public DeliveryFailureTracker() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param capacity maximum number of messages to track
+   */
+  public DeliveryFailureTracker(final int capacity) {
+    this.failures = new LinkedHashMap<String, Integer>(16, 0.75f, true) {
+      private static final long serialVersionUID = 7031527418620964851L;
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  /**
+   * Records a failure to consume a message.
+   * @param messageId ID of the subject message
+   * @return number of failures recorded for the message
+   */
+  public synchronized int deliveryFailed(String messageId) {
+    Integer count = failures.get(messageId);
+    count = count != null ? count + 1 : 1;
+    failures.put(messageId, count);
+    return count;
+  }
+
+  /**
+   * Discards the failures recorded for a message.
+   * @param messageId ID of the subject message
+   */
+  public synchronized void deliverySucceeded(String messageId) {
+    failures.remove(messageId);
+  }
+
+  /**
+   * Gets the number of failures recorded for a message.
+   * @param messageId ID of the subject message
+   * @return failure count
+   */
+  public synchronized int getFailureCount(String messageId) {
+    Integer count = failures.get(messageId);
+    return count != null ? count : 0;
+  }
+
+  /**
+   * Gets the number of messages for which failures are recorded.
+   * @return number of messages
+   */
+  public synchronized int size() {
+    return failures.size();
+  }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.List;
+
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Session;
+
+/**
+ * A strategy for waiting until a message is ready on any one of several
+ * destinations.
+ *
+ * @author Carl Harris
+ */
+interface DestinationListener {
+
+  /**
+   * A destination on which to listen for messages.
+   */
+  interface Target {
+
+    /**
+     * Gets the destination.
+     * @return destination
+     */
+    Destination getDestination();
+
+    /**
+     * Gets the name of the durable subscription whose messages are of
+     * interest, when the destination is a topic.
+     * @return subscription name or {@code null} if the destination is a
+     *    queue
+     */
+    String getSubscriptionName();
+
+  }
+
+  /**
+   * Waits until a message is ready on one of the given targets.
+   * @param session a session whose connection will be used to wait
+   * @param targets the targets of interest
+   * @param timeout maximum time to wait (in milliseconds)
+   * @return a target on which a message is ready or {@code null} if the
+   *    timeout elapsed with no message ready
+   * @throws JMSException if an error occurs in waiting for a message; 
+   *    the session's connection should be assumed to be unusable
+   */
+  Target listen(Session session, List<? extends Target> targets, 
+      long timeout) throws JMSException;
+
+}
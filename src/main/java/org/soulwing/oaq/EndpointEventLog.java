@@ -0,0 +1,130 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A log of timed diagnostic events for an endpoint.
+ * <p>
+ * Events are written at level {@code FINE} to the 
+ * {@code org.soulwing.oaq.events} logger, as single lines of 
+ * {@code key=value} fields that identify the endpoint and its destination
+ * and give the durations (in microseconds) of the steps of the event.  
+ * The logger is disabled unless its level is lowered in the logging 
+ * configuration; while it is disabled, callers check {@link #isEnabled()} 
+ * before reading the clock, so that the cost of the events is a single 
+ * test of the logger's level.
+ *
+ * @author Carl Harris
+ */
+class EndpointEventLog {
+
+  static final String LOGGER_NAME = "org.soulwing.oaq.events";
+
+  private static final Logger logger = Logger.getLogger(LOGGER_NAME);
+
+  private final String prefix;
+
+  /**
+   * Constructs a new instance.
+   * @param endpoint name of the endpoint
+   * @param destination name of the endpoint's destination
+   */
+  public EndpointEventLog(String endpoint, String destination) {
+    this.prefix = " endpoint=" + endpoint + " destination=" + destination;
+  }
+
+  /**
+   * Tests whether events are logged.
+   * @return {@code true} if events are logged
+   */
+  public boolean isEnabled() {
+    return logger.isLoggable(Level.FINE);
+  }
+
+  /**
+   * Logs the acquisition of a session from the pool.
+   * @param elapsed time taken to acquire the session in nanoseconds
+   */
+  public void sessionAcquired(long elapsed) {
+    log("event=sessionAcquire" + prefix + " acquire=" + micros(elapsed));
+  }
+
+  /**
+   * Logs a run of a session.
+   * @param dispatch time from the start of the session until it ran, 
+   *    in nanoseconds
+   * @param run duration of the run in nanoseconds
+   * @param successful flag indicating whether the run completed without
+   *    error
+   */
+  public void sessionRun(long dispatch, long run, boolean successful) {
+    log("event=sessionRun" + prefix + " dispatch=" + micros(dispatch)
+        + " run=" + micros(run) + " successful=" + successful);
+  }
+
+  /**
+   * Logs the delivery of a message (or batch of messages) to the endpoint.
+   * @param before time spent in {@code beforeDelivery} in nanoseconds
+   * @param listener time spent in the listener method in nanoseconds
+   * @param after time spent in {@code afterDelivery} in nanoseconds
+   * @param successful flag indicating whether the listener method 
+   *    returned normally
+   */
+  public void delivery(long before, long listener, long after, 
+      boolean successful) {
+    log("event=delivery" + prefix + " beforeDelivery=" + micros(before)
+        + " onMessage=" + micros(listener) 
+        + " afterDelivery=" + micros(after) + " successful=" + successful);
+  }
+
+  /**
+   * Logs an attempt to connect.
+   * @param attempt number of the attempt since the last successful 
+   *    connection
+   * @param elapsed duration of the attempt in nanoseconds
+   * @param ex the exception that caused the attempt to fail or 
+   *    {@code null} if the attempt succeeded
+   */
+  public void connectAttempt(int attempt, long elapsed, Exception ex) {
+    log("event=connect" + prefix + " attempt=" + attempt 
+        + " connect=" + micros(elapsed) + " successful=" + (ex == null)
+        + (ex != null ? " error=\"" + ex.getMessage() + "\"" : ""));
+  }
+
+  /**
+   * Logs a pause before the next attempt to connect.
+   * @param elapsed duration of the pause in nanoseconds
+   */
+  public void reconnectBackoff(long elapsed) {
+    log("event=backoff" + prefix + " backoff=" + micros(elapsed));
+  }
+
+  private static long micros(long nanos) {
+    return TimeUnit.NANOSECONDS.toMicros(nanos);
+  }
+
+  private static void log(String message) {
+    logger.logp(Level.FINE, EndpointEventLog.class.getName(), "log", message);
+  }
+
+}
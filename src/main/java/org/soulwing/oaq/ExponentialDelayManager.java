@@ -38,6 +38,7 @@ class ExponentialDelayManager implements ReconnectDelayManager {
   private final Condition resetCondition = lock.newCondition();
   
   private int count;
+  private long lastDelay;
   private boolean waiting;
   private long period = DEFAULT_PERIOD;
   private long maxDelay = DEFAULT_MAX_DELAY;
@@ -50,8 +51,7 @@ class ExponentialDelayManager implements ReconnectDelayManager {
     lock.lock();
     try {
       waiting = true;
-      long delay = Math.min(getMaxDelay(), 
-          (long)(Math.pow(2, count++)*getPeriod()));
+      long delay = nextDelay();
       
       Date deadline = new Date(System.currentTimeMillis() + delay);
       boolean stillWaiting = true;
@@ -64,6 +64,21 @@ class ExponentialDelayManager implements ReconnectDelayManager {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long nextDelay() {
+    lock.lock();
+    try {
+      lastDelay = computeDelay(count++, lastDelay);
+      return lastDelay;
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -72,6 +87,7 @@ class ExponentialDelayManager implements ReconnectDelayManager {
     lock.lock();
     try {
       count = 0;
+      lastDelay = 0;
       waiting = false;
       resetCondition.signalAll();
     }
@@ -80,6 +96,21 @@ class ExponentialDelayManager implements ReconnectDelayManager {
     }
   }
 
+  /**
+   * Computes the delay before a reconnect attempt.
+   * <p>
+   * This implementation doubles the period for each successive attempt, up
+   * to the maximum delay.  Subclasses may override it to vary the delay;
+   * it is always invoked while holding the manager's lock.
+   * @param count number of attempts since the last reset (zero-based)
+   * @param lastDelay the delay computed for the previous attempt, or zero
+   *    for the first attempt after a reset
+   * @return delay in milliseconds
+   */
+  protected long computeDelay(int count, long lastDelay) {
+    return Math.min(getMaxDelay(), (long)(Math.pow(2, count)*getPeriod()));
+  }
+
   /**
    * Gets the {@code period} property.
    * @return
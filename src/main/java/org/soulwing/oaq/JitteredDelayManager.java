@@ -0,0 +1,86 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An {@link ExponentialDelayManager} that randomizes each delay, so that
+ * many endpoints which lost their connections at the same moment do not
+ * all try to reconnect at the same moment.
+ * <p>
+ * With {@link Strategy#FULL} jitter, each delay is chosen uniformly 
+ * between zero and the truncated exponential delay.  With 
+ * {@link Strategy#DECORRELATED} jitter, each delay is chosen uniformly
+ * between the period and three times the previous delay, up to the 
+ * maximum delay.
+ *
+ * @author Carl Harris
+ */
+class JitteredDelayManager extends ExponentialDelayManager {
+
+  /**
+   * Jitter strategies.
+   */
+  public enum Strategy {
+    FULL,
+    DECORRELATED;
+  }
+
+  private final Strategy strategy;
+
+  /**
+   * Constructs a new instance.
+   * @param strategy jitter strategy
+   */
+  public JitteredDelayManager(Strategy strategy) {
+    this.strategy = strategy;
+  }
+
+  /**
+   * Gets the jitter strategy.
+   * @return strategy
+   */
+  public Strategy getStrategy() {
+    return strategy;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected long computeDelay(int count, long lastDelay) {
+    switch (strategy) {
+      case FULL:
+        return random(0, super.computeDelay(count, lastDelay));
+      case DECORRELATED:
+        long upper = Math.max(getPeriod(), lastDelay) * 3;
+        return Math.min(getMaxDelay(), random(getPeriod(), upper));
+      default:
+        throw new AssertionError("unrecognized strategy: " + strategy);
+    }
+  }
+
+  private static long random(long lower, long upper) {
+    if (upper <= lower) return lower;
+    return lower + (long) (ThreadLocalRandom.current().nextDouble() 
+        * (upper - lower + 1));
+  }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.logging.Logger;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+
+/**
+ * A {@link SessionRunListener} that acknowledges the messages delivered
+ * to another listener lazily, in batches.
+ * <p>
+ * The subject session uses {@link Session#CLIENT_ACKNOWLEDGE} mode, so
+ * that acknowledging a message acknowledges every message consumed by the
+ * session so far.  Acknowledgements are flushed after the batch size is
+ * reached, after the oldest unacknowledged message has waited for the 
+ * batch timeout, and when the session finishes its run.  Acknowledgements 
+ * are never held across runs of the session.
+ * <p>
+ * If the delegate listener throws an exception, whether on delivery or 
+ * when the session finishes its run (e.g. because a batch that it 
+ * flushes fails), the session is recovered so that every unacknowledged
+ * message is redelivered.  Messages that were
+ * successfully consumed earlier in the batch may therefore be delivered
+ * again; this is acceptable in {@code Dups-ok-acknowledge} mode.
+ *
+ * @author Carl Harris
+ */
+class LazyAcknowledger implements SessionRunListener {
+
+  private final Logger logger = Logger.getLogger(getClass().getName());
+
+  private final SessionRunListener delegate;
+  private final Session session;
+  private final int batchSize;
+  private final long batchTimeout;
+
+  private Message lastMessage;
+  private int batchCount;
+  private long batchDeadline;
+
+  /**
+   * Constructs a new instance.
+   * @param delegate listener to which messages are delivered
+   * @param session session that delivers messages to the receiver
+   * @param batchSize maximum number of messages to acknowledge together
+   * @param batchTimeout maximum time (in milliseconds) that a consumed
+   *    message remains unacknowledged; zero means that only the batch size
+   *    and the end of the session's run cause acknowledgement
+   */
+  public LazyAcknowledger(SessionRunListener delegate, Session session,
+      int batchSize, long batchTimeout) {
+    this.delegate = delegate;
+    this.session = session;
+    this.batchSize = Math.max(1, batchSize);
+    this.batchTimeout = Math.max(0, batchTimeout);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void onMessage(Message message) {
+    if (batchCount == 0 && batchTimeout > 0) {
+      batchDeadline = System.currentTimeMillis() + batchTimeout;
+    }
+    try {
+      delegate.onMessage(message);
+    }
+    catch (RuntimeException ex) {
+      recover();
+      throw ex;
+    }
+    lastMessage = message;
+    if (++batchCount >= batchSize || isBatchExpired()) {
+      acknowledge();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void sessionRunCompleted() {
+    try {
+      delegate.sessionRunCompleted();
+    }
+    catch (RuntimeException ex) {
+      recover();
+      throw ex;
+    }
+    if (lastMessage != null) {
+      acknowledge();
+    }
+  }
+
+  private void acknowledge() {
+    Message message = lastMessage;
+    lastMessage = null;
+    batchCount = 0;
+    try {
+      message.acknowledge();
+    }
+    catch (JMSException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  private void recover() {
+    lastMessage = null;
+    batchCount = 0;
+    try {
+      session.recover();
+    }
+    catch (JMSException ex) {
+      logger.warning("error recovering session: " + ex);
+    }
+  }
+
+  private boolean isBatchExpired() {
+    return batchTimeout > 0 
+        && System.currentTimeMillis() >= batchDeadline;
+  }
+
+}
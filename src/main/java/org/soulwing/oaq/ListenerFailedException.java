@@ -0,0 +1,58 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+/**
+ * An exception that indicates that a message-driven bean's listener method
+ * threw an exception.
+ * <p>
+ * A failure of the listener is an application failure: the delivery 
+ * transaction is rolled back (or the session recovered), but the session 
+ * and its endpoint remain usable.  Any other exception thrown while a 
+ * session runs is taken to mean that the session itself has failed.
+ *
+ * @author Carl Harris
+ */
+class ListenerFailedException extends RuntimeException {
+
+  private static final long serialVersionUID = 2840317752950823064L;
+
+  /**
+   * Constructs a new instance.
+   * @param cause the exception thrown by the listener
+   */
+  public ListenerFailedException(Throwable cause) {
+    super(cause);
+  }
+
+  /**
+   * Tests whether the given exception (or any exception in its chain of
+   * causes) is a listener failure.
+   * @param ex the subject exception
+   * @return {@code true} if {@code ex} indicates a listener failure
+   */
+  public static boolean isListenerFailure(Throwable ex) {
+    while (ex != null) {
+      if (ex instanceof ListenerFailedException) return true;
+      ex = ex.getCause();
+    }
+    return false;
+  }
+
+}
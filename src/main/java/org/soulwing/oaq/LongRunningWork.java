@@ -0,0 +1,60 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.resource.spi.work.HintsContext;
+import javax.resource.spi.work.Work;
+import javax.resource.spi.work.WorkContext;
+import javax.resource.spi.work.WorkContextProvider;
+
+/**
+ * A {@link Work} that occupies its thread for as long as the component
+ * that scheduled it is running.
+ * <p>
+ * The work provides a {@link HintsContext} carrying the 
+ * {@link HintsContext#LONGRUNNING_HINT}, so that the work manager can run 
+ * it without tying up a thread of the pool used for short-lived work.
+ *
+ * @author Carl Harris
+ */
+abstract class LongRunningWork implements Work, WorkContextProvider {
+
+  private static final long serialVersionUID = -2716484523915081643L;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<WorkContext> getWorkContexts() {
+    HintsContext hints = new HintsContext();
+    hints.setHint(HintsContext.LONGRUNNING_HINT, Boolean.TRUE);
+    return Collections.<WorkContext>singletonList(hints);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void release() {
+  }
+
+}
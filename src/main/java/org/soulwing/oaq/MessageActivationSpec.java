@@ -36,23 +36,66 @@ import org.apache.commons.lang.StringUtils;
  */
 public class MessageActivationSpec implements ActivationSpec {
 
+  private static final Integer DEFAULT_MAX_DELIVERY_FAILURES = 0;
   private static final Integer DEFAULT_MAX_MESSAGES = 10;
+  private static final Integer DEFAULT_ACKNOWLEDGE_BATCH_SIZE = 10;
+  private static final Long DEFAULT_ACKNOWLEDGE_BATCH_TIMEOUT = 1000L;
+  private static final Boolean DEFAULT_ADAPTIVE_CONCURRENCY = false;
+  private static final Boolean DEFAULT_ASYNCHRONOUS_DISPATCH = false;
+  private static final Integer DEFAULT_BATCH_SIZE = 1;
+  private static final Long DEFAULT_BATCH_TIMEOUT = 0L;
+  private static final Integer DEFAULT_CONNECTION_COUNT = 1;
+  private static final Long DEFAULT_HEARTBEAT_INTERVAL = 0L;
+  private static final Long DEFAULT_HEARTBEAT_TIMEOUT = 10000L;
+  private static final Long DEFAULT_LISTENER_IDLE_TIMEOUT = 60000L;
+  private static final Integer DEFAULT_MAX_SESSIONS = 
+      StripedServerSessionPool.DEFAULT_MAX_ACTIVE;
+  private static final Integer DEFAULT_MIN_SESSIONS = 0;
+  private static final Integer DEFAULT_POLLER_COUNT = 2;
+  private static final Integer DEFAULT_PREFETCH_SIZE = 0;
+  private static final Boolean DEFAULT_SHARED_LISTENER = false;
+  private static final Boolean DEFAULT_STANDBY_CONNECTION = false;
+  private static final Long DEFAULT_SESSION_WAIT_TIMEOUT = 
+      StripedServerSessionPool.DEFAULT_MAX_WAIT;
   
   private static final String AUTO_ACKNOWLEDGE_MODE = "Auto-acknowledge";
   private static final String DUPS_OK_ACKNOWLEDGE_MODE = "Dups-ok-acknowledge";
   private static final String DURABLE_SUBSCRIPTION = "Durable";
+  private static final String NO_JITTER = "None";
+  private static final String FULL_JITTER = "Full";
+  private static final String DECORRELATED_JITTER = "Decorrelated";
   private static final String NON_DURABLE_SUBSCRIPTION = "NonDurable";
 
   private ResourceAdapter resourceAdapter;
+  private Integer acknowledgeBatchSize;
+  private Long acknowledgeBatchTimeout;
   private String acknowledgeMode;
+  private Boolean adaptiveConcurrency;
+  private Boolean asynchronousDispatch;
+  private Integer batchSize;
+  private Long batchTimeout;
   private String clientId;
+  private Integer connectionCount;
   private String connectionFactoryLookup;
   private String destination;
   private String destinationType;
   private String destinationLookup;
+  private String exceptionQueue;
+  private Long heartbeatInterval;
+  private Long heartbeatTimeout;
+  private Long listenerIdleTimeout;
+  private Integer maxDeliveryFailures;
   private Integer maxMessages;
+  private Integer maxSessions;
+  private Integer minSessions;
   private String messageSelector;
   private String password;
+  private Integer pollerCount;
+  private Integer prefetchSize;
+  private String reconnectJitter;
+  private Long sessionWaitTimeout;
+  private Boolean sharedListener;
+  private Boolean standbyConnection;
   private String subscriptionDurability;
   private String subscriptionName;
   private String username;
@@ -113,20 +156,56 @@ public class MessageActivationSpec implements ActivationSpec {
   @Override
   public void validate() throws InvalidPropertyException {
     Errors errors = new Errors();
+    validate(errors);
+    if (errors.hasErrors()) {
+      throw errors.newException();
+    }
+  }
+
+  /**
+   * Validates the properties of the receiver.
+   * @param errors errors object to which any errors will be added
+   */
+  void validate(Errors errors) {
+    validateAcknowledgeBatchSize(errors);
+    validateAcknowledgeBatchTimeout(errors);
     validateAcknowledgeMode(errors);
+    validateBatchSize(errors);
+    validateBatchTimeout(errors);
     validateClientId(errors);
+    validateConnectionCount(errors);
     validateConnectionFactoryLookup(errors);
     validateDestination(errors);
     validateDestinationType(errors);
     validateDestinationLookup(errors);
+    validateExceptionQueue(errors);
+    validateHeartbeatInterval(errors);
+    validateHeartbeatTimeout(errors);
+    validateListenerIdleTimeout(errors);
+    validateMaxDeliveryFailures(errors);
     validateMaxMessages(errors);
+    validateMaxSessions(errors);
     validateMessageSelector(errors);
+    validateMinSessions(errors);
+    validatePollerCount(errors);
+    validatePrefetchSize(errors);
+    validateReconnectJitter(errors);
+    validateSharedListener(errors);
     validateSubscriptionDurability(errors);
     validateSubscriptionName(errors);
     validateUsername(errors);
-    if (errors.hasErrors()) {
-      throw errors.newException();
-    }
+  }
+
+  private void validateAcknowledgeBatchSize(Errors errors) {
+    if (getAcknowledgeBatchSize() > 0) return;
+    errors.addError("acknowledgeBatchSize", 
+        "a positive integer value is required");
+  }
+
+  private void validateAcknowledgeBatchTimeout(Errors errors) {
+    if (getAcknowledgeBatchTimeout() >= 0) return;
+    errors.addError("acknowledgeBatchTimeout", 
+        "a non-negative value is required");
   }
 
   private void validateAcknowledgeMode(Errors errors) {
@@ -139,6 +218,16 @@ public class MessageActivationSpec implements ActivationSpec {
         + " or " + DUPS_OK_ACKNOWLEDGE_MODE);
   }
   
+  private void validateBatchSize(Errors errors) {
+    if (getBatchSize() > 0) return;
+    errors.addError("batchSize", "a positive integer value is required");
+  }
+
+  private void validateBatchTimeout(Errors errors) {
+    if (getBatchTimeout() >= 0) return;
+    errors.addError("batchTimeout", "a non-negative value is required");
+  }
+
   private void validateClientId(Errors errors) {
     if (getSubscriptionDurability() == null) return;
     if (NON_DURABLE_SUBSCRIPTION.equals(getSubscriptionDurability())) return;
@@ -147,6 +236,17 @@ public class MessageActivationSpec implements ActivationSpec {
         "ID must is required for durable subscription");
   }
   
+  private void validateConnectionCount(Errors errors) {
+    if (getConnectionCount() <= 0) {
+      errors.addError("connectionCount", 
+          "a positive integer value is required");
+    }
+    else if (getConnectionCount() > 1 && isDurableSubscription()) {
+      errors.addError("connectionCount", 
+          "a durable subscription allows only one connection");
+    }
+  }
+
   private void validateConnectionFactoryLookup(Errors errors) {
   }
   
@@ -166,14 +266,92 @@ public class MessageActivationSpec implements ActivationSpec {
   private void validateDestinationLookup(Errors errors) {    
   }
   
+  private void validateExceptionQueue(Errors errors) {
+    if (!isQuarantineEnabled() || getExceptionQueue() != null) return;
+    errors.addError("exceptionQueue", 
+        "queue name is required when maxDeliveryFailures is specified");
+  }
+
+  private void validateHeartbeatInterval(Errors errors) {
+    if (getHeartbeatInterval() >= 0) return;
+    errors.addError("heartbeatInterval", "a non-negative value is required");
+  }
+
+  private void validateHeartbeatTimeout(Errors errors) {
+    if (getHeartbeatTimeout() > 0) return;
+    errors.addError("heartbeatTimeout", "a positive value is required");
+  }
+
+  private void validateListenerIdleTimeout(Errors errors) {
+    if (getListenerIdleTimeout() > 0) return;
+    errors.addError("listenerIdleTimeout", "a positive value is required");
+  }
+
+  private void validateMaxDeliveryFailures(Errors errors) {
+    if (getMaxDeliveryFailures() >= 0) return;
+    errors.addError("maxDeliveryFailures", 
+        "a non-negative value is required");
+  }
+
   private void validateMaxMessages(Errors errors) {
     if (getMaxMessages() > 0) return;
     errors.addError("maxMessages", "a positive integer value is required");
   }
   
+  private void validateMaxSessions(Errors errors) {
+    if (getMaxSessions() > 0) return;
+    errors.addError("maxSessions", "a positive integer value is required");
+  }
+  
   private void validateMessageSelector(Errors errors) {    
   }
 
+  private void validateMinSessions(Errors errors) {
+    if (getMinSessions() < 0) {
+      errors.addError("minSessions", "a non-negative value is required");
+    }
+    else if (getMinSessions() > getMaxSessions()) {
+      errors.addError("minSessions", "must not exceed maxSessions");
+    }
+  }
+
+  private void validatePollerCount(Errors errors) {
+    if (getPollerCount() > 0) return;
+    errors.addError("pollerCount", "a positive integer value is required");
+  }
+
+  private void validatePrefetchSize(Errors errors) {
+    if (getPrefetchSize() < 0) {
+      errors.addError("prefetchSize", "a non-negative value is required");
+    }
+    else if (getPrefetchSize() > 0 && !isDupsOkAcknowledge()) {
+      errors.addError("prefetchSize", "prefetch requires " 
+          + DUPS_OK_ACKNOWLEDGE_MODE + " mode");
+    }
+  }
+
+  private void validateReconnectJitter(Errors errors) {
+    String jitter = getReconnectJitter();
+    if (jitter == null) return;
+    if (jitter.equals(NO_JITTER)) return;
+    if (jitter.equals(FULL_JITTER)) return;
+    if (jitter.equals(DECORRELATED_JITTER)) return;
+    errors.addError("reconnectJitter", "jitter must be one of " + NO_JITTER
+        + ", " + FULL_JITTER + " or " + DECORRELATED_JITTER);
+  }
+
+  private void validateSharedListener(Errors errors) {
+    if (!getSharedListener()) return;
+    if (getMessageSelector() != null) {
+      errors.addError("sharedListener", 
+          "a shared listener cannot be used with a message selector");
+    }
+    if (!javax.jms.Topic.class.getName().equals(getDestinationType())) return;
+    if (isDurableSubscription()) return;
+    errors.addError("sharedListener", 
+        "a shared listener requires a queue or a durable subscription");
+  }
+
   private void validateSubscriptionDurability(Errors errors) {
     if (DURABLE_SUBSCRIPTION.equals(getSubscriptionDurability())) {
       if (javax.jms.Topic.class.equals(getDestinationType())) return;
@@ -198,10 +376,61 @@ public class MessageActivationSpec implements ActivationSpec {
   private void validateUsername(Errors errors) {
     if (getUsername() == null) return;
     if (getPassword() != null) return;
+    if (resourceAdapter != null 
+        && ((MessageResourceAdapter) resourceAdapter).isProxyAuthentication()) {
+      return;
+    }
     errors.addError("username", 
         "password is required when specifying a username");
   }
   
+  /**
+   * Gets the {@code acknowledgeBatchSize} property.
+   * <p>
+   * In {@code Dups-ok-acknowledge} mode, this property specifies the 
+   * maximum number of consumed messages that are acknowledged together.
+   * Acknowledgements are never held across runs of a server session, so 
+   * the effective batch size is also limited by {@link #getMaxMessages()}.
+   * @return
+   */
+  public Integer getAcknowledgeBatchSize() {
+    if (acknowledgeBatchSize == null) return DEFAULT_ACKNOWLEDGE_BATCH_SIZE;
+    return acknowledgeBatchSize;
+  }
+
+  /**
+   * Sets the {@code acknowledgeBatchSize} property.
+   * @param acknowledgeBatchSize
+   */
+  public void setAcknowledgeBatchSize(Integer acknowledgeBatchSize) {
+    this.acknowledgeBatchSize = acknowledgeBatchSize;
+  }
+
+  /**
+   * Gets the {@code acknowledgeBatchTimeout} property.
+   * <p>
+   * In {@code Dups-ok-acknowledge} mode, this property specifies the 
+   * maximum number of milliseconds that a consumed message may remain
+   * unacknowledged while the server session continues its run.  Zero means 
+   * that acknowledgements are flushed only when the batch size is reached 
+   * or the run completes.
+   * @return
+   */
+  public Long getAcknowledgeBatchTimeout() {
+    if (acknowledgeBatchTimeout == null) {
+      return DEFAULT_ACKNOWLEDGE_BATCH_TIMEOUT;
+    }
+    return acknowledgeBatchTimeout;
+  }
+
+  /**
+   * Sets the {@code acknowledgeBatchTimeout} property.
+   * @param acknowledgeBatchTimeout
+   */
+  public void setAcknowledgeBatchTimeout(Long acknowledgeBatchTimeout) {
+    this.acknowledgeBatchTimeout = acknowledgeBatchTimeout;
+  }
+
   /**
    * Gets the {@code acknowledgeMode} property.
    * @return
@@ -219,6 +448,110 @@ public class MessageActivationSpec implements ActivationSpec {
     this.acknowledgeMode = acknowledgeMode;
   }
 
+  /**
+   * Tests whether this spec indicates lazy (duplicates-ok) acknowledgement.
+   * @return {@code true} if duplicates-ok acknowledgement is desired
+   */
+  public boolean isDupsOkAcknowledge() {
+    return DUPS_OK_ACKNOWLEDGE_MODE.equals(getAcknowledgeMode());
+  }
+
+  /**
+   * Gets the {@code adaptiveConcurrency} property.
+   * <p>
+   * When this property is {@code true}, the limit on the number of server
+   * sessions that may consume messages concurrently is adjusted between 
+   * {@link #getMinSessions()} (or one, if greater) and 
+   * {@link #getMaxSessions()} according to the observed delivery latency 
+   * and backlog.  When {@code false} (the default), the limit is fixed at
+   * {@link #getMaxSessions()}.
+   * @return
+   */
+  public Boolean getAdaptiveConcurrency() {
+    if (adaptiveConcurrency == null) return DEFAULT_ADAPTIVE_CONCURRENCY;
+    return adaptiveConcurrency;
+  }
+
+  /**
+   * Sets the {@code adaptiveConcurrency} property.
+   * @param adaptiveConcurrency
+   */
+  public void setAdaptiveConcurrency(Boolean adaptiveConcurrency) {
+    this.adaptiveConcurrency = adaptiveConcurrency;
+  }
+
+  /**
+   * Gets the {@code asynchronousDispatch} property.
+   * <p>
+   * When this property is {@code true}, the connection consumer schedules
+   * each server session using the work manager and returns immediately 
+   * to dequeue more messages, allowing pooled sessions to run 
+   * concurrently.  When {@code false} (the default), the connection 
+   * consumer waits for each session to consume its messages.  Sessions
+   * are always dispatched asynchronously when prefetch is enabled (see
+   * {@link #getPrefetchSize()}).
+   * @return
+   */
+  public Boolean getAsynchronousDispatch() {
+    if (asynchronousDispatch == null) return DEFAULT_ASYNCHRONOUS_DISPATCH;
+    return asynchronousDispatch;
+  }
+
+  /**
+   * Sets the {@code asynchronousDispatch} property.
+   * @param asynchronousDispatch
+   */
+  public void setAsynchronousDispatch(Boolean asynchronousDispatch) {
+    this.asynchronousDispatch = asynchronousDispatch;
+  }
+
+  /**
+   * Gets the {@code batchSize} property.
+   * <p>
+   * This property specifies the maximum number of consecutive messages 
+   * that are delivered to the endpoint in a single transaction.  A 
+   * transaction never spans more than one run of a server session, so 
+   * the effective batch size is also limited by 
+   * {@link #getMaxMessages()}.  The default value of 1 delivers each 
+   * message in a transaction of its own.
+   * @return
+   */
+  public Integer getBatchSize() {
+    if (batchSize == null) return DEFAULT_BATCH_SIZE;
+    return batchSize;
+  }
+
+  /**
+   * Sets the {@code batchSize} property.
+   * @param batchSize
+   */
+  public void setBatchSize(Integer batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Gets the {@code batchTimeout} property.
+   * <p>
+   * This property specifies the maximum number of milliseconds that a 
+   * batch transaction (see {@link #getBatchSize()}) remains open to 
+   * additional messages.  Zero (the default) means that a batch is 
+   * completed only when it is full or when the server session has 
+   * delivered all of its messages.
+   * @return
+   */
+  public Long getBatchTimeout() {
+    if (batchTimeout == null) return DEFAULT_BATCH_TIMEOUT;
+    return batchTimeout;
+  }
+
+  /**
+   * Sets the {@code batchTimeout} property.
+   * @param batchTimeout
+   */
+  public void setBatchTimeout(Long batchTimeout) {
+    this.batchTimeout = batchTimeout;
+  }
+
   /**
    * Gets the {@code clientId} property.
    * @return
@@ -236,6 +569,28 @@ public class MessageActivationSpec implements ActivationSpec {
     this.clientId = clientId;
   }
 
+  /**
+   * Gets the {@code connectionCount} property.
+   * <p>
+   * This property specifies the number of AQ connections (each with its 
+   * own connection consumer) used to dequeue messages for the endpoint.
+   * All of the connections share the endpoint's server session pool, and 
+   * each is reconnected independently when it fails.
+   * @return
+   */
+  public Integer getConnectionCount() {
+    if (connectionCount == null) return DEFAULT_CONNECTION_COUNT;
+    return connectionCount;
+  }
+
+  /**
+   * Sets the {@code connectionCount} property.
+   * @param connectionCount
+   */
+  public void setConnectionCount(Integer connectionCount) {
+    this.connectionCount = connectionCount;
+  }
+
   /**
    * Gets the {@code connectionFactoryLookup} property.
    * @return
@@ -303,6 +658,126 @@ public class MessageActivationSpec implements ActivationSpec {
     this.destinationLookup = destinationLookup;
   }
 
+  /**
+   * Gets the {@code exceptionQueue} property.
+   * <p>
+   * This property specifies the name of the queue to which a message is 
+   * moved after it has failed {@link #getMaxDeliveryFailures()} times.
+   * @return
+   */
+  public String getExceptionQueue() {
+    if (StringUtils.isBlank(exceptionQueue)) return null;
+    return exceptionQueue;
+  }
+
+  /**
+   * Sets the {@code exceptionQueue} property.
+   * @param exceptionQueue
+   */
+  public void setExceptionQueue(String exceptionQueue) {
+    this.exceptionQueue = exceptionQueue;
+  }
+
+  /**
+   * Gets the {@code heartbeatInterval} property.
+   * <p>
+   * This property specifies the number of milliseconds between checks 
+   * that each of the endpoint's connections can still reach the database.
+   * A connection that fails a check, or does not complete it within 
+   * {@link #getHeartbeatTimeout()}, is closed and reconnected.  Zero (the 
+   * default) disables the checks, so that a broken connection is detected
+   * only when the provider reports it.
+   * @return
+   */
+  public Long getHeartbeatInterval() {
+    if (heartbeatInterval == null) return DEFAULT_HEARTBEAT_INTERVAL;
+    return heartbeatInterval;
+  }
+
+  /**
+   * Sets the {@code heartbeatInterval} property.
+   * @param heartbeatInterval
+   */
+  public void setHeartbeatInterval(Long heartbeatInterval) {
+    this.heartbeatInterval = heartbeatInterval;
+  }
+
+  /**
+   * Gets the {@code heartbeatTimeout} property.
+   * <p>
+   * This property specifies the number of milliseconds allowed for each
+   * check of a connection when {@link #getHeartbeatInterval()} is 
+   * non-zero.
+   * @return
+   */
+  public Long getHeartbeatTimeout() {
+    if (heartbeatTimeout == null) return DEFAULT_HEARTBEAT_TIMEOUT;
+    return heartbeatTimeout;
+  }
+
+  /**
+   * Sets the {@code heartbeatTimeout} property.
+   * @param heartbeatTimeout
+   */
+  public void setHeartbeatTimeout(Long heartbeatTimeout) {
+    this.heartbeatTimeout = heartbeatTimeout;
+  }
+
+  /**
+   * Gets the {@code listenerIdleTimeout} property.
+   * <p>
+   * This property specifies the number of milliseconds that an endpoint
+   * using a shared listener (see {@link #getSharedListener()}) keeps its
+   * connections open after it last delivered a message.
+   * @return
+   */
+  public Long getListenerIdleTimeout() {
+    if (listenerIdleTimeout == null) return DEFAULT_LISTENER_IDLE_TIMEOUT;
+    return listenerIdleTimeout;
+  }
+
+  /**
+   * Sets the {@code listenerIdleTimeout} property.
+   * @param listenerIdleTimeout
+   */
+  public void setListenerIdleTimeout(Long listenerIdleTimeout) {
+    this.listenerIdleTimeout = listenerIdleTimeout;
+  }
+
+  /**
+   * Gets the {@code maxDeliveryFailures} property.
+   * <p>
+   * This property specifies the number of times the endpoint may fail to
+   * consume a message before the adapter stops delivering it.  When the
+   * message is next redelivered, it is moved to the 
+   * {@link #getExceptionQueue() exception queue} in the delivery 
+   * transaction, without invoking the endpoint.  Zero (the default) 
+   * means that the adapter does not track delivery failures; AQ alone 
+   * then limits redelivery of the message.
+   * @return
+   */
+  public Integer getMaxDeliveryFailures() {
+    if (maxDeliveryFailures == null) return DEFAULT_MAX_DELIVERY_FAILURES;
+    return maxDeliveryFailures;
+  }
+
+  /**
+   * Sets the {@code maxDeliveryFailures} property.
+   * @param maxDeliveryFailures
+   */
+  public void setMaxDeliveryFailures(Integer maxDeliveryFailures) {
+    this.maxDeliveryFailures = maxDeliveryFailures;
+  }
+
+  /**
+   * Tests whether this spec enables quarantine of messages that 
+   * repeatedly fail delivery.
+   * @return {@code true} if quarantine is enabled
+   */
+  public boolean isQuarantineEnabled() {
+    return getMaxDeliveryFailures() > 0;
+  }
+
   /**
    * Gets the {@code maxMessages} property.
    * @return
@@ -320,6 +795,51 @@ public class MessageActivationSpec implements ActivationSpec {
     this.maxMessages = maxMessages;
   }
 
+  /**
+   * Gets the {@code maxSessions} property.
+   * <p>
+   * This property limits the number of server sessions that may be 
+   * consuming messages for the endpoint at any one time.
+   * @return
+   */
+  public Integer getMaxSessions() {
+    if (maxSessions == null) return DEFAULT_MAX_SESSIONS;
+    return maxSessions;
+  }
+
+  /**
+   * Sets the {@code maxSessions} property.
+   * @param maxSessions
+   */
+  public void setMaxSessions(Integer maxSessions) {
+    this.maxSessions = maxSessions;
+  }
+
+  /**
+   * Gets the {@code minSessions} property.
+   * <p>
+   * This property specifies the lower bound on the number of server 
+   * sessions that may be consuming messages for the endpoint at any one
+   * time, when {@link #getAdaptiveConcurrency() adaptive concurrency} is 
+   * enabled.  It also specifies the number of sessions that are created 
+   * (in parallel) to fill the session pool as connections become ready;
+   * each of the endpoint's {@link #getConnectionCount() connections} 
+   * gets its share of these sessions.
+   * @return
+   */
+  public Integer getMinSessions() {
+    if (minSessions == null) return DEFAULT_MIN_SESSIONS;
+    return minSessions;
+  }
+
+  /**
+   * Sets the {@code minSessions} property.
+   * @param minSessions
+   */
+  public void setMinSessions(Integer minSessions) {
+    this.minSessions = minSessions;
+  }
+
   /**
    * Gets the {@code messageSelector} property.
    * @return
@@ -354,6 +874,182 @@ public class MessageActivationSpec implements ActivationSpec {
     this.password = password;
   }
 
+  /**
+   * Gets the {@code pollerCount} property.
+   * <p>
+   * When prefetch is enabled (see {@link #getPrefetchSize()}), this 
+   * property specifies the number of poller sessions that dequeue messages
+   * on each connection.  A durable subscription always uses a single 
+   * poller.
+   * @return
+   */
+  public Integer getPollerCount() {
+    if (pollerCount == null) return DEFAULT_POLLER_COUNT;
+    return pollerCount;
+  }
+
+  /**
+   * Sets the {@code pollerCount} property.
+   * @param pollerCount
+   */
+  public void setPollerCount(Integer pollerCount) {
+    this.pollerCount = pollerCount;
+  }
+
+  /**
+   * Gets the {@code prefetchSize} property.
+   * <p>
+   * This property specifies the number of messages that the adapter's own 
+   * poller sessions may dequeue ahead of delivery on each connection.  
+   * Zero (the default) means that messages are dequeued by the provider's 
+   * connection consumer instead.  Prefetch applies only to endpoints that 
+   * are not delivery-transacted, and implies asynchronous dispatch.
+   * <p>
+   * A poller acknowledges the messages it has received together, after 
+   * all of them have been delivered; if any delivery fails, all of them 
+   * are redelivered, including those that were delivered successfully.
+   * Prefetch therefore requires {@code Dups-ok-acknowledge} mode (see
+   * {@link #getAcknowledgeMode()}).
+   * @return
+   */
+  public Integer getPrefetchSize() {
+    if (prefetchSize == null) return DEFAULT_PREFETCH_SIZE;
+    return prefetchSize;
+  }
+
+  /**
+   * Sets the {@code prefetchSize} property.
+   * @param prefetchSize
+   */
+  public void setPrefetchSize(Integer prefetchSize) {
+    this.prefetchSize = prefetchSize;
+  }
+
+  /**
+   * Tests whether this spec enables the adapter's prefetch engine.
+   * @return {@code true} if prefetch is enabled
+   */
+  public boolean isPrefetchEnabled() {
+    return getPrefetchSize() > 0 && isDupsOkAcknowledge();
+  }
+
+  /**
+   * Gets the {@code reconnectJitter} property.
+   * <p>
+   * This property selects how the delay between attempts to reconnect
+   * is randomized: {@code None} (the default) uses a truncated exponential
+   * delay, {@code Full} chooses each delay at random up to the exponential
+   * delay, and {@code Decorrelated} chooses each delay at random up to 
+   * three times the previous delay.
+   * @return
+   */
+  public String getReconnectJitter() {
+    if (StringUtils.isBlank(reconnectJitter)) return null;
+    return reconnectJitter;
+  }
+
+  /**
+   * Sets the {@code reconnectJitter} property.
+   * @param reconnectJitter
+   */
+  public void setReconnectJitter(String reconnectJitter) {
+    this.reconnectJitter = reconnectJitter;
+  }
+
+  /**
+   * Tests whether this spec indicates full jitter for reconnect delays.
+   * @return {@code true} if full jitter is desired
+   */
+  public boolean isFullJitter() {
+    return FULL_JITTER.equals(getReconnectJitter());
+  }
+
+  /**
+   * Tests whether this spec indicates decorrelated jitter for reconnect 
+   * delays.
+   * @return {@code true} if decorrelated jitter is desired
+   */
+  public boolean isDecorrelatedJitter() {
+    return DECORRELATED_JITTER.equals(getReconnectJitter());
+  }
+
+  /**
+   * Gets the {@code sessionWaitTimeout} property.
+   * <p>
+   * This property specifies the number of milliseconds to wait for a 
+   * server session when all {@link #getMaxSessions()} sessions are in use.
+   * A negative value (the default) waits indefinitely.
+   * @return
+   */
+  public Long getSessionWaitTimeout() {
+    if (sessionWaitTimeout == null) return DEFAULT_SESSION_WAIT_TIMEOUT;
+    return sessionWaitTimeout;
+  }
+
+  /**
+   * Sets the {@code sessionWaitTimeout} property.
+   * @param sessionWaitTimeout
+   */
+  public void setSessionWaitTimeout(Long sessionWaitTimeout) {
+    this.sessionWaitTimeout = sessionWaitTimeout;
+  }
+
+  /**
+   * Gets the {@code sharedListener} property.
+   * <p>
+   * When this property is {@code true}, the endpoint holds no connections
+   * while it is idle.  Instead, a single connection shared by all such 
+   * endpoints that connect as the same user waits (using 
+   * {@code DBMS_AQ.LISTEN}) for a message to be ready on the endpoint's
+   * queue or durable subscription, and the endpoint then opens its 
+   * connections until it has been idle for 
+   * {@link #getListenerIdleTimeout()}.  This suits a large number of 
+   * endpoints that each receive few messages.  When {@code false} (the 
+   * default), the endpoint's connections remain open while it is active.
+   * <p>
+   * {@code DBMS_AQ.LISTEN} does not apply a message selector, so a shared
+   * listener cannot be used together with {@link #getMessageSelector()}.
+   * @return
+   */
+  public Boolean getSharedListener() {
+    if (sharedListener == null) return DEFAULT_SHARED_LISTENER;
+    return sharedListener;
+  }
+
+  /**
+   * Sets the {@code sharedListener} property.
+   * @param sharedListener
+   */
+  public void setSharedListener(Boolean sharedListener) {
+    this.sharedListener = sharedListener;
+  }
+
+  /**
+   * Gets the {@code standbyConnection} property.
+   * <p>
+   * When this property is {@code true}, each of the endpoint's connectors
+   * keeps a second, authenticated connection open while its connection is
+   * in use, and switches to it immediately when the connection in use 
+   * fails.  Whether the standby connection reaches a different database
+   * instance depends on the connect descriptor of the database URL; e.g.
+   * a RAC service with connect-time load balancing.  When {@code false} 
+   * (the default), a failed connection is replaced only after the 
+   * reconnect delay.
+   * @return
+   */
+  public Boolean getStandbyConnection() {
+    if (standbyConnection == null) return DEFAULT_STANDBY_CONNECTION;
+    return standbyConnection;
+  }
+
+  /**
+   * Sets the {@code standbyConnection} property.
+   * @param standbyConnection
+   */
+  public void setStandbyConnection(Boolean standbyConnection) {
+    this.standbyConnection = standbyConnection;
+  }
+
   /**
    * Gets the {@code subscriptionDurability} property.
    * @return
@@ -398,6 +1094,10 @@ public class MessageActivationSpec implements ActivationSpec {
 
   /**
    * Gets the {@code username} property.
+   * <p>
+   * When the resource adapter uses proxy authentication, this property 
+   * names the schema user on whose behalf the adapter's proxy user 
+   * connects, and no password is needed.
    * @return
    */
   public String getUsername() {
@@ -18,6 +18,7 @@
  */
 package org.soulwing.oaq;
 
+import javax.jms.ConnectionFactory;
 import javax.jms.JMSException;
 import javax.jms.XAConnectionFactory;
 
@@ -36,5 +37,14 @@ interface MessageConnectionFactoryProvider {
    */
   XAConnectionFactory createConnectionFactory(
       OAQConnectionRequestInfo info) throws JMSException;
+
+  /**
+   * Creates a (non-XA) ConnectionFactory.
+   * @param info
+   * @return connection factory
+   * @throws JMSException
+   */
+  ConnectionFactory createNonXAConnectionFactory(
+      OAQConnectionRequestInfo info) throws JMSException;
   
 }
@@ -18,38 +18,83 @@
  */
 package org.soulwing.oaq;
 
+import java.util.TimerTask;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 
+import javax.jms.Connection;
 import javax.jms.ExceptionListener;
 import javax.jms.JMSException;
-import javax.jms.XAConnection;
+import javax.jms.Session;
 import javax.resource.spi.work.Work;
 import javax.resource.spi.work.WorkException;
 
 /**
  * A {@link Work} object that connects an endpoint to Oracle AQ.  
+ * <p>
+ * Without a {@link ReconnectScheduler}, the connector retries in a loop
+ * on the work manager's thread, waiting for the delay manager between 
+ * attempts.  With a scheduler, each run of the connector makes a single
+ * attempt; after a failure the next attempt is scheduled to be submitted 
+ * to the work manager when the delay has elapsed, so that no thread waits 
+ * while the database is unavailable.  A connector that uses a scheduler
+ * may also share a {@link ReconnectCoordinator} with other connectors
+ * to the same database, in which case it makes an attempt only when the
+ * coordinator allows it.
+ * <p>
+ * When a heartbeat interval is set (and a scheduler is available), the
+ * connector validates its connection periodically using a 
+ * {@link ConnectionHeartbeat}; a connection that fails its heartbeat is 
+ * handled in the same way as one whose provider reports an exception.
+ * <p>
+ * In standby mode, the connector keeps a second connection open (but not
+ * started) while its connection is in use.  When the connection in use 
+ * fails, the standby connection takes its place immediately, without 
+ * waiting for a reconnect delay, and a new standby connection is opened
+ * in the background.  The standby connection is heartbeated while it is
+ * idle (when heartbeats are enabled), and is validated before it is put
+ * into use, so that a standby connection that failed silently is never
+ * promoted.
  *
  * @author Carl Harris
  */
 class MessageEndpointConnector implements Work {
 
   public interface Callback {
-    void connectionReady(XAConnection connection) throws JMSException;
-    void connectionFailed(XAConnection connection) throws JMSException;
+    void connectionReady(Connection connection) throws JMSException;
+    void connectionFailed(Connection connection) throws JMSException;
   }
   
 
+  static final long DEFAULT_STANDBY_RETRY_DELAY = 10000;
+
   private final Logger logger = Logger.getLogger(getClass().getName());
   
   private final AtomicBoolean running = new AtomicBoolean();
   private final AtomicBoolean connecting = new AtomicBoolean();
+  private final Runnable resubmit = new ResubmitTask();
+  private final AtomicReference<Connection> standby = 
+      new AtomicReference<Connection>();
   
   private final MessageEndpointDetails endpoint;
   private final Callback callback;
   private final ReconnectDelayManager delayManager;
+  private final ReconnectScheduler scheduler;
   
-  private XAConnection connection;
+  private Connection connection;
+  private volatile EndpointEventLog eventLog;
+  private volatile ReconnectCoordinator coordinator;
+  private volatile ConnectionValidator validator = 
+      new AQConnectionValidator();
+  private volatile ConnectionHeartbeat heartbeat;
+  private volatile ConnectionHeartbeat standbyHeartbeat;
+  private volatile long heartbeatInterval;
+  private volatile long heartbeatTimeout;
+  private volatile boolean standbyEnabled;
+  private volatile long standbyRetryDelay = DEFAULT_STANDBY_RETRY_DELAY;
+  private volatile TimerTask pendingReconnect;
+  private int attempt;
     
   /**
    * Constructs a new instance.
@@ -61,6 +106,17 @@ class MessageEndpointConnector implements Work {
     this(endpoint, callback, new ExponentialDelayManager());
   }
 
+  /**
+   * Constructs a new instance.
+   * @param endpoint endpoint details
+   * @param callback callback for connection notifications
+   * @param scheduler scheduler for reconnect attempts
+   */
+  public MessageEndpointConnector(MessageEndpointDetails endpoint,
+      Callback callback, ReconnectScheduler scheduler) {
+    this(endpoint, callback, new ExponentialDelayManager(), scheduler);
+  }
+
   /**
    * Constructs a new instance.
    * @param endpoint endpoint details
@@ -69,11 +125,107 @@ class MessageEndpointConnector implements Work {
    */
   protected MessageEndpointConnector(MessageEndpointDetails endpoint,
       Callback callback, ReconnectDelayManager delayManager) {
+    this(endpoint, callback, delayManager, null);
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param endpoint endpoint details
+   * @param callback callback for connection notifications
+   * @param delayManager reconnect delay manager
+   * @param scheduler scheduler for reconnect attempts or {@code null} 
+   *    if the connector should wait between attempts
+   */
+  protected MessageEndpointConnector(MessageEndpointDetails endpoint,
+      Callback callback, ReconnectDelayManager delayManager,
+      ReconnectScheduler scheduler) {
     this.endpoint = endpoint;
     this.callback = callback;
     this.delayManager = delayManager;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Sets the log to which diagnostic events for connection attempts are 
+   * written.
+   * @param eventLog the event log to set, or {@code null} if events are
+   *    not to be logged
+   */
+  public void setEventLog(EndpointEventLog eventLog) {
+    this.eventLog = eventLog;
+  }
+
+  /**
+   * Sets the coordinator for reconnect attempts.
+   * <p>
+   * The coordinator is consulted only when the connector uses a 
+   * {@link ReconnectScheduler}.
+   * @param coordinator the coordinator to set, or {@code null} if the
+   *    connector's attempts are not to be coordinated
+   */
+  public void setCoordinator(ReconnectCoordinator coordinator) {
+    this.coordinator = coordinator;
   }
 
+  /**
+   * Sets the interval between heartbeats.
+   * @param heartbeatInterval the interval to set (in milliseconds); zero 
+   *    disables heartbeats
+   */
+  public void setHeartbeatInterval(long heartbeatInterval) {
+    this.heartbeatInterval = heartbeatInterval;
+  }
+
+  /**
+   * Sets the time allowed for each heartbeat to complete.
+   * @param heartbeatTimeout the timeout to set (in milliseconds)
+   */
+  public void setHeartbeatTimeout(long heartbeatTimeout) {
+    this.heartbeatTimeout = heartbeatTimeout;
+  }
+
+  /**
+   * Sets the validator used by heartbeats and to validate a standby 
+   * connection before it is put into use.
+   * @param validator the validator to set
+   */
+  public void setConnectionValidator(ConnectionValidator validator) {
+    this.validator = validator;
+  }
+
+  /**
+   * Sets a flag indicating whether the connector keeps a standby 
+   * connection.
+   * @param standbyEnabled {@code true} to keep a standby connection
+   */
+  public void setStandbyEnabled(boolean standbyEnabled) {
+    this.standbyEnabled = standbyEnabled;
+  }
+
+  /**
+   * Sets the delay before another attempt to open a standby connection,
+   * after an attempt fails or the standby connection itself fails.
+   * @param standbyRetryDelay the delay to set (in milliseconds)
+   */
+  public void setStandbyRetryDelay(long standbyRetryDelay) {
+    this.standbyRetryDelay = standbyRetryDelay;
+  }
+
+  /**
+   * Tests whether the connector has been started and not yet stopped.
+   * @return {@code true} if the connector is running
+   */
+  public boolean isRunning() {
+    return running.get();
+  }
+
+  /**
+   * Tests whether the connector currently has a standby connection.
+   * @return {@code true} if a standby connection is open
+   */
+  public boolean hasStandby() {
+    return standby.get() != null;
+  }
 
   /**
    * Initiates a connection request.
@@ -84,6 +236,9 @@ class MessageEndpointConnector implements Work {
       return;
     }    
     connecting.set(true);
+    if (heartbeatInterval > 0 && scheduler == null) {
+      logger.warning("no scheduler available; heartbeat is disabled");
+    }
     connect();
   }
 
@@ -95,7 +250,17 @@ class MessageEndpointConnector implements Work {
       logger.warning("connector is not running");
       return;
     }
+    TimerTask task = pendingReconnect;
+    if (task != null) {
+      task.cancel();
+      pendingReconnect = null;
+    }
+    if (coordinator != null) {
+      coordinator.withdraw(this);
+    }
     delayManager.reset();
+    stopHeartbeat();
+    closeStandby();
     if (connection != null) {
       try {
         connection.close();
@@ -115,34 +280,120 @@ class MessageEndpointConnector implements Work {
       logger.severe("work manager won't accept work: " + ex.toString());
     }
   }
+
+  private void scheduleReconnect() {
+    long delay = delayManager.nextDelay();
+    EndpointEventLog events = eventLog;
+    if (events != null && events.isEnabled()) {
+      events.reconnectBackoff(delay * 1000000L);
+    }
+    pendingReconnect = scheduler.schedule(resubmit, delay);
+  }
   
   /**
    * {@inheritDoc}
    */
   @Override
   public void run() {
+    if (scheduler != null) {
+      if (running.get() && connecting.get()) {
+        attemptScheduled();
+      }
+      return;
+    }
     try {
       while (running.get() && connecting.get()) {
-        XAConnection connection = null;
-        try {
-          connection = endpoint.createXAConnection();
-          connection.setExceptionListener(new ExceptionHandler(connection));
-          connection.start();
-          connecting.set(false);
-          delayManager.reset();
-          callback.connectionReady(connection);
-          this.connection = connection;
-        }
-        catch (JMSException ex) {
-          cleanup(connection);
-          delayManager.pause();
-        }
+        if (tryConnect()) break;
+        pause();
       }
     }
     catch (InterruptedException ex) {
       assert true;  // simply bail out on interrupt
     }
   }
+
+  private void attemptScheduled() {
+    ReconnectCoordinator coordinator = this.coordinator;
+    if (coordinator == null) {
+      if (!tryConnect()) {
+        scheduleReconnect();
+      }
+      return;
+    }
+    if (!coordinator.tryAttempt(this, resubmit)) return;
+    if (tryConnect()) {
+      coordinator.attemptSucceeded(this);
+    }
+    else {
+      coordinator.attemptFailed(this);
+      scheduleReconnect();
+    }
+  }
+
+  /**
+   * Makes a single attempt to connect.
+   * @return {@code true} if no further attempt is needed by the caller;
+   *    either the attempt succeeded or another thread has taken over 
+   *    responsibility for reconnecting
+   */
+  private boolean tryConnect() {
+    EndpointEventLog events = eventLog;
+    if (events != null && !events.isEnabled()) {
+      events = null;
+    }
+    long start = events != null ? System.nanoTime() : 0;
+    attempt++;
+    Connection connection = null;
+    ExceptionHandler handler = null;
+    try {
+      connection = endpoint.createConnection();
+      handler = new ExceptionHandler(connection);
+      connection.setExceptionListener(handler);
+      connection.start();
+    }
+    catch (JMSException ex) {
+      if (events != null) {
+        events.connectAttempt(attempt, System.nanoTime() - start, ex);
+      }
+      cleanup(connection);
+      return false;
+    }
+    if (events != null) {
+      events.connectAttempt(attempt, System.nanoTime() - start, null);
+    }
+    attempt = 0;
+    return activate(connection, handler);
+  }
+
+  /**
+   * Puts a connection into use.
+   * @param connection the connection
+   * @param handler exception handler of the connection
+   * @return {@code true} if no further attempt is needed by the caller;
+   *    either the connection is in use or another thread has taken over 
+   *    responsibility for reconnecting
+   */
+  private boolean activate(Connection connection, ExceptionHandler handler) {
+    connecting.set(false);
+    delayManager.reset();
+    try {
+      callback.connectionReady(connection);
+      this.connection = connection;
+      startHeartbeat(connection, handler);
+      openStandby(0);
+      return true;
+    }
+    catch (JMSException ex) {
+      logger.warning("cannot start consuming messages: " + ex);
+      if (!connecting.compareAndSet(false, true)) {
+        // the connection already failed, and its exception handler 
+        // has started to reconnect
+        return true;
+      }
+      cleanup(connection);
+      return false;
+    }
+  }
   
   /**
    * {@inheritDoc}
@@ -151,19 +402,121 @@ class MessageEndpointConnector implements Work {
   public void release() {
   }
 
+  /**
+   * A task that submits the connector to the work manager for its next
+   * attempt to connect.
+   */
+  private class ResubmitTask implements Runnable {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+      pendingReconnect = null;
+      if (!running.get()) return;
+      try {
+        endpoint.getWorkManager().scheduleWork(MessageEndpointConnector.this);
+      }
+      catch (WorkException ex) {
+        logger.warning("work manager won't accept work: " + ex);
+        scheduleReconnect();
+      }
+    }
+
+  }
+
+  /**
+   * A {@link Work} object that opens a standby connection.
+   */
+  private class StandbyTask implements Work {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+      if (!running.get() || connecting.get() || standby.get() != null) {
+        return;
+      }
+      Connection connection = null;
+      StandbyHandler handler = null;
+      try {
+        connection = endpoint.createConnection();
+        handler = new StandbyHandler(connection);
+        connection.setExceptionListener(handler);
+      }
+      catch (JMSException ex) {
+        logger.warning("cannot open standby connection: " + ex);
+        close(connection);
+        openStandby(standbyRetryDelay);
+        return;
+      }
+      if (!standby.compareAndSet(null, connection)) {
+        close(connection);
+        return;
+      }
+      if (!running.get()) {
+        // the connector stopped while the connection was being opened
+        closeStandby();
+        return;
+      }
+      startStandbyHeartbeat(connection, handler);
+      logger.fine("standby connection is ready");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void release() {
+    }
+
+  }
+
+  /**
+   * An {@link ExceptionListener} that replaces a standby connection after
+   * an exception is thrown.
+   */
+  private class StandbyHandler implements ExceptionListener {
+
+    private final Connection connection;
+
+    /**
+     * Constructs a new instance.
+     * @param connection
+     */
+    public StandbyHandler(Connection connection) {
+      this.connection = connection;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onException(JMSException ex) {
+      if (!standby.compareAndSet(connection, null)) return;
+      logger.warning("standby connection failed: " + ex);
+      stopStandbyHeartbeat();
+      close(connection);
+      openStandby(standbyRetryDelay);
+    }
+
+  }
+
   /**
    * An {@link ExceptionListener} that reconnects after an exception is 
    * thrown.
    */
   private class ExceptionHandler implements ExceptionListener {
 
-    private final XAConnection connection;
+    private final Connection connection;
     
     /**
      * Constructs a new instance.
      * @param connection
      */
-    public ExceptionHandler(XAConnection connection) {
+    public ExceptionHandler(Connection connection) {
       this.connection = connection;
     }
 
@@ -175,8 +528,13 @@ class MessageEndpointConnector implements Work {
       if (!running.get()) return;
       if (!connecting.compareAndSet(false, true)) return;
       cleanup(connection);
+      if (promoteStandby()) return;
+      if (scheduler != null) {
+        scheduleReconnect();
+        return;
+      }
       try {
-        delayManager.pause();
+        pause();
         connect();
       }
       catch (InterruptedException iex) {
@@ -186,8 +544,135 @@ class MessageEndpointConnector implements Work {
    
   }
   
-  private void cleanup(XAConnection connection) {
+  private void pause() throws InterruptedException {
+    EndpointEventLog events = eventLog;
+    if (events == null || !events.isEnabled()) {
+      delayManager.pause();
+      return;
+    }
+    long start = System.nanoTime();
+    delayManager.pause();
+    events.reconnectBackoff(System.nanoTime() - start);
+  }
+
+  /**
+   * Puts the standby connection (if any) into use in place of a
+   * connection that has failed.
+   * @return {@code true} if no further attempt is needed by the caller;
+   *    see {@link #activate(Connection, ExceptionHandler)}
+   */
+  private boolean promoteStandby() {
+    Connection connection = standby.getAndSet(null);
+    if (connection == null) return false;
+    stopStandbyHeartbeat();
+    ExceptionHandler handler = new ExceptionHandler(connection);
+    try {
+      validate(connection);
+      connection.setExceptionListener(handler);
+      connection.start();
+    }
+    catch (JMSException ex) {
+      logger.warning("cannot use standby connection: " + ex);
+      cleanup(connection);
+      return false;
+    }
+    logger.info("switched to standby connection");
+    return activate(connection, handler);
+  }
+
+  private void validate(Connection connection) throws JMSException {
+    Session session = connection.createSession(false, 
+        Session.AUTO_ACKNOWLEDGE);
+    try {
+      validator.validate(session, heartbeatTimeout);
+    }
+    finally {
+      try {
+        session.close();
+      }
+      catch (JMSException ex) {
+        assert true;  // safe to ignore here
+      }
+    }
+  }
+
+  private void openStandby(long delay) {
+    if (!standbyEnabled || !running.get()) return;
+    if (delay == 0) {
+      submitStandbyTask();
+    }
+    else if (scheduler != null) {
+      scheduler.schedule(new Runnable() {
+        @Override
+        public void run() {
+          submitStandbyTask();
+        }
+      }, delay);
+    }
+  }
+
+  private void submitStandbyTask() {
+    if (!running.get()) return;
+    try {
+      endpoint.getWorkManager().scheduleWork(new StandbyTask());
+    }
+    catch (WorkException ex) {
+      logger.warning("work manager won't accept work: " + ex);
+    }
+  }
+
+  private void closeStandby() {
+    stopStandbyHeartbeat();
+    close(standby.getAndSet(null));
+  }
+
+  private void startStandbyHeartbeat(Connection connection, 
+      StandbyHandler handler) {
+    if (heartbeatInterval <= 0 || scheduler == null) return;
+    ConnectionHeartbeat heartbeat = new ConnectionHeartbeat(connection,
+        handler, validator, scheduler, endpoint.getWorkManager(), 
+        heartbeatInterval, heartbeatTimeout);
+    this.standbyHeartbeat = heartbeat;
+    heartbeat.start();
+  }
+
+  private void stopStandbyHeartbeat() {
+    ConnectionHeartbeat heartbeat = this.standbyHeartbeat;
+    if (heartbeat == null) return;
+    this.standbyHeartbeat = null;
+    heartbeat.stop();
+  }
+
+  private void startHeartbeat(Connection connection, 
+      ExceptionHandler handler) {
+    if (heartbeatInterval <= 0 || scheduler == null) return;
+    ConnectionHeartbeat heartbeat = new ConnectionHeartbeat(connection,
+        handler, validator, scheduler, endpoint.getWorkManager(), 
+        heartbeatInterval, heartbeatTimeout);
+    this.heartbeat = heartbeat;
+    heartbeat.start();
+  }
+
+  private void stopHeartbeat() {
+    ConnectionHeartbeat heartbeat = this.heartbeat;
+    if (heartbeat == null) return;
+    this.heartbeat = null;
+    heartbeat.stop();
+  }
+
+  private static void close(Connection connection) {
+    if (connection == null) return;
+    try {
+      connection.close();
+    }
+    catch (JMSException ex) {
+      assert true;  // safe to ignore here
+    }
+  }
+
+  private void cleanup(Connection connection) {
     if (connection == null) return;
+    stopHeartbeat();
     try {
       callback.connectionFailed(connection);
     }
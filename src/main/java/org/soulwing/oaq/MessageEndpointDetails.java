@@ -19,7 +19,7 @@
 package org.soulwing.oaq;
 
 import javax.jms.JMSException;
-import javax.jms.XAConnection;
+import javax.jms.Connection;
 import javax.resource.spi.endpoint.MessageEndpointFactory;
 import javax.resource.spi.work.WorkManager;
 
@@ -50,15 +50,25 @@ public interface MessageEndpointDetails {
   MessageActivationSpec getActivationSpec();
 
   /**
-   * Creates an XA JMS connection to Oracle AQ for the endpoint.
+   * Tests whether messages are delivered to the endpoint in a transaction.
+   * @return {@code true} if the endpoint's listener method is 
+   *    delivery-transacted
+   */
+  boolean isDeliveryTransacted();
+
+  /**
+   * Creates a JMS connection to Oracle AQ for the endpoint.
    * <p>
-   * The returned object is an instance of {@link oracle.jms.AQjmsXAConnection}
-   * but is returned using the interface type to faciliate testing with
-   * mocks.
+   * When the endpoint is delivery-transacted the returned object is an 
+   * instance of {@link oracle.jms.AQjmsXAConnection}; otherwise it is
+   * a (non-XA) {@link oracle.jms.AQjmsConnection}.  In either case it is 
+   * returned using the interface type to faciliate testing with mocks.
+   * When the resource adapter limits the number of connections, the
+   * returned object is a proxy for the provider's connection.
    * 
    * @return connection object
    * @throws JMSException
    */
-  XAConnection createXAConnection() throws JMSException;
+  Connection createConnection() throws JMSException;
     
 }
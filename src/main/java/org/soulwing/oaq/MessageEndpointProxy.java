@@ -19,7 +19,9 @@
 package org.soulwing.oaq;
 
 import java.lang.reflect.Method;
+import java.util.logging.Logger;
 
+import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageListener;
 import javax.resource.ResourceException;
@@ -28,18 +30,54 @@ import javax.resource.spi.endpoint.MessageEndpoint;
 
 /**
  * An endpoint that listens for messages on behalf of a message-driven bean.
+ * <p>
+ * By default, each message is delivered in a transaction of its own; i.e.
+ * each call to the bean's listener method is bracketed by calls to
+ * {@link MessageEndpoint#beforeDelivery(Method)} and 
+ * {@link MessageEndpoint#afterDelivery()}.  When a batch size greater than
+ * one is specified, consecutive messages delivered by the same run of the
+ * session share a transaction, which is completed after the batch size
+ * is reached, after the batch timeout expires, or when the session 
+ * finishes its run, whichever comes first.  A transaction never spans 
+ * runs of the session.
+ * <p>
+ * A message that is redelivered (e.g. because it was part of a batch that
+ * rolled back) is always delivered in a transaction of its own, so that
+ * a message that cannot be consumed causes only its own transaction to
+ * roll back.
+ * <p>
+ * An exception thrown by the bean's listener method is wrapped in a 
+ * {@link ListenerFailedException}, so that the session that delivered the
+ * message can tell it apart from a failure of the endpoint itself.
+ * <p>
+ * When a {@link MessageQuarantine} is configured, a message that has 
+ * failed too many times is moved to the exception queue in a transaction
+ * of its own, without invoking the bean.
  *
  * @author Carl Harris
  */
-public class MessageEndpointProxy implements MessageListener {
+public class MessageEndpointProxy implements SessionRunListener {
 
-  private static final Method onMessageMethod;
+  static final Method onMessageMethod;
   
+  private final Logger logger = Logger.getLogger(getClass().getName());
+
   private final MessageEndpoint endpoint;
+  private final int batchSize;
+  private final long batchTimeout;
+  private final MessageQuarantine quarantine;
+  
+  private MessageEndpointStatistics statistics;
+  private EndpointEventLog eventLog;
+  
+  private boolean delivering;
+  private int batchCount;
+  private long batchDeadline;
   
   static {
     try {
-      onMessageMethod = MessageListener.class.getMethod("onMessage");
+      onMessageMethod = MessageListener.class.getMethod("onMessage", 
+          Message.class);
     }
     catch (NoSuchMethodException ex) {
       throw new ExceptionInInitializerError(ex);
@@ -51,17 +89,111 @@ public class MessageEndpointProxy implements MessageListener {
    * @param endpoint
    */
   public MessageEndpointProxy(MessageEndpoint endpoint) {
+    this(endpoint, 1, 0);
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param endpoint
+   * @param batchSize maximum number of messages to deliver in a single
+   *    transaction
+   * @param batchTimeout maximum time (in milliseconds) that a transaction
+   *    remains open to additional messages; zero means that only the 
+   *    batch size and the end of the session's run complete a transaction
+   */
+  public MessageEndpointProxy(MessageEndpoint endpoint, int batchSize,
+      long batchTimeout) {
+    this(endpoint, batchSize, batchTimeout, null);
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param endpoint
+   * @param batchSize maximum number of messages to deliver in a single
+   *    transaction
+   * @param batchTimeout maximum time (in milliseconds) that a transaction
+   *    remains open to additional messages; zero means that only the 
+   *    batch size and the end of the session's run complete a transaction
+   * @param quarantine quarantine for messages that repeatedly fail or
+   *    {@code null} if failures are not to be tracked
+   */
+  public MessageEndpointProxy(MessageEndpoint endpoint, int batchSize,
+      long batchTimeout, MessageQuarantine quarantine) {
     this.endpoint = endpoint;
+    this.batchSize = Math.max(1, batchSize);
+    this.batchTimeout = Math.max(0, batchTimeout);
+    this.quarantine = quarantine;
+  }
+
+  /**
+   * Sets the statistics in which deliveries are to be recorded.
+   * @param statistics the statistics to set, or {@code null} if 
+   *    deliveries are not to be recorded
+   */
+  public void setStatistics(MessageEndpointStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  /**
+   * Sets the log to which diagnostic events for deliveries are written.
+   * @param eventLog the event log to set, or {@code null} if events are
+   *    not to be logged
+   */
+  public void setEventLog(EndpointEventLog eventLog) {
+    this.eventLog = eventLog;
   }
 
   @Override
   public void onMessage(Message message) {
-    // TODO: make a stateful implementation that doesn't complain each
-    // time something goes wrong here
     try {
-      endpoint.beforeDelivery(onMessageMethod);
-      ((MessageListener) endpoint).onMessage(message);
-      endpoint.afterDelivery();
+      if (quarantine != null && quarantine.isPoisoned(message)) {
+        quarantine(message);
+        return;
+      }
+      final EndpointEventLog events = 
+          eventLog != null && eventLog.isEnabled() ? eventLog : null;
+      final long begin = events != null ? System.nanoTime() : 0;
+      boolean redelivered = isRedelivered(message);
+      if (delivering && redelivered) {
+        endDelivery();
+      }
+      if (!delivering) {
+        beginDelivery();
+      }
+      final long start = System.nanoTime();
+      try {
+        ((MessageListener) endpoint).onMessage(message);
+      }
+      catch (RuntimeException ex) {
+        final long end = System.nanoTime();
+        if (statistics != null) {
+          statistics.listenerCompleted(end - start);
+          statistics.messagesFailed(1);
+        }
+        abortDelivery();
+        if (events != null) {
+          events.delivery(start - begin, end - start, 
+              System.nanoTime() - end, false);
+        }
+        if (quarantine != null) {
+          quarantine.deliveryFailed(message);
+        }
+        throw new ListenerFailedException(ex);
+      }
+      final long end = System.nanoTime();
+      if (statistics != null) {
+        statistics.listenerCompleted(end - start);
+      }
+      if (quarantine != null) {
+        quarantine.deliverySucceeded(message);
+      }
+      if (++batchCount >= batchSize || redelivered || isBatchExpired()) {
+        endDelivery();
+      }
+      if (events != null) {
+        events.delivery(start - begin, end - start, 
+            System.nanoTime() - end, true);
+      }
     }
     catch (NoSuchMethodException ex) {
       throw new RuntimeException(ex);
@@ -71,4 +203,83 @@ public class MessageEndpointProxy implements MessageListener {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void sessionRunCompleted() {
+    if (!delivering) return;
+    try {
+      endDelivery();
+    }
+    catch (ResourceException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  private void quarantine(Message message) 
+      throws NoSuchMethodException, ResourceException {
+    if (delivering) {
+      endDelivery();
+    }
+    beginDelivery();
+    try {
+      quarantine.quarantine(message);
+    }
+    catch (JMSException ex) {
+      abortDelivery();
+      throw new RuntimeException(ex);
+    }
+    endDelivery();
+    if (statistics != null) {
+      statistics.messageQuarantined();
+    }
+  }
+
+  private void beginDelivery() 
+      throws NoSuchMethodException, ResourceException {
+    endpoint.beforeDelivery(onMessageMethod);
+    delivering = true;
+    batchCount = 0;
+    if (batchTimeout > 0) {
+      batchDeadline = System.currentTimeMillis() + batchTimeout;
+    }
+  }
+
+  private void endDelivery() throws ResourceException {
+    delivering = false;
+    endpoint.afterDelivery();
+    if (statistics != null) {
+      statistics.messagesDelivered(batchCount);
+    }
+  }
+
+  private void abortDelivery() {
+    delivering = false;
+    try {
+      endpoint.afterDelivery();
+    }
+    catch (ResourceException ex) {
+      logger.warning("error completing failed delivery: " + ex);
+    }
+    if (statistics != null) {
+      statistics.messagesRolledBack(batchCount + 1);
+    }
+  }
+
+  private boolean isBatchExpired() {
+    return batchTimeout > 0 
+        && System.currentTimeMillis() >= batchDeadline;
+  }
+
+  private boolean isRedelivered(Message message) {
+    if (batchSize == 1) return false;
+    try {
+      return message.getJMSRedelivered();
+    }
+    catch (JMSException ex) {
+      return false;
+    }
+  }
+
 }
@@ -18,41 +18,87 @@
  */
 package org.soulwing.oaq;
 
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
 import javax.jms.Connection;
 import javax.jms.ConnectionConsumer;
+import javax.jms.Destination;
 import javax.jms.JMSException;
-import javax.jms.XAConnection;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.naming.NamingException;
 import javax.resource.spi.endpoint.MessageEndpointFactory;
+import javax.resource.spi.work.Work;
+import javax.resource.spi.work.WorkException;
 import javax.resource.spi.work.WorkManager;
 
 /**
  * An Oracle AQ message endpoint.
+ * <p>
+ * The endpoint opens the number of connections specified by its activation
+ * spec, each with a connection consumer of its own.  The consumers share 
+ * a single pool of server sessions.  Each connection is reconnected 
+ * independently of the others when it fails.
+ * <p>
+ * When the activation spec specifies a minimum number of sessions, the 
+ * pool is filled to that number (creating sessions in parallel using the
+ * work manager) each time a connection becomes ready, before its 
+ * connection consumer is started.
+ * <p>
+ * While it is started, the endpoint's {@link MessageEndpointStatistics} 
+ * are registered with the platform MBean server.
+ * <p>
+ * When the activation spec enables a shared listener, the endpoint opens
+ * no connections while it is idle; it registers its destination with the
+ * adapter's {@link SharedListener} and opens its connections when a 
+ * message is ready.  After the endpoint has delivered no messages for 
+ * the spec's idle timeout, it closes its connections and registers with
+ * the listener again.
  *
  * @author Carl Harris
  */
 public class MessageEndpointRunner implements MessageEndpointDetails, 
-    MessageEndpointConnector.Callback, Disposable {
+    MessageEndpointConnector.Callback, SharedListener.Callback, Disposable {
+
+  private static final String OBJECT_NAME_PREFIX = 
+      "org.soulwing.oaq:type=MessageEndpoint,name=";
 
   private final Logger logger = Logger.getLogger(getClass().getName());
   
   private final AtomicBoolean started = new AtomicBoolean();
 
+  private final AtomicBoolean connected = new AtomicBoolean();
+
   private final ServerSessionFactory sessionFactory = 
       new ServerSessionFactory(this);
   
-  private final CommonsServerSessionPool sessionPool =
-      new CommonsServerSessionPool(this, sessionFactory); 
-  
   private final MessageResourceAdapter resourceAdapter;
   private final MessageActivationSpec activationSpec;
   private final MessageEndpointFactory endpointFactory;
-  private final MessageEndpointConnector connector;
-  
-  private ConnectionConsumer consumer;
+  private final List<MessageEndpointConnector> connectors =
+      new ArrayList<MessageEndpointConnector>();
+  private final ConcurrentMap<Connection, ConnectionConsumer> consumers =
+      new ConcurrentHashMap<Connection, ConnectionConsumer>();
+  private final StripedServerSessionPool sessionPool;
+  private final boolean deliveryTransacted;
+  private final boolean prefetch;
+  private final MessageEndpointStatistics statistics;
+
+  private ObjectName statisticsName;
+  private SharedListener sharedListener;
+  private ListenTarget listenTarget;
+  private volatile TimerTask idleCheck;
+  private volatile AdaptiveConcurrencyController controller;
+  private volatile TimerTask controllerTask;
   
   /**
    * Constructs a new instance.
@@ -66,30 +112,310 @@ public class MessageEndpointRunner implements MessageEndpointDetails,
     this.resourceAdapter = resourceAdapter;
     this.activationSpec = activationSpec;
     this.endpointFactory = endpointFactory;
-    this.connector = new MessageEndpointConnector(this, this);
+    this.deliveryTransacted = isDeliveryTransacted(endpointFactory, 
+        activationSpec);
+    this.prefetch = activationSpec.isPrefetchEnabled() && !deliveryTransacted;
+    if (activationSpec.isPrefetchEnabled() && deliveryTransacted) {
+      logger.warning("prefetch is not supported for a delivery-transacted "
+          + "endpoint; using the provider's connection consumer");
+    }
+    EndpointEventLog eventLog = new EndpointEventLog(getEndpointName(),
+        activationSpec.getDestination());
+    ReconnectCoordinator coordinator = 
+        resourceAdapter.getReconnectCoordinator(activationSpec);
+    for (int i = 0; i < activationSpec.getConnectionCount(); i++) {
+      MessageEndpointConnector connector = 
+          new MessageEndpointConnector(this, this, 
+              createDelayManager(activationSpec),
+              resourceAdapter.getReconnectScheduler());
+      connector.setEventLog(eventLog);
+      connector.setCoordinator(coordinator);
+      connector.setHeartbeatInterval(activationSpec.getHeartbeatInterval());
+      connector.setHeartbeatTimeout(activationSpec.getHeartbeatTimeout());
+      connector.setStandbyEnabled(activationSpec.getStandbyConnection());
+      connectors.add(connector);
+    }
+    this.sessionPool = new StripedServerSessionPool(sessionFactory,
+        activationSpec.getMaxSessions());
+    sessionPool.setMaxWait(activationSpec.getSessionWaitTimeout());
+    sessionPool.setEventLog(eventLog);
     sessionFactory.setSessionPool(sessionPool);
+    sessionFactory.setEventLog(eventLog);
+    this.statistics = new MessageEndpointStatistics(sessionPool, 
+        activationSpec.getConnectionCount());
+    sessionFactory.setStatistics(statistics);
+  }
+
+  private ReconnectDelayManager createDelayManager(
+      MessageActivationSpec activationSpec) {
+    if (activationSpec.isFullJitter()) {
+      return new JitteredDelayManager(JitteredDelayManager.Strategy.FULL);
+    }
+    if (activationSpec.isDecorrelatedJitter()) {
+      return new JitteredDelayManager(
+          JitteredDelayManager.Strategy.DECORRELATED);
+    }
+    return new ExponentialDelayManager();
+  }
+
+  private boolean isDeliveryTransacted(MessageEndpointFactory endpointFactory,
+      MessageActivationSpec activationSpec) {
+    Method method = activationSpec instanceof BatchMessageActivationSpec ?
+        BatchMessageEndpointProxy.onMessagesMethod 
+        : MessageEndpointProxy.onMessageMethod;
+    try {
+      return endpointFactory.isDeliveryTransacted(method);
+    }
+    catch (NoSuchMethodException ex) {
+      logger.warning("cannot determine whether delivery is transacted; "
+          + "assuming that it is: " + ex);
+      return true;
+    }
   }
 
   /**
    * Starts the endpoint 
    */
-  public void start() {
+  public synchronized void start() {
     if (!started.compareAndSet(false, true)) {
       logger.severe("endpoint has already been started");
       return;
     }
-    connector.start();
+    sessionPool.open();
+    registerStatistics();
+    if (activationSpec.getAdaptiveConcurrency()) {
+      startConcurrencyController();
+    }
+    if (activationSpec.getSharedListener() && startListening()) return;
+    connect();
+  }
+
+  private boolean startListening() {
+    if (resourceAdapter.getReconnectScheduler() == null) {
+      logger.warning("no scheduler available; endpoint will not use a "
+          + "shared listener");
+      return false;
+    }
+    SharedListener listener = resourceAdapter.getSharedListener(
+        activationSpec);
+    if (listener == null) {
+      logger.warning("shared listener unavailable; endpoint will not use "
+          + "a shared listener");
+      return false;
+    }
+    try {
+      Destination destination = activationSpec.lookupDestination();
+      listenTarget = new ListenTarget(destination, 
+          activationSpec.isDurableSubscription() ?
+              activationSpec.getSubscriptionName() : null);
+    }
+    catch (NamingException ex) {
+      logger.warning("cannot locate destination named '" 
+          + activationSpec.getDestination() + "'; endpoint will not use "
+          + "a shared listener: " + ex);
+      return false;
+    }
+    sharedListener = listener;
+    return listen();
+  }
+
+  private boolean listen() {
+    try {
+      sharedListener.listen(listenTarget, this);
+      return true;
+    }
+    catch (WorkException ex) {
+      logger.warning("cannot start shared listener; endpoint will remain "
+          + "connected: " + ex);
+      return false;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void messageReady() {
+    if (!started.get()) return;
+    // connecting can take a while, so don't hold up the listener's 
+    // notification thread
+    try {
+      getWorkManager().scheduleWork(new ConnectWork());
+    }
+    catch (WorkException ex) {
+      logger.warning("cannot schedule connect; connecting in the "
+          + "listener thread: " + ex);
+      connectIfStarted();
+    }
+  }
+
+  private void connect() {
+    if (!connected.compareAndSet(false, true)) return;
+    startConnectors();
+    scheduleIdleCheck(activity());
+  }
+
+  /**
+   * Connects the endpoint, unless it has been stopped.
+   * <p>
+   * The connectors are started without holding the runner's lock, so 
+   * that a stop need not wait for the connections to be made; a 
+   * connector started after a stop is stopped again here.
+   */
+  private void connectIfStarted() {
+    synchronized (this) {
+      if (!started.get()) return;
+      if (!connected.compareAndSet(false, true)) return;
+    }
+    startConnectors();
+    synchronized (this) {
+      if (started.get()) {
+        scheduleIdleCheck(activity());
+        return;
+      }
+      for (MessageEndpointConnector connector : connectors) {
+        if (connector.isRunning()) {
+          connector.stop();
+        }
+      }
+      closeConsumers();
+    }
+  }
+
+  private void startConnectors() {
+    for (MessageEndpointConnector connector : connectors) {
+      connector.start();
+    }
+  }
+
+  private synchronized void disconnect() {
+    // a stop that ran before we got the lock has already disconnected
+    if (!started.get()) return;
+    if (!connected.compareAndSet(true, false)) return;
+    for (MessageEndpointConnector connector : connectors) {
+      connector.stop();
+    }
+    closeConsumers();
+    if (!listen()) {
+      connect();
+    }
+  }
+
+  private void closeConsumers() {
+    for (Connection connection : consumers.keySet()) {
+      sessionFactory.removeConnection(connection);
+      sessionPool.evictSessions(connection);
+      statistics.connectionClosed();
+    }
+    consumers.clear();
+  }
+
+  private void scheduleIdleCheck(long activity) {
+    if (sharedListener == null) return;
+    ReconnectScheduler scheduler = resourceAdapter.getReconnectScheduler();
+    if (scheduler == null) return;
+    idleCheck = scheduler.schedule(new IdleCheckTask(activity), 
+        activationSpec.getListenerIdleTimeout());
+  }
+
+  private long activity() {
+    return statistics.getMessagesDelivered() 
+        + statistics.getMessagesFailed() 
+        + statistics.getMessagesRolledBack();
+  }
+
+  private void registerStatistics() {
+    try {
+      ObjectName name = new ObjectName(OBJECT_NAME_PREFIX 
+          + ObjectName.quote(getEndpointName()));
+      ManagementFactory.getPlatformMBeanServer().registerMBean(
+          statistics, name);
+      statisticsName = name;
+    }
+    catch (JMException ex) {
+      logger.warning("cannot register endpoint statistics: " + ex);
+    }
+  }
+
+  private void unregisterStatistics() {
+    if (statisticsName == null) return;
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      server.unregisterMBean(statisticsName);
+    }
+    catch (JMException ex) {
+      logger.warning("cannot unregister endpoint statistics: " + ex);
+    }
+    statisticsName = null;
+  }
+
+  private String getEndpointName() {
+    String name = endpointFactory.getActivationName();
+    if (name != null) return name;
+    return activationSpec.getDestination() + "@" 
+        + Integer.toHexString(System.identityHashCode(this));
+  }
+
+  private void startConcurrencyController() {
+    if (resourceAdapter.getReconnectScheduler() == null) {
+      logger.warning("no scheduler available; concurrency will not be "
+          + "adjusted");
+      return;
+    }
+    AdaptiveConcurrencyController controller = 
+        new AdaptiveConcurrencyController(sessionPool, 
+            activationSpec.getMinSessions(), 
+            activationSpec.getMaxSessions());
+    this.controller = controller;
+    sessionFactory.setRunObserver(controller);
+    scheduleController(controller);
+  }
+
+  private void scheduleController(AdaptiveConcurrencyController controller) {
+    ReconnectScheduler scheduler = resourceAdapter.getReconnectScheduler();
+    if (scheduler == null) return;
+    controllerTask = scheduler.schedule(new ControllerTask(controller), 
+        AdaptiveConcurrencyController.DEFAULT_INTERVAL);
   }
 
   /** 
    * Stops the endpoint
    */
-  public void stop() {
+  public synchronized void stop() {
     if (!started.compareAndSet(true, false)) {
       logger.warning("endpoint has already been stopped");
       return;
     }
-    connector.stop();
+    controller = null;
+    TimerTask controlTask = controllerTask;
+    if (controlTask != null) {
+      controlTask.cancel();
+      controllerTask = null;
+    }
+    if (sharedListener != null) {
+      sharedListener.cancel(listenTarget);
+    }
+    TimerTask task = idleCheck;
+    if (task != null) {
+      task.cancel();
+      idleCheck = null;
+    }
+    if (connected.compareAndSet(true, false)) {
+      for (MessageEndpointConnector connector : connectors) {
+        connector.stop();
+      }
+    }
+    closeConsumers();
+    sessionPool.close();
+    unregisterStatistics();
+  }
+
+  /**
+   * Gets the endpoint's runtime statistics.
+   * @return statistics
+   */
+  public MessageEndpointStatistics getStatistics() {
+    return statistics;
   }
   
   /**
@@ -104,18 +430,51 @@ public class MessageEndpointRunner implements MessageEndpointDetails,
    * {@inheritDoc}
    */
   @Override
-  public void connectionReady(XAConnection connection) throws JMSException {
-    sessionFactory.setConnection(connection);
-    consumer = createConnectionConsumer(connection);
+  public void connectionReady(Connection connection) throws JMSException {
+    sessionFactory.addConnection(connection);
+    prewarmSessions(connection);
+    consumers.put(connection, createConnectionConsumer(connection));
+    statistics.connectionReady();
+  }
+
+  /**
+   * Schedules the creation of the connection's share of the endpoint's 
+   * minimum number of sessions.
+   * <p>
+   * Sessions are bound to the connection on which they are created, so
+   * the minimum is divided among the endpoint's connections.  The 
+   * connector does not wait for the sessions; any that are not yet 
+   * created when a message arrives are created on demand.
+   * @param connection the connection that is ready
+   */
+  private void prewarmSessions(Connection connection) {
+    sessionPool.evictInvalidSessions();
+    int connectionCount = activationSpec.getConnectionCount();
+    int minSessions = Math.min(activationSpec.getMinSessions(), 
+        sessionPool.getMaxActive());
+    int share = (minSessions + connectionCount - 1) / connectionCount;
+    int count = share - sessionPool.getNumIdle(connection);
+    for (int i = 0; i < count; i++) {
+      try {
+        getWorkManager().scheduleWork(new AddSessionWork(connection));
+      }
+      catch (WorkException ex) {
+        logger.warning("cannot schedule session creation: " + ex);
+        return;
+      }
+    }
   }
 
   /**
    * {@inheritDoc}
    */
   @Override
-  public void connectionFailed(XAConnection connection) throws JMSException {
-    sessionFactory.setConnection(null);
+  public void connectionFailed(Connection connection) throws JMSException {
+    sessionFactory.removeConnection(connection);
+    sessionPool.evictSessions(connection);
+    ConnectionConsumer consumer = consumers.remove(connection);
     if (consumer != null) {
+      statistics.connectionFailed();
       try {
         consumer.close();
       }
@@ -128,18 +487,27 @@ public class MessageEndpointRunner implements MessageEndpointDetails,
   private ConnectionConsumer createConnectionConsumer(Connection connection) 
       throws JMSException {
     try {
+      if (prefetch) {
+        PrefetchConnectionConsumer consumer = new PrefetchConnectionConsumer(
+            connection, activationSpec.lookupDestination(), activationSpec,
+            getWorkManager(), sessionPool.getServerSessionPool(connection));
+        consumer.start();
+        return consumer;
+      }
       if (activationSpec.isDurableSubscription()) {
         return connection.createDurableConnectionConsumer(
             (javax.jms.Topic) activationSpec.lookupDestination(), 
             activationSpec.getSubscriptionName(),
             activationSpec.getMessageSelector(),
-            sessionPool, activationSpec.getMaxMessages());
+            sessionPool.getServerSessionPool(connection), 
+            activationSpec.getMaxMessages());
       }
       else {
         return connection.createConnectionConsumer(
             activationSpec.lookupDestination(), 
             activationSpec.getMessageSelector(), 
-            sessionPool, activationSpec.getMaxMessages());
+            sessionPool.getServerSessionPool(connection), 
+            activationSpec.getMaxMessages());
       }
     }
     catch (NamingException ex) {
@@ -176,8 +544,216 @@ public class MessageEndpointRunner implements MessageEndpointDetails,
    * {@inheritDoc}
    */
   @Override
-  public XAConnection createXAConnection() throws JMSException {
+  public boolean isDeliveryTransacted() {
+    return deliveryTransacted;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Connection createConnection() throws JMSException {
+    if (!deliveryTransacted) {
+      return resourceAdapter.createNonXAConnection(getActivationSpec());
+    }
     return resourceAdapter.createConnection(getActivationSpec());
   }
-  
+
+  /**
+   * A {@link Work} that adds a new session to the pool.
+   */
+  private class AddSessionWork implements Work {
+
+    private final Connection connection;
+
+    /**
+     * Constructs a new instance.
+     * @param connection connection on which to create the session
+     */
+    public AddSessionWork(Connection connection) {
+      this.connection = connection;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+      try {
+        sessionPool.addSession(connection);
+      }
+      catch (JMSException ex) {
+        logger.warning("cannot prewarm session: " + ex);
+      }
+      catch (RuntimeException ex) {
+        logger.warning("cannot prewarm session: " + ex);
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void release() {
+    }
+
+  }
+
+  /**
+   * A task that checks whether the endpoint has been idle since the
+   * previous check.
+   * <p>
+   * The task runs on the scheduler's thread, so an idle endpoint is
+   * disconnected using the work manager.
+   */
+  private class IdleCheckTask implements Runnable {
+
+    private final long activity;
+
+    /**
+     * Constructs a new instance.
+     * @param activity count of messages handled by the endpoint at the
+     *    previous check
+     */
+    public IdleCheckTask(long activity) {
+      this.activity = activity;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+      idleCheck = null;
+      if (!started.get() || !connected.get()) return;
+      long activity = activity();
+      if (activity != this.activity || statistics.getActiveSessions() > 0) {
+        scheduleIdleCheck(activity);
+        return;
+      }
+      try {
+        getWorkManager().scheduleWork(new DisconnectWork());
+      }
+      catch (WorkException ex) {
+        logger.warning("cannot schedule disconnect of idle endpoint: " + ex);
+        scheduleIdleCheck(activity);
+      }
+    }
+
+  }
+
+  /**
+   * A task that runs the endpoint's concurrency controller and then
+   * schedules its next run.
+   * <p>
+   * The controller only adjusts the session pool's limit, so it runs 
+   * directly on the scheduler's thread.
+   */
+  private class ControllerTask implements Runnable {
+
+    private final AdaptiveConcurrencyController controller;
+
+    /**
+     * Constructs a new instance.
+     * @param controller the controller to run
+     */
+    public ControllerTask(AdaptiveConcurrencyController controller) {
+      this.controller = controller;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+      // a controller replaced by a stop (and restart) must not run again
+      if (controller != MessageEndpointRunner.this.controller) return;
+      controller.run();
+      scheduleController(controller);
+    }
+
+  }
+
+  /**
+   * A {@link Work} that connects an endpoint when a message is ready.
+   */
+  private class ConnectWork implements Work {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+      connectIfStarted();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void release() {
+    }
+
+  }
+
+  /**
+   * A {@link Work} that closes the connections of an idle endpoint.
+   */
+  private class DisconnectWork implements Work {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+      disconnect();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void release() {
+    }
+
+  }
+
+  /**
+   * The target on which the endpoint waits for a message using the shared
+   * listener.
+   */
+  private static class ListenTarget implements DestinationListener.Target {
+
+    private final Destination destination;
+    private final String subscriptionName;
+
+    /**
+     * Constructs a new instance.
+     * @param destination the endpoint's destination
+     * @param subscriptionName name of the endpoint's durable subscription
+     *    or {@code null} if the destination is a queue
+     */
+    public ListenTarget(Destination destination, String subscriptionName) {
+      this.destination = destination;
+      this.subscriptionName = subscriptionName;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Destination getDestination() {
+      return destination;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getSubscriptionName() {
+      return subscriptionName;
+    }
+
+  }
+
 }
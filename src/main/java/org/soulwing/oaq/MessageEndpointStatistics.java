@@ -0,0 +1,264 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Runtime statistics for an activated message endpoint.
+ * <p>
+ * The endpoint proxies and the endpoint runner record events using the
+ * package-private methods of this class.  Each event updates only atomic
+ * counters, so that recording adds little to the cost of a delivery.
+ * Session pool statistics are read from the pool when requested.
+ *
+ * @author Carl Harris
+ */
+public class MessageEndpointStatistics 
+    implements MessageEndpointStatisticsMBean {
+
+  static final int HISTOGRAM_BUCKETS = 32;
+
+  private final AtomicLong messagesDelivered = new AtomicLong();
+  private final AtomicLong messagesFailed = new AtomicLong();
+  private final AtomicLong messagesRolledBack = new AtomicLong();
+  private final AtomicLong messagesQuarantined = new AtomicLong();
+  private final AtomicLong deliveryCount = new AtomicLong();
+  private final AtomicLong deliveryTime = new AtomicLong();
+  private final AtomicLongArray deliveryLatency = 
+      new AtomicLongArray(HISTOGRAM_BUCKETS);
+  private final AtomicInteger openConnections = new AtomicInteger();
+  private final AtomicLong connectCount = new AtomicLong();
+  private final AtomicLong connectionFailures = new AtomicLong();
+
+  private final ResizableServerSessionPool sessionPool;
+  private final int connectionCount;
+
+  /**
+   * Constructs a new instance.
+   * @param sessionPool the endpoint's session pool
+   * @param connectionCount number of connections used by the endpoint
+   */
+  MessageEndpointStatistics(ResizableServerSessionPool sessionPool, 
+      int connectionCount) {
+    this.sessionPool = sessionPool;
+    this.connectionCount = connectionCount;
+  }
+
+  /**
+   * Records a call to the endpoint's listener method.
+   * @param elapsed time taken by the call in nanoseconds
+   */
+  void listenerCompleted(long elapsed) {
+    deliveryCount.incrementAndGet();
+    deliveryTime.addAndGet(elapsed);
+    long micros = TimeUnit.NANOSECONDS.toMicros(elapsed);
+    int bucket = 64 - Long.numberOfLeadingZeros(micros);
+    deliveryLatency.incrementAndGet(Math.min(bucket, HISTOGRAM_BUCKETS - 1));
+  }
+
+  /**
+   * Records messages whose delivery completed successfully.
+   * @param count number of messages
+   */
+  void messagesDelivered(int count) {
+    if (count > 0) {
+      messagesDelivered.addAndGet(count);
+    }
+  }
+
+  /**
+   * Records messages for which the listener method failed.
+   * @param count number of messages
+   */
+  void messagesFailed(int count) {
+    messagesFailed.addAndGet(count);
+  }
+
+  /**
+   * Records messages whose delivery was rolled back.
+   * @param count number of messages
+   */
+  void messagesRolledBack(int count) {
+    messagesRolledBack.addAndGet(count);
+  }
+
+  /**
+   * Records a message that was moved to the exception queue.
+   */
+  void messageQuarantined() {
+    messagesQuarantined.incrementAndGet();
+  }
+
+  /**
+   * Records the opening of a connection.
+   */
+  void connectionReady() {
+    openConnections.incrementAndGet();
+    connectCount.incrementAndGet();
+  }
+
+  /**
+   * Records the failure of a connection.
+   */
+  void connectionFailed() {
+    openConnections.decrementAndGet();
+    connectionFailures.incrementAndGet();
+  }
+
+  /**
+   * Records the closing of a connection when the endpoint is stopped.
+   */
+  void connectionClosed() {
+    openConnections.decrementAndGet();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getMessagesDelivered() {
+    return messagesDelivered.get();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getMessagesFailed() {
+    return messagesFailed.get();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getMessagesRolledBack() {
+    return messagesRolledBack.get();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getMessagesQuarantined() {
+    return messagesQuarantined.get();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long[] getDeliveryLatencyHistogram() {
+    long[] histogram = new long[HISTOGRAM_BUCKETS];
+    for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+      histogram[i] = deliveryLatency.get(i);
+    }
+    return histogram;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public double getMeanDeliveryLatency() {
+    long count = deliveryCount.get();
+    if (count == 0) return 0;
+    return (double) deliveryTime.get() / count / 1000;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getActiveSessions() {
+    return sessionPool.getNumActive();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getIdleSessions() {
+    return sessionPool.getNumIdle();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getMaxSessions() {
+    return sessionPool.getMaxActive();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getPoolExhaustedCount() {
+    return sessionPool.getWaitCount();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getPoolWaitTime() {
+    return sessionPool.getWaitTime();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getConnectionState() {
+    int open = getOpenConnections();
+    if (open <= 0) return "DISCONNECTED";
+    if (open < connectionCount) return "DEGRADED";
+    return "CONNECTED";
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getOpenConnections() {
+    return Math.max(0, openConnections.get());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getConnectionFailures() {
+    return connectionFailures.get();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getReconnectCount() {
+    return Math.max(0, connectCount.get() - connectionCount);
+  }
+
+}
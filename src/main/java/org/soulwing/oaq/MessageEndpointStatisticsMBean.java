@@ -0,0 +1,132 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+/**
+ * A management interface that exposes the runtime statistics of an
+ * activated message endpoint.
+ *
+ * @author Carl Harris
+ */
+public interface MessageEndpointStatisticsMBean {
+
+  /**
+   * Gets the number of messages whose delivery to the endpoint completed
+   * successfully.
+   * @return message count
+   */
+  long getMessagesDelivered();
+
+  /**
+   * Gets the number of messages for which the endpoint's listener method
+   * threw an exception.
+   * @return message count
+   */
+  long getMessagesFailed();
+
+  /**
+   * Gets the number of messages whose delivery transaction was rolled 
+   * back (or whose session was recovered) because a delivery failed.
+   * @return message count
+   */
+  long getMessagesRolledBack();
+
+  /**
+   * Gets the number of messages that were moved to the exception queue.
+   * @return message count
+   */
+  long getMessagesQuarantined();
+
+  /**
+   * Gets a histogram of the time taken by the endpoint's listener method.
+   * <p>
+   * The element at index {@code i} is the number of calls that took less 
+   * than 2<sup>i</sup> microseconds, but at least 2<sup>i-1</sup> 
+   * microseconds; the last element also counts all longer calls.
+   * @return histogram of call counts
+   */
+  long[] getDeliveryLatencyHistogram();
+
+  /**
+   * Gets the mean time taken by the endpoint's listener method.
+   * @return mean latency in microseconds
+   */
+  double getMeanDeliveryLatency();
+
+  /**
+   * Gets the number of server sessions that are currently delivering
+   * messages.
+   * @return session count
+   */
+  int getActiveSessions();
+
+  /**
+   * Gets the number of idle server sessions in the pool.
+   * @return session count
+   */
+  int getIdleSessions();
+
+  /**
+   * Gets the current limit on the number of active sessions.
+   * @return session count
+   */
+  int getMaxSessions();
+
+  /**
+   * Gets the number of times that the session pool was exhausted, so that
+   * the consumer had to wait for a session.
+   * @return exhaustion count
+   */
+  long getPoolExhaustedCount();
+
+  /**
+   * Gets the total time that consumers have waited for a session.
+   * @return wait time in milliseconds
+   */
+  long getPoolWaitTime();
+
+  /**
+   * Gets the state of the endpoint's connections.
+   * @return {@code CONNECTED} if all of the endpoint's connections are 
+   *    open, {@code DEGRADED} if only some of them are open, or 
+   *    {@code DISCONNECTED} if none are open
+   */
+  String getConnectionState();
+
+  /**
+   * Gets the number of the endpoint's connections that are open.
+   * @return connection count
+   */
+  int getOpenConnections();
+
+  /**
+   * Gets the number of times that one of the endpoint's connections has
+   * failed.
+   * @return failure count
+   */
+  long getConnectionFailures();
+
+  /**
+   * Gets the number of times that a connection was opened to replace one
+   * that failed.
+   * @return reconnect count
+   */
+  long getReconnectCount();
+
+}
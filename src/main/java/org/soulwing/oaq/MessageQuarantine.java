@@ -0,0 +1,140 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.logging.Logger;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+
+/**
+ * A quarantine for messages that an endpoint repeatedly fails to consume.
+ * <p>
+ * An endpoint proxy reports the outcome of each delivery to the 
+ * quarantine, which records failures in a {@link DeliveryFailureTracker}
+ * shared by all of the sessions of the endpoint.  Once a message has 
+ * failed the maximum number of times, the proxy moves it to the exception
+ * queue using {@link #quarantine(Message)} instead of delivering it again.
+ * Since the message is sent using the session that received it, the move
+ * is part of the same transaction as the dequeue.
+ * <p>
+ * Only a redelivered message can have failed before, so the tracker is 
+ * consulted only for messages that are marked as redelivered.
+ *
+ * @author Carl Harris
+ */
+class MessageQuarantine {
+
+  private final Logger logger = Logger.getLogger(getClass().getName());
+
+  private final DeliveryFailureTracker tracker;
+  private final int maxFailures;
+  private final Session session;
+  private final String queueName;
+
+  private MessageProducer producer;
+
+  /**
+   * Constructs a new instance.
+   * @param tracker failure tracker for the endpoint
+   * @param maxFailures number of failures after which a message is 
+   *    quarantined
+   * @param session session that receives messages for the endpoint
+   * @param queueName name of the exception queue
+   */
+  public MessageQuarantine(DeliveryFailureTracker tracker, int maxFailures,
+      Session session, String queueName) {
+    this.tracker = tracker;
+    this.maxFailures = maxFailures;
+    this.session = session;
+    this.queueName = queueName;
+  }
+
+  /**
+   * Tests whether a message should be quarantined rather than delivered.
+   * @param message the subject message
+   * @return {@code true} if the message has failed the maximum number of
+   *    times
+   */
+  public boolean isPoisoned(Message message) {
+    String messageId = redeliveredMessageId(message);
+    return messageId != null 
+        && tracker.getFailureCount(messageId) >= maxFailures;
+  }
+
+  /**
+   * Records a failure to consume a message.
+   * @param message the subject message
+   */
+  public void deliveryFailed(Message message) {
+    String messageId = messageId(message);
+    if (messageId == null) return;
+    int count = tracker.deliveryFailed(messageId);
+    if (count >= maxFailures) {
+      logger.warning("message " + messageId + " failed " + count 
+          + " times; it will be moved to " + queueName);
+    }
+  }
+
+  /**
+   * Records the successful consumption of a message.
+   * @param message the subject message
+   */
+  public void deliverySucceeded(Message message) {
+    String messageId = redeliveredMessageId(message);
+    if (messageId == null) return;
+    tracker.deliverySucceeded(messageId);
+  }
+
+  /**
+   * Moves a message to the exception queue.
+   * @param message the message to move
+   * @throws JMSException
+   */
+  public void quarantine(Message message) throws JMSException {
+    String messageId = messageId(message);
+    if (producer == null) {
+      producer = session.createProducer(session.createQueue(queueName));
+    }
+    producer.send(message);
+    logger.warning("message " + messageId + " moved to " + queueName);
+  }
+
+  private String redeliveredMessageId(Message message) {
+    try {
+      if (!message.getJMSRedelivered()) return null;
+      return message.getJMSMessageID();
+    }
+    catch (JMSException ex) {
+      return null;
+    }
+  }
+
+  private String messageId(Message message) {
+    try {
+      return message.getJMSMessageID();
+    }
+    catch (JMSException ex) {
+      return null;
+    }
+  }
+
+}
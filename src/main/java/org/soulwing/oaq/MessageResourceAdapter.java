@@ -18,6 +18,7 @@
  */
 package org.soulwing.oaq;
 
+import javax.jms.Connection;
 import javax.jms.JMSException;
 import javax.jms.XAConnection;
 import javax.resource.spi.BootstrapContext;
@@ -35,6 +36,35 @@ public interface MessageResourceAdapter extends ResourceAdapter {
    * @return bootstrap context
    */
   BootstrapContext getBootstrapContext();
+
+  /**
+   * Gets the scheduler that the adapter's endpoints share for reconnect
+   * attempts.
+   * @return scheduler or {@code null} if no scheduler is available, in
+   *    which case each endpoint waits between attempts on a thread of its
+   *    own
+   */
+  ReconnectScheduler getReconnectScheduler();
+
+  /**
+   * Gets the coordinator for reconnect attempts of the endpoints that
+   * connect to the database using the same connection request info as
+   * the given spec.
+   * @param spec activation spec
+   * @return coordinator or {@code null} if reconnect attempts are not
+   *    coordinated (because no scheduler is available)
+   */
+  ReconnectCoordinator getReconnectCoordinator(MessageActivationSpec spec);
+
+  /**
+   * Gets the listener shared by the endpoints that connect to the 
+   * database as the same user as the endpoint described by the given 
+   * spec.
+   * @param spec activation spec
+   * @return listener or {@code null} if no listener is available (because
+   *    the adapter has not been started)
+   */
+  SharedListener getSharedListener(MessageActivationSpec spec);
   
   /**
    * Gets the connection request info associated with the resource 
@@ -43,6 +73,31 @@ public interface MessageResourceAdapter extends ResourceAdapter {
    */
   OAQConnectionRequestInfo getConnectionRequestInfo();
 
+  /**
+   * Tests whether the adapter authenticates as a proxy user on behalf of
+   * the users named by its activation specs.
+   * @return {@code true} if proxy authentication is enabled
+   */
+  boolean isProxyAuthentication();
+
+  /**
+   * Retains the connection factories (and data source) used to connect 
+   * on behalf of the endpoint described by a spec, so that they are not 
+   * closed until they are released.
+   * @param spec activation spec or {@code null} for the factories that
+   *    use the adapter's own credentials
+   */
+  void retainConnectionFactories(MessageActivationSpec spec);
+
+  /**
+   * Releases the connection factories retained using 
+   * {@link #retainConnectionFactories(MessageActivationSpec)}, closing 
+   * them if nothing else retains them.
+   * @param spec activation spec or {@code null} for the factories that
+   *    use the adapter's own credentials
+   */
+  void releaseConnectionFactories(MessageActivationSpec spec);
+
   /**
    * Creates an AQ connection.
    * @param spec activation spec
@@ -51,6 +106,21 @@ public interface MessageResourceAdapter extends ResourceAdapter {
    */
   XAConnection createConnection(MessageActivationSpec spec) throws JMSException;
 
+  /**
+   * Creates an AQ connection used to recover the transactions of the 
+   * endpoint described by a spec.
+   * <p>
+   * Unlike a connection created by {@link #createConnection(
+   * MessageActivationSpec)}, the connection does not count against the 
+   * endpoint's own share of the adapter's connections.
+   * @param spec activation spec or {@code null} to connect using the 
+   *    adapter's own credentials
+   * @return an AQ connection via the receiver's JDBC data source
+   * @throws JMSException
+   */
+  XAConnection createRecoveryConnection(MessageActivationSpec spec) 
+      throws JMSException;
+
   /**
    * Creates an AQ connection.
    * @param info connection request info
@@ -59,5 +129,23 @@ public interface MessageResourceAdapter extends ResourceAdapter {
    */
   XAConnection createConnection(OAQConnectionRequestInfo info) 
       throws JMSException;
+
+  /**
+   * Creates a (non-XA) AQ connection.
+   * @param spec activation spec
+   * @return an AQ connection via the receiver's JDBC data source
+   * @throws JMSException
+   */
+  Connection createNonXAConnection(MessageActivationSpec spec) 
+      throws JMSException;
+
+  /**
+   * Creates a (non-XA) AQ connection.
+   * @param info connection request info
+   * @return an AQ connection via the receiver's JDBC data source
+   * @throws JMSException
+   */
+  Connection createNonXAConnection(OAQConnectionRequestInfo info) 
+      throws JMSException;
   
 }
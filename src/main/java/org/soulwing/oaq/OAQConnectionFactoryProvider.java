@@ -20,6 +20,7 @@ package org.soulwing.oaq;
 
 import java.sql.SQLException;
 
+import javax.jms.ConnectionFactory;
 import javax.jms.JMSException;
 import javax.jms.XAConnectionFactory;
 
@@ -49,4 +50,20 @@ public class OAQConnectionFactoryProvider
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ConnectionFactory createNonXAConnectionFactory(
+      OAQConnectionRequestInfo info) throws JMSException {
+    try {
+      return AQjmsFactory.getConnectionFactory(info.getDataSource());
+    }
+    catch (SQLException ex) {
+      throw (JMSException) new JMSException(
+          "JDBC error creating connection factory: " + ex.getMessage())
+          .initCause(ex);
+    }
+  }
+
 }
@@ -66,6 +66,32 @@ public final class OAQConnectionRequestInfo
     return dataSource;
   }
   
+  /**
+   * Closes the data source associated with the receiver (if one has been
+   * created), releasing any resources held by the driver.
+   * <p>
+   * A subsequent call to {@link #getDataSource()} creates a new data 
+   * source.
+   */
+  @SuppressWarnings("deprecation")
+  void closeDataSource() {
+    OracleXADataSource dataSource;
+    synchronized (this) {
+      dataSource = this.dataSource;
+      this.dataSource = null;
+    }
+    if (dataSource == null) return;
+    try {
+      // deprecated along with the implicit connection cache, but still 
+      // the only way to release the data source's driver resources
+      dataSource.close();
+      LOGGER.fine("closed XA data source");
+    }
+    catch (SQLException ex) {
+      LOGGER.warning("error closing XA data source: " + ex);
+    }
+  }
+
   /**
    * Gets the {@code databaseUrl} property.
    * @return
@@ -122,7 +148,7 @@ public final class OAQConnectionRequestInfo
    */
   @Override
   public int hashCode() {
-    int hashCode = super.hashCode();
+    int hashCode = 0;
     if (databaseUrl != null) {
       hashCode += 17*databaseUrl.hashCode();
     }
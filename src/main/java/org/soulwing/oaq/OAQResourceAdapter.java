@@ -20,15 +20,22 @@ package org.soulwing.oaq;
 
 import static org.soulwing.oaq.OAQLogger.LOGGER;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.jms.Connection;
 import javax.jms.JMSException;
 import javax.jms.XAConnection;
-import javax.jms.XAConnectionFactory;
-import javax.jms.XASession;
 import javax.resource.ResourceException;
 import javax.resource.spi.ActivationSpec;
 import javax.resource.spi.BootstrapContext;
 import javax.resource.spi.ResourceAdapter;
 import javax.resource.spi.ResourceAdapterInternalException;
+import javax.resource.spi.UnavailableException;
 import javax.resource.spi.endpoint.MessageEndpointFactory;
 import javax.transaction.xa.XAResource;
 
@@ -39,21 +46,48 @@ import javax.transaction.xa.XAResource;
  */
 public class OAQResourceAdapter implements MessageResourceAdapter {
 
+  private static final Integer DEFAULT_MAX_CONNECTIONS = 0;
+  private static final Long DEFAULT_CONNECTION_WAIT_TIMEOUT = 30000L;
+
   private final OAQConnectionRequestInfo connectionInfo =
       new OAQConnectionRequestInfo();
 
+  private final ConcurrentMap<OAQConnectionRequestInfo, 
+      ReconnectCoordinator> reconnectCoordinators = new ConcurrentHashMap<
+          OAQConnectionRequestInfo, ReconnectCoordinator>();
+
+  private final ConcurrentMap<OAQConnectionRequestInfo, 
+      SharedListener> sharedListeners = new ConcurrentHashMap<
+          OAQConnectionRequestInfo, SharedListener>();
+
   private final MessageEndpointManager endpointManager;
-  private final MessageConnectionFactoryProvider connectionFactoryProvider;
+  private final ConnectionFactoryCache connectionFactories;
+  private final RecoveryConnectionManager recoveryConnections =
+      new RecoveryConnectionManager(this, new AQConnectionValidator());
   
   private BootstrapContext bootstrapContext;
-  private volatile XAConnectionFactory connectionFactory;
+  private TimerReconnectScheduler reconnectScheduler;
+  private Boolean proxyAuthentication;
+  private Integer maxConnections;
+  private Long connectionWaitTimeout;
+  private volatile ConnectionGovernor governor;
 
   /**
    * Constructs a new instance.
    */
   public OAQResourceAdapter() {
+    this(new OAQConnectionFactoryProvider());
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param connectionFactoryProvider connection factory provider
+   */
+  protected OAQResourceAdapter(
+      MessageConnectionFactoryProvider connectionFactoryProvider) {
     this.endpointManager = new MapMessageEndpointManager(this);
-    this.connectionFactoryProvider = new OAQConnectionFactoryProvider();
+    this.connectionFactories = 
+        new ConnectionFactoryCache(connectionFactoryProvider);
   }
 
   /**
@@ -64,7 +98,8 @@ public class OAQResourceAdapter implements MessageResourceAdapter {
   protected OAQResourceAdapter(MessageEndpointManager endpointManager,
       MessageConnectionFactoryProvider connectionFactoryProvider) {
     this.endpointManager = endpointManager;
-    this.connectionFactoryProvider = connectionFactoryProvider;
+    this.connectionFactories = 
+        new ConnectionFactoryCache(connectionFactoryProvider);
   }
   
   /**
@@ -74,6 +109,17 @@ public class OAQResourceAdapter implements MessageResourceAdapter {
   public void start(BootstrapContext ctx)
       throws ResourceAdapterInternalException {
     this.bootstrapContext = ctx;
+    try {
+      reconnectScheduler = new TimerReconnectScheduler(ctx.createTimer());
+    }
+    catch (UnavailableException ex) {
+      LOGGER.warning("timer unavailable; endpoints will wait on their own "
+          + "threads to reconnect: " + ex);
+    }
+    if (getMaxConnections() > 0) {
+      governor = new ConnectionGovernor(getMaxConnections(), 
+          getConnectionWaitTimeout());
+    }
     LOGGER.info("resource adapter started; " + connectionInfo);
   }
 
@@ -83,8 +129,19 @@ public class OAQResourceAdapter implements MessageResourceAdapter {
   @Override
   public void stop() {
     endpointManager.dispose();
+    if (reconnectScheduler != null) {
+      reconnectScheduler.cancel();
+      reconnectScheduler = null;
+    }
+    reconnectCoordinators.clear();
+    for (SharedListener listener : sharedListeners.values()) {
+      listener.stop();
+    }
+    sharedListeners.clear();
+    recoveryConnections.close();
     bootstrapContext = null;
-    connectionFactory = null;
+    governor = null;
+    connectionFactories.close();
     LOGGER.info("resource adapter stopped"); 
   }
 
@@ -110,6 +167,7 @@ public class OAQResourceAdapter implements MessageResourceAdapter {
     try {
       MessageEndpointRunner endpoint = endpointManager.create(
           endpointFactory, (MessageActivationSpec) activationSpec);
+      retainConnectionFactories((MessageActivationSpec) activationSpec);
       endpoint.start();
     }
     catch (RuntimeException ex) {
@@ -129,6 +187,7 @@ public class OAQResourceAdapter implements MessageResourceAdapter {
         MessageEndpointRunner endpoint = endpointManager.remove(
             endpointFactory, (MessageActivationSpec) activationSpec);
         endpoint.stop();
+        releaseConnectionFactories((MessageActivationSpec) activationSpec);
       }
       catch (RuntimeException ex) {
         LOGGER.warning("failed to stop endpoint: " + ex);
@@ -147,25 +206,60 @@ public class OAQResourceAdapter implements MessageResourceAdapter {
   public XAResource[] getXAResources(ActivationSpec[] specs)
       throws ResourceException {
     // There's only one resource manager (Oracle AQ) used by this adapter,
-    // so all of the provided specs can utilize the same XA resource
-    XAConnection connection = null;
-    try {
-      connection = createConnection(connectionInfo);
-      XASession session = connection.createXASession();
-      XAResource resource = session.getXAResource();
-      return new XAResource[] { resource };
+    // but the transactions of each set of credentials are recovered 
+    // using a resource for those credentials
+    Map<OAQConnectionRequestInfo, MessageActivationSpec> keys =
+        new LinkedHashMap<OAQConnectionRequestInfo, MessageActivationSpec>();
+    if (specs != null) {
+      for (ActivationSpec spec : specs) {
+        if (!(spec instanceof MessageActivationSpec)) continue;
+        OAQConnectionRequestInfo key = 
+            recoveryKey((MessageActivationSpec) spec);
+        if (!keys.containsKey(key)) {
+          keys.put(key, (MessageActivationSpec) spec);
+        }
+      }
     }
-    catch (JMSException ex) {
-      throw new ResourceException(ex);
+    if (keys.isEmpty()) {
+      keys.put(connectionInfo.clone(), null);
     }
-    finally {
+
+    List<XAResource> resources = new ArrayList<XAResource>();
+    JMSException failure = null;
+    for (Map.Entry<OAQConnectionRequestInfo, MessageActivationSpec> entry :
+        keys.entrySet()) {
       try {
-        connection.close();
+        resources.add(recoveryConnections.getXAResource(entry.getKey(), 
+            entry.getValue()));
       }
       catch (JMSException ex) {
-        assert true;
+        LOGGER.warning("cannot create recovery resource for " 
+            + entry.getKey() + ": " + ex);
+        failure = ex;
       }
     }
+    if (resources.isEmpty() && failure != null) {
+      throw new ResourceException(failure);
+    }
+    return resources.toArray(new XAResource[resources.size()]);
+  }
+
+  /**
+   * Gets a key that identifies the credentials used by the endpoint 
+   * described by a spec.
+   * <p>
+   * The key distinguishes the recovery connections of proxied users, but
+   * it is not used to connect; a recovery connection is made using the
+   * spec, so that all proxied users share the proxy user's connection
+   * factory.
+   * @param spec activation spec
+   * @return connection request info whose username is the username that 
+   *    is presented when connecting
+   */
+  private OAQConnectionRequestInfo recoveryKey(MessageActivationSpec spec) {
+    OAQConnectionRequestInfo info = connectionInfo(spec);
+    info.setUsername(connectUsername(info, spec));
+    return info;
   }
 
   /**
@@ -176,18 +270,146 @@ public class OAQResourceAdapter implements MessageResourceAdapter {
     return bootstrapContext;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ReconnectScheduler getReconnectScheduler() {
+    return reconnectScheduler;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ReconnectCoordinator getReconnectCoordinator(
+      MessageActivationSpec spec) {
+    ReconnectScheduler scheduler = reconnectScheduler;
+    if (scheduler == null) return null;
+    OAQConnectionRequestInfo info = connectionInfo(spec);
+    ReconnectCoordinator coordinator = reconnectCoordinators.get(info);
+    if (coordinator == null) {
+      coordinator = new ReconnectCoordinator(scheduler);
+      ReconnectCoordinator existing = 
+          reconnectCoordinators.putIfAbsent(info, coordinator);
+      if (existing != null) {
+        coordinator = existing;
+      }
+    }
+    return coordinator;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public SharedListener getSharedListener(MessageActivationSpec spec) {
+    BootstrapContext ctx = bootstrapContext;
+    if (ctx == null) return null;
+    OAQConnectionRequestInfo key = connectionInfo(spec);
+    key.setUsername(connectUsername(key, spec));
+    SharedListener listener = sharedListeners.get(key);
+    if (listener == null) {
+      listener = new SharedListener(this, spec, 
+          new AQDestinationListener(), ctx.getWorkManager());
+      SharedListener existing = sharedListeners.putIfAbsent(key, listener);
+      if (existing != null) {
+        listener = existing;
+      }
+    }
+    return listener;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void retainConnectionFactories(MessageActivationSpec spec) {
+    connectionFactories.retain(
+        spec != null ? connectionInfo(spec) : connectionInfo);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void releaseConnectionFactories(MessageActivationSpec spec) {
+    connectionFactories.release(
+        spec != null ? connectionInfo(spec) : connectionInfo);
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   public XAConnection createConnection(MessageActivationSpec spec)
       throws JMSException {
+    OAQConnectionRequestInfo info = connectionInfo(spec);
+    return openConnection(info, connectUsername(info, spec), spec);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public XAConnection createRecoveryConnection(MessageActivationSpec spec)
+      throws JMSException {
+    // a recovery connection is held for as long as the adapter runs, so
+    // it must not take a permit from the endpoint's share
+    if (spec == null) {
+      return openConnection(connectionInfo, connectionInfo.getUsername(), 
+          null);
+    }
+    OAQConnectionRequestInfo info = connectionInfo(spec);
+    return openConnection(info, connectUsername(info, spec), null);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Connection createNonXAConnection(MessageActivationSpec spec)
+      throws JMSException {
+    OAQConnectionRequestInfo info = connectionInfo(spec);
+    return openNonXAConnection(info, connectUsername(info, spec), spec);
+  }
+
+  /**
+   * Gets the connection request info for the physical connections of
+   * the endpoint described by a spec.
+   * <p>
+   * In proxy authentication mode, every endpoint authenticates as the 
+   * adapter's (proxy) user, so the spec's credentials do not affect the
+   * connection request info.
+   * @param spec activation spec
+   * @return connection request info
+   */
+  private OAQConnectionRequestInfo connectionInfo(MessageActivationSpec spec) {
     OAQConnectionRequestInfo info = connectionInfo.clone();
-    if (spec.getUsername() != null) {
+    if (spec.getUsername() != null && !isProxyAuthentication()) {
       info.setUsername(spec.getUsername());
       info.setPassword(spec.getPassword());
     }
-    return createConnection(info);
+    return info;
+  }
+
+  /**
+   * Gets the username to present when connecting on behalf of the 
+   * endpoint described by a spec.
+   * <p>
+   * In proxy authentication mode, a spec's username names the schema 
+   * user on whose behalf the proxy user connects, using Oracle's 
+   * {@code proxy[client]} syntax.
+   * @param info connection request info for the spec
+   * @param spec activation spec
+   * @return username
+   */
+  private String connectUsername(OAQConnectionRequestInfo info,
+      MessageActivationSpec spec) {
+    if (!isProxyAuthentication() || spec.getUsername() == null) {
+      return info.getUsername();
+    }
+    return info.getUsername() + "[" + spec.getUsername() + "]";
   }
 
   /**
@@ -196,23 +418,114 @@ public class OAQResourceAdapter implements MessageResourceAdapter {
   @Override
   public XAConnection createConnection(OAQConnectionRequestInfo info) 
       throws JMSException {
-    return getConnectionFactory().createXAConnection(
-        info.getUsername(), info.getPassword());
+    return openConnection(info, info.getUsername(), null);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Connection createNonXAConnection(OAQConnectionRequestInfo info) 
+      throws JMSException {
+    return openNonXAConnection(info, info.getUsername(), null);
   }
 
   /**
-   * Gets the adapter's (singleton) connection factory instance.
-   * @return connection factory.
+   * Opens a physical XA connection, subject to the connection governor
+   * (if any).
+   * @param info connection request info
+   * @param username username to present when connecting
+   * @param spec activation spec of the endpoint that will use the 
+   *    connection or {@code null} if it is not for an endpoint
+   * @return connection
    * @throws JMSException
    */
-  private XAConnectionFactory getConnectionFactory() throws JMSException {
-    if (connectionFactory == null) {
-      synchronized (this) {
-         connectionFactory = 
-             connectionFactoryProvider.createConnectionFactory(connectionInfo);
-      }
+  private XAConnection openConnection(OAQConnectionRequestInfo info,
+      String username, MessageActivationSpec spec) throws JMSException {
+    ConnectionGovernor governor = this.governor;
+    if (governor == null) {
+      return connectionFactories.getConnectionFactory(info)
+          .createXAConnection(username, info.getPassword());
+    }
+    acquirePermit(governor, spec);
+    try {
+      return governor.track(connectionFactories.getConnectionFactory(info)
+          .createXAConnection(username, info.getPassword()), 
+          XAConnection.class, spec);
+    }
+    catch (JMSException | RuntimeException ex) {
+      governor.release(spec);
+      throw ex;
+    }
+  }
+
+  /**
+   * Opens a physical (non-XA) connection, subject to the connection 
+   * governor (if any).
+   * @param info connection request info
+   * @param username username to present when connecting
+   * @param spec activation spec of the endpoint that will use the 
+   *    connection or {@code null} if it is not for an endpoint
+   * @return connection
+   * @throws JMSException
+   */
+  private Connection openNonXAConnection(OAQConnectionRequestInfo info,
+      String username, MessageActivationSpec spec) throws JMSException {
+    ConnectionGovernor governor = this.governor;
+    if (governor == null) {
+      return connectionFactories.getNonXAConnectionFactory(info)
+          .createConnection(username, info.getPassword());
+    }
+    acquirePermit(governor, spec);
+    try {
+      return governor.track(connectionFactories.getNonXAConnectionFactory(info)
+          .createConnection(username, info.getPassword()), Connection.class,
+          spec);
+    }
+    catch (JMSException | RuntimeException ex) {
+      governor.release(spec);
+      throw ex;
+    }
+  }
+
+  /**
+   * Acquires a permit to open a connection.
+   * <p>
+   * A connection for an endpoint is requested on the endpoint's connector
+   * or exception listener thread, so the request must not wait; if no 
+   * permit is available, the connector backs off and tries again.  Any
+   * other request (such as for a recovery connection) waits for a permit
+   * that is not charged to an endpoint.
+   * @param governor the connection governor
+   * @param spec activation spec of the endpoint that will use the 
+   *    connection or {@code null} if it is not for an endpoint
+   * @throws JMSException if no permit is available
+   */
+  private void acquirePermit(ConnectionGovernor governor, 
+      MessageActivationSpec spec) throws JMSException {
+    if (spec == null) {
+      governor.acquire();
+      return;
     }
-    return connectionFactory;
+    governor.tryAcquire(spec, connectionLimit(spec));
+  }
+
+  /**
+   * Gets the number of connections that the endpoint described by a spec
+   * needs at once: one for each connector, another for each connector's 
+   * standby connection, and one for the shared listener.
+   * @param spec activation spec
+   * @return connection limit
+   */
+  private static int connectionLimit(MessageActivationSpec spec) {
+    int limit = spec.getConnectionCount();
+    if (spec.getStandbyConnection()) {
+      limit *= 2;
+    }
+    if (spec.getSharedListener()) {
+      limit++;
+    }
+    return limit;
   }
 
   /**
@@ -271,6 +584,82 @@ public class OAQResourceAdapter implements MessageResourceAdapter {
     connectionInfo.setPassword(password);
   }
 
+  /**
+   * Gets a flag indicating whether the adapter connects as a proxy user.
+   * <p>
+   * When this property is {@code true}, the adapter's username and 
+   * password are those of a proxy user, and the {@code username} of each 
+   * activation spec names a schema user on whose behalf the proxy user
+   * connects; a spec's password is not needed.  All endpoints then share 
+   * the proxy user's data source and connection factory, and the database
+   * authenticates only the proxy user.  Each schema user must be granted 
+   * {@code CONNECT THROUGH} the proxy user.
+   * @return {@code true} if proxy authentication is enabled
+   */
+  public Boolean getProxyAuthentication() {
+    return proxyAuthentication;
+  }
+
+  /**
+   * Sets a flag indicating whether the adapter connects as a proxy user.
+   * @param proxyAuthentication the flag to set
+   */
+  public void setProxyAuthentication(Boolean proxyAuthentication) {
+    this.proxyAuthentication = proxyAuthentication;
+  }
+
+  /**
+   * Gets the maximum number of physical connections that the adapter 
+   * holds open at once, across all of its endpoints.
+   * <p>
+   * When the limit is reached, an endpoint's request for another 
+   * connection fails at once, and the endpoint tries again after its 
+   * reconnect delay; any other request waits up to 
+   * {@link #getConnectionWaitTimeout()} for a connection to be closed.
+   * Zero (the default) means no limit.
+   * @return connection limit
+   */
+  public Integer getMaxConnections() {
+    if (maxConnections == null) return DEFAULT_MAX_CONNECTIONS;
+    return maxConnections;
+  }
+
+  /**
+   * Sets the maximum number of physical connections that the adapter 
+   * holds open at once.
+   * @param maxConnections the limit to set
+   */
+  public void setMaxConnections(Integer maxConnections) {
+    this.maxConnections = maxConnections;
+  }
+
+  /**
+   * Gets the maximum time that a request for a connection waits when
+   * {@link #getMaxConnections()} connections are open.
+   * @return timeout in milliseconds
+   */
+  public Long getConnectionWaitTimeout() {
+    if (connectionWaitTimeout == null) return DEFAULT_CONNECTION_WAIT_TIMEOUT;
+    return connectionWaitTimeout;
+  }
+
+  /**
+   * Sets the maximum time that a request for a connection waits when
+   * {@link #getMaxConnections()} connections are open.
+   * @param connectionWaitTimeout the timeout to set (in milliseconds)
+   */
+  public void setConnectionWaitTimeout(Long connectionWaitTimeout) {
+    this.connectionWaitTimeout = connectionWaitTimeout;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isProxyAuthentication() {
+    return proxyAuthentication != null && proxyAuthentication;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -0,0 +1,79 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A batch of messages received by a poller of a 
+ * {@link PrefetchConnectionConsumer}.
+ * <p>
+ * The poller waits for every message in the batch to be delivered before
+ * it acknowledges the batch; if delivery of any message fails, the poller 
+ * recovers its session instead, so that the entire batch is redelivered.
+ *
+ * @author Carl Harris
+ */
+class PrefetchBatch {
+
+  private final CountDownLatch remaining;
+
+  private volatile boolean failed;
+
+  /**
+   * Constructs a new instance.
+   * @param size number of messages in the batch
+   */
+  public PrefetchBatch(int size) {
+    this.remaining = new CountDownLatch(size);
+  }
+
+  /**
+   * Notifies the receiver that delivery of one of its messages has 
+   * completed.
+   * @param delivered flag indicating whether the message was successfully
+   *    delivered
+   */
+  public void completed(boolean delivered) {
+    if (!delivered) {
+      failed = true;
+    }
+    remaining.countDown();
+  }
+
+  /**
+   * Waits for delivery of every message in the batch to complete.
+   * @param timeout maximum time to wait (in milliseconds)
+   * @return {@code true} if delivery of every message has completed
+   * @throws InterruptedException
+   */
+  public boolean await(long timeout) throws InterruptedException {
+    return remaining.await(timeout, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Tests whether delivery of any message in the batch failed.
+   * @return {@code true} if the batch must be redelivered
+   */
+  public boolean isFailed() {
+    return failed;
+  }
+
+}
@@ -0,0 +1,425 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionConsumer;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.ServerSession;
+import javax.jms.ServerSessionPool;
+import javax.jms.Session;
+import javax.jms.Topic;
+import javax.resource.spi.work.WorkException;
+import javax.resource.spi.work.WorkManager;
+
+/**
+ * A {@link ConnectionConsumer} that dequeues messages using poller 
+ * sessions owned by the adapter, in place of the provider's connection
+ * consumer.
+ * <p>
+ * Each poller receives a batch of messages and places them in a bounded 
+ * buffer, from which a dispatcher assigns them to server sessions taken 
+ * from the pool.  A poller acknowledges its batch after every message in
+ * the batch has been delivered, or recovers its session (so that the 
+ * batch is redelivered) if any delivery fails.  With more than one poller,
+ * the next batch is dequeued while the current batch is delivered.
+ * <p>
+ * The pollers and the dispatcher run as long-running work until the 
+ * consumer is closed.  An error in receiving or dispatching a batch fails
+ * the batch (so that it is redelivered), and the poller or dispatcher 
+ * resumes after a short delay.
+ * <p>
+ * Closing the consumer waits (for a bounded time) for the pollers and the
+ * dispatcher to exit before it closes the poller sessions.
+ * <p>
+ * Because messages are received and acknowledged on the poller's session,
+ * the consumer can be used only for endpoints that are not 
+ * delivery-transacted.  Since a failed delivery causes the poller's whole
+ * batch to be redelivered, it is used only in {@code Dups-ok-acknowledge}
+ * mode.
+ *
+ * @author Carl Harris
+ */
+class PrefetchConnectionConsumer implements ConnectionConsumer {
+
+  static final long POLL_TIMEOUT = 1000;
+  static final long ERROR_DELAY = 250;
+  static final long CLOSE_TIMEOUT = 5000;
+
+  private final Logger logger = Logger.getLogger(getClass().getName());
+
+  private final List<Poller> pollers = new CopyOnWriteArrayList<Poller>();
+  private final List<Worker> workers = new CopyOnWriteArrayList<Worker>();
+
+  private final Connection connection;
+  private final Destination destination;
+  private final MessageActivationSpec activationSpec;
+  private final WorkManager workManager;
+  private final ServerSessionPool sessionPool;
+  private final BlockingQueue<PrefetchedMessage> buffer;
+
+  private volatile boolean running;
+
+  /**
+   * Constructs a new instance.
+   * @param connection connection on which poller sessions are created
+   * @param destination destination from which messages are dequeued
+   * @param activationSpec activation spec of the endpoint
+   * @param workManager work manager that runs the pollers and dispatcher
+   * @param sessionPool pool of server sessions that deliver messages
+   */
+  public PrefetchConnectionConsumer(Connection connection, 
+      Destination destination, MessageActivationSpec activationSpec,
+      WorkManager workManager, ServerSessionPool sessionPool) {
+    this.connection = connection;
+    this.destination = destination;
+    this.activationSpec = activationSpec;
+    this.workManager = workManager;
+    this.sessionPool = sessionPool;
+    this.buffer = new ArrayBlockingQueue<PrefetchedMessage>(
+        activationSpec.getPrefetchSize());
+  }
+
+  /**
+   * Starts the pollers and the dispatcher.
+   * @throws JMSException
+   */
+  public void start() throws JMSException {
+    running = true;
+    int pollerCount = activationSpec.isDurableSubscription() ?
+        1 : activationSpec.getPollerCount();
+    int batchSize = Math.max(1, 
+        activationSpec.getPrefetchSize() / pollerCount);
+    try {
+      for (int i = 0; i < pollerCount; i++) {
+        Session session = connection.createSession(false, 
+            Session.CLIENT_ACKNOWLEDGE);
+        Poller poller = new Poller(session, createConsumer(session), 
+            batchSize);
+        pollers.add(poller);
+        workers.add(poller);
+        workManager.scheduleWork(poller);
+      }
+      Dispatcher dispatcher = new Dispatcher();
+      workers.add(dispatcher);
+      workManager.scheduleWork(dispatcher);
+    }
+    catch (WorkException ex) {
+      close();
+      throw (JMSException) new JMSException(
+          "cannot start poller: " + ex.getMessage()).initCause(ex);
+    }
+    catch (JMSException ex) {
+      close();
+      throw ex;
+    }
+  }
+
+  private MessageConsumer createConsumer(Session session) 
+      throws JMSException {
+    if (activationSpec.isDurableSubscription()) {
+      return session.createDurableSubscriber((Topic) destination, 
+          activationSpec.getSubscriptionName(),
+          activationSpec.getMessageSelector(), false);
+    }
+    return session.createConsumer(destination, 
+        activationSpec.getMessageSelector());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ServerSessionPool getServerSessionPool() throws JMSException {
+    return sessionPool;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close() throws JMSException {
+    running = false;
+    // a poller may be waiting for its batch to be delivered, so its 
+    // session must not be closed until it has exited
+    awaitWorkers();
+    for (Poller poller : pollers) {
+      poller.close();
+    }
+    pollers.clear();
+    PrefetchedMessage message = buffer.poll();
+    while (message != null) {
+      message.completed(false);
+      message = buffer.poll();
+    }
+  }
+
+  private void awaitWorkers() {
+    long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT;
+    try {
+      for (Worker worker : workers) {
+        long timeout = Math.max(0, deadline - System.currentTimeMillis());
+        if (!worker.awaitExit(timeout)) {
+          logger.warning("prefetch worker did not exit within " 
+              + CLOSE_TIMEOUT + " ms");
+        }
+      }
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    workers.clear();
+  }
+
+  /**
+   * Waits before resuming after an error.
+   * @return {@code true} if the consumer is still running and the 
+   *    caller should resume
+   */
+  private boolean pause() {
+    try {
+      Thread.sleep(ERROR_DELAY);
+      return running;
+    }
+    catch (InterruptedException ex) {
+      return false;
+    }
+  }
+
+  /**
+   * A {@link LongRunningWork} that runs until the consumer is closed.
+   */
+  private abstract class Worker extends LongRunningWork {
+
+    private static final long serialVersionUID = 6218944410251838726L;
+
+    private final CountDownLatch exited = new CountDownLatch(1);
+
+    private boolean started;
+    private boolean cancelled;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final void run() {
+      synchronized (this) {
+        if (cancelled) return;
+        started = true;
+      }
+      try {
+        work();
+      }
+      finally {
+        exited.countDown();
+      }
+    }
+
+    /**
+     * Performs the worker's work until the consumer is closed.
+     */
+    protected abstract void work();
+
+    /**
+     * Waits for the worker to exit after the consumer is closed.
+     * <p>
+     * If the work manager has not yet started the worker, it is cancelled
+     * instead, so that it exits as soon as it is started.
+     * @param timeout maximum time to wait (in milliseconds)
+     * @return {@code true} if the worker has exited or will never run
+     * @throws InterruptedException
+     */
+    public boolean awaitExit(long timeout) throws InterruptedException {
+      synchronized (this) {
+        if (!started) {
+          cancelled = true;
+          return true;
+        }
+      }
+      return exited.await(timeout, TimeUnit.MILLISECONDS);
+    }
+
+  }
+
+  /**
+   * A {@link Worker} that receives batches of messages on a session of 
+   * its own.
+   */
+  private class Poller extends Worker {
+
+    private static final long serialVersionUID = -3317269431287718530L;
+
+    private final Session session;
+    private final MessageConsumer consumer;
+    private final int batchSize;
+
+    /**
+     * Constructs a new instance.
+     * @param session session that is owned by the poller
+     * @param consumer consumer that receives messages for the poller
+     * @param batchSize maximum number of messages in a batch
+     */
+    public Poller(Session session, MessageConsumer consumer, 
+        int batchSize) {
+      this.session = session;
+      this.consumer = consumer;
+      this.batchSize = batchSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void work() {
+      while (running) {
+        try {
+          poll();
+        }
+        catch (InterruptedException ex) {
+          return;
+        }
+        catch (JMSException ex) {
+          if (!running) return;
+          logger.warning("poller error: " + ex);
+          recover();
+          if (!pause()) return;
+        }
+      }
+    }
+
+    private void poll() throws JMSException, InterruptedException {
+      List<Message> messages = receive();
+      if (messages.isEmpty()) return;
+      PrefetchBatch batch = new PrefetchBatch(messages.size());
+      for (Message message : messages) {
+        PrefetchedMessage prefetched = new PrefetchedMessage(message, batch);
+        while (!buffer.offer(prefetched, POLL_TIMEOUT, 
+            TimeUnit.MILLISECONDS)) {
+          // unacknowledged messages are redelivered when the session closes
+          if (!running) return;
+        }
+      }
+      while (!batch.await(POLL_TIMEOUT)) {
+        if (!running) return;
+      }
+      if (batch.isFailed()) {
+        session.recover();
+      }
+      else {
+        messages.get(messages.size() - 1).acknowledge();
+      }
+    }
+
+    private void recover() {
+      try {
+        session.recover();
+      }
+      catch (JMSException ex) {
+        assert true;  // safe to ignore here
+      }
+    }
+
+    private List<Message> receive() throws JMSException {
+      List<Message> messages = new ArrayList<Message>(batchSize);
+      Message message = consumer.receive(POLL_TIMEOUT);
+      while (message != null) {
+        messages.add(message);
+        if (messages.size() >= batchSize) break;
+        message = consumer.receiveNoWait();
+      }
+      return messages;
+    }
+
+    /**
+     * Closes the poller's session.
+     */
+    public void close() {
+      try {
+        session.close();
+      }
+      catch (JMSException ex) {
+        assert true;  // safe to ignore here
+      }
+    }
+
+  }
+
+  /**
+   * A {@link Worker} that assigns prefetched messages to server sessions.
+   */
+  private class Dispatcher extends Worker {
+
+    private static final long serialVersionUID = 4870517356203342105L;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void work() {
+      while (running) {
+        try {
+          PrefetchedMessage message = buffer.poll(POLL_TIMEOUT, 
+              TimeUnit.MILLISECONDS);
+          if (message != null) {
+            dispatch(message);
+          }
+        }
+        catch (InterruptedException ex) {
+          return;
+        }
+        catch (JMSException ex) {
+          if (!running) return;
+          logger.warning("dispatcher error: " + ex);
+          if (!pause()) return;
+        }
+      }
+    }
+
+    private void dispatch(PrefetchedMessage message) throws JMSException {
+      List<PrefetchedMessage> messages = new ArrayList<PrefetchedMessage>();
+      messages.add(message);
+      ServerSession session;
+      try {
+        session = sessionPool.getServerSession();
+      }
+      catch (JMSException ex) {
+        message.completed(false);
+        throw ex;
+      }
+      buffer.drainTo(messages, activationSpec.getMaxMessages() - 1);
+      ((ServerSessionWork) session).assign(messages);
+      // if the session cannot be started, it fails the messages itself
+      session.start();
+    }
+
+  }
+
+}
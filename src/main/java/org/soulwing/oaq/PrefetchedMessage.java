@@ -0,0 +1,61 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import javax.jms.Message;
+
+/**
+ * A message held in the buffer of a {@link PrefetchConnectionConsumer}
+ * until it is delivered by a server session.
+ *
+ * @author Carl Harris
+ */
+class PrefetchedMessage {
+
+  private final Message message;
+  private final PrefetchBatch batch;
+
+  /**
+   * Constructs a new instance.
+   * @param message the prefetched message
+   * @param batch the batch in which the message was received
+   */
+  public PrefetchedMessage(Message message, PrefetchBatch batch) {
+    this.message = message;
+    this.batch = batch;
+  }
+
+  /**
+   * Gets the prefetched message.
+   * @return message
+   */
+  public Message getMessage() {
+    return message;
+  }
+
+  /**
+   * Notifies the receiver that delivery of its message has completed.
+   * @param delivered flag indicating whether the message was successfully
+   *    delivered
+   */
+  public void completed(boolean delivered) {
+    batch.completed(delivered);
+  }
+
+}
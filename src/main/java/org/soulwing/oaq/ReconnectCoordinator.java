@@ -0,0 +1,181 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A coordinator for the reconnect attempts of all of the connectors that 
+ * connect to the same database with the same credentials.
+ * <p>
+ * While the database is reachable, every connector may attempt to connect
+ * whenever it needs to.  After an attempt fails, the coordinator considers
+ * the database to be down, and the connector whose attempt failed becomes
+ * the <em>probe</em>: it alone continues to attempt to connect, according
+ * to its own reconnect delay.  Any other connector that wants to attempt
+ * to connect in the meantime is parked; its retry task is held by the
+ * coordinator rather than scheduled.
+ * <p>
+ * When any attempt succeeds, the coordinator considers the database to 
+ * be up again, and admits the parked connectors gradually: their retry
+ * tasks are scheduled one admission interval apart (with a random offset
+ * within each interval), so that a recovering database is not met with 
+ * every endpoint's connection request at once.  If one of the admitted 
+ * attempts fails, the database is again considered down and the remaining
+ * connectors are parked again as their retry tasks run.
+ *
+ * @author Carl Harris
+ */
+class ReconnectCoordinator {
+
+  public static final long DEFAULT_ADMISSION_INTERVAL = 100;
+  
+  private final Map<Object, Runnable> parked = 
+      new LinkedHashMap<Object, Runnable>();
+  
+  private final ReconnectScheduler scheduler;
+  
+  private volatile long admissionInterval = DEFAULT_ADMISSION_INTERVAL;
+  private boolean down;
+  private Object probe;
+  
+  /**
+   * Constructs a new instance.
+   * @param scheduler scheduler that will be used to admit parked 
+   *    connectors
+   */
+  public ReconnectCoordinator(ReconnectScheduler scheduler) {
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Gets the interval between admissions of parked connectors.
+   * @return admission interval in milliseconds
+   */
+  public long getAdmissionInterval() {
+    return admissionInterval;
+  }
+
+  /**
+   * Sets the interval between admissions of parked connectors.
+   * @param admissionInterval the admission interval to set (in 
+   *    milliseconds)
+   */
+  public void setAdmissionInterval(long admissionInterval) {
+    this.admissionInterval = admissionInterval;
+  }
+
+  /**
+   * Tests whether the database is considered to be down.
+   * @return {@code true} if the last attempt to connect failed
+   */
+  public synchronized boolean isDown() {
+    return down;
+  }
+
+  /**
+   * Gets the number of connectors that are parked.
+   * @return number of parked connectors
+   */
+  public synchronized int getParkedCount() {
+    return parked.size();
+  }
+
+  /**
+   * Asks whether a connector may attempt to connect now.
+   * @param owner the connector that wants to attempt to connect
+   * @param retry a task that resubmits the connector's attempt; if the
+   *    connector is parked, the coordinator schedules this task when the 
+   *    connector is admitted
+   * @return {@code true} if the connector should attempt to connect now,
+   *    {@code false} if it has been parked
+   */
+  public synchronized boolean tryAttempt(Object owner, Runnable retry) {
+    if (!down) return true;
+    if (probe == null || probe == owner) {
+      probe = owner;
+      return true;
+    }
+    parked.put(owner, retry);
+    return false;
+  }
+
+  /**
+   * Notifies the coordinator that an attempt to connect succeeded.
+   * @param owner the connector whose attempt succeeded
+   */
+  public void attemptSucceeded(Object owner) {
+    List<Runnable> admitted;
+    synchronized (this) {
+      if (!down) return;
+      down = false;
+      probe = null;
+      admitted = new ArrayList<Runnable>(parked.values());
+      parked.clear();
+    }
+    long interval = admissionInterval;
+    for (int i = 0; i < admitted.size(); i++) {
+      long offset = interval > 0 ? 
+          ThreadLocalRandom.current().nextLong(interval) : 0;
+      scheduler.schedule(admitted.get(i), i*interval + offset);
+    }
+  }
+
+  /**
+   * Notifies the coordinator that an attempt to connect failed.
+   * @param owner the connector whose attempt failed
+   */
+  public synchronized void attemptFailed(Object owner) {
+    down = true;
+    if (probe == null) {
+      probe = owner;
+    }
+  }
+
+  /**
+   * Withdraws a connector from coordination; e.g. because it has been 
+   * stopped.
+   * <p>
+   * If the connector is the probe, the first parked connector (if any)
+   * is admitted immediately so that it can take over as the probe.
+   * @param owner the connector to withdraw
+   */
+  public void withdraw(Object owner) {
+    Runnable next = null;
+    synchronized (this) {
+      parked.remove(owner);
+      if (probe != owner) return;
+      probe = null;
+      Iterator<Runnable> i = parked.values().iterator();
+      if (i.hasNext()) {
+        next = i.next();
+        i.remove();
+      }
+    }
+    if (next != null) {
+      scheduler.schedule(next, 0);
+    }
+  }
+
+}
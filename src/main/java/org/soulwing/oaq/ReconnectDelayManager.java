@@ -32,6 +32,16 @@ interface ReconnectDelayManager {
    *    waiting
    */
   void pause() throws InterruptedException;
+
+  /**
+   * Gets the delay before the next reconnect attempt, without waiting.
+   * <p>
+   * This method advances the state of the delay manager in the same way
+   * as {@link #pause()}; it is used when the next attempt is to be 
+   * scheduled rather than awaited.
+   * @return delay in milliseconds
+   */
+  long nextDelay();
   
   /**
    * Resets the state of the delay manager and causes any thread waiting
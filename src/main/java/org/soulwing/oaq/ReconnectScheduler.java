@@ -0,0 +1,45 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.TimerTask;
+
+/**
+ * A scheduler for reconnect attempts.
+ * <p>
+ * A connector that uses a scheduler does not wait for the reconnect delay
+ * to elapse; it schedules its next attempt and returns, so that no thread 
+ * is occupied while the database is unavailable.
+ *
+ * @author Carl Harris
+ */
+interface ReconnectScheduler {
+
+  /**
+   * Schedules a task to run after a delay.
+   * <p>
+   * The task runs on the scheduler's own thread, so it should do no more 
+   * than hand off the reconnect attempt to a work manager.
+   * @param task the task to run
+   * @param delay delay in milliseconds
+   * @return timer task that can be used to cancel the scheduled task
+   */
+  TimerTask schedule(Runnable task, long delay);
+
+}
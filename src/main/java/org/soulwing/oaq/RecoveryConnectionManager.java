@@ -0,0 +1,174 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Logger;
+
+import javax.jms.JMSException;
+import javax.jms.XAConnection;
+import javax.jms.XASession;
+import javax.transaction.xa.XAResource;
+
+/**
+ * A manager for the connections that supply {@link XAResource} objects 
+ * to the transaction manager for recovery.
+ * <p>
+ * The manager keeps one connection, XA session and resource for each 
+ * distinct set of credentials, so that the resources remain usable after
+ * they are handed to the transaction manager, and repeated recovery scans
+ * do not each pay for a new connection.  Before a cached resource is 
+ * returned, its connection is validated; a stale connection is closed and
+ * replaced.  Concurrent requests for the same credentials share a single
+ * connection.
+ *
+ * @author Carl Harris
+ */
+class RecoveryConnectionManager {
+
+  static final long VALIDATION_TIMEOUT = 5000;
+
+  private final Logger logger = Logger.getLogger(getClass().getName());
+
+  private final ConcurrentMap<OAQConnectionRequestInfo, Entry> entries =
+      new ConcurrentHashMap<OAQConnectionRequestInfo, Entry>();
+
+  private final MessageResourceAdapter resourceAdapter;
+  private final ConnectionValidator validator;
+
+  /**
+   * Constructs a new instance.
+   * @param resourceAdapter resource adapter that will create connections
+   * @param validator validator for cached connections
+   */
+  public RecoveryConnectionManager(MessageResourceAdapter resourceAdapter,
+      ConnectionValidator validator) {
+    this.resourceAdapter = resourceAdapter;
+    this.validator = validator;
+  }
+
+  /**
+   * Gets the recovery resource for a set of credentials, creating a 
+   * connection for it if necessary.
+   * @param key connection request info that identifies the credentials
+   * @param spec an activation spec that uses the credentials, or 
+   *    {@code null} to connect using the adapter's own credentials
+   * @return XA resource
+   * @throws JMSException if a connection cannot be created
+   */
+  public XAResource getXAResource(OAQConnectionRequestInfo key,
+      MessageActivationSpec spec) throws JMSException {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      entry = new Entry();
+      Entry existing = entries.putIfAbsent(key, entry);
+      if (existing != null) {
+        entry = existing;
+      }
+    }
+    return entry.getXAResource(spec);
+  }
+
+  /**
+   * Gets the number of credential sets for which connections are held.
+   * @return number of entries
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Closes all recovery connections.
+   */
+  public void close() {
+    List<Entry> closed = new ArrayList<Entry>(entries.values());
+    entries.clear();
+    for (Entry entry : closed) {
+      entry.close();
+    }
+  }
+
+  /**
+   * The recovery connection for a set of credentials.
+   */
+  private class Entry {
+
+    private MessageActivationSpec spec;
+    private boolean retained;
+    private XAConnection connection;
+    private XASession session;
+    private XAResource resource;
+
+    public synchronized XAResource getXAResource(MessageActivationSpec spec) 
+        throws JMSException {
+      if (session != null) {
+        try {
+          validator.validate(session, VALIDATION_TIMEOUT);
+          return resource;
+        }
+        catch (JMSException ex) {
+          logger.info("replacing stale recovery connection: " + ex);
+          close();
+        }
+      }
+      // the entry's key identifies the credentials, but the connection is
+      // made using the spec, so that a proxied user connects using the proxy 
+      // user's connection factory; the factories are retained while the
+      // connection is held, even if every endpoint that uses them is 
+      // deactivated
+      resourceAdapter.retainConnectionFactories(spec);
+      this.spec = spec;
+      this.retained = true;
+      try {
+        connection = resourceAdapter.createRecoveryConnection(spec);
+        session = connection.createXASession();
+        resource = session.getXAResource();
+        return resource;
+      }
+      catch (JMSException | RuntimeException ex) {
+        close();
+        throw ex;
+      }
+    }
+
+    public synchronized void close() {
+      if (connection != null) {
+        try {
+          connection.close();
+        }
+        catch (JMSException ex) {
+          assert true;  // safe to ignore here
+        }
+      }
+      if (retained) {
+        resourceAdapter.releaseConnectionFactories(spec);
+      }
+      retained = false;
+      spec = null;
+      connection = null;
+      session = null;
+      resource = null;
+    }
+
+  }
+
+}
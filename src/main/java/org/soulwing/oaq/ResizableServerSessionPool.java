@@ -0,0 +1,67 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+/**
+ * A {@link MutableServerSessionPool} whose limit on active sessions can be
+ * changed while it is in use.
+ *
+ * @author Carl Harris
+ */
+interface ResizableServerSessionPool extends MutableServerSessionPool {
+
+  /**
+   * Gets the maximum number of sessions that may be borrowed concurrently.
+   * @return number of sessions
+   */
+  int getMaxActive();
+
+  /**
+   * Sets the maximum number of sessions that may be borrowed concurrently.
+   * @param maxActive number of sessions
+   */
+  void setMaxActive(int maxActive);
+
+  /**
+   * Gets the number of times that a borrower has had to wait because
+   * the pool was exhausted.
+   * @return wait count
+   */
+  long getWaitCount();
+
+  /**
+   * Gets the total time that borrowers have waited because the pool was
+   * exhausted.
+   * @return wait time in milliseconds
+   */
+  long getWaitTime();
+
+  /**
+   * Gets the number of sessions currently borrowed from the pool.
+   * @return number of sessions
+   */
+  int getNumActive();
+
+  /**
+   * Gets the number of idle sessions in the pool.
+   * @return number of sessions
+   */
+  int getNumIdle();
+
+}
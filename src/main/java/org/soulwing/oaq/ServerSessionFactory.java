@@ -18,29 +18,47 @@
  */
 package org.soulwing.oaq;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.jms.Connection;
 import javax.jms.JMSException;
 import javax.jms.ServerSession;
+import javax.jms.Session;
 import javax.jms.XAConnection;
 import javax.jms.XASession;
 import javax.resource.spi.UnavailableException;
+import javax.resource.spi.endpoint.MessageEndpoint;
 import javax.transaction.xa.XAResource;
 
 import org.apache.commons.lang.Validate;
-import org.apache.commons.pool.BasePoolableObjectFactory;
-import org.apache.commons.pool.PoolableObjectFactory;
+import org.apache.commons.pool.BaseKeyedPoolableObjectFactory;
+import org.apache.commons.pool.KeyedPoolableObjectFactory;
 
 /**
- * A {@link PoolableObjectFactory} that produces {@link ServerSession}
+ * A {@link KeyedPoolableObjectFactory} that produces {@link ServerSession}
  * objects for an details.
+ * <p>
+ * Sessions are keyed by the connection on which they are created, so that
+ * a connection consumer is only ever given sessions of its own connection.
+ * A session remains valid only as long as the connection on which it was
+ * created remains open.
  *
  * @author Carl Harris
  */
 public class ServerSessionFactory
-    extends BasePoolableObjectFactory<ServerSession> {
+    extends BaseKeyedPoolableObjectFactory<Connection, ServerSession> {
 
   private final MessageEndpointDetails details;
+  private final List<Connection> connections = 
+      new CopyOnWriteArrayList<Connection>();
+  private final DeliveryFailureTracker failureTracker = 
+      new DeliveryFailureTracker();
+
   private MutableServerSessionPool sessionPool;
-  private XAConnection connection; 
+  private volatile SessionRunObserver runObserver;
+  private volatile MessageEndpointStatistics statistics;
+  private volatile EndpointEventLog eventLog;
   
   /**
    * Constructs a new instance.
@@ -54,27 +72,110 @@ public class ServerSessionFactory
    * {@inheritDoc}
    */
   @Override
-  public ServerSession makeObject() throws JMSException, 
-      UnavailableException {
+  public ServerSession makeObject(Connection connection) 
+      throws JMSException, UnavailableException {
     Validate.notNull(getSessionPool());
-    Validate.notNull(getConnection());
-    XASession session = getConnection().createXASession();
-    XAResource resource = session.getXAResource();
-    MessageEndpointProxy endpoint = new MessageEndpointProxy(
-        details.getEndpointFactory().createEndpoint(resource));
+    Validate.notNull(connection);
+    MessageActivationSpec activationSpec = details.getActivationSpec();
+    boolean transacted = details.isDeliveryTransacted();
+    // the prefetch dispatcher must never wait for a session to finish
+    boolean asynchronous = activationSpec.getAsynchronousDispatch()
+        || activationSpec.isPrefetchEnabled() && !transacted;
+    boolean batchAcknowledge = false;
+    boolean lazyAcknowledge = false;
+    Session session;
+    XAResource resource = null;
+    if (transacted) {
+      XASession xaSession = ((XAConnection) connection).createXASession();
+      resource = xaSession.getXAResource();
+      session = xaSession;
+    }
+    else if (activationSpec instanceof BatchMessageActivationSpec
+        && !activationSpec.isPrefetchEnabled()) {
+      // acknowledge each batch after the bean has accepted it, rather 
+      // than each message as it is added to the batch
+      session = connection.createSession(false, 
+          Session.CLIENT_ACKNOWLEDGE);
+      batchAcknowledge = true;
+    }
+    else if (activationSpec.isDupsOkAcknowledge() 
+        && !activationSpec.isPrefetchEnabled()) {
+      // acknowledge explicitly, so that acknowledgements can be batched
+      session = connection.createSession(false, 
+          Session.CLIENT_ACKNOWLEDGE);
+      lazyAcknowledge = true;
+    }
+    else {
+      // no transaction to enlist in, so avoid the cost of an XA session
+      session = connection.createSession(false, 
+          Session.AUTO_ACKNOWLEDGE);
+    }
+    SessionRunListener endpoint = createEndpointProxy(
+        details.getEndpointFactory().createEndpoint(resource), 
+        activationSpec, createQuarantine(session, activationSpec),
+        batchAcknowledge ? session : null);
+    if (lazyAcknowledge) {
+      endpoint = new LazyAcknowledger(endpoint, session, 
+          activationSpec.getAcknowledgeBatchSize(), 
+          activationSpec.getAcknowledgeBatchTimeout());
+    }
     session.setMessageListener(endpoint);
-    return new ServerSessionWork(session, details.getWorkManager(), 
-        getSessionPool());
+    ServerSessionWork serverSession = new ServerSessionWork(session, 
+        details.getWorkManager(), getSessionPool(), 
+        asynchronous, endpoint);
+    serverSession.setRunObserver(runObserver);
+    serverSession.setEventLog(eventLog);
+    return serverSession;
+  }
+
+  private SessionRunListener createEndpointProxy(MessageEndpoint endpoint,
+      MessageActivationSpec activationSpec, MessageQuarantine quarantine,
+      Session acknowledgeSession) {
+    if (activationSpec instanceof BatchMessageActivationSpec) {
+      BatchMessageActivationSpec batchSpec = 
+          (BatchMessageActivationSpec) activationSpec;
+      BatchMessageEndpointProxy proxy = new BatchMessageEndpointProxy(
+          endpoint, batchSpec.getMaxBatchSize(), 
+          batchSpec.getMaxBatchWait(), quarantine);
+      proxy.setStatistics(statistics);
+      proxy.setEventLog(eventLog);
+      proxy.setAcknowledgeSession(acknowledgeSession);
+      return proxy;
+    }
+    MessageEndpointProxy proxy = new MessageEndpointProxy(endpoint, 
+        activationSpec.getBatchSize(), activationSpec.getBatchTimeout(),
+        quarantine);
+    proxy.setStatistics(statistics);
+    proxy.setEventLog(eventLog);
+    return proxy;
+  }
+
+  private MessageQuarantine createQuarantine(Session session,
+      MessageActivationSpec activationSpec) {
+    if (!activationSpec.isQuarantineEnabled()) return null;
+    return new MessageQuarantine(failureTracker, 
+        activationSpec.getMaxDeliveryFailures(), session, 
+        activationSpec.getExceptionQueue());
   }
 
   /**
    * {@inheritDoc}
    */
   @Override
-  public void destroyObject(ServerSession session) throws Exception {
+  public void destroyObject(Connection connection, ServerSession session) 
+      throws Exception {
     ((ServerSessionWork) session).close();
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean validateObject(Connection connection, 
+      ServerSession session) {
+    return connections.contains(connection);
+  }
+
   /**
    * Gets the {@code sessionPool} property.
    * @return
@@ -92,19 +193,83 @@ public class ServerSessionFactory
   }
 
   /**
-   * Gets the {@code connection} property.
+   * Gets the {@code runObserver} property.
+   * @return
+   */
+  public SessionRunObserver getRunObserver() {
+    return runObserver;
+  }
+
+  /**
+   * Sets the {@code runObserver} property.
+   * <p>
+   * The observer is notified after each run of every session subsequently
+   * produced by this factory.
+   * @param runObserver
+   */
+  public void setRunObserver(SessionRunObserver runObserver) {
+    this.runObserver = runObserver;
+  }
+
+  /**
+   * Gets the {@code statistics} property.
    * @return
    */
-  public XAConnection getConnection() {
-    return connection;
+  public MessageEndpointStatistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * Sets the {@code statistics} property.
+   * <p>
+   * Deliveries by every session subsequently produced by this factory are
+   * recorded in the given statistics.
+   * @param statistics
+   */
+  public void setStatistics(MessageEndpointStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  /**
+   * Gets the {@code eventLog} property.
+   * @return
+   */
+  public EndpointEventLog getEventLog() {
+    return eventLog;
+  }
+
+  /**
+   * Sets the {@code eventLog} property.
+   * <p>
+   * Diagnostic events for every session subsequently produced by this 
+   * factory are written to the given log.
+   * @param eventLog
+   */
+  public void setEventLog(EndpointEventLog eventLog) {
+    this.eventLog = eventLog;
+  }
+
+  /**
+   * Adds a connection on which sessions may be created and remain valid.
+   * <p>
+   * When the endpoint is delivery-transacted, the connection must be an
+   * {@link XAConnection}.
+   * @param connection the connection to add
+   */
+  public void addConnection(Connection connection) {
+    connections.add(connection);
   }
 
   /**
-   * Sets the {@code connection} property.
-   * @param connection
+   * Removes a connection on which sessions may be created.
+   * <p>
+   * Sessions that were created on the connection are no longer valid; 
+   * they are destroyed when they are next returned to or taken from the 
+   * pool.
+   * @param connection the connection to remove
    */
-  public void setConnection(XAConnection connection) {
-    this.connection = connection;
+  public void removeConnection(Connection connection) {
+    connections.remove(connection);
   }
 
 }
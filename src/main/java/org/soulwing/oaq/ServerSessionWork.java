@@ -18,19 +18,46 @@
  */
 package org.soulwing.oaq;
 
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
 import javax.jms.JMSException;
+import javax.jms.MessageListener;
 import javax.jms.ServerSession;
 import javax.jms.Session;
 import javax.resource.spi.work.Work;
+import javax.resource.spi.work.WorkAdapter;
+import javax.resource.spi.work.WorkEvent;
 import javax.resource.spi.work.WorkException;
+import javax.resource.spi.work.WorkListener;
 import javax.resource.spi.work.WorkManager;
 
 /**
  * A {@link ServerSession} that dispatches message consumption using
  * a {@link WorkManager}.
+ * <p>
+ * In synchronous mode, {@link #start()} blocks the calling thread (the
+ * thread of the provider's {@code ConnectionConsumer}) until the session
+ * has consumed its messages.  In asynchronous mode, the session is merely
+ * scheduled and {@link #start()} returns immediately; the session is 
+ * returned to the pool by a {@link WorkListener} when the work completes.
+ * <p>
+ * Messages prefetched by a {@link PrefetchConnectionConsumer} are 
+ * assigned to the session using {@link #assign(List)}; when the session
+ * runs, these messages are delivered directly to the session's listener
+ * instead of running the underlying session.
+ * <p>
+ * When the session's run ends with a {@link ListenerFailedException} 
+ * (i.e. the message-driven bean threw an exception), the delivery has 
+ * already been rolled back and the session is returned to the pool for 
+ * reuse.  Only a failure of the session itself causes the session to be 
+ * invalidated.
+ * <p>
+ * When the work manager rejects the session's work, the session is 
+ * invalidated (exactly once, whether the rejection is reported by 
+ * {@link WorkManager#scheduleWork} or by its {@link WorkListener}), 
+ * since it may hold messages that were never delivered.
  *
  * @author Carl Harris
  */
@@ -43,6 +70,15 @@ class ServerSessionWork implements ServerSession, Work {
   private final WorkManager workManager;
   private final MutableServerSessionPool sessionPool;
   private final SessionContext sessionContext;
+  private final boolean asynchronous;
+  private final SessionRunListener runListener;
+  private final WorkListener completionListener = new CompletionListener();
+  
+  private volatile boolean sessionValid;
+  private volatile List<PrefetchedMessage> prefetched;
+  private volatile SessionRunObserver runObserver;
+  private volatile EndpointEventLog eventLog;
+  private volatile long startTime;
   
   /**
    * Constructs a new instance.
@@ -52,8 +88,38 @@ class ServerSessionWork implements ServerSession, Work {
    */
   public ServerSessionWork(Session delegate, 
       WorkManager workManager, MutableServerSessionPool sessionPool) {
+    this(delegate, workManager, sessionPool, false);
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param delegate session delegate
+   * @param workManager work manager that will run the session
+   * @param sessionPool server session pool
+   * @param asynchronous flag indicating whether {@link #start()} should
+   *    return without waiting for the session to run
+   */
+  public ServerSessionWork(Session delegate, 
+      WorkManager workManager, MutableServerSessionPool sessionPool,
+      boolean asynchronous) {
+    this(delegate, workManager, sessionPool, asynchronous, null);
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param delegate session delegate
+   * @param workManager work manager that will run the session
+   * @param sessionPool server session pool
+   * @param asynchronous flag indicating whether {@link #start()} should
+   *    return without waiting for the session to run
+   * @param runListener listener to notify after each run of the session
+   *    or {@code null} if no notification is needed
+   */
+  public ServerSessionWork(Session delegate, 
+      WorkManager workManager, MutableServerSessionPool sessionPool,
+      boolean asynchronous, SessionRunListener runListener) {
     this(delegate, workManager, sessionPool, 
-        ThreadLocalSessionContext.getInstance());
+        ThreadLocalSessionContext.getInstance(), asynchronous, runListener);
   }
 
   /**
@@ -66,10 +132,46 @@ class ServerSessionWork implements ServerSession, Work {
   protected ServerSessionWork(Session delegate, 
       WorkManager workManager, MutableServerSessionPool sessionPool,
       SessionContext sessionContext) {
+    this(delegate, workManager, sessionPool, sessionContext, false);
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param delegate session delegate
+   * @param workManager work manager that will run the session
+   * @param sessionPool server session pool
+   * @param sessionContext session context 
+   * @param asynchronous flag indicating whether {@link #start()} should
+   *    return without waiting for the session to run
+   */
+  protected ServerSessionWork(Session delegate, 
+      WorkManager workManager, MutableServerSessionPool sessionPool,
+      SessionContext sessionContext, boolean asynchronous) {
+    this(delegate, workManager, sessionPool, sessionContext, asynchronous,
+        null);
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param delegate session delegate
+   * @param workManager work manager that will run the session
+   * @param sessionPool server session pool
+   * @param sessionContext session context 
+   * @param asynchronous flag indicating whether {@link #start()} should
+   *    return without waiting for the session to run
+   * @param runListener listener to notify after each run of the session
+   *    or {@code null} if no notification is needed
+   */
+  protected ServerSessionWork(Session delegate, 
+      WorkManager workManager, MutableServerSessionPool sessionPool,
+      SessionContext sessionContext, boolean asynchronous,
+      SessionRunListener runListener) {
     this.delegate = delegate;
     this.workManager = workManager;
     this.sessionPool = sessionPool;
     this.sessionContext = sessionContext;
+    this.asynchronous = asynchronous;
+    this.runListener = runListener;
   }
   
   /**
@@ -88,15 +190,53 @@ class ServerSessionWork implements ServerSession, Work {
     if (!started.compareAndSet(false, true)) {
       throw new JMSException("already started");
     }
+    EndpointEventLog events = eventLog;
+    if (events != null && events.isEnabled()) {
+      startTime = System.nanoTime();
+    }
     try {
-      workManager.doWork(this, WorkManager.INDEFINITE, null, null);
+      if (asynchronous) {
+        workManager.scheduleWork(this, WorkManager.INDEFINITE, null,
+            completionListener);
+      }
+      else {
+        workManager.doWork(this, WorkManager.INDEFINITE, null, null);
+      }
     }
     catch (WorkException ex) {
+      abandon();
       throw (JMSException) new JMSException(
           "cannot start session: " + ex.getMessage()).initCause(ex);
     }
   }
 
+  /**
+   * Sets an observer to notify after each run of the session.
+   * @param runObserver the observer to set, or {@code null} if no 
+   *    observer is needed
+   */
+  public void setRunObserver(SessionRunObserver runObserver) {
+    this.runObserver = runObserver;
+  }
+
+  /**
+   * Sets the log to which diagnostic events for the session are written.
+   * @param eventLog the event log to set, or {@code null} if events are
+   *    not to be logged
+   */
+  public void setEventLog(EndpointEventLog eventLog) {
+    this.eventLog = eventLog;
+  }
+
+  /**
+   * Assigns prefetched messages to be delivered the next time the 
+   * session runs.
+   * @param messages the messages to deliver
+   */
+  public void assign(List<PrefetchedMessage> messages) {
+    this.prefetched = messages;
+  }
+
   /**
    * Closes the underlying session.
    * @throws JMSException
@@ -110,18 +250,124 @@ class ServerSessionWork implements ServerSession, Work {
    */
   @Override
   public void run() {
+    SessionRunObserver observer = runObserver;
+    EndpointEventLog events = eventLog;
+    if (events != null && !events.isEnabled()) {
+      events = null;
+    }
+    if (observer != null || events != null) {
+      long start = System.nanoTime();
+      RunOutcome outcome = runSession();
+      long elapsed = System.nanoTime() - start;
+      boolean successful = outcome == RunOutcome.COMPLETED;
+      sessionValid = outcome != RunOutcome.SESSION_FAILED;
+      if (observer != null) {
+        observer.sessionRunCompleted(elapsed, successful);
+      }
+      if (events != null) {
+        long dispatch = startTime != 0 ? start - startTime : 0;
+        events.sessionRun(dispatch, elapsed, successful);
+      }
+      startTime = 0;
+    }
+    else {
+      sessionValid = runSession() != RunOutcome.SESSION_FAILED;
+    }
+    if (!asynchronous) {
+      complete(sessionValid);
+    }
+  }
+
+  private RunOutcome runSession() {
+    List<PrefetchedMessage> messages = prefetched;
+    prefetched = null;
+    RunOutcome outcome = RunOutcome.COMPLETED;
     sessionContext.set(delegate);
     try {        
-      delegate.run();
-      sessionPool.releaseSession(this);
+      if (messages != null) {
+        deliver(messages);
+      }
+      else {
+        delegate.run();
+      }
     }
     catch (Throwable ex) {
-      logger.warning("session stopped on error: " + ex);
-      sessionPool.invalidateSession(this);
+      outcome = failure(ex);
     }
     finally {
+      // work held open across deliveries must end even if the run failed
+      if (runListener != null) {
+        outcome = completeRun(outcome);
+      }
       sessionContext.clear();
+      if (messages != null) {
+        for (PrefetchedMessage message : messages) {
+          message.completed(outcome == RunOutcome.COMPLETED);
+        }
+      }
+    }
+    return outcome;
+  }
+
+  private RunOutcome completeRun(RunOutcome outcome) {
+    try {
+      runListener.sessionRunCompleted();
+      return outcome;
+    }
+    catch (Throwable ex) {
+      RunOutcome failure = failure(ex);
+      return outcome == RunOutcome.SESSION_FAILED ? outcome : failure;
+    }
+  }
+
+  private RunOutcome failure(Throwable ex) {
+    if (ListenerFailedException.isListenerFailure(ex)) {
+      logger.warning("listener failed: " + ex);
+      return RunOutcome.LISTENER_FAILED;
+    }
+    logger.warning("session stopped on error: " + ex);
+    return RunOutcome.SESSION_FAILED;
+  }
+
+  private void deliver(List<PrefetchedMessage> messages) 
+      throws JMSException {
+    MessageListener listener = runListener != null ? 
+        runListener : delegate.getMessageListener();
+    for (PrefetchedMessage message : messages) {
+      listener.onMessage(message.getMessage());
+    }
+  }
+
+  /**
+   * Returns the receiver to the pool after it has run.
+   * @param valid flag indicating whether the session can be reused
+   */
+  private void complete(boolean valid) {
+    started.set(false);
+    if (valid) {
+      sessionPool.releaseSession(this);
+    }
+    else {
+      sessionPool.invalidateSession(this);
+    }
+  }
+
+  /**
+   * Invalidates the receiver after its work was rejected, failing any
+   * prefetched messages.
+   * <p>
+   * Only the first call after {@link #start()} has any effect.
+   */
+  private void abandon() {
+    if (!started.compareAndSet(true, false)) return;
+    List<PrefetchedMessage> messages = prefetched;
+    prefetched = null;
+    if (messages != null) {
+      for (PrefetchedMessage message : messages) {
+        message.completed(false);
+      }
     }
+    sessionPool.invalidateSession(this);
   }
 
   /**
@@ -130,5 +376,51 @@ class ServerSessionWork implements ServerSession, Work {
   @Override
   public void release() {
   }
-  
+
+  /**
+   * Tests whether this session is dispatched asynchronously.
+   * @return {@code true} if {@link #start()} returns without waiting for
+   *    the session to run
+   */
+  public boolean isAsynchronous() {
+    return asynchronous;
+  }
+
+  /**
+   * Outcomes of a run of the session.
+   */
+  private enum RunOutcome {
+    /** all messages were delivered */
+    COMPLETED, 
+    /** the bean's listener failed; the session is still usable */
+    LISTENER_FAILED, 
+    /** the session failed and must not be reused */
+    SESSION_FAILED
+  }
+
+  /**
+   * A {@link WorkListener} that returns the session to the pool when 
+   * asynchronously scheduled work completes or is rejected.
+   */
+  private class CompletionListener extends WorkAdapter {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void workCompleted(WorkEvent event) {
+      complete(sessionValid && event.getException() == null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void workRejected(WorkEvent event) {
+      logger.warning("session work rejected: " + event.getException());
+      abandon();
+    }
+
+  }
+
 }
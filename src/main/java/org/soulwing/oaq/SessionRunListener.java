@@ -0,0 +1,50 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import javax.jms.MessageListener;
+
+/**
+ * A {@link MessageListener} that is notified each time the session that 
+ * delivers messages to it finishes a run.
+ * <p>
+ * A listener that holds work open across deliveries (for example, a 
+ * transaction that spans several messages) uses the notification to 
+ * complete that work before the session is returned to the pool.
+ * <p>
+ * A listener reports a failure of the message-driven bean's listener 
+ * method (from either method) by throwing a 
+ * {@link ListenerFailedException}; the session remains usable.  Any 
+ * other exception means that the session should be considered unusable.
+ *
+ * @author Carl Harris
+ */
+interface SessionRunListener extends MessageListener {
+
+  /**
+   * Notifies the receiver that the session has delivered all of the
+   * messages assigned to it for the current run.
+   * @throws ListenerFailedException if the bean's listener method failed
+   * @throws RuntimeException if the receiver could not complete the 
+   *    work associated with the run; the session should then be 
+   *    considered unusable
+   */
+  void sessionRunCompleted();
+
+}
@@ -0,0 +1,36 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+/**
+ * An observer that is notified each time a server session finishes a run.
+ *
+ * @author Carl Harris
+ */
+interface SessionRunObserver {
+
+  /**
+   * Notifies the receiver that a server session has finished a run.
+   * @param elapsed time taken by the run (in nanoseconds)
+   * @param successful flag indicating whether the run completed without
+   *    error
+   */
+  void sessionRunCompleted(long elapsed, boolean successful);
+
+}
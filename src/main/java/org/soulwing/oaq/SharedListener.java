@@ -0,0 +1,346 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Session;
+import javax.resource.spi.work.Work;
+import javax.resource.spi.work.WorkException;
+import javax.resource.spi.work.WorkManager;
+
+/**
+ * A listener that waits on a single connection for messages to
+ * become ready on the destinations of many endpoints.
+ * <p>
+ * An endpoint that has no connections of its own registers a target 
+ * with the listener.  When a message is ready on a target, the target is
+ * removed and its callback is notified on a work manager thread, so that 
+ * the endpoint can connect and consume the message; the endpoint 
+ * registers its target again when it has gone idle and closed its 
+ * connections.  A target registered while the listener is waiting is 
+ * included in the next wait, so it may be noticed only after the listen 
+ * timeout elapses.
+ * <p>
+ * The listener's connection is opened when there is a target to wait on,
+ * and is closed when there are none, or when waiting fails; after a 
+ * failure the listener waits for the retry delay before connecting again.
+ *
+ * @author Carl Harris
+ */
+class SharedListener {
+
+  /** Default maximum time for each wait (in milliseconds) */
+  public static final long DEFAULT_LISTEN_TIMEOUT = 5000;
+  
+  /** Default delay before reconnecting after a failure (in milliseconds) */
+  public static final long DEFAULT_RETRY_DELAY = 10000;
+
+  /**
+   * A callback notified when a message is ready on a target.
+   */
+  interface Callback {
+
+    /**
+     * Notifies the recipient that a message is ready on its target.
+     */
+    void messageReady();
+
+  }
+
+  private final Logger logger = Logger.getLogger(getClass().getName());
+
+  private final Map<DestinationListener.Target, Callback> targets =
+      new LinkedHashMap<DestinationListener.Target, Callback>();
+
+  private final MessageResourceAdapter resourceAdapter;
+  private final MessageActivationSpec spec;
+  private final DestinationListener destinationListener;
+  private final WorkManager workManager;
+
+  private long listenTimeout = DEFAULT_LISTEN_TIMEOUT;
+  private long retryDelay = DEFAULT_RETRY_DELAY;
+  private ListenWork work;
+
+  /**
+   * Constructs a new instance.
+   * @param resourceAdapter resource adapter that will open the listener's
+   *    connection
+   * @param spec activation spec whose credentials will be used to open 
+   *    the listener's connection
+   * @param destinationListener strategy for waiting on the targets
+   * @param workManager work manager that will run the listener and 
+   *    notify callbacks
+   */
+  public SharedListener(MessageResourceAdapter resourceAdapter,
+      MessageActivationSpec spec, DestinationListener destinationListener,
+      WorkManager workManager) {
+    this.resourceAdapter = resourceAdapter;
+    this.spec = spec;
+    this.destinationListener = destinationListener;
+    this.workManager = workManager;
+  }
+
+  /**
+   * Sets the maximum time for each wait.
+   * @param listenTimeout timeout in milliseconds
+   */
+  public void setListenTimeout(long listenTimeout) {
+    this.listenTimeout = listenTimeout;
+  }
+
+  /**
+   * Sets the delay before reconnecting after a failure.
+   * @param retryDelay delay in milliseconds
+   */
+  public void setRetryDelay(long retryDelay) {
+    this.retryDelay = retryDelay;
+  }
+
+  /**
+   * Registers a target, starting the listener if necessary.
+   * @param target the target to wait on
+   * @param callback callback to notify when a message is ready on 
+   *    {@code target}
+   * @throws WorkException if the listener cannot be started; the target
+   *    is not registered
+   */
+  public void listen(DestinationListener.Target target, Callback callback)
+      throws WorkException {
+    synchronized (this) {
+      targets.put(target, callback);
+      notifyAll();
+      if (work != null) return;
+      work = new ListenWork();
+    }
+    try {
+      workManager.scheduleWork(work);
+    }
+    catch (WorkException ex) {
+      synchronized (this) {
+        targets.remove(target);
+        work = null;
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * Removes a target.
+   * @param target the target to remove
+   */
+  public synchronized void cancel(DestinationListener.Target target) {
+    targets.remove(target);
+  }
+
+  /**
+   * Gets the number of registered targets.
+   * @return number of targets
+   */
+  public synchronized int size() {
+    return targets.size();
+  }
+
+  /**
+   * Stops the listener and removes all targets.
+   * <p>
+   * The listener closes its connection after its current wait (if any)
+   * completes.
+   */
+  public synchronized void stop() {
+    work = null;
+    targets.clear();
+    notifyAll();
+  }
+
+  /**
+   * Waits until there is at least one target.
+   * @param work the work that is waiting
+   * @return targets or {@code null} if {@code work} should exit because
+   *    the listener has been stopped
+   * @throws InterruptedException
+   */
+  private synchronized List<DestinationListener.Target> nextTargets(
+      ListenWork work) throws InterruptedException {
+    while (this.work == work && targets.isEmpty()) {
+      wait();
+    }
+    if (this.work != work) return null;
+    return new ArrayList<DestinationListener.Target>(targets.keySet());
+  }
+
+  private synchronized boolean hasTargets() {
+    return !targets.isEmpty();
+  }
+
+  private synchronized void pause(ListenWork work) 
+      throws InterruptedException {
+    if (this.work == work) {
+      wait(retryDelay);
+    }
+  }
+
+  private void messageReady(DestinationListener.Target target) {
+    final Callback callback;
+    synchronized (this) {
+      callback = targets.remove(target);
+    }
+    if (callback == null) return;
+    try {
+      workManager.scheduleWork(new ReadyWork(callback));
+    }
+    catch (WorkException ex) {
+      logger.warning("cannot schedule notification; notifying in the "
+          + "listener thread: " + ex);
+      callback.messageReady();
+    }
+  }
+
+  /**
+   * A {@link Work} that runs the listener's wait loop.
+   * <p>
+   * Each start of the listener uses a new instance, which exits once
+   * it is no longer the listener's current work, so that a listener 
+   * that is stopped and started again never has two loops.  The loop
+   * holds its thread until the listener stops, so it is submitted as 
+   * long-running work.
+   */
+  private class ListenWork extends LongRunningWork {
+
+    private static final long serialVersionUID = 5349180762114903736L;
+
+    private Connection connection;
+    private Session session;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+      try {
+        List<DestinationListener.Target> snapshot = nextTargets(this);
+        while (snapshot != null) {
+          try {
+            DestinationListener.Target target = destinationListener.listen(
+                session(), snapshot, listenTimeout);
+            if (target != null) {
+              messageReady(target);
+            }
+          }
+          catch (JMSException ex) {
+            logger.warning("shared listener failed; will retry in " 
+                + retryDelay + " ms: " + ex);
+            close();
+            pause(this);
+          }
+          if (!hasTargets()) {
+            close();
+          }
+          snapshot = nextTargets(this);
+        }
+      }
+      catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      finally {
+        close();
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void release() {
+      stop();
+    }
+
+    private Session session() throws JMSException {
+      if (session != null) return session;
+      if (connection == null) {
+        // keep the factories open while the connection is held, even if
+        // the endpoints that use them are deactivated meanwhile
+        resourceAdapter.retainConnectionFactories(spec);
+        try {
+          connection = resourceAdapter.createNonXAConnection(spec);
+        }
+        catch (JMSException | RuntimeException ex) {
+          resourceAdapter.releaseConnectionFactories(spec);
+          throw ex;
+        }
+      }
+      session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+      return session;
+    }
+
+    private void close() {
+      Connection connection = this.connection;
+      this.connection = null;
+      this.session = null;
+      if (connection == null) return;
+      try {
+        connection.close();
+      }
+      catch (JMSException ex) {
+        assert true;  // safe to ignore here
+      }
+      resourceAdapter.releaseConnectionFactories(spec);
+    }
+
+  }
+
+  /**
+   * A {@link Work} that notifies a callback that a message is ready.
+   */
+  private static class ReadyWork implements Work {
+
+    private final Callback callback;
+
+    /**
+     * Constructs a new instance.
+     * @param callback the callback to notify
+     */
+    public ReadyWork(Callback callback) {
+      this.callback = callback;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+      callback.messageReady();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void release() {
+    }
+
+  }
+
+}
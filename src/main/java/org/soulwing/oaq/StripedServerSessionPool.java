@@ -0,0 +1,689 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.ServerSession;
+import javax.jms.ServerSessionPool;
+import javax.resource.spi.UnavailableException;
+
+import org.apache.commons.pool.KeyedPoolableObjectFactory;
+import org.apache.commons.pool.PoolUtils;
+import org.apache.commons.pool.PoolableObjectFactory;
+
+/**
+ * A {@link ResizableServerSessionPool} that keeps idle sessions on a set of
+ * lock-free free lists.
+ * <p>
+ * Idle sessions are distributed over a number of stripes (one per
+ * available processor, rounded up to a power of two), each of which is
+ * a non-blocking deque.  A thread releasing a session pushes it onto the
+ * stripe selected by its thread ID, and a thread borrowing a session
+ * starts its search at its own stripe before stealing from the others.
+ * <p>
+ * The number of sessions that may be borrowed at any one time is bounded
+ * by a semaphore.  When the pool is exhausted, a borrowing thread waits
+ * for a session to be released, for up to the configured maximum wait
+ * time.
+ * <p>
+ * Sessions are bound to the connection on which they were created; the
+ * pool keeps a separate set of stripes for each connection, and
+ * {@link #getServerSessionPool(Connection)} gives a connection consumer
+ * a view of the pool that lends only sessions of its own connection.
+ * The limit on borrowed sessions is shared by all connections.
+ * <p>
+ * An idle session is validated by the object factory before it is handed 
+ * out or returned to a free list; a session that fails validation (for 
+ * example, because its connection has failed) is destroyed.
+ * <p>
+ * Closing the pool destroys its idle sessions, and sessions that are 
+ * subsequently released are destroyed rather than retained.  A closed 
+ * pool can be reopened using {@link #open()}.
+ *
+ * @author Carl Harris
+ */
+public class StripedServerSessionPool implements ResizableServerSessionPool {
+
+  public static final int DEFAULT_MAX_ACTIVE = 8;
+  public static final long DEFAULT_MAX_WAIT = -1;
+
+  private static final Object UNBOUND = new Object();
+
+  private final Logger logger = Logger.getLogger(getClass().getName());
+
+  private final KeyedPoolableObjectFactory<Connection, ServerSession> 
+      objectFactory;
+  private final ConcurrentMap<Object, Stripes> idleSessions =
+      new ConcurrentHashMap<Object, Stripes>();
+  private final ConcurrentMap<ServerSession, Stripes> owners =
+      new ConcurrentHashMap<ServerSession, Stripes>();
+  private final int stripeMask;
+  private final ResizableSemaphore permits;
+  private final AtomicInteger idleCount = new AtomicInteger();
+  private final AtomicLong waitCount = new AtomicLong();
+  private final AtomicLong waitTime = new AtomicLong();
+
+  private volatile int maxActive;
+  private volatile int maxIdle;
+  private volatile EndpointEventLog eventLog;
+  private volatile long maxWait = DEFAULT_MAX_WAIT;
+  private volatile boolean closed;
+
+  /**
+   * Constructs a new instance.
+   * @param objectFactory factory that produces the pooled sessions
+   */
+  public StripedServerSessionPool(
+      PoolableObjectFactory<ServerSession> objectFactory) {
+    this(objectFactory, DEFAULT_MAX_ACTIVE);
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param objectFactory factory that produces the pooled sessions
+   * @param maxActive maximum number of sessions that may be borrowed
+   *    concurrently
+   */
+  public StripedServerSessionPool(
+      PoolableObjectFactory<ServerSession> objectFactory, int maxActive) {
+    this(objectFactory, maxActive,
+        Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param objectFactory factory that produces the pooled sessions
+   * @param maxActive maximum number of sessions that may be borrowed
+   *    concurrently
+   * @param concurrency expected number of concurrently borrowing and
+   *    releasing threads; determines the number of stripes
+   */
+  public StripedServerSessionPool(
+      PoolableObjectFactory<ServerSession> objectFactory, int maxActive,
+      int concurrency) {
+    this(PoolUtils.<Connection, ServerSession>adapt(objectFactory), 
+        maxActive, concurrency);
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param objectFactory factory that produces the pooled sessions, keyed
+   *    by the connection on which each is created
+   * @param maxActive maximum number of sessions that may be borrowed
+   *    concurrently
+   */
+  public StripedServerSessionPool(
+      KeyedPoolableObjectFactory<Connection, ServerSession> objectFactory, 
+      int maxActive) {
+    this(objectFactory, maxActive,
+        Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param objectFactory factory that produces the pooled sessions, keyed
+   *    by the connection on which each is created
+   * @param maxActive maximum number of sessions that may be borrowed
+   *    concurrently
+   * @param concurrency expected number of concurrently borrowing and
+   *    releasing threads; determines the number of stripes per connection
+   */
+  public StripedServerSessionPool(
+      KeyedPoolableObjectFactory<Connection, ServerSession> objectFactory, 
+      int maxActive, int concurrency) {
+    if (maxActive <= 0) {
+      throw new IllegalArgumentException("maxActive must be positive");
+    }
+    int stripeCount = 1;
+    while (stripeCount < concurrency) {
+      stripeCount <<= 1;
+    }
+    this.objectFactory = objectFactory;
+    this.stripeMask = stripeCount - 1;
+    this.maxActive = maxActive;
+    this.maxIdle = maxActive;
+    this.permits = new ResizableSemaphore(maxActive);
+  }
+
+  /**
+   * Gets a session that is not bound to any connection.
+   * <p>
+   * This is suitable only for a pool whose object factory does not 
+   * require a connection to create a session.
+   * @return session
+   * @throws JMSException if the pool is closed or a session cannot be
+   *    obtained
+   */
+  @Override
+  public ServerSession getServerSession() throws JMSException {
+    return getServerSession(null);
+  }
+
+  /**
+   * Gets a session that was created on the given connection, creating
+   * a new session if none is idle.
+   * @param connection the connection of the session to get
+   * @return session
+   * @throws JMSException if the pool is closed or a session cannot be
+   *    obtained
+   */
+  public ServerSession getServerSession(Connection connection) 
+      throws JMSException {
+    EndpointEventLog events = eventLog;
+    if (events == null || !events.isEnabled()) {
+      return borrowSession(connection);
+    }
+    long start = System.nanoTime();
+    ServerSession session = borrowSession(connection);
+    events.sessionAcquired(System.nanoTime() - start);
+    return session;
+  }
+
+  /**
+   * Gets a view of this pool that lends only sessions created on the 
+   * given connection.
+   * <p>
+   * Sessions obtained from the view are released to this pool as usual.
+   * @param connection the connection whose sessions are to be lent
+   * @return session pool view
+   */
+  public ServerSessionPool getServerSessionPool(final Connection connection) {
+    return new ServerSessionPool() {
+      @Override
+      public ServerSession getServerSession() throws JMSException {
+        return StripedServerSessionPool.this.getServerSession(connection);
+      }
+    };
+  }
+
+  private ServerSession borrowSession(Connection connection) 
+      throws JMSException {
+    assertNotClosed();
+    acquirePermit();
+    try {
+      assertNotClosed();
+      Stripes stripes = stripesFor(connection);
+      ServerSession session = pollIdle(stripes);
+      if (session != null) return session;
+      return createSession(stripes);
+    }
+    catch (RuntimeException ex) {
+      permits.release();
+      throw ex;
+    }
+    catch (JMSException ex) {
+      permits.release();
+      throw ex;
+    }
+  }
+
+  /**
+   * Sets the log to which diagnostic events for the pool are written.
+   * @param eventLog the event log to set, or {@code null} if events are
+   *    not to be logged
+   */
+  public void setEventLog(EndpointEventLog eventLog) {
+    this.eventLog = eventLog;
+  }
+
+  /**
+   * Creates a new session that is not bound to any connection and adds it
+   * to the pool as an idle session.
+   * @throws JMSException if the session cannot be created
+   * @see #addSession(Connection)
+   */
+  public void addSession() throws JMSException {
+    addSession(null);
+  }
+
+  /**
+   * Creates a new session on the given connection and adds it to the pool
+   * as an idle session.
+   * <p>
+   * If the pool already holds the maximum number of idle sessions, the 
+   * new session is destroyed.
+   * @param connection the connection on which to create the session
+   * @throws JMSException if the session cannot be created
+   */
+  public void addSession(Connection connection) throws JMSException {
+    assertNotClosed();
+    Stripes stripes = stripesFor(connection);
+    ServerSession session = createSession(stripes);
+    if (closed || idleCount.incrementAndGet() > getMaxIdle()) {
+      idleCount.decrementAndGet();
+      destroy(session);
+      return;
+    }
+    pushIdle(stripes, session);
+  }
+
+  /**
+   * Pushes a session onto the caller's stripe of the given set; the caller
+   * must already have counted the session as idle.
+   * <p>
+   * If the pool was closed or the set was retired concurrently, the 
+   * stripe may already have been drained, so the session is taken back 
+   * and destroyed.
+   * @param stripes the set of stripes for the session's connection
+   * @param session the session to push
+   */
+  private void pushIdle(Stripes stripes, ServerSession session) {
+    ConcurrentLinkedDeque<ServerSession> stripe = 
+        stripes.get(stripeIndex());
+    stripe.offerFirst(session);
+    if ((closed || stripes.retired) 
+        && stripe.removeFirstOccurrence(session)) {
+      idleCount.decrementAndGet();
+      destroy(session);
+    }
+  }
+
+  /**
+   * Destroys each idle session that is no longer valid.
+   */
+  public void evictInvalidSessions() {
+    for (Stripes stripes : idleSessions.values()) {
+      for (ConcurrentLinkedDeque<ServerSession> stripe : stripes) {
+        for (ServerSession session : stripe) {
+          if (!isValid(stripes, session) 
+              && stripe.removeFirstOccurrence(session)) {
+            idleCount.decrementAndGet();
+            destroy(session);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Destroys the idle sessions that were created on the given connection
+   * and discards its stripes.
+   * <p>
+   * A session of the connection that is currently borrowed is destroyed
+   * when it is released.
+   * @param connection the connection whose sessions are to be evicted
+   */
+  public void evictSessions(Connection connection) {
+    Stripes stripes = idleSessions.remove(keyOf(connection));
+    if (stripes == null) return;
+    stripes.retired = true;
+    drain(stripes);
+  }
+
+  private Stripes stripesFor(Connection connection) {
+    Object key = keyOf(connection);
+    Stripes stripes = idleSessions.get(key);
+    if (stripes != null) return stripes;
+    stripes = new Stripes(connection, stripeMask + 1);
+    Stripes existing = idleSessions.putIfAbsent(key, stripes);
+    return existing != null ? existing : stripes;
+  }
+
+  private static Object keyOf(Connection connection) {
+    return connection != null ? connection : UNBOUND;
+  }
+
+  private ServerSession createSession(Stripes stripes) throws JMSException {
+    try {
+      ServerSession session = objectFactory.makeObject(stripes.connection);
+      owners.put(session, stripes);
+      return session;
+    }
+    catch (RuntimeException ex) {
+      throw ex;
+    }
+    catch (UnavailableException ex) {
+      throw (JMSException) new JMSException("cannot create endpoint")
+          .initCause(ex);
+    }
+    catch (JMSException ex) {
+      throw ex;
+    }
+    catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  private void acquirePermit() throws JMSException {
+    if (permits.tryAcquire()) return;
+    waitCount.incrementAndGet();
+    final long start = System.nanoTime();
+    try {
+      long maxWait = getMaxWait();
+      if (maxWait < 0) {
+        permits.acquire();
+      }
+      else if (!permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS)) {
+        throw new JMSException("timed out waiting for a server session");
+      }
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new JMSException("interrupted waiting for a server session");
+    }
+    finally {
+      waitTime.addAndGet(System.nanoTime() - start);
+    }
+  }
+
+  private ServerSession pollIdle(Stripes stripes) {
+    ServerSession session = pollStripes(stripes);
+    while (session != null && !isValid(stripes, session)) {
+      destroy(session);
+      session = pollStripes(stripes);
+    }
+    return session;
+  }
+
+  private ServerSession pollStripes(Stripes stripes) {
+    final int start = stripeIndex();
+    for (int i = 0; i <= stripeMask; i++) {
+      ServerSession session = stripes.get((start + i) & stripeMask)
+          .pollFirst();
+      if (session != null) {
+        idleCount.decrementAndGet();
+        return session;
+      }
+    }
+    return null;
+  }
+
+  private int stripeIndex() {
+    return (int) Thread.currentThread().getId() & stripeMask;
+  }
+
+  /**
+   * Releases a session (obtained via {@link #getServerSession()}) back
+   * to the pool.
+   * @param session
+   */
+  @Override
+  public void releaseSession(ServerSession session) {
+    try {
+      Stripes stripes = owners.get(session);
+      if (stripes == null || stripes.retired || closed 
+          || idleCount.get() >= getMaxIdle() || !isValid(stripes, session)) {
+        destroy(session);
+      }
+      else {
+        idleCount.incrementAndGet();
+        pushIdle(stripes, session);
+      }
+    }
+    finally {
+      permits.release();
+    }
+  }
+
+  /**
+   * Permanently removes a session from the pool.
+   * @param session the session to remove
+   */
+  @Override
+  public void invalidateSession(ServerSession session) {
+    try {
+      destroy(session);
+    }
+    finally {
+      permits.release();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close() {
+    closed = true;
+    for (Stripes stripes : idleSessions.values()) {
+      drain(stripes);
+    }
+  }
+
+  private void drain(Stripes stripes) {
+    for (ConcurrentLinkedDeque<ServerSession> stripe : stripes) {
+      ServerSession session = stripe.pollFirst();
+      while (session != null) {
+        idleCount.decrementAndGet();
+        destroy(session);
+        session = stripe.pollFirst();
+      }
+    }
+  }
+
+  /**
+   * Reopens the pool after it has been closed, so that sessions may again
+   * be borrowed.
+   */
+  public void open() {
+    closed = false;
+  }
+
+  private boolean isValid(Stripes stripes, ServerSession session) {
+    try {
+      return objectFactory.validateObject(stripes.connection, session);
+    }
+    catch (RuntimeException ex) {
+      logger.warning("error validating session: " + ex);
+      return false;
+    }
+  }
+
+  private void destroy(ServerSession session) {
+    Stripes stripes = owners.remove(session);
+    try {
+      objectFactory.destroyObject(
+          stripes != null ? stripes.connection : null, session);
+    }
+    catch (Exception ex) {
+      logger.warning("error destroying session: " + ex);
+    }
+  }
+
+  private void assertNotClosed() throws JMSException {
+    if (closed) {
+      throw new JMSException("session pool is closed");
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getNumActive() {
+    return Math.max(0, getMaxActive() - permits.availablePermits());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getNumIdle() {
+    return Math.max(0, idleCount.get());
+  }
+
+  /**
+   * Gets the number of idle sessions in the pool that were created on
+   * the given connection.
+   * @param connection the subject connection
+   * @return number of sessions
+   */
+  public int getNumIdle(Connection connection) {
+    Stripes stripes = idleSessions.get(keyOf(connection));
+    if (stripes == null) return 0;
+    int count = 0;
+    for (ConcurrentLinkedDeque<ServerSession> stripe : stripes) {
+      count += stripe.size();
+    }
+    return count;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getWaitCount() {
+    return waitCount.get();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getWaitTime() {
+    return TimeUnit.NANOSECONDS.toMillis(waitTime.get());
+  }
+
+  /**
+   * Gets the maximum number of sessions that may be borrowed concurrently.
+   * @return number of sessions
+   */
+  @Override
+  public int getMaxActive() {
+    return maxActive;
+  }
+
+  /**
+   * Sets the maximum number of sessions that may be borrowed concurrently.
+   * <p>
+   * Reducing the limit does not affect sessions that are already borrowed,
+   * but no further sessions will be lent until enough sessions have been
+   * returned to bring the number of active sessions below the new limit.
+   * @param maxActive number of sessions
+   */
+  @Override
+  public synchronized void setMaxActive(int maxActive) {
+    if (maxActive <= 0) {
+      throw new IllegalArgumentException("maxActive must be positive");
+    }
+    int delta = maxActive - this.maxActive;
+    this.maxActive = maxActive;
+    if (delta > 0) {
+      permits.release(delta);
+    }
+    else if (delta < 0) {
+      permits.reducePermits(-delta);
+    }
+  }
+
+  /**
+   * Gets the maximum number of idle sessions to retain in the pool.
+   * @return number of sessions
+   */
+  public int getMaxIdle() {
+    return maxIdle;
+  }
+
+  /**
+   * Sets the maximum number of idle sessions to retain in the pool.
+   * <p>
+   * A session that is released when the pool already holds this many
+   * idle sessions is destroyed.
+   * @param maxIdle number of sessions
+   */
+  public void setMaxIdle(int maxIdle) {
+    this.maxIdle = maxIdle;
+  }
+
+  /**
+   * Gets the maximum amount of time to wait for a session when the pool
+   * is exhausted.
+   * @return wait time in milliseconds; a negative value indicates that
+   *    a borrowing thread will wait indefinitely
+   */
+  public long getMaxWait() {
+    return maxWait;
+  }
+
+  /**
+   * Sets the maximum amount of time to wait for a session when the pool
+   * is exhausted.
+   * @param maxWait wait time in milliseconds; a negative value indicates
+   *    that a borrowing thread should wait indefinitely
+   */
+  public void setMaxWait(long maxWait) {
+    this.maxWait = maxWait;
+  }
+
+  /**
+   * The free lists of idle sessions created on a single connection.
+   */
+  private static class Stripes 
+      extends ArrayList<ConcurrentLinkedDeque<ServerSession>> {
+
+    private static final long serialVersionUID = -3502846275023489017L;
+
+    final Connection connection;
+
+    volatile boolean retired;
+
+    /**
+     * Constructs a new instance.
+     * @param connection connection on which the sessions were created
+     *    or {@code null} if the sessions are not bound to a connection
+     * @param count number of stripes
+     */
+    public Stripes(Connection connection, int count) {
+      super(count);
+      this.connection = connection;
+      for (int i = 0; i < count; i++) {
+        add(new ConcurrentLinkedDeque<ServerSession>());
+      }
+    }
+
+  }
+
+  /**
+   * A {@link Semaphore} whose number of permits can be reduced.
+   */
+  private static class ResizableSemaphore extends Semaphore {
+
+    private static final long serialVersionUID = 8143071870151416349L;
+
+    /**
+     * Constructs a new instance.
+     * @param permits initial number of permits
+     */
+    public ResizableSemaphore(int permits) {
+      super(permits);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reducePermits(int reduction) {
+      super.reducePermits(reduction);
+    }
+
+  }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * A {@link ReconnectScheduler} backed by a single {@link Timer}.
+ * <p>
+ * A resource adapter uses one instance for all of its endpoints, so that
+ * any number of endpoints waiting to reconnect share one timer thread.
+ *
+ * @author Carl Harris
+ */
+class TimerReconnectScheduler implements ReconnectScheduler {
+
+  private final Timer timer;
+
+  /**
+   * Constructs a new instance.
+   * @param timer the timer that will run scheduled tasks
+   */
+  public TimerReconnectScheduler(Timer timer) {
+    this.timer = timer;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public TimerTask schedule(final Runnable task, long delay) {
+    TimerTask timerTask = new TimerTask() {
+      @Override
+      public void run() {
+        task.run();
+      }
+    };
+    timer.schedule(timerTask, Math.max(0, delay));
+    return timerTask;
+  }
+
+  /**
+   * Cancels all scheduled tasks and stops the timer.
+   */
+  public void cancel() {
+    timer.cancel();
+  }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link AdaptiveConcurrencyController}.
+ *
+ * @author Carl Harris
+ */
+public class AdaptiveConcurrencyControllerTest {
+
+  private Mockery mockery = new Mockery();
+
+  private ResizableServerSessionPool sessionPool = 
+      mockery.mock(ResizableServerSessionPool.class);
+
+  @Test
+  public void testIncreasesLimitWhenPoolExhausted() throws Exception {
+    mockery.checking(new Expectations() { {
+      exactly(2).of(sessionPool).getWaitCount();
+      will(onConsecutiveCalls(returnValue(0L), returnValue(3L)));
+      allowing(sessionPool).getMaxActive();
+      will(returnValue(4));
+      oneOf(sessionPool).setMaxActive(5);
+    } });
+
+    AdaptiveConcurrencyController controller = 
+        new AdaptiveConcurrencyController(sessionPool, 1, 8);
+    controller.sessionRunCompleted(100, true);
+    controller.run();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testDecreasesLimitWhenLatencyRises() throws Exception {
+    mockery.checking(new Expectations() { {
+      allowing(sessionPool).getWaitCount();
+      will(returnValue(0L));
+      allowing(sessionPool).getMaxActive();
+      will(returnValue(8));
+      oneOf(sessionPool).setMaxActive(6);
+    } });
+
+    AdaptiveConcurrencyController controller = 
+        new AdaptiveConcurrencyController(sessionPool, 1, 8);
+    controller.sessionRunCompleted(100, true);
+    controller.run();
+    controller.sessionRunCompleted(1000, true);
+    controller.run();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testDoesNotChangeLimitWhenLatencyIsSteady() throws Exception {
+    mockery.checking(new Expectations() { {
+      allowing(sessionPool).getWaitCount();
+      will(returnValue(0L));
+      allowing(sessionPool).getMaxActive();
+      will(returnValue(8));
+      never(sessionPool).setMaxActive(with(any(Integer.class)));
+    } });
+
+    AdaptiveConcurrencyController controller = 
+        new AdaptiveConcurrencyController(sessionPool, 1, 8);
+    for (int i = 0; i < 3; i++) {
+      controller.sessionRunCompleted(100, true);
+      controller.sessionRunCompleted(120, true);
+      controller.run();
+    }
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testDoesNotIncreaseLimitBeyondMaximum() throws Exception {
+    mockery.checking(new Expectations() { {
+      exactly(2).of(sessionPool).getWaitCount();
+      will(onConsecutiveCalls(returnValue(0L), returnValue(3L)));
+      allowing(sessionPool).getMaxActive();
+      will(returnValue(8));
+      never(sessionPool).setMaxActive(with(any(Integer.class)));
+    } });
+
+    AdaptiveConcurrencyController controller = 
+        new AdaptiveConcurrencyController(sessionPool, 1, 8);
+    controller.run();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testDoesNotDecreaseLimitBelowMinimum() throws Exception {
+    mockery.checking(new Expectations() { {
+      allowing(sessionPool).getWaitCount();
+      will(returnValue(0L));
+      allowing(sessionPool).getMaxActive();
+      will(returnValue(2));
+      never(sessionPool).setMaxActive(with(any(Integer.class)));
+    } });
+
+    AdaptiveConcurrencyController controller = 
+        new AdaptiveConcurrencyController(sessionPool, 2, 8);
+    controller.sessionRunCompleted(100, true);
+    controller.run();
+    controller.sessionRunCompleted(1000, true);
+    controller.run();
+    mockery.assertIsSatisfied();
+  }
+
+}
@@ -0,0 +1,288 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.jms.Message;
+import javax.jms.Session;
+import javax.resource.spi.endpoint.MessageEndpoint;
+
+import org.hamcrest.Matcher;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.Sequence;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link BatchMessageEndpointProxy}.
+ *
+ * @author Carl Harris
+ */
+public class BatchMessageEndpointProxyTest {
+
+  private Mockery mockery = new Mockery();
+
+  private BatchEndpoint endpoint = mockery.mock(BatchEndpoint.class);
+
+  private Message message1 = mockery.mock(Message.class, "message1");
+
+  private Message message2 = mockery.mock(Message.class, "message2");
+
+  private Message message3 = mockery.mock(Message.class, "message3");
+
+  private Message redelivered = mockery.mock(Message.class, "redelivered");
+
+  private Session session = mockery.mock(Session.class);
+
+  private Sequence sequence = mockery.sequence("delivery");
+
+  @Test
+  public void testDeliverFullBatch() throws Exception {
+    BatchMessageEndpointProxy proxy = 
+        new BatchMessageEndpointProxy(endpoint, 2, 0);
+    mockery.checking(new Expectations() { {
+      allowing(any(Message.class)).method("getJMSRedelivered");
+      will(returnValue(false));
+      oneOf(endpoint).beforeDelivery(with(onMessagesMethod()));
+      inSequence(sequence);
+      oneOf(endpoint).onMessages(with(messages(message1, message2)));
+      inSequence(sequence);
+      oneOf(endpoint).afterDelivery();
+      inSequence(sequence);
+      oneOf(endpoint).beforeDelivery(with(onMessagesMethod()));
+      inSequence(sequence);
+      oneOf(endpoint).onMessages(with(messages(message3)));
+      inSequence(sequence);
+      oneOf(endpoint).afterDelivery();
+      inSequence(sequence);
+    } });
+
+    proxy.onMessage(message1);
+    proxy.onMessage(message2);
+    proxy.onMessage(message3);
+    proxy.sessionRunCompleted();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testDeliverRedeliveredMessageInSeparateBatch() 
+      throws Exception {
+    BatchMessageEndpointProxy proxy = 
+        new BatchMessageEndpointProxy(endpoint, 10, 0);
+    mockery.checking(new Expectations() { {
+      allowing(message1).getJMSRedelivered();
+      will(returnValue(false));
+      allowing(redelivered).getJMSRedelivered();
+      will(returnValue(true));
+      oneOf(endpoint).beforeDelivery(with(onMessagesMethod()));
+      inSequence(sequence);
+      oneOf(endpoint).onMessages(with(messages(message1)));
+      inSequence(sequence);
+      oneOf(endpoint).afterDelivery();
+      inSequence(sequence);
+      oneOf(endpoint).beforeDelivery(with(onMessagesMethod()));
+      inSequence(sequence);
+      oneOf(endpoint).onMessages(with(messages(redelivered)));
+      inSequence(sequence);
+      oneOf(endpoint).afterDelivery();
+      inSequence(sequence);
+    } });
+
+    proxy.onMessage(message1);
+    proxy.onMessage(redelivered);
+    proxy.sessionRunCompleted();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testCompleteBatchWhenListenerThrows() throws Exception {
+    final RuntimeException ex = new RuntimeException("mock exception");
+    BatchMessageEndpointProxy proxy = 
+        new BatchMessageEndpointProxy(endpoint, 10, 0);
+    mockery.checking(new Expectations() { {
+      allowing(message1).getJMSRedelivered();
+      will(returnValue(false));
+      oneOf(endpoint).beforeDelivery(with(onMessagesMethod()));
+      inSequence(sequence);
+      oneOf(endpoint).onMessages(with(messages(message1)));
+      inSequence(sequence);
+      will(throwException(ex));
+      oneOf(endpoint).afterDelivery();
+      inSequence(sequence);
+    } });
+
+    proxy.onMessage(message1);
+    try {
+      proxy.sessionRunCompleted();
+      fail("expected ListenerFailedException");
+    }
+    catch (ListenerFailedException thrown) {
+      assertThat(thrown.getCause(), sameInstance((Throwable) ex));
+    }
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testFailedBatchIsNotChargedToItsMessages() throws Exception {
+    DeliveryFailureTracker tracker = new DeliveryFailureTracker();
+    BatchMessageEndpointProxy proxy = new BatchMessageEndpointProxy(
+        endpoint, 10, 0, new MessageQuarantine(tracker, 1, null, "EXQ"));
+    mockery.checking(new Expectations() { {
+      allowing(any(Message.class)).method("getJMSRedelivered");
+      will(returnValue(false));
+      allowing(message1).getJMSMessageID();
+      will(returnValue("ID:1"));
+      allowing(message2).getJMSMessageID();
+      will(returnValue("ID:2"));
+      oneOf(endpoint).beforeDelivery(with(onMessagesMethod()));
+      oneOf(endpoint).onMessages(with(messages(message1, message2)));
+      will(throwException(new RuntimeException("mock exception")));
+      oneOf(endpoint).afterDelivery();
+    } });
+
+    proxy.onMessage(message1);
+    proxy.onMessage(message2);
+    try {
+      proxy.sessionRunCompleted();
+      fail("expected ListenerFailedException");
+    }
+    catch (ListenerFailedException ex) {
+      assertThat(tracker.size(), equalTo(0));
+    }
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testFailedSingleDeliveryIsCharged() throws Exception {
+    DeliveryFailureTracker tracker = new DeliveryFailureTracker();
+    BatchMessageEndpointProxy proxy = new BatchMessageEndpointProxy(
+        endpoint, 10, 0, new MessageQuarantine(tracker, 2, null, "EXQ"));
+    mockery.checking(new Expectations() { {
+      allowing(redelivered).getJMSRedelivered();
+      will(returnValue(true));
+      allowing(redelivered).getJMSMessageID();
+      will(returnValue("ID:1"));
+      oneOf(endpoint).beforeDelivery(with(onMessagesMethod()));
+      oneOf(endpoint).onMessages(with(messages(redelivered)));
+      will(throwException(new RuntimeException("mock exception")));
+      oneOf(endpoint).afterDelivery();
+    } });
+
+    try {
+      proxy.onMessage(redelivered);
+      fail("expected ListenerFailedException");
+    }
+    catch (ListenerFailedException ex) {
+      assertThat(tracker.getFailureCount("ID:1"), equalTo(1));
+    }
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testAcknowledgeBatchAfterDelivery() throws Exception {
+    BatchMessageEndpointProxy proxy = 
+        new BatchMessageEndpointProxy(endpoint, 10, 0);
+    proxy.setAcknowledgeSession(session);
+    mockery.checking(new Expectations() { {
+      allowing(any(Message.class)).method("getJMSRedelivered");
+      will(returnValue(false));
+      oneOf(endpoint).beforeDelivery(with(onMessagesMethod()));
+      inSequence(sequence);
+      oneOf(endpoint).onMessages(with(messages(message1, message2)));
+      inSequence(sequence);
+      oneOf(endpoint).afterDelivery();
+      inSequence(sequence);
+      oneOf(message2).acknowledge();
+      inSequence(sequence);
+    } });
+
+    proxy.onMessage(message1);
+    proxy.onMessage(message2);
+    proxy.sessionRunCompleted();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testRecoverWhenBufferedBatchFails() throws Exception {
+    final RuntimeException ex = new RuntimeException("mock exception");
+    BatchMessageEndpointProxy proxy = 
+        new BatchMessageEndpointProxy(endpoint, 10, 0);
+    proxy.setAcknowledgeSession(session);
+    mockery.checking(new Expectations() { {
+      allowing(any(Message.class)).method("getJMSRedelivered");
+      will(returnValue(false));
+      oneOf(endpoint).beforeDelivery(with(onMessagesMethod()));
+      inSequence(sequence);
+      oneOf(endpoint).onMessages(with(messages(message1, message2)));
+      inSequence(sequence);
+      will(throwException(ex));
+      oneOf(endpoint).afterDelivery();
+      inSequence(sequence);
+      oneOf(session).recover();
+      inSequence(sequence);
+      never(message1).acknowledge();
+      never(message2).acknowledge();
+    } });
+
+    proxy.onMessage(message1);
+    proxy.onMessage(message2);
+    try {
+      proxy.sessionRunCompleted();
+      fail("expected ListenerFailedException");
+    }
+    catch (ListenerFailedException thrown) {
+      assertThat(thrown.getCause(), sameInstance((Throwable) ex));
+    }
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testRunCompletedWithEmptyBatch() throws Exception {
+    BatchMessageEndpointProxy proxy = 
+        new BatchMessageEndpointProxy(endpoint, 10, 0);
+    proxy.sessionRunCompleted();
+    mockery.assertIsSatisfied();
+  }
+
+  private static Matcher<Method> onMessagesMethod() 
+      throws NoSuchMethodException {
+    return equalTo(BatchMessageListener.class.getMethod("onMessages", 
+        List.class));
+  }
+
+  private static Matcher<List<Message>> messages(Message... messages) {
+    return equalTo(Arrays.asList(messages));
+  }
+
+  /**
+   * A message endpoint for a message-driven bean that implements
+   * {@link BatchMessageListener}.
+   */
+  interface BatchEndpoint extends MessageEndpoint, BatchMessageListener {
+  }
+
+}
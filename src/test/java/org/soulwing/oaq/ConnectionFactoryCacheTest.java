@@ -0,0 +1,139 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import javax.jms.XAConnectionFactory;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ConnectionFactoryCache}.
+ *
+ * @author Carl Harris
+ */
+public class ConnectionFactoryCacheTest {
+
+  private Mockery mockery = new Mockery();
+
+  private MessageConnectionFactoryProvider provider = 
+      mockery.mock(MessageConnectionFactoryProvider.class);
+
+  private XAConnectionFactory factory1 = 
+      mockery.mock(XAConnectionFactory.class, "factory1");
+
+  private XAConnectionFactory factory2 = 
+      mockery.mock(XAConnectionFactory.class, "factory2");
+
+  private ConnectionFactoryCache cache = new ConnectionFactoryCache(provider);
+
+  @After
+  public void tearDown() throws Exception {
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testSharesFactoryForEqualInfo() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(provider).createConnectionFactory(newInfo("user1"));
+      will(returnValue(factory1));
+    } });
+
+    assertThat(cache.getConnectionFactory(newInfo("user1")), 
+        sameInstance(factory1));
+    assertThat(cache.getConnectionFactory(newInfo("user1")), 
+        sameInstance(factory1));
+    assertThat(cache.size(), equalTo(1));
+  }
+
+  @Test
+  public void testCreatesFactoryForEachUser() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(provider).createConnectionFactory(newInfo("user1"));
+      will(returnValue(factory1));
+      oneOf(provider).createConnectionFactory(newInfo("user2"));
+      will(returnValue(factory2));
+    } });
+
+    assertThat(cache.getConnectionFactory(newInfo("user1")), 
+        sameInstance(factory1));
+    assertThat(cache.getConnectionFactory(newInfo("user2")), 
+        sameInstance(factory2));
+    assertThat(cache.size(), equalTo(2));
+  }
+
+  @Test
+  public void testKeyIsNotAffectedByCallerChanges() throws Exception {
+    final OAQConnectionRequestInfo info = newInfo("user1");
+    mockery.checking(new Expectations() { {
+      oneOf(provider).createConnectionFactory(newInfo("user1"));
+      will(returnValue(factory1));
+    } });
+
+    cache.getConnectionFactory(info);
+    info.setUsername("user2");
+    assertThat(cache.getConnectionFactory(newInfo("user1")), 
+        sameInstance(factory1));
+  }
+
+  @Test
+  public void testCloseEvictsFactories() throws Exception {
+    mockery.checking(new Expectations() { {
+      exactly(2).of(provider).createConnectionFactory(newInfo("user1"));
+      will(onConsecutiveCalls(returnValue(factory1), returnValue(factory2)));
+    } });
+
+    cache.getConnectionFactory(newInfo("user1"));
+    cache.close();
+    assertThat(cache.size(), equalTo(0));
+    assertThat(cache.getConnectionFactory(newInfo("user1")), 
+        sameInstance(factory2));
+  }
+
+  @Test
+  public void testEvictsWhenLastEndpointReleases() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(provider).createConnectionFactory(newInfo("user1"));
+      will(returnValue(factory1));
+    } });
+
+    cache.retain(newInfo("user1"));
+    cache.retain(newInfo("user1"));
+    cache.getConnectionFactory(newInfo("user1"));
+    cache.release(newInfo("user1"));
+    assertThat(cache.size(), equalTo(1));
+    cache.release(newInfo("user1"));
+    assertThat(cache.size(), equalTo(0));
+  }
+
+  private OAQConnectionRequestInfo newInfo(String username) {
+    OAQConnectionRequestInfo info = new OAQConnectionRequestInfo();
+    info.setDatabaseUrl("jdbc:oracle:thin:@localhost:1521/ORCL");
+    info.setUsername(username);
+    info.setPassword("password");
+    return info;
+  }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import javax.jms.JMSException;
+import javax.jms.XAConnection;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ConnectionGovernor}.
+ *
+ * @author Carl Harris
+ */
+public class ConnectionGovernorTest {
+
+  private static final long MAX_WAIT = 10;
+
+  private Mockery mockery = new Mockery();
+
+  private XAConnection connection = mockery.mock(XAConnection.class);
+
+  private ConnectionGovernor governor = new ConnectionGovernor(1, MAX_WAIT);
+
+  @After
+  public void tearDown() throws Exception {
+    mockery.assertIsSatisfied();
+  }
+
+  @Test(expected = JMSException.class)
+  public void testLimitsConnections() throws Exception {
+    governor.acquire();
+    governor.acquire();
+  }
+
+  @Test
+  public void testCloseReleasesPermit() throws Exception {
+    mockery.checking(new Expectations() { {
+      exactly(2).of(connection).close();
+    } });
+
+    governor.acquire();
+    XAConnection governed = governor.track(connection, XAConnection.class);
+    assertThat(governed, is(not(sameInstance(connection))));
+    assertThat(governor.getAvailablePermits(), equalTo(0));
+    governed.close();
+    assertThat(governor.getAvailablePermits(), equalTo(1));
+    governed.close();
+    assertThat(governor.getAvailablePermits(), equalTo(1));
+  }
+
+  @Test
+  public void testDelegatesToConnection() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(connection).start();
+    } });
+
+    governor.acquire();
+    XAConnection governed = governor.track(connection, XAConnection.class);
+    governed.start();
+    assertThat(governed.equals(governed), is(true));
+    assertThat(governed.equals(connection), is(false));
+    assertThat(governor.getAvailablePermits(), equalTo(0));
+  }
+
+  @Test
+  public void testReleaseReturnsPermit() throws Exception {
+    governor.acquire();
+    governor.release();
+    governor.acquire();
+    assertThat(governor.getAvailablePermits(), equalTo(0));
+  }
+
+  @Test(expected = JMSException.class)
+  public void testTryAcquireDoesNotWait() throws Exception {
+    governor.acquire();
+    governor.tryAcquire(new Object(), 1);
+  }
+
+  @Test
+  public void testLimitsConnectionsPerOwner() throws Exception {
+    Object owner = new Object();
+    ConnectionGovernor governor = new ConnectionGovernor(2, MAX_WAIT);
+    governor.tryAcquire(owner, 1);
+    try {
+      governor.tryAcquire(owner, 1);
+      throw new AssertionError("expected JMSException");
+    }
+    catch (JMSException ex) {
+      assert true;  // expected
+    }
+    governor.tryAcquire(new Object(), 1);
+    assertThat(governor.getAvailablePermits(), equalTo(0));
+  }
+
+  @Test
+  public void testCloseReleasesOwnerPermit() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(connection).close();
+    } });
+
+    Object owner = new Object();
+    governor.tryAcquire(owner, 1);
+    XAConnection governed = governor.track(connection, XAConnection.class,
+        owner);
+    governed.close();
+    assertThat(governor.getAvailablePermits(), equalTo(1));
+    governor.tryAcquire(owner, 1);
+    assertThat(governor.getAvailablePermits(), equalTo(0));
+  }
+
+}
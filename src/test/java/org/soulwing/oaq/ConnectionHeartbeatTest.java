@@ -0,0 +1,197 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.jmock.lib.script.ScriptedAction.perform;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jms.Connection;
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.Session;
+import javax.resource.spi.work.Work;
+import javax.resource.spi.work.WorkManager;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.api.Action;
+import org.jmock.api.Invocation;
+import org.jmock.lib.action.CustomAction;
+import org.jmock.lib.action.DoAllAction;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ConnectionHeartbeat}.
+ *
+ * @author Carl Harris
+ */
+public class ConnectionHeartbeatTest {
+
+  private static final long INTERVAL = 1000;
+  private static final long TIMEOUT = 500;
+
+  private Mockery mockery = new Mockery();
+
+  private Connection connection = mockery.mock(Connection.class);
+
+  private Session session = mockery.mock(Session.class);
+
+  private ExceptionListener listener = 
+      mockery.mock(ExceptionListener.class);
+
+  private ConnectionValidator validator = 
+      mockery.mock(ConnectionValidator.class);
+
+  private ReconnectScheduler scheduler = 
+      mockery.mock(ReconnectScheduler.class);
+
+  private WorkManager workManager = mockery.mock(WorkManager.class);
+
+  private List<Runnable> tasks = new ArrayList<Runnable>();
+
+  private ConnectionHeartbeat heartbeat = new ConnectionHeartbeat(
+      connection, listener, validator, scheduler, workManager, 
+      INTERVAL, TIMEOUT);
+
+  @After
+  public void tearDown() throws Exception {
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testValidatesOnSchedule() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(scheduler).schedule(with(any(Runnable.class)), with(INTERVAL));
+      will(scheduled());
+    } });
+
+    heartbeat.start();
+    mockery.assertIsSatisfied();
+
+    mockery.checking(new Expectations() { {
+      oneOf(scheduler).schedule(with(any(Runnable.class)), with(TIMEOUT));
+      will(scheduled());
+      oneOf(workManager).scheduleWork(with(same(heartbeat)));
+      will(perform("$0.run()"));
+      oneOf(connection).createSession(false, Session.AUTO_ACKNOWLEDGE);
+      will(returnValue(session));
+      oneOf(validator).validate(session, TIMEOUT);
+      oneOf(scheduler).schedule(with(any(Runnable.class)), with(INTERVAL));
+      will(scheduled());
+    } });
+
+    tasks.get(0).run();
+    mockery.assertIsSatisfied();
+
+    // the deadline passes after the validation completed
+    tasks.get(1).run();
+    assertThat(heartbeat.isRunning(), is(true));
+
+    mockery.checking(new Expectations() { {
+      oneOf(session).close();
+    } });
+
+    heartbeat.stop();
+  }
+
+  @Test
+  public void testFailsWhenValidationFails() throws Exception {
+    final JMSException ex = new JMSException("mock");
+    mockery.checking(new Expectations() { {
+      oneOf(scheduler).schedule(with(any(Runnable.class)), with(INTERVAL));
+      will(scheduled());
+      oneOf(scheduler).schedule(with(any(Runnable.class)), with(TIMEOUT));
+      will(scheduled());
+      oneOf(workManager).scheduleWork(with(same(heartbeat)));
+      will(perform("$0.run()"));
+      oneOf(connection).createSession(false, Session.AUTO_ACKNOWLEDGE);
+      will(returnValue(session));
+      oneOf(validator).validate(session, TIMEOUT);
+      will(throwException(ex));
+      oneOf(workManager).scheduleWork(with(any(Work.class)));
+      will(perform("$0.run()"));
+      oneOf(listener).onException(ex);
+    } });
+
+    heartbeat.start();
+    tasks.get(0).run();
+    assertThat(heartbeat.isRunning(), is(false));
+  }
+
+  @Test
+  public void testFailsWhenDeadlineMissed() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(scheduler).schedule(with(any(Runnable.class)), with(INTERVAL));
+      will(scheduled());
+      oneOf(workManager).scheduleWork(with(same(heartbeat)));
+      will(perform("$0.run()"));
+      oneOf(scheduler).schedule(with(any(Runnable.class)), with(TIMEOUT));
+      will(scheduled());
+      oneOf(connection).createSession(false, Session.AUTO_ACKNOWLEDGE);
+      will(returnValue(session));
+      // the deadline passes while the validation is still in progress
+      oneOf(validator).validate(session, TIMEOUT);
+      will(runTask(1));
+      oneOf(workManager).scheduleWork(with(any(Work.class)));
+      will(perform("$0.run()"));
+      oneOf(listener).onException(with(any(JMSException.class)));
+    } });
+
+    heartbeat.start();
+    tasks.get(0).run();
+    assertThat(heartbeat.isRunning(), is(false));
+  }
+
+  @Test
+  public void testDeadlineNotStartedUntilValidationRuns() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(scheduler).schedule(with(any(Runnable.class)), with(INTERVAL));
+      will(scheduled());
+      // the work is queued, waiting for a work manager thread
+      oneOf(workManager).scheduleWork(with(same(heartbeat)));
+    } });
+
+    heartbeat.start();
+    tasks.get(0).run();
+    assertThat(tasks.size(), is(1));
+    assertThat(heartbeat.isRunning(), is(true));
+  }
+
+  private Action runTask(final int index) {
+    return new CustomAction("run scheduled task") {
+      @Override
+      public Object invoke(Invocation invocation) throws Throwable {
+        tasks.get(index).run();
+        return null;
+      }
+    };
+  }
+
+  private DoAllAction scheduled() {
+    return new DoAllAction(
+        perform("tasks.add($0)").where("tasks", tasks),
+        Expectations.returnValue(null));
+  }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link DeliveryFailureTracker}.
+ *
+ * @author Carl Harris
+ */
+public class DeliveryFailureTrackerTest {
+
+  private DeliveryFailureTracker tracker = new DeliveryFailureTracker(2);
+
+  @Test
+  public void testCountsFailures() throws Exception {
+    assertThat(tracker.deliveryFailed("ID:1"), equalTo(1));
+    assertThat(tracker.deliveryFailed("ID:1"), equalTo(2));
+    assertThat(tracker.getFailureCount("ID:1"), equalTo(2));
+    assertThat(tracker.getFailureCount("ID:2"), equalTo(0));
+  }
+
+  @Test
+  public void testSuccessDiscardsFailures() throws Exception {
+    tracker.deliveryFailed("ID:1");
+    tracker.deliverySucceeded("ID:1");
+    assertThat(tracker.getFailureCount("ID:1"), equalTo(0));
+    assertThat(tracker.size(), equalTo(0));
+  }
+
+  @Test
+  public void testDiscardsLeastRecentlyUsed() throws Exception {
+    tracker.deliveryFailed("ID:1");
+    tracker.deliveryFailed("ID:2");
+    tracker.deliveryFailed("ID:1");
+    tracker.deliveryFailed("ID:3");
+    assertThat(tracker.size(), equalTo(2));
+    assertThat(tracker.getFailureCount("ID:1"), equalTo(2));
+    assertThat(tracker.getFailureCount("ID:2"), equalTo(0));
+    assertThat(tracker.getFailureCount("ID:3"), equalTo(1));
+  }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link EndpointEventLog}.
+ *
+ * @author Carl Harris
+ */
+public class EndpointEventLogTest {
+
+  private final Logger logger = 
+      Logger.getLogger(EndpointEventLog.LOGGER_NAME);
+
+  private final List<String> messages = new ArrayList<String>();
+
+  private final Handler handler = new Handler() {
+    @Override
+    public void publish(LogRecord record) {
+      messages.add(record.getMessage());
+    }
+    @Override
+    public void flush() {
+    }
+    @Override
+    public void close() {
+    }
+  };
+
+  private EndpointEventLog eventLog = 
+      new EndpointEventLog("endpoint", "QUEUE");
+
+  @Before
+  public void setUp() throws Exception {
+    logger.addHandler(handler);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    logger.removeHandler(handler);
+    logger.setLevel(null);
+  }
+
+  @Test
+  public void testDisabledByDefault() throws Exception {
+    assertThat(eventLog.isEnabled(), equalTo(false));
+  }
+
+  @Test
+  public void testLogDeliveryWhenEnabled() throws Exception {
+    logger.setLevel(Level.FINE);
+    assertThat(eventLog.isEnabled(), equalTo(true));
+    eventLog.delivery(TimeUnit.MICROSECONDS.toNanos(1), 
+        TimeUnit.MICROSECONDS.toNanos(2), TimeUnit.MICROSECONDS.toNanos(3),
+        true);
+    assertThat(messages.size(), equalTo(1));
+    assertThat(messages.get(0), containsString(
+        "event=delivery endpoint=endpoint destination=QUEUE "
+        + "beforeDelivery=1 onMessage=2 afterDelivery=3 successful=true"));
+  }
+
+}
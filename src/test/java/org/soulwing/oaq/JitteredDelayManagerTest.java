@@ -0,0 +1,82 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link JitteredDelayManager}.
+ *
+ * @author Carl Harris
+ */
+public class JitteredDelayManagerTest {
+
+  private static final long PERIOD = 100;
+  private static final long MAX_DELAY = 1000;
+  private static final int ATTEMPTS = 100;
+
+  @Test
+  public void testFullJitter() throws Exception {
+    JitteredDelayManager delayManager = newDelayManager(
+        JitteredDelayManager.Strategy.FULL);
+    for (int i = 0; i < ATTEMPTS; i++) {
+      long limit = Math.min(MAX_DELAY, PERIOD << Math.min(i, 10));
+      long delay = delayManager.nextDelay();
+      assertThat(delay, greaterThanOrEqualTo(0L));
+      assertThat(delay, lessThanOrEqualTo(limit));
+    }
+  }
+
+  @Test
+  public void testDecorrelatedJitter() throws Exception {
+    JitteredDelayManager delayManager = newDelayManager(
+        JitteredDelayManager.Strategy.DECORRELATED);
+    long lastDelay = PERIOD;
+    for (int i = 0; i < ATTEMPTS; i++) {
+      long delay = delayManager.nextDelay();
+      assertThat(delay, greaterThanOrEqualTo(PERIOD));
+      assertThat(delay, lessThanOrEqualTo(Math.min(MAX_DELAY, 3*lastDelay)));
+      lastDelay = delay;
+    }
+  }
+
+  @Test
+  public void testDecorrelatedJitterAfterReset() throws Exception {
+    JitteredDelayManager delayManager = newDelayManager(
+        JitteredDelayManager.Strategy.DECORRELATED);
+    for (int i = 0; i < ATTEMPTS; i++) {
+      delayManager.nextDelay();
+    }
+    delayManager.reset();
+    assertThat(delayManager.nextDelay(), lessThanOrEqualTo(3*PERIOD));
+  }
+
+  private JitteredDelayManager newDelayManager(
+      JitteredDelayManager.Strategy strategy) {
+    JitteredDelayManager delayManager = new JitteredDelayManager(strategy);
+    delayManager.setPeriod(PERIOD);
+    delayManager.setMaxDelay(MAX_DELAY);
+    return delayManager;
+  }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.jmock.lib.script.ScriptedAction.perform;
+import static org.junit.Assert.fail;
+
+import javax.jms.Message;
+import javax.jms.Session;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.Sequence;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LazyAcknowledger}.
+ *
+ * @author Carl Harris
+ */
+public class LazyAcknowledgerTest {
+
+  private Mockery mockery = new Mockery();
+
+  private SessionRunListener delegate = 
+      mockery.mock(SessionRunListener.class);
+
+  private Session session = mockery.mock(Session.class);
+
+  private Message message = mockery.mock(Message.class, "message");
+
+  private Message lastMessage = mockery.mock(Message.class, "lastMessage");
+
+  private Sequence sequence = mockery.sequence("delivery");
+
+  @Test
+  public void testAcknowledgeWhenBatchIsFull() throws Exception {
+    LazyAcknowledger acknowledger = 
+        new LazyAcknowledger(delegate, session, 3, 0);
+    mockery.checking(new Expectations() { {
+      exactly(2).of(delegate).onMessage(with(same(message)));
+      inSequence(sequence);
+      oneOf(delegate).onMessage(with(same(lastMessage)));
+      inSequence(sequence);
+      oneOf(lastMessage).acknowledge();
+      inSequence(sequence);
+    } });
+
+    acknowledger.onMessage(message);
+    acknowledger.onMessage(message);
+    acknowledger.onMessage(lastMessage);
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testAcknowledgeWhenTimeoutExpires() throws Exception {
+    LazyAcknowledger acknowledger = 
+        new LazyAcknowledger(delegate, session, 3, 1);
+    mockery.checking(new Expectations() { {
+      oneOf(delegate).onMessage(with(same(message)));
+      inSequence(sequence);
+      will(perform("Thread.sleep(10L)"));
+      oneOf(message).acknowledge();
+      inSequence(sequence);
+    } });
+
+    acknowledger.onMessage(message);
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testAcknowledgeWhenSessionRunCompleted() throws Exception {
+    LazyAcknowledger acknowledger = 
+        new LazyAcknowledger(delegate, session, 3, 0);
+    mockery.checking(new Expectations() { {
+      oneOf(delegate).onMessage(with(same(message)));
+      inSequence(sequence);
+      oneOf(delegate).onMessage(with(same(lastMessage)));
+      inSequence(sequence);
+      oneOf(delegate).sessionRunCompleted();
+      inSequence(sequence);
+      oneOf(lastMessage).acknowledge();
+      inSequence(sequence);
+    } });
+
+    acknowledger.onMessage(message);
+    acknowledger.onMessage(lastMessage);
+    acknowledger.sessionRunCompleted();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testSessionRunCompletedWithNothingToAcknowledge() 
+      throws Exception {
+    LazyAcknowledger acknowledger = 
+        new LazyAcknowledger(delegate, session, 1, 0);
+    mockery.checking(new Expectations() { {
+      oneOf(delegate).onMessage(with(same(message)));
+      oneOf(message).acknowledge();
+      oneOf(delegate).sessionRunCompleted();
+    } });
+
+    acknowledger.onMessage(message);
+    acknowledger.sessionRunCompleted();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testRecoverWhenListenerThrows() throws Exception {
+    final RuntimeException ex = new RuntimeException();
+    LazyAcknowledger acknowledger = 
+        new LazyAcknowledger(delegate, session, 3, 0);
+    mockery.checking(new Expectations() { {
+      oneOf(delegate).onMessage(with(same(message)));
+      inSequence(sequence);
+      oneOf(delegate).onMessage(with(same(lastMessage)));
+      inSequence(sequence);
+      will(throwException(ex));
+      oneOf(session).recover();
+      inSequence(sequence);
+      oneOf(delegate).sessionRunCompleted();
+      inSequence(sequence);
+    } });
+
+    acknowledger.onMessage(message);
+    try {
+      acknowledger.onMessage(lastMessage);
+      fail("expected RuntimeException");
+    }
+    catch (RuntimeException thrown) {
+      assertThat(thrown, sameInstance(ex));
+    }
+    acknowledger.sessionRunCompleted();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testRecoverWhenSessionRunCompletedThrows() throws Exception {
+    final RuntimeException ex = new RuntimeException();
+    LazyAcknowledger acknowledger = 
+        new LazyAcknowledger(delegate, session, 3, 0);
+    mockery.checking(new Expectations() { {
+      oneOf(delegate).onMessage(with(same(message)));
+      inSequence(sequence);
+      oneOf(delegate).sessionRunCompleted();
+      inSequence(sequence);
+      will(throwException(ex));
+      oneOf(session).recover();
+      inSequence(sequence);
+      never(message).acknowledge();
+    } });
+
+    acknowledger.onMessage(message);
+    try {
+      acknowledger.sessionRunCompleted();
+      fail("expected RuntimeException");
+    }
+    catch (RuntimeException thrown) {
+      assertThat(thrown, sameInstance(ex));
+    }
+    mockery.assertIsSatisfied();
+  }
+
+}
@@ -18,11 +18,15 @@
  */
 package org.soulwing.oaq;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.jmock.lib.script.ScriptedAction.perform;
 
 import javax.jms.ExceptionListener;
 import javax.jms.JMSException;
+import javax.jms.Session;
 import javax.jms.XAConnection;
+import javax.resource.spi.work.Work;
 import javax.resource.spi.work.WorkManager;
 
 import org.jmock.Expectations;
@@ -70,7 +74,7 @@ public class MessageEndpointConnectorTest {
       will(perform("$0.run()"));
       
       // the run loop creates, configures, and starts the connection
-      oneOf(endpoint).createXAConnection();
+      oneOf(endpoint).createConnection();
       will(returnValue(connection));
       oneOf(connection).setExceptionListener(with(any(ExceptionListener.class)));
       oneOf(connection).start();
@@ -105,7 +109,7 @@ public class MessageEndpointConnectorTest {
       
       // the run loop creates, configures, and starts a connection 
       // failCount + 1 times
-      exactly(failCount + 1).of(endpoint).createXAConnection();
+      exactly(failCount + 1).of(endpoint).createConnection();
       will(returnValue(connection));
       exactly(failCount + 1).of(connection).setExceptionListener(
           with(any(ExceptionListener.class)));
@@ -142,7 +146,7 @@ public class MessageEndpointConnectorTest {
       // exactly twice, the run loop creates, configures, and 
       // starts a connection; once for the initial success, and again
       // on the reconnect after the connection fails
-      exactly(2).of(endpoint).createXAConnection();
+      exactly(2).of(endpoint).createConnection();
       will(returnValue(connection));
       exactly(2).of(connection).setExceptionListener(
           with(any(ExceptionListener.class)));
@@ -195,7 +199,7 @@ public class MessageEndpointConnectorTest {
       // starts a connection; once for the initial success, failCount
       // times for failed reconnect attempts, and once more for the successful
       // reconnect
-      exactly(failCount + 2).of(endpoint).createXAConnection();
+      exactly(failCount + 2).of(endpoint).createConnection();
       will(returnValue(connection));
       exactly(failCount + 2).of(connection).setExceptionListener(
           with(any(ExceptionListener.class)));
@@ -225,4 +229,248 @@ public class MessageEndpointConnectorTest {
     mockery.assertIsSatisfied();
   }
 
+  @Test
+  public void testRetriesWhenNotReady() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(endpoint).getWorkManager();
+      will(returnValue(workManager));
+      oneOf(workManager).doWork(with(same(connector)));
+      will(perform("$0.run()"));
+      
+      exactly(2).of(endpoint).createConnection();
+      will(returnValue(connection));
+      exactly(2).of(connection).setExceptionListener(
+          with(any(ExceptionListener.class)));
+      exactly(2).of(connection).start();
+      exactly(2).of(delayManager).reset();
+
+      // the first time the callback cannot use the connection, so the 
+      // connection is cleaned up and the connector tries again
+      exactly(2).of(callback).connectionReady(with(same(connection)));
+      will(onConsecutiveCalls(
+          throwException(new JMSException("mock")), 
+          VoidAction.INSTANCE));
+      oneOf(callback).connectionFailed(with(same(connection)));
+      oneOf(connection).close();
+      oneOf(delayManager).pause();
+    } });
+    
+    connector.start();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testSchedulesReconnect() throws Exception {
+    final ReconnectScheduler scheduler = 
+        mockery.mock(ReconnectScheduler.class);
+    final MessageEndpointConnector connector = new MessageEndpointConnector(
+        endpoint, callback, delayManager, scheduler);
+    final Runnable[] task = new Runnable[1];
+    final long delay = 1000;
+
+    mockery.checking(new Expectations() { {
+      // the first attempt runs when the connector is started
+      oneOf(endpoint).getWorkManager();
+      will(returnValue(workManager));
+      oneOf(workManager).doWork(with(same(connector)));
+      will(perform("$0.run()"));
+      
+      oneOf(endpoint).createConnection();
+      will(returnValue(connection));
+      oneOf(connection).setExceptionListener(
+          with(any(ExceptionListener.class)));
+      oneOf(connection).start();
+      will(throwException(new JMSException("mock")));
+      oneOf(callback).connectionFailed(with(same(connection)));
+      oneOf(connection).close();
+
+      // the next attempt is scheduled, rather than awaited
+      oneOf(delayManager).nextDelay();
+      will(returnValue(delay));
+      oneOf(scheduler).schedule(with(any(Runnable.class)), with(delay));
+      will(new DoAllAction(
+          perform("task[0] = $0").where("task", task),
+          returnValue(null)));
+    } });
+    
+    connector.start();
+    mockery.assertIsSatisfied();
+
+    mockery.checking(new Expectations() { {
+      // when the delay expires, the attempt is submitted as work
+      oneOf(endpoint).getWorkManager();
+      will(returnValue(workManager));
+      oneOf(workManager).scheduleWork(with(same(connector)));
+      will(perform("$0.run()"));
+
+      oneOf(endpoint).createConnection();
+      will(returnValue(connection));
+      oneOf(connection).setExceptionListener(
+          with(any(ExceptionListener.class)));
+      oneOf(connection).start();
+      oneOf(delayManager).reset();
+      oneOf(callback).connectionReady(with(same(connection)));
+    } });
+
+    task[0].run();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testSwitchesToStandby() throws Exception {
+    final XAConnection standby = mockery.mock(XAConnection.class, "standby");
+    final Session standbySession = 
+        mockery.mock(Session.class, "standbySession");
+    final ConnectionValidator validator = 
+        mockery.mock(ConnectionValidator.class);
+    final ExceptionListener[] listener = new ExceptionListener[1];
+    connector.setStandbyEnabled(true);
+    connector.setConnectionValidator(validator);
+
+    mockery.checking(new Expectations() { {
+      allowing(endpoint).getWorkManager();
+      will(returnValue(workManager));
+      oneOf(workManager).doWork(with(same(connector)));
+      will(perform("$0.run()"));
+
+      oneOf(endpoint).createConnection();
+      will(returnValue(connection));
+      oneOf(connection).setExceptionListener(
+          with(any(ExceptionListener.class)));
+      will(new DoAllAction(
+          perform("listener[0] = $0").where("listener", listener),
+          returnValue(null)));
+      oneOf(connection).start();
+      oneOf(delayManager).reset();
+      oneOf(callback).connectionReady(with(same(connection)));
+
+      // the standby connection is opened in the background, but not started
+      oneOf(workManager).scheduleWork(with(any(Work.class)));
+      will(perform("$0.run()"));
+      oneOf(endpoint).createConnection();
+      will(returnValue(standby));
+      oneOf(standby).setExceptionListener(with(any(ExceptionListener.class)));
+    } });
+
+    connector.start();
+    mockery.assertIsSatisfied();
+    assertThat(connector.hasStandby(), is(true));
+
+    mockery.checking(new Expectations() { {
+      oneOf(callback).connectionFailed(with(same(connection)));
+      oneOf(connection).close();
+
+      // the standby connection is validated
+      oneOf(standby).createSession(false, Session.AUTO_ACKNOWLEDGE);
+      will(returnValue(standbySession));
+      oneOf(validator).validate(standbySession, 0L);
+      oneOf(standbySession).close();
+
+      // and put into use without a reconnect delay
+      oneOf(standby).setExceptionListener(with(any(ExceptionListener.class)));
+      oneOf(standby).start();
+      oneOf(delayManager).reset();
+      oneOf(callback).connectionReady(with(same(standby)));
+
+      // and another standby connection is requested
+      oneOf(workManager).scheduleWork(with(any(Work.class)));
+    } });
+
+    listener[0].onException(new JMSException("mock"));
+    mockery.assertIsSatisfied();
+    assertThat(connector.hasStandby(), is(false));
+  }
+
+  @Test
+  public void testDoesNotSwitchToInvalidStandby() throws Exception {
+    final XAConnection standby = mockery.mock(XAConnection.class, "standby");
+    final Session standbySession = 
+        mockery.mock(Session.class, "standbySession");
+    final ConnectionValidator validator = 
+        mockery.mock(ConnectionValidator.class);
+    final ExceptionListener[] listener = new ExceptionListener[1];
+    connector.setStandbyEnabled(true);
+    connector.setConnectionValidator(validator);
+
+    mockery.checking(new Expectations() { {
+      allowing(endpoint).getWorkManager();
+      will(returnValue(workManager));
+      oneOf(workManager).doWork(with(same(connector)));
+      will(perform("$0.run()"));
+      oneOf(endpoint).createConnection();
+      will(returnValue(connection));
+      oneOf(connection).setExceptionListener(
+          with(any(ExceptionListener.class)));
+      will(new DoAllAction(
+          perform("listener[0] = $0").where("listener", listener),
+          returnValue(null)));
+      oneOf(connection).start();
+      oneOf(delayManager).reset();
+      oneOf(callback).connectionReady(with(same(connection)));
+      oneOf(workManager).scheduleWork(with(any(Work.class)));
+      will(perform("$0.run()"));
+      oneOf(endpoint).createConnection();
+      will(returnValue(standby));
+      oneOf(standby).setExceptionListener(with(any(ExceptionListener.class)));
+    } });
+
+    connector.start();
+    mockery.assertIsSatisfied();
+
+    mockery.checking(new Expectations() { {
+      oneOf(callback).connectionFailed(with(same(connection)));
+      oneOf(connection).close();
+
+      // the standby connection fails validation and is discarded
+      oneOf(standby).createSession(false, Session.AUTO_ACKNOWLEDGE);
+      will(returnValue(standbySession));
+      oneOf(validator).validate(standbySession, 0L);
+      will(throwException(new JMSException("not valid")));
+      oneOf(standbySession).close();
+      oneOf(callback).connectionFailed(with(same(standby)));
+      oneOf(standby).close();
+
+      // so the connector reconnects after the usual delay
+      oneOf(delayManager).pause();
+      oneOf(workManager).doWork(with(same(connector)));
+    } });
+
+    listener[0].onException(new JMSException("mock"));
+    mockery.assertIsSatisfied();
+    assertThat(connector.hasStandby(), is(false));
+  }
+
+  @Test
+  public void testParksWhileCoordinatorIsDown() throws Exception {
+    final ReconnectScheduler scheduler = 
+        mockery.mock(ReconnectScheduler.class);
+    final MessageEndpointConnector connector = new MessageEndpointConnector(
+        endpoint, callback, delayManager, scheduler);
+    final ReconnectCoordinator coordinator = 
+        new ReconnectCoordinator(scheduler);
+    final Object probe = new Object();
+    connector.setCoordinator(coordinator);
+    coordinator.attemptFailed(probe);
+
+    mockery.checking(new Expectations() { {
+      // the connector is parked without attempting to connect
+      oneOf(endpoint).getWorkManager();
+      will(returnValue(workManager));
+      oneOf(workManager).doWork(with(same(connector)));
+      will(perform("$0.run()"));
+    } });
+
+    connector.start();
+    mockery.assertIsSatisfied();
+
+    mockery.checking(new Expectations() { {
+      // the connector is admitted when the probe connects
+      oneOf(scheduler).schedule(with(any(Runnable.class)), 
+          with(any(Long.class)));
+    } });
+
+    coordinator.attemptSucceeded(probe);
+    mockery.assertIsSatisfied();
+  }
+
 }
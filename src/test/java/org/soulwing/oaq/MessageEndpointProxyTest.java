@@ -0,0 +1,231 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.jmock.lib.script.ScriptedAction.perform;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.resource.spi.endpoint.MessageEndpoint;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.Sequence;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link MessageEndpointProxy}.
+ *
+ * @author Carl Harris
+ */
+public class MessageEndpointProxyTest {
+
+  private Mockery mockery = new Mockery();
+
+  private ListenerEndpoint endpoint = mockery.mock(ListenerEndpoint.class);
+
+  private Message message = mockery.mock(Message.class, "message");
+
+  private Message redelivered = mockery.mock(Message.class, "redelivered");
+
+  private Sequence sequence = mockery.sequence("delivery");
+
+  @Test
+  public void testDeliverInSeparateTransactions() throws Exception {
+    MessageEndpointProxy proxy = new MessageEndpointProxy(endpoint);
+    mockery.checking(new Expectations() { {
+      exactly(2).of(endpoint).beforeDelivery(with(any(Method.class)));
+      exactly(2).of(endpoint).onMessage(with(same(message)));
+      exactly(2).of(endpoint).afterDelivery();
+    } });
+
+    proxy.onMessage(message);
+    proxy.onMessage(message);
+    proxy.sessionRunCompleted();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testDeliverBatch() throws Exception {
+    MessageEndpointProxy proxy = new MessageEndpointProxy(endpoint, 3, 0);
+    mockery.checking(new Expectations() { {
+      allowing(message).getJMSRedelivered();
+      will(returnValue(false));
+      oneOf(endpoint).beforeDelivery(with(any(Method.class)));
+      inSequence(sequence);
+      exactly(3).of(endpoint).onMessage(with(same(message)));
+      inSequence(sequence);
+      oneOf(endpoint).afterDelivery();
+      inSequence(sequence);
+      oneOf(endpoint).beforeDelivery(with(any(Method.class)));
+      inSequence(sequence);
+      oneOf(endpoint).onMessage(with(same(message)));
+      inSequence(sequence);
+      oneOf(endpoint).afterDelivery();
+      inSequence(sequence);
+    } });
+
+    for (int i = 0; i < 4; i++) {
+      proxy.onMessage(message);
+    }
+    proxy.sessionRunCompleted();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testDeliverBatchWhenTimeoutExpires() throws Exception {
+    MessageEndpointProxy proxy = new MessageEndpointProxy(endpoint, 3, 1);
+    mockery.checking(new Expectations() { {
+      allowing(message).getJMSRedelivered();
+      will(returnValue(false));
+      oneOf(endpoint).beforeDelivery(with(any(Method.class)));
+      inSequence(sequence);
+      oneOf(endpoint).onMessage(with(same(message)));
+      inSequence(sequence);
+      will(perform("Thread.sleep(10L)"));
+      oneOf(endpoint).afterDelivery();
+      inSequence(sequence);
+    } });
+
+    proxy.onMessage(message);
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testDeliverRedeliveredMessageInSeparateTransaction() 
+      throws Exception {
+    MessageEndpointProxy proxy = new MessageEndpointProxy(endpoint, 3, 0);
+    mockery.checking(new Expectations() { {
+      allowing(message).getJMSRedelivered();
+      will(returnValue(false));
+      allowing(redelivered).getJMSRedelivered();
+      will(returnValue(true));
+      oneOf(endpoint).beforeDelivery(with(any(Method.class)));
+      inSequence(sequence);
+      oneOf(endpoint).onMessage(with(same(message)));
+      inSequence(sequence);
+      oneOf(endpoint).afterDelivery();
+      inSequence(sequence);
+      oneOf(endpoint).beforeDelivery(with(any(Method.class)));
+      inSequence(sequence);
+      oneOf(endpoint).onMessage(with(same(redelivered)));
+      inSequence(sequence);
+      oneOf(endpoint).afterDelivery();
+      inSequence(sequence);
+    } });
+
+    proxy.onMessage(message);
+    proxy.onMessage(redelivered);
+    proxy.sessionRunCompleted();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testCompleteBatchWhenListenerThrows() throws Exception {
+    final RuntimeException ex = new RuntimeException("mock exception");
+    MessageEndpointProxy proxy = new MessageEndpointProxy(endpoint, 3, 0);
+    mockery.checking(new Expectations() { {
+      allowing(message).getJMSRedelivered();
+      will(returnValue(false));
+      oneOf(endpoint).beforeDelivery(with(any(Method.class)));
+      inSequence(sequence);
+      oneOf(endpoint).onMessage(with(same(message)));
+      inSequence(sequence);
+      will(throwException(ex));
+      oneOf(endpoint).afterDelivery();
+      inSequence(sequence);
+    } });
+
+    try {
+      proxy.onMessage(message);
+      fail("expected ListenerFailedException");
+    }
+    catch (ListenerFailedException thrown) {
+      assertThat(thrown.getCause(), sameInstance((Throwable) ex));
+    }
+    proxy.sessionRunCompleted();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testQuarantineAfterMaxFailures() throws Exception {
+    final Session session = mockery.mock(Session.class);
+    final Queue queue = mockery.mock(Queue.class);
+    final MessageProducer producer = mockery.mock(MessageProducer.class);
+    MessageEndpointProxy proxy = new MessageEndpointProxy(endpoint, 1, 0,
+        new MessageQuarantine(new DeliveryFailureTracker(), 2, session,
+            "EXCEPTIONS"));
+    mockery.checking(new Expectations() { {
+      allowing(redelivered).getJMSRedelivered();
+      will(returnValue(true));
+      allowing(redelivered).getJMSMessageID();
+      will(returnValue("ID:1"));
+      exactly(2).of(endpoint).beforeDelivery(with(any(Method.class)));
+      exactly(2).of(endpoint).onMessage(with(same(redelivered)));
+      will(throwException(new RuntimeException("mock exception")));
+      exactly(2).of(endpoint).afterDelivery();
+    } });
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        proxy.onMessage(redelivered);
+        fail("expected ListenerFailedException");
+      }
+      catch (ListenerFailedException ex) {
+        assert true;
+      }
+    }
+    mockery.assertIsSatisfied();
+
+    mockery.checking(new Expectations() { {
+      oneOf(endpoint).beforeDelivery(with(any(Method.class)));
+      inSequence(sequence);
+      oneOf(session).createQueue("EXCEPTIONS");
+      inSequence(sequence);
+      will(returnValue(queue));
+      oneOf(session).createProducer(queue);
+      inSequence(sequence);
+      will(returnValue(producer));
+      oneOf(producer).send(redelivered);
+      inSequence(sequence);
+      oneOf(endpoint).afterDelivery();
+      inSequence(sequence);
+    } });
+
+    proxy.onMessage(redelivered);
+    proxy.sessionRunCompleted();
+    mockery.assertIsSatisfied();
+  }
+
+  /**
+   * A message endpoint for a message-driven bean that implements
+   * {@link MessageListener}.
+   */
+  interface ListenerEndpoint extends MessageEndpoint, MessageListener {
+  }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionConsumer;
+import javax.jms.Destination;
+import javax.jms.MessageListener;
+import javax.jms.Queue;
+import javax.jms.ServerSessionPool;
+import javax.jms.Session;
+import javax.naming.NamingException;
+import javax.resource.spi.BootstrapContext;
+import javax.resource.spi.UnavailableException;
+import javax.resource.spi.endpoint.MessageEndpoint;
+import javax.resource.spi.endpoint.MessageEndpointFactory;
+import javax.resource.spi.work.Work;
+import javax.resource.spi.work.WorkManager;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.api.Invocation;
+import org.jmock.lib.action.CustomAction;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link MessageEndpointRunner}.
+ *
+ * @author Carl Harris
+ */
+public class MessageEndpointRunnerTest {
+
+  private Mockery mockery = new Mockery();
+
+  private MessageConnectionFactoryProvider provider =
+      mockery.mock(MessageConnectionFactoryProvider.class);
+
+  private OAQResourceAdapter resourceAdapter =
+      new OAQResourceAdapter(provider);
+
+  private MessageEndpointFactory endpointFactory =
+      mockery.mock(MessageEndpointFactory.class);
+
+  private BootstrapContext bootstrapContext =
+      mockery.mock(BootstrapContext.class);
+
+  private WorkManager workManager = mockery.mock(WorkManager.class);
+
+  private MessageEndpoint endpoint = mockery.mock(MessageEndpoint.class);
+
+  private Queue queue = mockery.mock(Queue.class);
+
+  private MessageActivationSpec activationSpec = new MessageActivationSpec() {
+    @Override
+    public Destination lookupDestination() throws NamingException {
+      return queue;
+    }
+  };
+
+  @Test
+  public void testPrewarmsEachConnection() throws Exception {
+    final Connection connection1 = mockery.mock(Connection.class, "c1");
+    final Connection connection2 = mockery.mock(Connection.class, "c2");
+    final Session session = mockery.mock(Session.class);
+    final ConnectionConsumer consumer =
+        mockery.mock(ConnectionConsumer.class);
+    activationSpec.setDestination("queue");
+    activationSpec.setDestinationType(Queue.class.getName());
+    activationSpec.setConnectionCount(2);
+    activationSpec.setMinSessions(4);
+    mockery.checking(new Expectations() { {
+      allowing(endpointFactory).isDeliveryTransacted(
+          MessageEndpointProxy.onMessageMethod);
+      will(returnValue(false));
+      allowing(endpointFactory).getActivationName();
+      will(returnValue("endpoint"));
+      oneOf(bootstrapContext).createTimer();
+      will(throwException(new UnavailableException("mock")));
+      allowing(bootstrapContext).getWorkManager();
+      will(returnValue(workManager));
+      exactly(4).of(workManager).scheduleWork(with(any(Work.class)));
+      will(runWork());
+      exactly(2).of(connection1).createSession(false,
+          Session.AUTO_ACKNOWLEDGE);
+      will(returnValue(session));
+      exactly(2).of(connection2).createSession(false,
+          Session.AUTO_ACKNOWLEDGE);
+      will(returnValue(session));
+      allowing(endpointFactory).createEndpoint(null);
+      will(returnValue(endpoint));
+      allowing(session).setMessageListener(with(any(MessageListener.class)));
+      oneOf(connection1).createConnectionConsumer(with(same(queue)),
+          with(aNull(String.class)), with(any(ServerSessionPool.class)),
+          with(any(Integer.class)));
+      will(returnValue(consumer));
+      oneOf(connection2).createConnectionConsumer(with(same(queue)),
+          with(aNull(String.class)), with(any(ServerSessionPool.class)),
+          with(any(Integer.class)));
+      will(returnValue(consumer));
+    } });
+
+    resourceAdapter.start(bootstrapContext);
+    MessageEndpointRunner runner = new MessageEndpointRunner(
+        resourceAdapter, activationSpec, endpointFactory);
+    runner.connectionReady(connection1);
+    runner.connectionReady(connection2);
+    mockery.assertIsSatisfied();
+  }
+
+  private CustomAction runWork() {
+    return new CustomAction("run work") {
+      @Override
+      public Object invoke(Invocation invocation) throws Throwable {
+        ((Work) invocation.getParameter(0)).run();
+        return null;
+      }
+    };
+  }
+
+}
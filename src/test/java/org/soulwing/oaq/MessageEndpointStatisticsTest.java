@@ -0,0 +1,137 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Message;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link MessageEndpointStatistics}.
+ *
+ * @author Carl Harris
+ */
+public class MessageEndpointStatisticsTest {
+
+  private Mockery mockery = new Mockery();
+
+  private ResizableServerSessionPool sessionPool =
+      mockery.mock(ResizableServerSessionPool.class);
+
+  private MessageEndpointStatistics statistics =
+      new MessageEndpointStatistics(sessionPool, 2);
+
+  @Test
+  public void testDeliveryLatencyHistogram() throws Exception {
+    statistics.listenerCompleted(TimeUnit.MICROSECONDS.toNanos(0));
+    statistics.listenerCompleted(TimeUnit.MICROSECONDS.toNanos(1));
+    statistics.listenerCompleted(TimeUnit.MICROSECONDS.toNanos(5));
+    statistics.listenerCompleted(TimeUnit.MICROSECONDS.toNanos(7));
+    statistics.listenerCompleted(Long.MAX_VALUE);
+    long[] histogram = statistics.getDeliveryLatencyHistogram();
+    assertThat(histogram[0], equalTo(1L));
+    assertThat(histogram[1], equalTo(1L));
+    assertThat(histogram[3], equalTo(2L));
+    assertThat(histogram[histogram.length - 1], equalTo(1L));
+  }
+
+  @Test
+  public void testMeanDeliveryLatency() throws Exception {
+    assertThat(statistics.getMeanDeliveryLatency(), closeTo(0, 0.001));
+    statistics.listenerCompleted(TimeUnit.MICROSECONDS.toNanos(10));
+    statistics.listenerCompleted(TimeUnit.MICROSECONDS.toNanos(30));
+    assertThat(statistics.getMeanDeliveryLatency(), closeTo(20, 0.001));
+  }
+
+  @Test
+  public void testConnectionState() throws Exception {
+    assertThat(statistics.getConnectionState(), equalTo("DISCONNECTED"));
+    statistics.connectionReady();
+    assertThat(statistics.getConnectionState(), equalTo("DEGRADED"));
+    statistics.connectionReady();
+    assertThat(statistics.getConnectionState(), equalTo("CONNECTED"));
+    statistics.connectionFailed();
+    statistics.connectionReady();
+    assertThat(statistics.getConnectionState(), equalTo("CONNECTED"));
+    assertThat(statistics.getConnectionFailures(), equalTo(1L));
+    assertThat(statistics.getReconnectCount(), equalTo(1L));
+  }
+
+  @Test
+  public void testRecordsProxyDeliveries() throws Exception {
+    final MessageEndpointProxyTest.ListenerEndpoint endpoint = 
+        mockery.mock(MessageEndpointProxyTest.ListenerEndpoint.class);
+    final Message message = mockery.mock(Message.class);
+    MessageEndpointProxy proxy = new MessageEndpointProxy(endpoint, 3, 0);
+    proxy.setStatistics(statistics);
+    mockery.checking(new Expectations() { {
+      allowing(message).getJMSRedelivered();
+      will(returnValue(false));
+      exactly(2).of(endpoint).beforeDelivery(with(any(Method.class)));
+      exactly(2).of(endpoint).afterDelivery();
+      exactly(2).of(endpoint).onMessage(with(same(message)));
+      oneOf(endpoint).onMessage(with(same(message)));
+      will(throwException(new RuntimeException("mock exception")));
+      oneOf(endpoint).onMessage(with(same(message)));
+    } });
+
+    proxy.onMessage(message);
+    proxy.onMessage(message);
+    try {
+      proxy.onMessage(message);
+    }
+    catch (ListenerFailedException ex) {
+      assert true;
+    }
+    proxy.onMessage(message);
+    proxy.sessionRunCompleted();
+    assertThat(statistics.getMessagesDelivered(), equalTo(1L));
+    assertThat(statistics.getMessagesFailed(), equalTo(1L));
+    assertThat(statistics.getMessagesRolledBack(), equalTo(3L));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testRegisterAsMBean() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(sessionPool).getNumActive();
+      will(returnValue(3));
+    } });
+
+    MBeanServer server = MBeanServerFactory.newMBeanServer();
+    ObjectName name = new ObjectName("org.soulwing.oaq:type=Test");
+    server.registerMBean(statistics, name);
+    assertThat((Integer) server.getAttribute(name, "ActiveSessions"), 
+        equalTo(3));
+    mockery.assertIsSatisfied();
+  }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import javax.jms.XAConnection;
+import javax.jms.XAConnectionFactory;
+import javax.jms.XASession;
+import javax.resource.spi.ActivationSpec;
+import javax.resource.spi.BootstrapContext;
+import javax.resource.spi.UnavailableException;
+import javax.transaction.xa.XAResource;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link OAQResourceAdapter}.
+ *
+ * @author Carl Harris
+ */
+public class OAQResourceAdapterTest {
+
+  private Mockery mockery = new Mockery();
+
+  private MessageConnectionFactoryProvider provider = 
+      mockery.mock(MessageConnectionFactoryProvider.class);
+
+  private XAConnectionFactory connectionFactory = 
+      mockery.mock(XAConnectionFactory.class);
+
+  private XAConnection connection = mockery.mock(XAConnection.class);
+
+  private BootstrapContext bootstrapContext = 
+      mockery.mock(BootstrapContext.class);
+
+  private OAQResourceAdapter resourceAdapter = 
+      new OAQResourceAdapter(provider);
+
+  @Before
+  public void setUp() throws Exception {
+    resourceAdapter.setDatabaseUrl("jdbc:oracle:thin:@localhost:1521/ORCL");
+    resourceAdapter.setUsername("adapter");
+    resourceAdapter.setPassword("adapterPassword");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testConnectsAsSpecUser() throws Exception {
+    final MessageActivationSpec spec = newSpec("tenant", "tenantPassword");
+    mockery.checking(new Expectations() { {
+      oneOf(provider).createConnectionFactory(
+          with(any(OAQConnectionRequestInfo.class)));
+      will(returnValue(connectionFactory));
+      oneOf(connectionFactory).createXAConnection("tenant", "tenantPassword");
+      will(returnValue(connection));
+    } });
+
+    assertThat(resourceAdapter.createConnection(spec), 
+        sameInstance(connection));
+  }
+
+  @Test
+  public void testConnectsThroughProxyUser() throws Exception {
+    resourceAdapter.setProxyAuthentication(true);
+    final MessageActivationSpec spec1 = newSpec("tenant1", null);
+    final MessageActivationSpec spec2 = newSpec("tenant2", null);
+    mockery.checking(new Expectations() { {
+      // both tenants share the proxy user's connection factory
+      oneOf(provider).createConnectionFactory(
+          resourceAdapter.getConnectionRequestInfo());
+      will(returnValue(connectionFactory));
+      oneOf(connectionFactory).createXAConnection(
+          "adapter[tenant1]", "adapterPassword");
+      will(returnValue(connection));
+      oneOf(connectionFactory).createXAConnection(
+          "adapter[tenant2]", "adapterPassword");
+      will(returnValue(connection));
+    } });
+
+    // no password is needed for a spec user
+    spec1.validate();
+    resourceAdapter.createConnection(spec1);
+    resourceAdapter.createConnection(spec2);
+  }
+
+  @Test
+  public void testRecoveryDoesNotTakeEndpointPermit() throws Exception {
+    final MessageActivationSpec spec = newSpec("tenant", "tenantPassword");
+    final XASession session = mockery.mock(XASession.class);
+    final XAResource resource = mockery.mock(XAResource.class);
+    mockery.checking(new Expectations() { {
+      oneOf(bootstrapContext).createTimer();
+      will(throwException(new UnavailableException("mock")));
+      oneOf(provider).createConnectionFactory(
+          with(any(OAQConnectionRequestInfo.class)));
+      will(returnValue(connectionFactory));
+      exactly(3).of(connectionFactory).createXAConnection(
+          "tenant", "tenantPassword");
+      will(returnValue(connection));
+      oneOf(connection).createXASession();
+      will(returnValue(session));
+      oneOf(session).getXAResource();
+      will(returnValue(resource));
+      oneOf(connection).close();
+    } });
+
+    resourceAdapter.setMaxConnections(2);
+    resourceAdapter.start(bootstrapContext);
+    
+    // the endpoint's only connection is open while recovery runs
+    XAConnection endpointConnection = resourceAdapter.createConnection(spec);
+    assertThat(resourceAdapter.getXAResources(new ActivationSpec[] { spec }),
+        arrayContaining(resource));
+
+    // the endpoint can reconnect while the recovery connection is held
+    endpointConnection.close();
+    resourceAdapter.createConnection(spec);
+  }
+
+  @Test
+  public void testRecoversThroughProxyUser() throws Exception {
+    resourceAdapter.setProxyAuthentication(true);
+    final MessageActivationSpec spec1 = newSpec("tenant1", null);
+    final MessageActivationSpec spec2 = newSpec("tenant2", null);
+    final XASession session = mockery.mock(XASession.class);
+    final XAResource resource = mockery.mock(XAResource.class);
+    mockery.checking(new Expectations() { {
+      // both tenants share the proxy user's connection factory
+      oneOf(provider).createConnectionFactory(
+          resourceAdapter.getConnectionRequestInfo());
+      will(returnValue(connectionFactory));
+      oneOf(connectionFactory).createXAConnection(
+          "adapter[tenant1]", "adapterPassword");
+      will(returnValue(connection));
+      oneOf(connectionFactory).createXAConnection(
+          "adapter[tenant2]", "adapterPassword");
+      will(returnValue(connection));
+      exactly(2).of(connection).createXASession();
+      will(returnValue(session));
+      exactly(2).of(session).getXAResource();
+      will(returnValue(resource));
+    } });
+
+    assertThat(resourceAdapter.getXAResources(
+        new ActivationSpec[] { spec1, spec2 }).length, equalTo(2));
+  }
+
+  private MessageActivationSpec newSpec(String username, String password) 
+      throws Exception {
+    MessageActivationSpec spec = new MessageActivationSpec();
+    spec.setResourceAdapter(resourceAdapter);
+    spec.setDestination("QUEUE");
+    spec.setDestinationType(javax.jms.Queue.class.getName());
+    spec.setSubscriptionDurability("NonDurable");
+    spec.setUsername(username);
+    spec.setPassword(password);
+    return spec;
+  }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Queue;
+import javax.jms.ServerSessionPool;
+import javax.jms.Session;
+import javax.resource.spi.work.ExecutionContext;
+import javax.resource.spi.work.Work;
+import javax.resource.spi.work.WorkListener;
+import javax.resource.spi.work.WorkManager;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.States;
+import org.jmock.api.Action;
+import org.jmock.api.Invocation;
+import org.jmock.lib.action.CustomAction;
+import org.jmock.lib.concurrent.Synchroniser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link PrefetchConnectionConsumer}.
+ *
+ * @author Carl Harris
+ */
+public class PrefetchConnectionConsumerTest {
+
+  private static final long TIMEOUT = 5000;
+
+  private Synchroniser synchroniser = new Synchroniser();
+
+  private Mockery mockery = new Mockery() { {
+    setThreadingPolicy(synchroniser);
+  } };
+
+  private Connection connection = mockery.mock(Connection.class);
+
+  private Queue destination = mockery.mock(Queue.class);
+
+  private Session session = mockery.mock(Session.class, "session");
+
+  private Session deliverySession = 
+      mockery.mock(Session.class, "deliverySession");
+
+  private MessageConsumer consumer = mockery.mock(MessageConsumer.class);
+
+  private Message message = mockery.mock(Message.class);
+
+  private WorkManager workManager = mockery.mock(WorkManager.class);
+
+  private ServerSessionPool sessionPool = 
+      mockery.mock(ServerSessionPool.class);
+
+  private MutableServerSessionPool deliveryPool = 
+      mockery.mock(MutableServerSessionPool.class);
+
+  private States delivery = mockery.states("delivery").startsAs("pending");
+
+  private MessageActivationSpec activationSpec = new MessageActivationSpec();
+
+  private List<Thread> threads = new CopyOnWriteArrayList<Thread>();
+
+  private volatile boolean closedWhileWorking;
+
+  private ServerSessionWork work;
+
+  private PrefetchConnectionConsumer connectionConsumer;
+
+  @Before
+  public void setUp() throws Exception {
+    activationSpec.setAcknowledgeMode("Dups-ok-acknowledge");
+    activationSpec.setPrefetchSize(1);
+    activationSpec.setPollerCount(1);
+    work = new ServerSessionWork(deliverySession, workManager, 
+        deliveryPool, true);
+    connectionConsumer = new PrefetchConnectionConsumer(connection, 
+        destination, activationSpec, workManager, sessionPool);
+    mockery.checking(new Expectations() { {
+      oneOf(connection).createSession(false, Session.CLIENT_ACKNOWLEDGE);
+      will(returnValue(session));
+      oneOf(session).createConsumer(destination, null);
+      will(returnValue(consumer));
+      exactly(2).of(workManager).scheduleWork(
+          with(any(LongRunningWork.class)));
+      will(runInThread());
+      oneOf(workManager).scheduleWork(with(same(work)), 
+          with(WorkManager.INDEFINITE), with(aNull(ExecutionContext.class)),
+          with(any(WorkListener.class)));
+      then(delivery.is("started"));
+      allowing(session).close();
+      will(checkWorkersExited());
+    } });
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    connectionConsumer.close();
+    mockery.assertIsSatisfied();
+    // the poller is waiting for its batch when the consumer is closed
+    assertThat(closedWhileWorking, is(false));
+  }
+
+  @Test
+  public void testDispatcherResumesAfterSessionPoolError() throws Exception {
+    final States dispatch = mockery.states("dispatch").startsAs("first");
+    mockery.checking(new Expectations() { {
+      oneOf(consumer).receive(PrefetchConnectionConsumer.POLL_TIMEOUT);
+      will(returnValue(message));
+      oneOf(sessionPool).getServerSession();
+      will(throwException(new JMSException("timed out")));
+      then(dispatch.is("failed"));
+      oneOf(session).recover();
+      when(dispatch.is("failed"));
+      oneOf(consumer).receive(PrefetchConnectionConsumer.POLL_TIMEOUT);
+      will(returnValue(message));
+      when(dispatch.is("failed"));
+      oneOf(sessionPool).getServerSession();
+      will(returnValue(work));
+      when(dispatch.is("failed"));
+    } });
+
+    connectionConsumer.start();
+    synchroniser.waitUntil(delivery.is("started"), TIMEOUT);
+  }
+
+  @Test
+  public void testPollerResumesAfterReceiveError() throws Exception {
+    final States poll = mockery.states("poll").startsAs("first");
+    mockery.checking(new Expectations() { {
+      oneOf(consumer).receive(PrefetchConnectionConsumer.POLL_TIMEOUT);
+      will(throwException(new JMSException("receive failed")));
+      then(poll.is("failed"));
+      oneOf(session).recover();
+      when(poll.is("failed"));
+      oneOf(consumer).receive(PrefetchConnectionConsumer.POLL_TIMEOUT);
+      will(returnValue(message));
+      when(poll.is("failed"));
+      oneOf(sessionPool).getServerSession();
+      will(returnValue(work));
+    } });
+
+    connectionConsumer.start();
+    synchroniser.waitUntil(delivery.is("started"), TIMEOUT);
+  }
+
+  private Action runInThread() {
+    return new CustomAction("run work in a new thread") {
+      @Override
+      public Object invoke(Invocation invocation) throws Throwable {
+        Thread thread = new Thread((Work) invocation.getParameter(0));
+        thread.setDaemon(true);
+        threads.add(thread);
+        thread.start();
+        return null;
+      }
+    };
+  }
+
+  private Action checkWorkersExited() {
+    return new CustomAction("check that workers have exited") {
+      @Override
+      public Object invoke(Invocation invocation) throws Throwable {
+        for (Thread thread : threads) {
+          Thread.State state = thread.getState();
+          if (state == Thread.State.WAITING 
+              || state == Thread.State.TIMED_WAITING) {
+            closedWhileWorking = true;
+          }
+        }
+        return null;
+      }
+    };
+  }
+
+}
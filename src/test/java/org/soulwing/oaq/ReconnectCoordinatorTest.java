@@ -0,0 +1,131 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.jmock.lib.script.ScriptedAction.perform;
+
+import java.util.TimerTask;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.lib.action.DoAllAction;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ReconnectCoordinator}.
+ *
+ * @author Carl Harris
+ */
+public class ReconnectCoordinatorTest {
+
+  private static final long INTERVAL = 100;
+
+  private Mockery mockery = new Mockery();
+
+  private ReconnectScheduler scheduler = mockery.mock(ReconnectScheduler.class);
+
+  private Runnable retry1 = mockery.mock(Runnable.class, "retry1");
+  
+  private Runnable retry2 = mockery.mock(Runnable.class, "retry2");
+  
+  private Object probe = new Object();
+  
+  private Object connector1 = new Object();
+  
+  private Object connector2 = new Object();
+
+  private ReconnectCoordinator coordinator = 
+      new ReconnectCoordinator(scheduler);
+
+  @After
+  public void tearDown() throws Exception {
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testAllowsAttemptsWhileUp() throws Exception {
+    assertThat(coordinator.tryAttempt(connector1, retry1), is(true));
+    assertThat(coordinator.tryAttempt(connector2, retry2), is(true));
+    assertThat(coordinator.isDown(), is(false));
+  }
+
+  @Test
+  public void testParksConnectorsWhileDown() throws Exception {
+    coordinator.attemptFailed(probe);
+    assertThat(coordinator.isDown(), is(true));
+    assertThat(coordinator.tryAttempt(connector1, retry1), is(false));
+    assertThat(coordinator.tryAttempt(connector2, retry2), is(false));
+    assertThat(coordinator.tryAttempt(probe, null), is(true));
+    assertThat(coordinator.getParkedCount(), equalTo(2));
+  }
+
+  @Test
+  public void testAdmitsParkedConnectorsGradually() throws Exception {
+    coordinator.setAdmissionInterval(INTERVAL);
+    coordinator.attemptFailed(probe);
+    coordinator.tryAttempt(connector1, retry1);
+    coordinator.tryAttempt(connector2, retry2);
+
+    final long[] delays = new long[2];
+    mockery.checking(new Expectations() { { 
+      oneOf(scheduler).schedule(with(same(retry1)), with(any(Long.class)));
+      will(new DoAllAction(
+          perform("delays[0] = $1").where("delays", delays),
+          returnValue(null)));
+      oneOf(scheduler).schedule(with(same(retry2)), with(any(Long.class)));
+      will(new DoAllAction(
+          perform("delays[1] = $1").where("delays", delays),
+          returnValue(null)));
+    } });
+
+    coordinator.attemptSucceeded(probe);
+    assertThat(coordinator.isDown(), is(false));
+    assertThat(coordinator.getParkedCount(), equalTo(0));
+    assertThat(delays[0], lessThan(INTERVAL));
+    assertThat(delays[1], greaterThanOrEqualTo(INTERVAL));
+    assertThat(delays[1], lessThan(2*INTERVAL));
+  }
+
+  @Test
+  public void testWithdrawnProbeIsReplaced() throws Exception {
+    coordinator.attemptFailed(probe);
+    coordinator.tryAttempt(connector1, retry1);
+    coordinator.tryAttempt(connector2, retry2);
+
+    mockery.checking(new Expectations() { { 
+      oneOf(scheduler).schedule(with(same(retry1)), with(0L));
+      will(returnValue(new TimerTask() {
+        @Override
+        public void run() {
+        }
+      }));
+    } });
+
+    coordinator.withdraw(probe);
+    assertThat(coordinator.tryAttempt(connector1, retry1), is(true));
+    assertThat(coordinator.getParkedCount(), equalTo(1));
+  }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import javax.jms.JMSException;
+import javax.jms.XAConnection;
+import javax.jms.XASession;
+import javax.transaction.xa.XAResource;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link RecoveryConnectionManager}.
+ *
+ * @author Carl Harris
+ */
+public class RecoveryConnectionManagerTest {
+
+  private Mockery mockery = new Mockery();
+
+  private MessageResourceAdapter resourceAdapter = 
+      mockery.mock(MessageResourceAdapter.class);
+
+  private ConnectionValidator validator = 
+      mockery.mock(ConnectionValidator.class);
+
+  private XAConnection connection = mockery.mock(XAConnection.class);
+
+  private XASession session = mockery.mock(XASession.class);
+
+  private XAResource resource = mockery.mock(XAResource.class);
+
+  private OAQConnectionRequestInfo key = new OAQConnectionRequestInfo();
+
+  private RecoveryConnectionManager manager = 
+      new RecoveryConnectionManager(resourceAdapter, validator);
+
+  @After
+  public void tearDown() throws Exception {
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testReusesValidResource() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(resourceAdapter).retainConnectionFactories(null);
+      oneOf(resourceAdapter).createRecoveryConnection(null);
+      will(returnValue(connection));
+      oneOf(connection).createXASession();
+      will(returnValue(session));
+      oneOf(session).getXAResource();
+      will(returnValue(resource));
+      oneOf(validator).validate(session, 
+          RecoveryConnectionManager.VALIDATION_TIMEOUT);
+    } });
+
+    assertThat(manager.getXAResource(key, null), sameInstance(resource));
+    assertThat(manager.getXAResource(key, null), sameInstance(resource));
+    assertThat(manager.size(), equalTo(1));
+  }
+
+  @Test
+  public void testReplacesStaleResource() throws Exception {
+    final XAResource newResource = 
+        mockery.mock(XAResource.class, "newResource");
+    mockery.checking(new Expectations() { {
+      exactly(2).of(resourceAdapter).retainConnectionFactories(null);
+      oneOf(resourceAdapter).releaseConnectionFactories(null);
+      exactly(2).of(resourceAdapter).createRecoveryConnection(null);
+      will(returnValue(connection));
+      exactly(2).of(connection).createXASession();
+      will(returnValue(session));
+      exactly(2).of(session).getXAResource();
+      will(onConsecutiveCalls(returnValue(resource), 
+          returnValue(newResource)));
+      oneOf(validator).validate(session, 
+          RecoveryConnectionManager.VALIDATION_TIMEOUT);
+      will(throwException(new JMSException("mock")));
+      oneOf(connection).close();
+    } });
+
+    assertThat(manager.getXAResource(key, null), sameInstance(resource));
+    assertThat(manager.getXAResource(key, null), sameInstance(newResource));
+  }
+
+  @Test
+  public void testCloseClosesConnections() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(resourceAdapter).retainConnectionFactories(null);
+      oneOf(resourceAdapter).releaseConnectionFactories(null);
+      oneOf(resourceAdapter).createRecoveryConnection(null);
+      will(returnValue(connection));
+      oneOf(connection).createXASession();
+      will(returnValue(session));
+      oneOf(session).getXAResource();
+      will(returnValue(resource));
+      oneOf(connection).close();
+    } });
+
+    manager.getXAResource(key, null);
+    manager.close();
+    assertThat(manager.size(), equalTo(0));
+  }
+
+  @Test
+  public void testReleasesFactoriesWhenConnectFails() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(resourceAdapter).retainConnectionFactories(null);
+      oneOf(resourceAdapter).createRecoveryConnection(null);
+      will(throwException(new JMSException("mock")));
+      oneOf(resourceAdapter).releaseConnectionFactories(null);
+    } });
+
+    try {
+      manager.getXAResource(key, null);
+      throw new AssertionError("expected JMSException");
+    }
+    catch (JMSException ex) {
+      assert true;  // expected
+    }
+  }
+
+}
@@ -0,0 +1,233 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+import javax.jms.MessageListener;
+import javax.jms.ServerSession;
+import javax.jms.Session;
+import javax.jms.XAConnection;
+import javax.jms.XASession;
+import javax.resource.spi.endpoint.MessageEndpoint;
+import javax.resource.spi.endpoint.MessageEndpointFactory;
+import javax.resource.spi.work.WorkManager;
+import javax.transaction.xa.XAResource;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ServerSessionFactory}.
+ *
+ * @author Carl Harris
+ */
+public class ServerSessionFactoryTest {
+
+  private Mockery mockery = new Mockery();
+
+  private MessageEndpointDetails details = 
+      mockery.mock(MessageEndpointDetails.class);
+
+  private MessageEndpointFactory endpointFactory = 
+      mockery.mock(MessageEndpointFactory.class);
+
+  private MessageEndpoint endpoint = mockery.mock(MessageEndpoint.class);
+
+  private WorkManager workManager = mockery.mock(WorkManager.class);
+
+  private MutableServerSessionPool sessionPool = 
+      mockery.mock(MutableServerSessionPool.class);
+
+  private XAConnection connection = mockery.mock(XAConnection.class);
+
+  private MessageActivationSpec activationSpec = new MessageActivationSpec();
+
+  private ServerSessionFactory factory = new ServerSessionFactory(details);
+
+  @Before
+  public void setUp() throws Exception {
+    factory.setSessionPool(sessionPool);
+    factory.addConnection(connection);
+  }
+
+  @Test
+  public void testMakeObjectWhenDeliveryTransacted() throws Exception {
+    final XASession session = mockery.mock(XASession.class);
+    final XAResource resource = mockery.mock(XAResource.class);
+    mockery.checking(new Expectations() { {
+      allowing(details).getActivationSpec();
+      will(returnValue(activationSpec));
+      allowing(details).getEndpointFactory();
+      will(returnValue(endpointFactory));
+      allowing(details).getWorkManager();
+      will(returnValue(workManager));
+      oneOf(details).isDeliveryTransacted();
+      will(returnValue(true));
+      oneOf(connection).createXASession();
+      will(returnValue(session));
+      oneOf(session).getXAResource();
+      will(returnValue(resource));
+      oneOf(endpointFactory).createEndpoint(resource);
+      will(returnValue(endpoint));
+      oneOf(session).setMessageListener(with(any(MessageListener.class)));
+    } });
+
+    ServerSession serverSession = factory.makeObject(connection);
+    assertThat(serverSession, instanceOf(ServerSessionWork.class));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testMakeObjectWhenNotDeliveryTransacted() throws Exception {
+    final Session session = mockery.mock(Session.class);
+    mockery.checking(new Expectations() { {
+      allowing(details).getActivationSpec();
+      will(returnValue(activationSpec));
+      allowing(details).getEndpointFactory();
+      will(returnValue(endpointFactory));
+      allowing(details).getWorkManager();
+      will(returnValue(workManager));
+      oneOf(details).isDeliveryTransacted();
+      will(returnValue(false));
+      oneOf(connection).createSession(false, Session.AUTO_ACKNOWLEDGE);
+      will(returnValue(session));
+      oneOf(endpointFactory).createEndpoint(null);
+      will(returnValue(endpoint));
+      oneOf(session).setMessageListener(with(any(MessageListener.class)));
+    } });
+
+    ServerSession serverSession = factory.makeObject(connection);
+    assertThat(serverSession, instanceOf(ServerSessionWork.class));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testMakeObjectWhenDupsOkAcknowledge() throws Exception {
+    final Session session = mockery.mock(Session.class);
+    activationSpec.setAcknowledgeMode("Dups-ok-acknowledge");
+    mockery.checking(new Expectations() { {
+      allowing(details).getActivationSpec();
+      will(returnValue(activationSpec));
+      allowing(details).getEndpointFactory();
+      will(returnValue(endpointFactory));
+      allowing(details).getWorkManager();
+      will(returnValue(workManager));
+      oneOf(details).isDeliveryTransacted();
+      will(returnValue(false));
+      oneOf(connection).createSession(false, Session.CLIENT_ACKNOWLEDGE);
+      will(returnValue(session));
+      oneOf(endpointFactory).createEndpoint(null);
+      will(returnValue(endpoint));
+      oneOf(session).setMessageListener(with(any(LazyAcknowledger.class)));
+    } });
+
+    factory.makeObject(connection);
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testMakeObjectForBatchWhenNotDeliveryTransacted() 
+      throws Exception {
+    final Session session = mockery.mock(Session.class);
+    final BatchMessageActivationSpec batchSpec = 
+        new BatchMessageActivationSpec();
+    mockery.checking(new Expectations() { {
+      allowing(details).getActivationSpec();
+      will(returnValue(batchSpec));
+      allowing(details).getEndpointFactory();
+      will(returnValue(endpointFactory));
+      allowing(details).getWorkManager();
+      will(returnValue(workManager));
+      oneOf(details).isDeliveryTransacted();
+      will(returnValue(false));
+      oneOf(connection).createSession(false, Session.CLIENT_ACKNOWLEDGE);
+      will(returnValue(session));
+      oneOf(endpointFactory).createEndpoint(null);
+      will(returnValue(endpoint));
+      oneOf(session).setMessageListener(
+          with(any(BatchMessageEndpointProxy.class)));
+    } });
+
+    factory.makeObject(connection);
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testMakeObjectUsesGivenConnection() throws Exception {
+    final XAConnection otherConnection = 
+        mockery.mock(XAConnection.class, "otherConnection");
+    final Session session = mockery.mock(Session.class);
+    factory.addConnection(otherConnection);
+    mockery.checking(new Expectations() { {
+      allowing(details).getActivationSpec();
+      will(returnValue(activationSpec));
+      allowing(details).getEndpointFactory();
+      will(returnValue(endpointFactory));
+      allowing(details).getWorkManager();
+      will(returnValue(workManager));
+      oneOf(details).isDeliveryTransacted();
+      will(returnValue(false));
+      oneOf(otherConnection).createSession(false, Session.AUTO_ACKNOWLEDGE);
+      will(returnValue(session));
+      oneOf(endpointFactory).createEndpoint(null);
+      will(returnValue(endpoint));
+      oneOf(session).setMessageListener(with(any(MessageListener.class)));
+    } });
+
+    ServerSession serverSession = factory.makeObject(otherConnection);
+    assertThat(factory.validateObject(otherConnection, serverSession), 
+        equalTo(true));
+    factory.removeConnection(connection);
+    assertThat(factory.validateObject(otherConnection, serverSession), 
+        equalTo(true));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testSessionIsInvalidAfterConnectionRemoved() throws Exception {
+    final Session session = mockery.mock(Session.class);
+    mockery.checking(new Expectations() { {
+      allowing(details).getActivationSpec();
+      will(returnValue(activationSpec));
+      allowing(details).getEndpointFactory();
+      will(returnValue(endpointFactory));
+      allowing(details).getWorkManager();
+      will(returnValue(workManager));
+      oneOf(details).isDeliveryTransacted();
+      will(returnValue(false));
+      oneOf(connection).createSession(false, Session.AUTO_ACKNOWLEDGE);
+      will(returnValue(session));
+      oneOf(endpointFactory).createEndpoint(null);
+      will(returnValue(endpoint));
+      oneOf(session).setMessageListener(with(any(MessageListener.class)));
+    } });
+
+    ServerSession serverSession = factory.makeObject(connection);
+    assertThat(factory.validateObject(connection, serverSession), equalTo(true));
+    factory.removeConnection(connection);
+    assertThat(factory.validateObject(connection, serverSession), equalTo(false));
+    mockery.assertIsSatisfied();
+  }
+
+}
@@ -21,16 +21,23 @@ package org.soulwing.oaq;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.nullValue;
+import static org.jmock.lib.script.ScriptedAction.perform;
 import static org.junit.Assert.fail;
 
+import java.util.Arrays;
+
 import javax.jms.JMSException;
+import javax.jms.Message;
 import javax.jms.Session;
 import javax.resource.spi.work.ExecutionContext;
+import javax.resource.spi.work.WorkEvent;
 import javax.resource.spi.work.WorkListener;
 import javax.resource.spi.work.WorkManager;
+import javax.resource.spi.work.WorkRejectedException;
 
 import org.jmock.Expectations;
 import org.jmock.Mockery;
+import org.jmock.lib.action.DoAllAction;
 import org.junit.Test;
 import org.soulwing.oaq.MutableServerSessionPool;
 import org.soulwing.oaq.ServerSessionWork;
@@ -116,4 +123,269 @@ public class ServerSessionWorkTest {
     work.run();
   }
 
+  @Test
+  public void testRunReleasesSessionWhenListenerFails() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(sessionContext).set(with(same(session)));
+      oneOf(session).run();
+      will(throwException(new ListenerFailedException(
+          new RuntimeException("mock exception"))));
+      oneOf(sessionPool).releaseSession(with(same(work)));
+      oneOf(sessionContext).clear();
+    } });
+    
+    work.run();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testRunNotifiesRunListener() throws Exception {
+    final SessionRunListener runListener = 
+        mockery.mock(SessionRunListener.class);
+    final ServerSessionWork work = new ServerSessionWork(session, 
+        workManager, sessionPool, sessionContext, false, runListener);
+    mockery.checking(new Expectations() { {
+      oneOf(sessionContext).set(with(same(session)));
+      oneOf(session).run();
+      oneOf(runListener).sessionRunCompleted();
+      oneOf(sessionPool).releaseSession(with(same(work)));
+      oneOf(sessionContext).clear();
+    } });
+    
+    work.run();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testRunInvalidatesSessionWhenRunListenerThrows() 
+      throws Exception {
+    final SessionRunListener runListener = 
+        mockery.mock(SessionRunListener.class);
+    final ServerSessionWork work = new ServerSessionWork(session, 
+        workManager, sessionPool, sessionContext, false, runListener);
+    mockery.checking(new Expectations() { {
+      oneOf(sessionContext).set(with(same(session)));
+      oneOf(session).run();
+      oneOf(runListener).sessionRunCompleted();
+      will(throwException(new RuntimeException("mock exception")));
+      oneOf(sessionPool).invalidateSession(with(same(work)));
+      oneOf(sessionContext).clear();
+    } });
+    
+    work.run();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testRunNotifiesRunListenerWhenSessionFails() 
+      throws Exception {
+    final SessionRunListener runListener = 
+        mockery.mock(SessionRunListener.class);
+    final ServerSessionWork work = new ServerSessionWork(session, 
+        workManager, sessionPool, sessionContext, false, runListener);
+    mockery.checking(new Expectations() { {
+      oneOf(sessionContext).set(with(same(session)));
+      oneOf(session).run();
+      will(throwException(new RuntimeException("mock exception")));
+      oneOf(runListener).sessionRunCompleted();
+      oneOf(sessionPool).invalidateSession(with(same(work)));
+      oneOf(sessionContext).clear();
+    } });
+    
+    work.run();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testRunDeliversPrefetchedMessages() throws Exception {
+    final SessionRunListener runListener = 
+        mockery.mock(SessionRunListener.class);
+    final Message message = mockery.mock(Message.class);
+    final ServerSessionWork work = new ServerSessionWork(session, 
+        workManager, sessionPool, sessionContext, false, runListener);
+    final PrefetchBatch batch = new PrefetchBatch(2);
+    mockery.checking(new Expectations() { {
+      oneOf(sessionContext).set(with(same(session)));
+      exactly(2).of(runListener).onMessage(with(same(message)));
+      oneOf(runListener).sessionRunCompleted();
+      oneOf(sessionPool).releaseSession(with(same(work)));
+      oneOf(sessionContext).clear();
+    } });
+    
+    work.assign(Arrays.asList(new PrefetchedMessage(message, batch), 
+        new PrefetchedMessage(message, batch)));
+    work.run();
+    assertThat(batch.await(0), equalTo(true));
+    assertThat(batch.isFailed(), equalTo(false));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testRunFailsPrefetchedMessagesWhenListenerThrows() 
+      throws Exception {
+    final SessionRunListener runListener = 
+        mockery.mock(SessionRunListener.class);
+    final Message message = mockery.mock(Message.class);
+    final ServerSessionWork work = new ServerSessionWork(session, 
+        workManager, sessionPool, sessionContext, false, runListener);
+    final PrefetchBatch batch = new PrefetchBatch(2);
+    mockery.checking(new Expectations() { {
+      oneOf(sessionContext).set(with(same(session)));
+      oneOf(runListener).onMessage(with(same(message)));
+      will(throwException(new RuntimeException("mock exception")));
+      oneOf(runListener).sessionRunCompleted();
+      oneOf(sessionPool).invalidateSession(with(same(work)));
+      oneOf(sessionContext).clear();
+    } });
+    
+    work.assign(Arrays.asList(new PrefetchedMessage(message, batch), 
+        new PrefetchedMessage(message, batch)));
+    work.run();
+    assertThat(batch.await(0), equalTo(true));
+    assertThat(batch.isFailed(), equalTo(true));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testRunReleasesSessionWhenPrefetchedDeliveryFails() 
+      throws Exception {
+    final SessionRunListener runListener = 
+        mockery.mock(SessionRunListener.class);
+    final Message message = mockery.mock(Message.class);
+    final ServerSessionWork work = new ServerSessionWork(session, 
+        workManager, sessionPool, sessionContext, false, runListener);
+    final PrefetchBatch batch = new PrefetchBatch(1);
+    mockery.checking(new Expectations() { {
+      oneOf(sessionContext).set(with(same(session)));
+      oneOf(runListener).onMessage(with(same(message)));
+      will(throwException(new ListenerFailedException(
+          new RuntimeException("mock exception"))));
+      oneOf(runListener).sessionRunCompleted();
+      oneOf(sessionPool).releaseSession(with(same(work)));
+      oneOf(sessionContext).clear();
+    } });
+    
+    work.assign(Arrays.asList(new PrefetchedMessage(message, batch)));
+    work.run();
+    assertThat(batch.await(0), equalTo(true));
+    assertThat(batch.isFailed(), equalTo(true));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testStartAsynchronous() throws Exception {
+    final ServerSessionWork work = new ServerSessionWork(session, 
+        workManager, sessionPool, sessionContext, true);
+    final WorkListener[] listener = new WorkListener[1];
+    
+    mockery.checking(new Expectations() { { 
+      oneOf(workManager).scheduleWork(with(same(work)), 
+          with(equalTo(WorkManager.INDEFINITE)),
+          with(nullValue(ExecutionContext.class)), 
+          with(any(WorkListener.class)));
+      will(new DoAllAction(
+          perform("listener[0] = $3").where("listener", listener),
+          perform("$0.run()")));
+      oneOf(sessionContext).set(with(same(session)));
+      oneOf(session).run();
+      oneOf(sessionContext).clear();
+    } });
+
+    work.start();
+    mockery.assertIsSatisfied();
+
+    mockery.checking(new Expectations() { {
+      oneOf(sessionPool).releaseSession(with(same(work)));
+    } });
+
+    listener[0].workCompleted(new WorkEvent(work, 
+        WorkEvent.WORK_COMPLETED, work, null));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testAsynchronousInvalidatesSessionOnError() throws Exception {
+    final ServerSessionWork work = new ServerSessionWork(session, 
+        workManager, sessionPool, sessionContext, true);
+    final WorkListener[] listener = new WorkListener[1];
+    
+    mockery.checking(new Expectations() { { 
+      oneOf(workManager).scheduleWork(with(same(work)), 
+          with(equalTo(WorkManager.INDEFINITE)),
+          with(nullValue(ExecutionContext.class)), 
+          with(any(WorkListener.class)));
+      will(new DoAllAction(
+          perform("listener[0] = $3").where("listener", listener),
+          perform("$0.run()")));
+      oneOf(sessionContext).set(with(same(session)));
+      oneOf(session).run();
+      will(throwException(new RuntimeException("mock exception")));
+      oneOf(sessionContext).clear();
+      oneOf(sessionPool).invalidateSession(with(same(work)));
+    } });
+
+    work.start();
+    listener[0].workCompleted(new WorkEvent(work, 
+        WorkEvent.WORK_COMPLETED, work, null));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testInvalidatesSessionOnceWhenRejected() throws Exception {
+    final ServerSessionWork work = new ServerSessionWork(session, 
+        workManager, sessionPool, sessionContext, true);
+    final WorkRejectedException ex = new WorkRejectedException("mock");
+    
+    mockery.checking(new Expectations() { { 
+      oneOf(workManager).scheduleWork(with(same(work)), 
+          with(equalTo(WorkManager.INDEFINITE)),
+          with(nullValue(ExecutionContext.class)), 
+          with(any(WorkListener.class)));
+      will(new DoAllAction(
+          perform("$3.workRejected(new javax.resource.spi.work.WorkEvent("
+              + "$0, javax.resource.spi.work.WorkEvent.WORK_REJECTED, "
+              + "$0, ex))").where("ex", ex),
+          throwException(ex)));
+      oneOf(sessionPool).invalidateSession(with(same(work)));
+    } });
+
+    try {
+      work.start();
+      fail("expected JMSException");
+    }
+    catch (JMSException jex) {
+      assertThat(jex.getCause(), equalTo((Throwable) ex));
+    }
+    mockery.assertIsSatisfied();
+
+    // the session can be started again
+    mockery.checking(new Expectations() { { 
+      oneOf(workManager).scheduleWork(with(same(work)), 
+          with(equalTo(WorkManager.INDEFINITE)),
+          with(nullValue(ExecutionContext.class)), 
+          with(any(WorkListener.class)));
+    } });
+    work.start();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testRestartAfterRun() throws Exception {
+    mockery.checking(new Expectations() { { 
+      exactly(2).of(workManager).doWork(with(same(work)), 
+          with(equalTo(WorkManager.INDEFINITE)),
+          with(nullValue(ExecutionContext.class)), 
+          with(nullValue(WorkListener.class)));
+      will(perform("$0.run()"));
+      exactly(2).of(sessionContext).set(with(same(session)));
+      exactly(2).of(session).run();
+      exactly(2).of(sessionPool).releaseSession(with(same(work)));
+      exactly(2).of(sessionContext).clear();
+    } });
+    
+    work.start();
+    work.start();
+    mockery.assertIsSatisfied();
+  }
+
 }
@@ -0,0 +1,244 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.jmock.lib.script.ScriptedAction.perform;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Session;
+import javax.resource.spi.work.Work;
+import javax.resource.spi.work.WorkException;
+import javax.resource.spi.work.WorkManager;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.api.Action;
+import org.jmock.api.Invocation;
+import org.jmock.lib.action.CustomAction;
+import org.jmock.lib.action.DoAllAction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link SharedListener}.
+ *
+ * @author Carl Harris
+ */
+public class SharedListenerTest {
+
+  private static final long LISTEN_TIMEOUT = 1000;
+
+  private Mockery mockery = new Mockery();
+
+  private MessageResourceAdapter resourceAdapter = 
+      mockery.mock(MessageResourceAdapter.class);
+
+  private DestinationListener destinationListener = 
+      mockery.mock(DestinationListener.class);
+
+  private WorkManager workManager = mockery.mock(WorkManager.class);
+
+  private Connection connection = mockery.mock(Connection.class);
+
+  private Session session = mockery.mock(Session.class);
+
+  private DestinationListener.Target target = 
+      mockery.mock(DestinationListener.Target.class, "target");
+
+  private DestinationListener.Target otherTarget = 
+      mockery.mock(DestinationListener.Target.class, "otherTarget");
+
+  private SharedListener.Callback callback = 
+      mockery.mock(SharedListener.Callback.class, "callback");
+
+  private SharedListener.Callback otherCallback = 
+      mockery.mock(SharedListener.Callback.class, "otherCallback");
+
+  private MessageActivationSpec spec = new MessageActivationSpec();
+
+  private List<Work> works = new ArrayList<Work>();
+
+  private SharedListener listener = new SharedListener(resourceAdapter,
+      spec, destinationListener, workManager);
+
+  @Before
+  public void setUp() throws Exception {
+    listener.setListenTimeout(LISTEN_TIMEOUT);
+    listener.setRetryDelay(1);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testNotifiesCallbackWhenMessageReady() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(workManager).scheduleWork(with(any(Work.class)));
+      will(scheduled());
+    } });
+
+    listener.listen(target, callback);
+    listener.listen(otherTarget, otherCallback);
+    assertThat(works.size(), is(1));
+    assertThat(works.get(0), is(instanceOf(LongRunningWork.class)));
+    assertThat(listener.size(), is(2));
+    mockery.assertIsSatisfied();
+
+    mockery.checking(new Expectations() { {
+      oneOf(resourceAdapter).retainConnectionFactories(spec);
+      oneOf(resourceAdapter).createNonXAConnection(spec);
+      will(returnValue(connection));
+      oneOf(connection).createSession(false, Session.AUTO_ACKNOWLEDGE);
+      will(returnValue(session));
+      oneOf(destinationListener).listen(with(session), 
+          with(equal(targets(target, otherTarget))), with(LISTEN_TIMEOUT));
+      will(returnValue(target));
+      oneOf(workManager).scheduleWork(with(any(Work.class)));
+      will(perform("$0.run()"));
+      oneOf(callback).messageReady();
+      will(stopListener());
+      oneOf(connection).close();
+      oneOf(resourceAdapter).releaseConnectionFactories(spec);
+    } });
+
+    works.get(0).run();
+    assertThat(listener.size(), is(0));
+  }
+
+  @Test
+  public void testReconnectsAfterFailure() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(workManager).scheduleWork(with(any(Work.class)));
+      will(scheduled());
+    } });
+
+    listener.listen(target, callback);
+    mockery.assertIsSatisfied();
+
+    mockery.checking(new Expectations() { {
+      exactly(2).of(resourceAdapter).retainConnectionFactories(spec);
+      exactly(2).of(resourceAdapter).createNonXAConnection(spec);
+      will(returnValue(connection));
+      exactly(2).of(connection).createSession(false, 
+          Session.AUTO_ACKNOWLEDGE);
+      will(returnValue(session));
+      exactly(2).of(destinationListener).listen(with(session), 
+          with(equal(targets(target))), with(LISTEN_TIMEOUT));
+      will(onConsecutiveCalls(throwException(new JMSException("mock")),
+          stopListener()));
+      exactly(2).of(connection).close();
+      exactly(2).of(resourceAdapter).releaseConnectionFactories(spec);
+    } });
+
+    works.get(0).run();
+  }
+
+  @Test
+  public void testCancelRemovesTarget() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(workManager).scheduleWork(with(any(Work.class)));
+      will(scheduled());
+    } });
+
+    listener.listen(target, callback);
+    listener.listen(otherTarget, otherCallback);
+    listener.cancel(target);
+    assertThat(listener.size(), is(1));
+    mockery.assertIsSatisfied();
+
+    mockery.checking(new Expectations() { {
+      oneOf(resourceAdapter).retainConnectionFactories(spec);
+      oneOf(resourceAdapter).createNonXAConnection(spec);
+      will(returnValue(connection));
+      oneOf(connection).createSession(false, Session.AUTO_ACKNOWLEDGE);
+      will(returnValue(session));
+      oneOf(destinationListener).listen(with(session), 
+          with(equal(targets(otherTarget))), with(LISTEN_TIMEOUT));
+      will(stopListener());
+      oneOf(connection).close();
+      oneOf(resourceAdapter).releaseConnectionFactories(spec);
+    } });
+
+    works.get(0).run();
+  }
+
+  @Test
+  public void testRestartsAfterStop() throws Exception {
+    mockery.checking(new Expectations() { {
+      exactly(2).of(workManager).scheduleWork(with(any(Work.class)));
+      will(scheduled());
+    } });
+
+    listener.listen(target, callback);
+    listener.stop();
+    listener.listen(target, callback);
+    assertThat(works.size(), is(2));
+
+    // the work from the first start exits without listening
+    works.get(0).run();
+  }
+
+  @Test(expected = WorkException.class)
+  public void testListenWhenCannotStart() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(workManager).scheduleWork(with(any(Work.class)));
+      will(throwException(new WorkException("mock")));
+    } });
+
+    try {
+      listener.listen(target, callback);
+    }
+    finally {
+      assertThat(listener.size(), is(0));
+    }
+  }
+
+  private static List<DestinationListener.Target> targets(
+      DestinationListener.Target... targets) {
+    return Arrays.asList(targets);
+  }
+
+  private Action stopListener() {
+    return new CustomAction("stop listener") {
+      @Override
+      public Object invoke(Invocation invocation) throws Throwable {
+        listener.stop();
+        return null;
+      }
+    };
+  }
+
+  private DoAllAction scheduled() {
+    return new DoAllAction(
+        perform("works.add($0)").where("works", works),
+        Expectations.returnValue(null));
+  }
+
+}
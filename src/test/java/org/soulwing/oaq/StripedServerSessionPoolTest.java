@@ -0,0 +1,387 @@
+/*
+ * File created on Oct 17, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.oaq;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.ServerSession;
+import javax.jms.ServerSessionPool;
+
+import org.apache.commons.pool.KeyedPoolableObjectFactory;
+import org.apache.commons.pool.PoolableObjectFactory;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.States;
+import org.jmock.lib.concurrent.Synchroniser;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link StripedServerSessionPool}.
+ *
+ * @author Carl Harris
+ */
+public class StripedServerSessionPoolTest {
+
+  private static final long WAIT = 50;
+
+  private Mockery mockery = new Mockery() { {
+    setThreadingPolicy(new Synchroniser());
+  } };
+
+  @SuppressWarnings("unchecked")
+  private PoolableObjectFactory<ServerSession> objectFactory =
+      mockery.mock(PoolableObjectFactory.class);
+
+  private ServerSession session = mockery.mock(ServerSession.class);
+
+  private StripedServerSessionPool pool =
+      new StripedServerSessionPool(objectFactory, 1);
+
+  @Test
+  public void testCreatesSessionWhenNoneIdle() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(objectFactory).makeObject();
+      will(returnValue(session));
+    } });
+
+    assertThat(pool.getServerSession(), sameInstance(session));
+    assertThat(pool.getNumActive(), equalTo(1));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testReusesReleasedSession() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(objectFactory).makeObject();
+      will(returnValue(session));
+      allowing(objectFactory).validateObject(with(same(session)));
+      will(returnValue(true));
+    } });
+
+    pool.releaseSession(pool.getServerSession());
+    assertThat(pool.getNumIdle(), equalTo(1));
+    assertThat(pool.getNumActive(), equalTo(0));
+    assertThat(pool.getServerSession(), sameInstance(session));
+    assertThat(pool.getNumIdle(), equalTo(0));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test(timeout = 10*WAIT)
+  public void testTimesOutWhenExhausted() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(objectFactory).makeObject();
+      will(returnValue(session));
+    } });
+
+    pool.setMaxWait(WAIT);
+    pool.getServerSession();
+    long start = System.currentTimeMillis();
+    try {
+      pool.getServerSession();
+      fail("expected JMSException");
+    }
+    catch (JMSException ex) {
+      assertThat(System.currentTimeMillis() - start,
+          greaterThanOrEqualTo(WAIT));
+    }
+    mockery.assertIsSatisfied();
+  }
+
+  @Test(timeout = 10*WAIT)
+  public void testWaitsForReleasedSession() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(objectFactory).makeObject();
+      will(returnValue(session));
+      allowing(objectFactory).validateObject(with(same(session)));
+      will(returnValue(true));
+    } });
+
+    final ServerSession borrowed = pool.getServerSession();
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          Thread.sleep(WAIT);
+          pool.releaseSession(borrowed);
+        }
+        catch (InterruptedException ex) {
+          assert true;
+        }
+      }
+    });
+    thread.start();
+    assertThat(pool.getServerSession(), sameInstance(session));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testInvalidateDestroysSessionAndFreesCapacity()
+      throws Exception {
+    mockery.checking(new Expectations() { {
+      exactly(2).of(objectFactory).makeObject();
+      will(returnValue(session));
+      oneOf(objectFactory).destroyObject(with(same(session)));
+    } });
+
+    pool.setMaxWait(0);
+    pool.invalidateSession(pool.getServerSession());
+    assertThat(pool.getNumIdle(), equalTo(0));
+    pool.getServerSession();
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testReleaseDestroysSessionWhenIdleLimitReached()
+      throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(objectFactory).makeObject();
+      will(returnValue(session));
+      oneOf(objectFactory).destroyObject(with(same(session)));
+    } });
+
+    pool.setMaxIdle(0);
+    pool.releaseSession(pool.getServerSession());
+    assertThat(pool.getNumIdle(), equalTo(0));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testReleaseDestroysInvalidSession() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(objectFactory).makeObject();
+      will(returnValue(session));
+      oneOf(objectFactory).validateObject(with(same(session)));
+      will(returnValue(false));
+      oneOf(objectFactory).destroyObject(with(same(session)));
+    } });
+
+    pool.releaseSession(pool.getServerSession());
+    assertThat(pool.getNumIdle(), equalTo(0));
+    assertThat(pool.getNumActive(), equalTo(0));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testBorrowDestroysInvalidIdleSession() throws Exception {
+    final ServerSession newSession = 
+        mockery.mock(ServerSession.class, "newSession");
+    final States validity = mockery.states("validity").startsAs("valid");
+    mockery.checking(new Expectations() { {
+      oneOf(objectFactory).makeObject();
+      will(returnValue(session));
+      allowing(objectFactory).validateObject(with(same(session)));
+      when(validity.is("valid"));
+      will(returnValue(true));
+      allowing(objectFactory).validateObject(with(same(session)));
+      when(validity.is("invalid"));
+      will(returnValue(false));
+      oneOf(objectFactory).destroyObject(with(same(session)));
+      oneOf(objectFactory).makeObject();
+      will(returnValue(newSession));
+    } });
+
+    pool.releaseSession(pool.getServerSession());
+    validity.become("invalid");
+    assertThat(pool.getServerSession(), sameInstance(newSession));
+    assertThat(pool.getNumIdle(), equalTo(0));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testAddSessionAddsIdleSession() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(objectFactory).makeObject();
+      will(returnValue(session));
+      allowing(objectFactory).validateObject(with(same(session)));
+      will(returnValue(true));
+    } });
+
+    pool.addSession();
+    assertThat(pool.getNumIdle(), equalTo(1));
+    assertThat(pool.getNumActive(), equalTo(0));
+    assertThat(pool.getServerSession(), sameInstance(session));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testAddSessionDestroysSessionWhenMaxIdle() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(objectFactory).makeObject();
+      will(returnValue(session));
+      oneOf(objectFactory).destroyObject(with(same(session)));
+    } });
+
+    pool.setMaxIdle(0);
+    pool.addSession();
+    assertThat(pool.getNumIdle(), equalTo(0));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testEvictInvalidSessions() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(objectFactory).makeObject();
+      will(returnValue(session));
+      oneOf(objectFactory).validateObject(with(same(session)));
+      will(returnValue(false));
+      oneOf(objectFactory).destroyObject(with(same(session)));
+    } });
+
+    pool.addSession();
+    pool.evictInvalidSessions();
+    assertThat(pool.getNumIdle(), equalTo(0));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testIncreaseMaxActive() throws Exception {
+    mockery.checking(new Expectations() { {
+      exactly(2).of(objectFactory).makeObject();
+      will(returnValue(session));
+    } });
+
+    pool.setMaxWait(0);
+    pool.getServerSession();
+    pool.setMaxActive(2);
+    pool.getServerSession();
+    assertThat(pool.getNumActive(), equalTo(2));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testCloseDestroysIdleSessions() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(objectFactory).makeObject();
+      will(returnValue(session));
+      allowing(objectFactory).validateObject(with(same(session)));
+      will(returnValue(true));
+      oneOf(objectFactory).destroyObject(with(same(session)));
+    } });
+
+    pool.releaseSession(pool.getServerSession());
+    pool.close();
+    try {
+      pool.getServerSession();
+      fail("expected JMSException");
+    }
+    catch (JMSException ex) {
+      assertThat(ex.getMessage().contains("closed"), equalTo(true));
+    }
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testReopenAfterClose() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(objectFactory).makeObject();
+      will(returnValue(session));
+    } });
+
+    pool.close();
+    pool.open();
+    assertThat(pool.getServerSession(), sameInstance(session));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testReleaseAfterCloseDestroysSession() throws Exception {
+    mockery.checking(new Expectations() { {
+      oneOf(objectFactory).makeObject();
+      will(returnValue(session));
+      oneOf(objectFactory).destroyObject(with(same(session)));
+    } });
+
+    ServerSession borrowed = pool.getServerSession();
+    pool.close();
+    pool.releaseSession(borrowed);
+    assertThat(pool.getNumIdle(), equalTo(0));
+    assertThat(pool.getNumActive(), equalTo(0));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testViewLendsOnlySessionsOfItsConnection() throws Exception {
+    final KeyedPoolableObjectFactory<Connection, ServerSession> keyedFactory =
+        keyedFactory();
+    final Connection connection = mockery.mock(Connection.class);
+    final Connection otherConnection = 
+        mockery.mock(Connection.class, "otherConnection");
+    final ServerSession otherSession = 
+        mockery.mock(ServerSession.class, "otherSession");
+    StripedServerSessionPool keyedPool = 
+        new StripedServerSessionPool(keyedFactory, 2);
+    mockery.checking(new Expectations() { {
+      oneOf(keyedFactory).makeObject(connection);
+      will(returnValue(session));
+      allowing(keyedFactory).validateObject(connection, session);
+      will(returnValue(true));
+      oneOf(keyedFactory).makeObject(otherConnection);
+      will(returnValue(otherSession));
+    } });
+
+    ServerSessionPool view = keyedPool.getServerSessionPool(connection);
+    keyedPool.releaseSession(view.getServerSession());
+    assertThat(keyedPool.getServerSessionPool(otherConnection)
+        .getServerSession(), sameInstance(otherSession));
+    assertThat(view.getServerSession(), sameInstance(session));
+    mockery.assertIsSatisfied();
+  }
+
+  @Test
+  public void testEvictSessionsDestroysIdleSessionsOfConnection() 
+      throws Exception {
+    final KeyedPoolableObjectFactory<Connection, ServerSession> keyedFactory =
+        keyedFactory();
+    final Connection connection = mockery.mock(Connection.class);
+    final ServerSession borrowedSession = 
+        mockery.mock(ServerSession.class, "borrowedSession");
+    StripedServerSessionPool keyedPool = 
+        new StripedServerSessionPool(keyedFactory, 2);
+    mockery.checking(new Expectations() { {
+      oneOf(keyedFactory).makeObject(connection);
+      will(returnValue(borrowedSession));
+      oneOf(keyedFactory).makeObject(connection);
+      will(returnValue(session));
+      oneOf(keyedFactory).destroyObject(connection, session);
+      oneOf(keyedFactory).destroyObject(connection, borrowedSession);
+    } });
+
+    ServerSession borrowed = keyedPool.getServerSession(connection);
+    keyedPool.addSession(connection);
+    keyedPool.evictSessions(connection);
+    assertThat(keyedPool.getNumIdle(), equalTo(0));
+    keyedPool.releaseSession(borrowed);
+    assertThat(keyedPool.getNumIdle(), equalTo(0));
+    assertThat(keyedPool.getNumActive(), equalTo(0));
+    mockery.assertIsSatisfied();
+  }
+
+  @SuppressWarnings("unchecked")
+  private KeyedPoolableObjectFactory<Connection, ServerSession> 
+      keyedFactory() {
+    return mockery.mock(KeyedPoolableObjectFactory.class);
+  }
+
+}